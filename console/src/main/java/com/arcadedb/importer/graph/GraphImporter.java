@@ -184,7 +184,7 @@ public class GraphImporter {
 
       if (!connections.isEmpty()) {
         final DatabaseAsyncExecutorImpl async = (DatabaseAsyncExecutorImpl) database.async();
-        final int slot = async.getSlot(destinationVertex.getBucketId());
+        final int slot = async.getBucketSlot(destinationVertex.getBucketId());
         async.scheduleTask(slot, new LinkEdgeFromImportTask(destinationVertex, connections, callback), true, 70);
         connections = new ArrayList<>();
         ++verticesWithEdges;
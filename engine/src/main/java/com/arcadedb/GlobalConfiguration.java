@@ -142,8 +142,43 @@ public enum GlobalConfiguration {
   TX_WAL_FLUSH("arcadedb.txWalFlush", "Flushes the WAL on disk at commit time. It can be 0 = no flush, 1 = flush without metadata and 2 = full flush (fsync)",
       Integer.class, 0),
 
+  TX_WAL_GROUP_COMMIT_MAX_SIZE("arcadedb.txWalGroupCommitMaxSize",
+      "Maximum number of transactions written to the WAL with one write and one flush (group commit). Used only when txWalFlush > 0. Set to 1 to disable the group commit",
+      Integer.class, 64),
+
+  TX_WAL_GROUP_COMMIT_WINDOW("arcadedb.txWalGroupCommitWindow",
+      "Time in microseconds the group commit leader waits for other transactions to join the group before writing to the WAL. 0 (default) means no wait: only the transactions already queued are grouped",
+      Long.class, 0),
+
+  FILE_DELTA_WRITES("arcadedb.fileDeltaWrites",
+      "Writes on disk only the modified range of the pages, plus the page header and the page checksum. Set it to false to always write the entire page",
+      Boolean.class, true),
+
+  PAGE_CHECKSUM("arcadedb.pageChecksum",
+      "Checksum of the pages written on disk to detect partial writes between 'readWrite' (default, computed on write and verified on every read from disk, a corrupted page "
+          + "fails the read), 'write' (computed on write and verified only on recovery) and 'none'. Files created before the page checksum have no checksum", String.class,
+      "readWrite"),
+
+  PAGE_CHECKSUM_UPGRADE("arcadedb.pageChecksumUpgrade",
+      "Upgrades the bucket and dictionary files created before the page checksum at database opening, so their pages are written with the checksum. "
+          + "Files with pages too full to store the checksum stay in the old format. Index files are upgraded when they are compacted or rebuilt", Boolean.class, false),
+
+  FILE_MEMORY_MAPPED("arcadedb.fileMemoryMapped",
+      "Reads pages through memory mapped files between 'none' (default), 'readOnly' (only when the database is opened in read only mode) and 'always'. "
+          + "Useful when the dataset fits in the OS page cache, because pages are copied from the mapped memory without any system call", String.class,
+      "none"),
+
   FREE_PAGE_RAM("arcadedb.freePageRAM", "Percentage (0-100) of memory to free when Page RAM is full", Integer.class, 50),
 
+  PAGE_CACHE_EVICTION_POLICY("arcadedb.pageCacheEvictionPolicy",
+      "Policy used to evict pages from the read cache between 'clock' and 'lru'. 'clock' is scan resistant and keeps frequently accessed pages in RAM, "
+          + "'lru' evicts the least recently accessed pages first, but it scans the whole cache at every eviction", String.class, "clock"),
+
+  OFF_HEAP_PAGE_RAM_PERCENTAGE("arcadedb.offHeapPageRAMPercentage",
+      "Percentage (0-90) of the page cache RAM (arcadedb.maxPageRAM) used as a second level cache in off-heap memory for the pages evicted from the heap "
+          + "cache. The heap cache gets the rest of the budget. Pages are always copied back to the heap to be read. 0 (default) = disabled", Integer.class,
+      0),
+
   ASYNC_WORKER_THREADS("arcadedb.asyncWorkerThreads", "Number of asynchronous worker threads. 0 (default) = available cores minus 1", Integer.class,
       Runtime.getRuntime().availableProcessors() > 1 ? Runtime.getRuntime().availableProcessors() - 1 : 1),
 
@@ -154,6 +189,11 @@ public enum GlobalConfiguration {
   ASYNC_OPERATIONS_QUEUE_SIZE("arcadedb.asyncOperationsQueueSize",
       "Size of the total asynchronous operation queues (it is divided by the number of parallel threads in the pool)", Integer.class, 1024),
 
+  ASYNC_MODE("arcadedb.asyncMode",
+      "Routing of the asynchronous tasks between 'default' and 'sharded'. With 'sharded' every bucket is owned by one thread, new records are created in the "
+          + "least loaded thread that owns a bucket of the type and idle threads steal the queued tasks that are not bound to a bucket (transactions and "
+          + "queries). Work stealing requires the 'standard' queue implementation", String.class, "default"),
+
   ASYNC_TX_BATCH_SIZE("arcadedb.asyncTxBatchSize", "Maximum number of operations to commit in batch by async thread", Integer.class, 1024 * 10),
 
   PAGE_FLUSH_QUEUE("arcadedb.pageFlushQueue", "Size of the asynchronous page flush queue", Integer.class, 128),
@@ -165,9 +205,32 @@ public enum GlobalConfiguration {
   // SQL
   SQL_STATEMENT_CACHE("arcadedb.sqlStatementCache", "Maximum number of parsed statements to keep in cache", Integer.class, 300),
 
+  SQL_GRAPH_ALGORITHM_THREADS("arcadedb.sqlGraphAlgorithmThreads",
+      "Number of threads used by the graph algorithm functions (pageRank(), weaklyConnectedComponents(), etc.). Default is the available cores",
+      Integer.class, Runtime.getRuntime().availableProcessors()),
+
+  SQL_GRAPH_ALGORITHM_COMMIT_EVERY("arcadedb.sqlGraphAlgorithmCommitEvery",
+      "Number of vertices updated in each transaction when a graph algorithm function writes the results as properties", Integer.class, 10_000),
+
+  // GREMLIN & CYPHER
+  GREMLIN_SCRIPT_CACHE("arcadedb.gremlin.scriptCache", "Maximum number of compiled Gremlin scripts to keep in cache for each database", Integer.class,
+      300),
+
+  CYPHER_TRANSLATION_CACHE("arcadedb.cypher.translationCache", "Maximum number of Cypher queries translated to Gremlin to keep in cache for each database",
+      Integer.class, 300),
+
+  GREMLIN_COMPUTER_COMMIT_EVERY("arcadedb.gremlin.computerCommitEvery",
+      "Number of vertices updated in each transaction when the graph computer persists the computed properties", Integer.class, 10_000),
+
   // COMMAND
   COMMAND_TIMEOUT("arcadedb.command.timeout", "Default timeout for commands (in ms)", Long.class, 0),
 
+  QUERY_ORDER_BY_MAX_HEAP_ELEMENTS("arcadedb.queryOrderByMaxHeapElements",
+      "Maximum number of elements kept in heap by an ORDER BY without LIMIT. When exceeded, the sorted elements are written in temporary files and merged "
+          + "at the end (external merge sort). The default keeps in heap as many elements as the previous in-heap sort allowed, so queries that fitted "
+          + "in heap never touch the disk. 0 disables the spilling on disk and the ORDER BY is limited by arcadedb.queryMaxHeapElementsAllowedPerOp",
+      Integer.class, 500_000),
+
   QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP("arcadedb.queryMaxHeapElementsAllowedPerOp",
       "Maximum number of elements (records) allowed in a single query for memory-intensive operations (eg. ORDER BY in heap). "
           + "If exceeded, the query fails with an OCommandExecutionException. Negative number means no limit."
@@ -177,6 +240,23 @@ public enum GlobalConfiguration {
   // INDEXES
   INDEX_COMPACTION_RAM_MB("arcadedb.indexCompactionRAM", "Maximum amount of RAM to use for index compaction, in MB", Long.class, 300),
 
+  INDEX_COMPACTION_THREADS("arcadedb.indexCompactionThreads",
+      "Number of threads that merge different key ranges in parallel during the compaction of an index. 1 = no parallelism", Integer.class,
+      Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2))),
+
+  INDEX_COMPACTION_MAX_IO("arcadedb.indexCompactionMaxIO",
+      "Maximum I/O bandwidth in MB/sec used by the compaction of an index (pages read and written). Use it to avoid starving the other operations. 0 = unlimited",
+      Integer.class, 0),
+
+  INDEX_COMPACTED_BLOOM_FILTER("arcadedb.indexCompactedBloomFilter",
+      "Percentage of each page of a compacted index reserved to the bloom filter of its keys. The bloom filter allows to skip the pages that do not contain the key on lookups, "
+          + "but it reduces the keys per page, so range scans read more pages. Enable it (10 is a good value) for workloads of point lookups, mostly on missing keys. "
+          + "It is applied to the new compacted pages only. 0 (default) = disabled", Integer.class, 0),
+
+  INDEX_COMPACTED_KEY_COMPRESSION("arcadedb.indexCompactedKeyCompression",
+      "Stores the string keys of the pages of compacted indexes as prefix compressed: every key stores only the bytes that differ from the last restart key of the page. It is applied to the new compacted pages only",
+      Boolean.class, false),
+
   INDEX_COMPACTION_MIN_PAGES_SCHEDULE("arcadedb.indexCompactionMinPagesSchedule",
       "Minimum number of mutable pages for an index to be schedule for automatic compaction. 0 = disabled", Integer.class, 10),
 
@@ -185,6 +265,14 @@ public enum GlobalConfiguration {
 
   NETWORK_SOCKET_TIMEOUT("arcadedb.network.socketTimeout", "TCP/IP Socket timeout (in ms)", Integer.class, 30000),
 
+  NETWORK_QUERY_PAGE_SIZE("arcadedb.network.queryPageSize",
+      "Number of results returned in each page by remote queries. The next pages are fetched while browsing the result set through a server-side cursor. "
+          + "0 returns all the results at once", Integer.class, 1000),
+
+  NETWORK_BINARY_POOL_SIZE("arcadedb.network.binaryPoolSize",
+      "Maximum number of connections opened by a binary protocol client against the server. The requests of concurrent threads are multiplexed over the "
+          + "pooled connections", Integer.class, 4),
+
   NETWORK_USE_SSL("arcadedb.ssl.enabled", "Use SSL for client connections", Boolean.class, false),
 
   NETWORK_SSL_KEYSTORE("arcadedb.ssl.keyStore", "Use SSL for client connections", String.class, null),
@@ -225,6 +313,21 @@ public enum GlobalConfiguration {
   SERVER_HTTP_AUTOINCREMENT_PORT("arcadedb.server.httpAutoIncrementPort",
       "True to increment the TCP/IP port number used for incoming HTTP in case the configured is not available", Boolean.class, true),
 
+  SERVER_HTTP_CURSOR_TIMEOUT("arcadedb.server.httpCursorTimeout", "Idle timeout (in ms) of the query cursors opened by HTTP clients. 0 means no timeout",
+      Long.class, 60_000),
+
+  // SERVER BINARY PROTOCOL
+  SERVER_BINARY_INCOMING_HOST("arcadedb.server.binaryIncomingHost", "TCP/IP host name used for incoming binary protocol connections", String.class,
+      "0.0.0.0"),
+
+  SERVER_BINARY_INCOMING_PORTS("arcadedb.server.binaryIncomingPorts",
+      "TCP/IP port number used for incoming binary protocol connections. Specify a single port or a range <from-to>. Default is 2490-2499", String.class,
+      "2490-2499"),
+
+  // SERVER REDIS PROTOCOL
+  SERVER_REDIS_DATABASE("arcadedb.server.redisDatabase",
+      "Database used to store the keys of the Redis protocol. If it does not exist, it is created at startup", String.class, "redis"),
+
   // SERVER SECURITY
   SERVER_SECURITY_ALGORITHM("arcadedb.server.securityAlgorithm", "Default encryption algorithm used for passwords hashing", String.class,
       "PBKDF2WithHmacSHA256"),
@@ -244,6 +347,21 @@ public enum GlobalConfiguration {
 
   HA_REPLICATION_QUEUE_SIZE("arcadedb.ha.replicationQueueSize", "Queue size for replicating messages between servers", Integer.class, 512),
 
+  HA_REPLICATION_BATCH_SIZE("arcadedb.ha.replicationBatchSize",
+      "Maximum number of queued messages sent to a replica in one compressed batch. The replica acknowledges the whole batch with one response. Set to 1 to disable batching",
+      Integer.class, 64),
+
+  HA_READ_CONSISTENCY_TIMEOUT("arcadedb.ha.readConsistencyTimeout",
+      "Maximum time in ms a replica waits to receive the replication message requested by the client with the read-after-write token before failing the request",
+      Long.class, 5000),
+
+  HA_RESYNC_PARALLEL_REQUESTS("arcadedb.ha.resyncParallelRequests",
+      "Maximum number of page requests pipelined to the leader by a replica during the full resync. The requests are distributed across the database files",
+      Integer.class, 8),
+
+  HA_RESYNC_BANDWIDTH("arcadedb.ha.resyncBandwidth", "Maximum bytes per second received by a replica during the full resync. 0 means unlimited",
+      Long.class, 0),
+
   // TODO: USE THIS FOR CREATING NEW FILES
   HA_REPLICATION_FILE_MAXSIZE("arcadedb.ha.replicationFileMaxSize", "Maximum file size for replicating messages between servers. Default is 1GB", Long.class,
       1024 * 1024 * 1024),
@@ -76,13 +76,27 @@ public class Profiler {
     long pageFlushQueueLength = 0;
     long asyncQueueLength = 0;
     int asyncParallelLevel = 0;
+    long asyncExecuted = 0;
+    long asyncStolen = 0;
+    final StringBuilder asyncThreads = new StringBuilder();
     long pageCacheHits = 0;
     long pageCacheMiss = 0;
     long totalOpenFiles = 0;
     long maxOpenFiles = 0;
+    long memoryMappedReads = 0;
     long walPagesWritten = 0;
     long walBytesWritten = 0;
     long walTotalFiles = 0;
+    long walDeltaBytesSaved = 0;
+    long deltaWriteBytesSaved = 0;
+    long checksumErrors = 0;
+    long walGroupCommits = 0;
+    long walGroupCommitTransactions = 0;
+    long walWriteLatencyP99 = 0;
+    long walWriteLatencyMax = 0;
+    long txCommitLatencyP50 = 0;
+    long txCommitLatencyP99 = 0;
+    long txCommitLatencyMax = 0;
     long concurrentModificationExceptions = 0;
 
     long txCommits = 0;
@@ -101,6 +115,15 @@ public class Profiler {
     long countBucket = 0;
     long evictionRuns = 0;
     long pagesEvicted = 0;
+    long evictionPagesScanned = 0;
+    String evictionPolicy = null;
+    long offHeapMaxRAM = 0;
+    long offHeapAllocatedRAM = 0;
+    long offHeapUsedRAM = 0;
+    int offHeapPages = 0;
+    long offHeapHits = 0;
+    long offHeapMiss = 0;
+    long offHeapPagesEvicted = 0;
     int readCachePages = 0;
     int writeCachePages = 0;
     long indexCompactions = 0;
@@ -110,6 +133,9 @@ public class Profiler {
         final Map<String, Object> dbStats = db.getStats();
         txCommits += (long) dbStats.get("txCommits");
         txRollbacks += (long) dbStats.get("txRollbacks");
+        txCommitLatencyP50 = Math.max(txCommitLatencyP50, (long) dbStats.get("txCommitLatencyP50"));
+        txCommitLatencyP99 = Math.max(txCommitLatencyP99, (long) dbStats.get("txCommitLatencyP99"));
+        txCommitLatencyMax = Math.max(txCommitLatencyMax, (long) dbStats.get("txCommitLatencyMax"));
         createRecord += (long) dbStats.get("createRecord");
         readRecord += (long) dbStats.get("readRecord");
         updateRecord += (long) dbStats.get("updateRecord");
@@ -137,22 +163,45 @@ public class Profiler {
         pageCacheMiss += pStats.cacheMiss;
         concurrentModificationExceptions += pStats.concurrentModificationExceptions;
         evictionRuns += pStats.evictionRuns;
+        deltaWriteBytesSaved += pStats.deltaWriteBytesSaved;
+        checksumErrors += pStats.checksumErrors;
         pagesEvicted += pStats.pagesEvicted;
+        evictionPagesScanned += pStats.evictionPagesScanned;
+        evictionPolicy = pStats.evictionPolicy;
+        offHeapMaxRAM += pStats.offHeapMaxRAM;
+        offHeapAllocatedRAM += pStats.offHeapAllocatedRAM;
+        offHeapUsedRAM += pStats.offHeapUsedRAM;
+        offHeapPages += pStats.offHeapPages;
+        offHeapHits += pStats.offHeapHits;
+        offHeapMiss += pStats.offHeapMiss;
+        offHeapPagesEvicted += pStats.offHeapPagesEvicted;
         readCachePages += pStats.readCachePages;
         writeCachePages += pStats.writeCachePages;
 
         final FileManager.FileManagerStats fStats = db.getFileManager().getStats();
         totalOpenFiles += fStats.totalOpenFiles;
         maxOpenFiles += fStats.maxOpenFiles;
+        memoryMappedReads += fStats.memoryMappedReads;
 
         final DatabaseAsyncExecutorImpl.DBAsyncStats aStats = ((DatabaseAsyncExecutorImpl) db.async()).getStats();
         asyncQueueLength += aStats.queueSize;
         asyncParallelLevel = db.async().getParallelLevel();
+        asyncExecuted += aStats.executed;
+        asyncStolen += aStats.stolen;
+        if (aStats.threadExecuted != null)
+          for (int i = 0; i < aStats.threadExecuted.length; ++i)
+            asyncThreads.append(String.format(" %s#%d(queue=%d executed=%d stolen=%d throughput=%d/s)", db.getName(), i, aStats.threadQueueSize[i],
+                aStats.threadExecuted[i], aStats.threadStolen[i], aStats.threadThroughput[i]));
 
         final Map<String, Object> walStats = db.getTransactionManager().getStats();
         walPagesWritten += (Long) walStats.get("pagesWritten");
         walBytesWritten += (Long) walStats.get("bytesWritten");
         walTotalFiles += (Long) walStats.get("logFiles");
+        walDeltaBytesSaved += (Long) walStats.get("deltaBytesSaved");
+        walGroupCommits += (Long) walStats.get("groupCommits");
+        walGroupCommitTransactions += (Long) walStats.get("groupCommitTransactions");
+        walWriteLatencyP99 = Math.max(walWriteLatencyP99, (Long) walStats.get("writeLatencyP99"));
+        walWriteLatencyMax = Math.max(walWriteLatencyMax, (Long) walStats.get("writeLatencyMax"));
       }
 
       buffer.append(String.format("ARCADEDB %s Profiler", Constants.getRawVersion()));
@@ -190,22 +239,36 @@ public class Profiler {
 
       buffer.append(String.format("\n DB databases=%d asyncParallelLevel=%d asyncQueue=%d txCommits=%d txRollbacks=%d queries=%d commands=%d", databases.size(),
           asyncParallelLevel, asyncQueueLength, txCommits, txRollbacks, queries, commands));
+      buffer.append(String.format("\n    asyncExecuted=%d asyncStolen=%d", asyncExecuted, asyncStolen));
+      if (asyncThreads.length() > 0)
+        buffer.append(String.format("\n    asyncThreads=%s", asyncThreads));
       buffer.append(String.format("\n    createRecord=%d readRecord=%d updateRecord=%d deleteRecord=%d", createRecord, readRecord, updateRecord, deleteRecord));
       buffer.append(String
           .format("\n    scanType=%d scanBucket=%d iterateType=%d iterateBucket=%d countType=%d countBucket=%d", scanType, scanBucket, iterateType,
               iterateBucket, countType, countBucket));
+      buffer.append(String.format("\n    txCommitLatency p50=%dus p99=%dus max=%dus", txCommitLatencyP50, txCommitLatencyP99, txCommitLatencyMax));
 
       buffer.append(String.format("\n INDEXES compactions=%d", indexCompactions));
 
       buffer.append(String
-          .format("\n PAGE-MANAGER flushQueue=%d cacheHits=%d cacheMiss=%d concModExceptions=%d evictionRuns=%d pagesEvicted=%d", pageFlushQueueLength,
-              pageCacheHits, pageCacheMiss, concurrentModificationExceptions, evictionRuns, pagesEvicted));
+          .format("\n PAGE-MANAGER flushQueue=%d cacheHits=%d cacheMiss=%d concModExceptions=%d evictionPolicy=%s evictionRuns=%d pagesEvicted=%d evictionPagesScanned=%d",
+              pageFlushQueueLength, pageCacheHits, pageCacheMiss, concurrentModificationExceptions, evictionPolicy, evictionRuns, pagesEvicted,
+              evictionPagesScanned));
+      buffer.append(String.format("\n    deltaWriteBytesSaved=%s checksumErrors=%d", FileUtils.getSizeAsString(deltaWriteBytesSaved), checksumErrors));
+
+      if (offHeapMaxRAM > 0)
+        buffer.append(String.format("\n OFF-HEAP-CACHE used=%s (pages=%d) allocated=%s max=%s fragmentation=%d%% hits=%d miss=%d pagesEvicted=%d",
+            FileUtils.getSizeAsString(offHeapUsedRAM), offHeapPages, FileUtils.getSizeAsString(offHeapAllocatedRAM), FileUtils.getSizeAsString(offHeapMaxRAM),
+            offHeapAllocatedRAM > 0 ? (offHeapAllocatedRAM - offHeapUsedRAM) * 100 / offHeapAllocatedRAM : 0, offHeapHits, offHeapMiss, offHeapPagesEvicted));
 
       buffer.append(
-          String.format("\n WAL totalFiles=%d pagesWritten=%d bytesWritten=%s", walTotalFiles, walPagesWritten, FileUtils.getSizeAsString(walBytesWritten)));
+          String.format("\n WAL totalFiles=%d pagesWritten=%d bytesWritten=%s deltaBytesSaved=%s", walTotalFiles, walPagesWritten,
+              FileUtils.getSizeAsString(walBytesWritten), FileUtils.getSizeAsString(walDeltaBytesSaved)));
+      buffer.append(String.format("\n    groupCommits=%d groupCommitTransactions=%d writeLatency p99=%dus max=%dus", walGroupCommits,
+          walGroupCommitTransactions, walWriteLatencyP99, walWriteLatencyMax));
 
-      buffer.append(String.format("\n FILE-MANAGER FS=%s/%s openFiles=%d maxFilesOpened=%d", FileUtils.getSizeAsString(freeSpaceInMB),
-          FileUtils.getSizeAsString(totalSpaceInMB), totalOpenFiles, maxOpenFiles));
+      buffer.append(String.format("\n FILE-MANAGER FS=%s/%s openFiles=%d maxFilesOpened=%d memoryMappedReads=%d", FileUtils.getSizeAsString(freeSpaceInMB),
+          FileUtils.getSizeAsString(totalSpaceInMB), totalOpenFiles, maxOpenFiles, memoryMappedReads));
 
       out.println(buffer.toString());
     } catch (Exception e) {
@@ -27,8 +27,10 @@ import com.arcadedb.engine.TransactionManager;
 import com.arcadedb.engine.WALFileFactory;
 import com.arcadedb.graph.GraphEngine;
 import com.arcadedb.serializer.BinarySerializer;
+import com.arcadedb.query.PreparedStatementCache;
 import com.arcadedb.query.sql.parser.ExecutionPlanCache;
 import com.arcadedb.query.sql.parser.StatementCache;
+import com.arcadedb.utility.LatencyHistogram;
 
 import java.io.IOException;
 import java.util.Map;
@@ -49,6 +51,11 @@ public interface DatabaseInternal extends Database {
 
   Map<String, Object> getStats();
 
+  /**
+   * Returns the latency histograms of the database by name: transaction commit, commit phases, WAL writes and page flushes.
+   */
+  Map<String, LatencyHistogram> getLatencyHistograms();
+
   DatabaseInternal getEmbedded();
 
   DatabaseContext.DatabaseContextTL getContext();
@@ -93,5 +100,7 @@ public interface DatabaseInternal extends Database {
 
   ExecutionPlanCache getExecutionPlanCache();
 
+  PreparedStatementCache getPreparedStatementCache();
+
   int getEdgeListSize(int previousSize);
 }
@@ -38,6 +38,7 @@ import com.arcadedb.index.TypeIndex;
 import com.arcadedb.index.lsm.LSMTreeIndexCompacted;
 import com.arcadedb.index.lsm.LSMTreeIndexMutable;
 import com.arcadedb.log.LogManager;
+import com.arcadedb.query.PreparedStatementCache;
 import com.arcadedb.query.QueryEngineManager;
 import com.arcadedb.query.sql.executor.*;
 import com.arcadedb.query.sql.parser.*;
@@ -47,6 +48,7 @@ import com.arcadedb.schema.Schema;
 import com.arcadedb.schema.VertexType;
 import com.arcadedb.serializer.BinarySerializer;
 import com.arcadedb.utility.FileUtils;
+import com.arcadedb.utility.LatencyHistogram;
 import com.arcadedb.utility.LockException;
 import com.arcadedb.utility.MultiIterator;
 import com.arcadedb.utility.RWLockContext;
@@ -97,6 +99,7 @@ public class EmbeddedDatabase extends RWLockContext implements DatabaseInternal
   private final          AtomicLong                                statsIterateBucket      = new AtomicLong();
   private final          AtomicLong                                statsCountType          = new AtomicLong();
   private final          AtomicLong                                statsCountBucket        = new AtomicLong();
+  private final          LatencyHistogram                          statsTxCommitLatency    = new LatencyHistogram();
   protected              FileManager                               fileManager;
   protected              PageManager                               pageManager;
   protected              EmbeddedSchema                            schema;
@@ -111,6 +114,7 @@ public class EmbeddedDatabase extends RWLockContext implements DatabaseInternal
   private final          Map<CALLBACK_EVENT, List<Callable<Void>>> callbacks;
   private final          StatementCache                            statementCache;
   private final          ExecutionPlanCache                        executionPlanCache;
+  private final          PreparedStatementCache                    preparedStatementCache;
   private                DatabaseInternal                          wrappedDatabaseInstance = this;
   private                int                                       edgeListSize            = EDGE_LIST_INITIAL_CHUNK_SIZE;
 
@@ -123,6 +127,7 @@ public class EmbeddedDatabase extends RWLockContext implements DatabaseInternal
       this.walFactory = mode == PaginatedFile.MODE.READ_WRITE ? new WALFileFactoryEmbedded() : null;
       this.statementCache = new StatementCache(this, configuration.getValueAsInteger(GlobalConfiguration.SQL_STATEMENT_CACHE));
       this.executionPlanCache = new ExecutionPlanCache(this, configuration.getValueAsInteger(GlobalConfiguration.SQL_STATEMENT_CACHE));
+      this.preparedStatementCache = new PreparedStatementCache(this, configuration.getValueAsInteger(GlobalConfiguration.SQL_STATEMENT_CACHE));
 
       if (path.endsWith("/"))
         databasePath = path.substring(0, path.length() - 1);
@@ -184,7 +189,19 @@ public class EmbeddedDatabase extends RWLockContext implements DatabaseInternal
     try {
       DatabaseContext.INSTANCE.init(this);
 
-      fileManager = new FileManager(databasePath, mode, SUPPORTED_FILE_EXT);
+      final String memoryMappedMode = configuration.getValueAsString(GlobalConfiguration.FILE_MEMORY_MAPPED);
+      final boolean memoryMapped = "always".equalsIgnoreCase(memoryMappedMode) || ("readOnly".equalsIgnoreCase(memoryMappedMode)
+          && mode == PaginatedFile.MODE.READ_ONLY);
+
+      fileManager = new FileManager(databasePath, mode, SUPPORTED_FILE_EXT, memoryMapped);
+
+      if (mode == PaginatedFile.MODE.READ_WRITE && configuration.getValueAsBoolean(GlobalConfiguration.PAGE_CHECKSUM_UPGRADE)
+          && !new File(databasePath + "/database.lck").exists()) {
+        // A DATABASE THAT NEEDS RECOVERY IS NOT UPGRADED: THE CHANGES IN THE WAL COULD USE THE PAGE FOOTER
+        final int upgraded = fileManager.upgradePageFormat(Set.of(Bucket.BUCKET_EXT, Dictionary.DICT_EXT));
+        if (upgraded > 0)
+          LogManager.instance().log(this, Level.INFO, "Upgraded the page format of %d files in database '%s'", null, upgraded, name);
+      }
       transactionManager = new TransactionManager(wrappedDatabaseInstance);
       pageManager = new PageManager(fileManager, transactionManager, configuration);
 
@@ -294,11 +311,13 @@ public class EmbeddedDatabase extends RWLockContext implements DatabaseInternal
       }
 
       try {
+        queryEngineManager.close();
         schema.close();
         pageManager.close();
         fileManager.close();
         transactionManager.close();
         statementCache.clear();
+        preparedStatementCache.clear();
 
         if (lockFile != null) {
           try {
@@ -335,6 +354,9 @@ public class EmbeddedDatabase extends RWLockContext implements DatabaseInternal
     final Map<String, Object> map = new HashMap<>();
     map.put("txCommits", statsTxCommits.get());
     map.put("txRollbacks", statsTxRollbacks.get());
+    map.put("txCommitLatencyP50", statsTxCommitLatency.getPercentile(50));
+    map.put("txCommitLatencyP99", statsTxCommitLatency.getPercentile(99));
+    map.put("txCommitLatencyMax", statsTxCommitLatency.getMax());
     map.put("createRecord", statsCreateRecord.get());
     map.put("readRecord", statsReadRecord.get());
     map.put("updateRecord", statsUpdateRecord.get());
@@ -348,6 +370,18 @@ public class EmbeddedDatabase extends RWLockContext implements DatabaseInternal
     map.put("countType", statsCountType.get());
     map.put("countBucket", statsCountBucket.get());
     map.put("indexCompactions", indexCompactions.get());
+    map.putAll(queryEngineManager.getStats());
+    return map;
+  }
+
+  @Override
+  public Map<String, LatencyHistogram> getLatencyHistograms() {
+    final Map<String, LatencyHistogram> map = new LinkedHashMap<>();
+    map.put("txCommit", statsTxCommitLatency);
+    map.put("txCommit1stPhase", transactionManager.getCommit1stPhaseLatency());
+    map.put("txCommit2ndPhase", transactionManager.getCommit2ndPhaseLatency());
+    map.put("walWrite", transactionManager.getWALWriteLatency());
+    map.put("pageFlush", pageManager.getPageFlushLatency());
     return map;
   }
 
@@ -408,6 +442,8 @@ public class EmbeddedDatabase extends RWLockContext implements DatabaseInternal
   public void commit() {
     statsTxCommits.incrementAndGet();
 
+    final long beginTime = System.nanoTime();
+
     executeInReadLock(() -> {
       checkTransactionIsActive(false);
 
@@ -420,6 +456,8 @@ public class EmbeddedDatabase extends RWLockContext implements DatabaseInternal
 
       return null;
     });
+
+    statsTxCommitLatency.recordNanos(System.nanoTime() - beginTime);
   }
 
   @Override
@@ -1087,6 +1125,7 @@ public class EmbeddedDatabase extends RWLockContext implements DatabaseInternal
       getTransaction().kill();
 
     try {
+      queryEngineManager.close();
       schema.close();
       pageManager.kill();
       fileManager.close();
@@ -1295,6 +1334,11 @@ public class EmbeddedDatabase extends RWLockContext implements DatabaseInternal
     return executionPlanCache;
   }
 
+  @Override
+  public PreparedStatementCache getPreparedStatementCache() {
+    return preparedStatementCache;
+  }
+
   @Override
   public WALFileFactory getWALFileFactory() {
     return walFactory;
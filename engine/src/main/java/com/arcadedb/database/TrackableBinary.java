@@ -49,7 +49,7 @@ public class TrackableBinary extends Binary implements TrackableContent {
 
   public void move(final int startPosition, final int destPosition, final int length) {
     super.move(startPosition, destPosition, length);
-    updateModifiedRange(startPosition, destPosition + length);
+    updateModifiedRange(Math.min(startPosition, destPosition), Math.max(startPosition, destPosition) + length - 1);
   }
 
   public Binary slice() {
@@ -388,7 +388,7 @@ public class TransactionContext implements Transaction {
         final MutablePage page = getPageToModify(pageId, pageSize, isNew);
 
         // APPLY THE CHANGE TO THE PAGE
-        page.writeByteArray(p.changesFrom - BasePage.PAGE_HEADER_SIZE, p.currentContent.content);
+        page.writeDelta(p.changesFrom, p.currentContent.content);
         page.setContentSize(p.currentPageSize);
 
         if (isNew) {
@@ -433,6 +433,8 @@ public class TransactionContext implements Transaction {
 
     status = STATUS.COMMIT_1ST_PHASE;
 
+    final long beginTime = System.nanoTime();
+
     if (isLeader)
       // LOCK FILES IN ORDER (TO AVOID DEADLOCK)
       lockedFiles = lockFilesInOrder();
@@ -482,6 +484,8 @@ public class TransactionContext implements Transaction {
         result = database.getTransactionManager().createTransactionBuffer(txId, pages);
       }
 
+      database.getTransactionManager().getCommit1stPhaseLatency().recordNanos(System.nanoTime() - beginTime);
+
       return new Pair<>(result, pages);
 
     } catch (DuplicatedKeyException | ConcurrentModificationException e) {
@@ -504,6 +508,7 @@ public class TransactionContext implements Transaction {
     status = STATUS.COMMIT_2ND_PHASE;
 
     final PageManager pageManager = database.getPageManager();
+    final long beginTime = System.nanoTime();
 
     try {
       if (changes.getFirst() != null)
@@ -535,6 +540,8 @@ public class TransactionContext implements Transaction {
           file.onAfterCommit();
       }
 
+      database.getTransactionManager().getCommit2ndPhaseLatency().recordNanos(System.nanoTime() - beginTime);
+
     } catch (ConcurrentModificationException e) {
       throw e;
     } catch (Exception e) {
@@ -54,6 +54,14 @@ public class DatabaseAsyncCommand extends DatabaseAsyncAbstractTask {
     this.userCallback = userCallback;
   }
 
+  /**
+   * Queries do not modify the database, so they can be executed by any thread.
+   */
+  @Override
+  public boolean isStealable() {
+    return idempotent;
+  }
+
   @Override
   public void execute(final DatabaseAsyncExecutorImpl.AsyncThread async, final DatabaseInternal database) {
     try {
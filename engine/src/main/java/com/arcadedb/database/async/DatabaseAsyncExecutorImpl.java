@@ -24,6 +24,7 @@ package com.arcadedb.database.async;
 import com.arcadedb.GlobalConfiguration;
 import com.arcadedb.database.Record;
 import com.arcadedb.database.*;
+import com.arcadedb.database.bucketselectionstrategy.DefaultBucketSelectionStrategy;
 import com.arcadedb.engine.Bucket;
 import com.arcadedb.engine.WALFile;
 import com.arcadedb.exception.DatabaseOperationException;
@@ -37,7 +38,9 @@ import java.util.*;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
@@ -53,6 +56,12 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
   private       long               checkForStalledQueuesMaxDelay = 5_000;
   private final AtomicLong         transactionCounter            = new AtomicLong();
   private final AtomicLong         commandRoundRobinIndex        = new AtomicLong();
+  // SHARDED MODE: BUCKET ID -> OWNER THREAD
+  private final boolean                   sharded;
+  private final Map<Integer, Integer>     bucketSlots           = new ConcurrentHashMap<>();
+  private       int[]                     ownedBuckets;
+  private final AtomicInteger             bucketRoundRobinIndex = new AtomicInteger();
+  private final AtomicInteger             stolenTasksInProgress = new AtomicInteger();
 
   // SPECIAL TASKS
   public final static DatabaseAsyncTask FORCE_EXIT = new DatabaseAsyncAbstractTask() {
@@ -74,7 +83,10 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
     public final    DatabaseInternal                 database;
     public volatile boolean                          shutdown      = false;
     public volatile boolean                          forceShutdown = false;
-    public          long                             count         = 0;
+    public volatile long                             count         = 0;
+    public volatile long                             stolen        = 0;
+    private final   boolean                          workStealing;
+    private final   long                             startedOn     = System.currentTimeMillis();
 
     private AsyncThread(final DatabaseInternal database, final int id) {
       super("AsyncExecutor-" + id);
@@ -92,6 +104,9 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
         LogManager.instance().log(this, Level.WARNING, "Error on async operation queue implementation setting: %s is not supported", null, cfgQueueImpl);
         this.queue = new ArrayBlockingQueue<>(queueSize);
       }
+
+      // THE 'FAST' QUEUE DOES NOT SUPPORT THE REMOVAL OF THE TASKS BY OTHER THREADS
+      this.workStealing = sharded && this.queue instanceof ArrayBlockingQueue;
     }
 
     public boolean isShutdown() {
@@ -109,7 +124,17 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
 
       while (!forceShutdown) {
         try {
-          final DatabaseAsyncTask message = queue.poll(500, TimeUnit.MILLISECONDS);
+          DatabaseAsyncTask message;
+          if (workStealing) {
+            message = queue.poll();
+            if (message == null) {
+              if (stealAndExecute())
+                continue;
+              message = queue.poll(100, TimeUnit.MILLISECONDS);
+            }
+          } else
+            message = queue.poll(500, TimeUnit.MILLISECONDS);
+
           if (message != null) {
             LogManager.instance().log(this, Level.FINE, "Received async message %s (threadId=%d)", null, message, Thread.currentThread().getId());
 
@@ -162,6 +187,70 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
       }
     }
 
+    /**
+     * Executes the first task of the busiest queue if it is not bound to a bucket. The stolen task is committed right away, because the completion
+     * task of the victim's queue cannot wait for it.
+     */
+    private boolean stealAndExecute() {
+      final AsyncThread[] threads = executorThreads;
+      if (threads == null)
+        return false;
+
+      AsyncThread victim = null;
+      int victimQueueSize = 1;
+      for (AsyncThread t : threads) {
+        if (t != null && t != this) {
+          final int size = t.queue.size();
+          if (size > victimQueueSize) {
+            victim = t;
+            victimQueueSize = size;
+          }
+        }
+      }
+
+      if (victim == null)
+        return false;
+
+      final DatabaseAsyncTask task = victim.queue.peek();
+      if (task == null || !task.isStealable())
+        return false;
+
+      // INCREMENT BEFORE REMOVING IT, SO WAIT COMPLETION CANNOT MISS IT
+      stolenTasksInProgress.incrementAndGet();
+      try {
+        if (!victim.queue.remove(task))
+          // ALREADY TAKEN BY THE OWNER OR ANOTHER THREAD
+          return false;
+
+        LogManager.instance().log(this, Level.FINE, "Stolen async message %s from %s (threadId=%d)", null, task, victim.getName(), Thread.currentThread().getId());
+
+        try {
+          if (task.requiresActiveTx() && !database.getTransaction().isActive())
+            database.begin();
+
+          task.execute(this, database);
+
+          if (database.isTransactionActive())
+            database.commit();
+
+          count++;
+          stolen++;
+
+        } catch (Throwable e) {
+          onError(e);
+        } finally {
+          task.completed();
+
+          if (!database.isTransactionActive())
+            database.begin();
+        }
+        return true;
+
+      } finally {
+        stolenTasksInProgress.decrementAndGet();
+      }
+    }
+
     public void onError(final Throwable e) {
       DatabaseAsyncExecutorImpl.this.onError(e);
     }
@@ -174,6 +263,7 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
   public DatabaseAsyncExecutorImpl(final DatabaseInternal database) {
     this.database = database;
     this.commitEvery = database.getConfiguration().getValueAsInteger(GlobalConfiguration.ASYNC_TX_BATCH_SIZE);
+    this.sharded = "sharded".equalsIgnoreCase(database.getConfiguration().getValueAsString(GlobalConfiguration.ASYNC_MODE));
     createThreads(database.getConfiguration().getValueAsInteger(GlobalConfiguration.ASYNC_WORKER_THREADS));
   }
 
@@ -181,9 +271,30 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
     final DBAsyncStats stats = new DBAsyncStats();
     stats.queueSize = 0;
 
-    if (executorThreads != null)
-      for (int i = 0; i < executorThreads.length; ++i)
-        stats.queueSize += executorThreads[i].queue.size();
+    final AsyncThread[] threads = executorThreads;
+    if (threads != null) {
+      final long now = System.currentTimeMillis();
+
+      stats.threadQueueSize = new long[threads.length];
+      stats.threadExecuted = new long[threads.length];
+      stats.threadStolen = new long[threads.length];
+      stats.threadThroughput = new long[threads.length];
+
+      for (int i = 0; i < threads.length; ++i) {
+        final AsyncThread t = threads[i];
+        if (t == null)
+          continue;
+
+        stats.threadQueueSize[i] = t.queue.size();
+        stats.threadExecuted[i] = t.count;
+        stats.threadStolen[i] = t.stolen;
+        stats.threadThroughput[i] = t.count * 1000 / Math.max(1, now - t.startedOn);
+
+        stats.queueSize += stats.threadQueueSize[i];
+        stats.executed += stats.threadExecuted[i];
+        stats.stolen += stats.threadStolen[i];
+      }
+    }
 
     return stats;
   }
@@ -296,6 +407,19 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
         return false;
       }
 
+    // WAIT FOR THE TASKS STOLEN BEFORE THE COMPLETION TASKS
+    while (stolenTasksInProgress.get() > 0) {
+      if (System.currentTimeMillis() - beginTime > timeout)
+        return false;
+
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+
     return true;
   }
 
@@ -332,7 +456,7 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
       final CountDownLatch semaphore = new CountDownLatch(buckets.size());
 
       for (Bucket b : buckets) {
-        final int slot = getSlot(b.getId());
+        final int slot = getBucketSlot(b.getId());
         scheduleTask(slot, new DatabaseAsyncScanBucket(semaphore, callback, b), true, backPressurePercentage);
       }
 
@@ -364,8 +488,10 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
 
     if (record.getIdentity() == null) {
       // NEW
-      final Bucket bucket = type.getBucketIdByRecord(record, false);
-      final int slot = getSlot(bucket.getId());
+      final Bucket bucket = sharded && type.getBucketSelectionStrategy() instanceof DefaultBucketSelectionStrategy ?
+          getShardedBucket(type) :
+          type.getBucketIdByRecord(record, false);
+      final int slot = getBucketSlot(bucket.getId());
 
       scheduleTask(slot, new DatabaseAsyncCreateRecord(record, bucket, newRecordCallback), true, backPressurePercentage);
 
@@ -376,7 +502,7 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
   @Override
   public void createRecord(final Record record, final String bucketName, final NewRecordCallback newRecordCallback) {
     final Bucket bucket = database.getSchema().getBucketByName(bucketName);
-    final int slot = getSlot(bucket.getId());
+    final int slot = getBucketSlot(bucket.getId());
 
     if (record.getIdentity() == null)
       // NEW
@@ -391,7 +517,7 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
       // UPDATE
       final DocumentType type = record.getType();
       final Bucket bucket = type.getBucketIdByRecord(record, false);
-      final int slot = getSlot(bucket.getId());
+      final int slot = getBucketSlot(bucket.getId());
 
       scheduleTask(slot, new DatabaseAsyncUpdateRecord(record, updateRecordCallback), true, backPressurePercentage);
 
@@ -408,8 +534,8 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
     if (destinationVertexRID == null)
       throw new IllegalArgumentException("Destination vertex is null");
 
-    final int sourceSlot = getSlot(sourceVertex.getIdentity().getBucketId());
-    final int destinationSlot = getSlot(destinationVertexRID.getBucketId());
+    final int sourceSlot = getBucketSlot(sourceVertex.getIdentity().getBucketId());
+    final int destinationSlot = getBucketSlot(destinationVertexRID.getBucketId());
 
     if (sourceSlot == destinationSlot)
       // BOTH VERTICES HAVE THE SAME SLOT, CREATE THE EDGE USING IT
@@ -483,7 +609,7 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
             "Cannot find destination vertex with key " + Arrays.toString(destinationVertexKeyNames) + "=" + Arrays.toString(destinationVertexKeyValues));
 
       // ONLY SOURCE VERTEX EXISTS, CREATE DESTINATION VERTEX + EDGE IN SOURCE'S SLOT
-      scheduleTask(getSlot(sourceRID.getBucketId()),
+      scheduleTask(getBucketSlot(sourceRID.getBucketId()),
           new CreateDestinationVertexAndEdgeAsyncTask(sourceRID, destinationVertexType, destinationVertexKeyNames, destinationVertexKeyValues, edgeType,
               properties, bidirectional, lightWeight, callback), true, backPressurePercentage);
 
@@ -494,7 +620,7 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
             "Cannot find source vertex with key " + Arrays.toString(sourceVertexKeyNames) + "=" + Arrays.toString(sourceVertexKeyValues));
 
       // ONLY DESTINATION VERTEX EXISTS
-      scheduleTask(getSlot(destinationRID.getBucketId()),
+      scheduleTask(getBucketSlot(destinationRID.getBucketId()),
           new CreateSourceVertexAndEdgeAsyncTask(sourceVertexType, sourceVertexKeyNames, sourceVertexKeyValues, destinationRID, edgeType, properties,
               bidirectional, lightWeight, callback), true, backPressurePercentage);
 
@@ -553,7 +679,13 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
   }
 
   public static class DBAsyncStats {
-    public long queueSize;
+    public long   queueSize;
+    public long   executed;
+    public long   stolen;
+    public long[] threadQueueSize;
+    public long[] threadExecuted;
+    public long[] threadStolen;
+    public long[] threadThroughput;
   }
 
   private void createThreads(int parallelLevel) {
@@ -562,6 +694,10 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
 
     shutdownThreads();
 
+    // THE BUCKETS ARE ASSIGNED AGAIN TO THE NEW THREADS
+    bucketSlots.clear();
+    ownedBuckets = new int[parallelLevel];
+
     executorThreads = new AsyncThread[parallelLevel];
     for (int i = 0; i < parallelLevel; ++i) {
       executorThreads[i] = new AsyncThread(database, i);
@@ -666,4 +802,50 @@ public class DatabaseAsyncExecutorImpl implements DatabaseAsyncExecutor {
   public int getSlot(final int value) {
     return value % executorThreads.length;
   }
+
+  /**
+   * Returns the thread that owns the bucket. In sharded mode every bucket is assigned to the thread with less buckets the first time it is used.
+   */
+  public int getBucketSlot(final int bucketId) {
+    if (!sharded)
+      return getSlot(bucketId);
+
+    return bucketSlots.computeIfAbsent(bucketId, id -> {
+      synchronized (bucketSlots) {
+        int slot = 0;
+        for (int i = 1; i < ownedBuckets.length; ++i)
+          if (ownedBuckets[i] < ownedBuckets[slot])
+            slot = i;
+        ownedBuckets[slot]++;
+        return slot;
+      }
+    });
+  }
+
+  public boolean isSharded() {
+    return sharded;
+  }
+
+  /**
+   * Selects the bucket of the type owned by the thread with the shortest queue. Buckets with the same queue size are selected in round-robin.
+   */
+  private Bucket getShardedBucket(final DocumentType type) {
+    final List<Bucket> buckets = type.getBuckets(false);
+
+    final int offset = Math.abs(bucketRoundRobinIndex.getAndIncrement() % buckets.size());
+
+    Bucket bestBucket = null;
+    int bestQueueSize = 0;
+    for (int i = 0; i < buckets.size(); ++i) {
+      final Bucket bucket = buckets.get((offset + i) % buckets.size());
+      final int queueSize = executorThreads[getBucketSlot(bucket.getId())].queue.size();
+      if (bestBucket == null || queueSize < bestQueueSize) {
+        bestBucket = bucket;
+        bestQueueSize = queueSize;
+        if (queueSize == 0)
+          break;
+      }
+    }
+    return bestBucket;
+  }
 }
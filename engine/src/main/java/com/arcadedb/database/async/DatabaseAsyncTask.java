@@ -29,4 +29,12 @@ public interface DatabaseAsyncTask {
   void completed();
 
   boolean requiresActiveTx();
+
+  /**
+   * Returns true if the task is not bound to a bucket, so it can be executed by any asynchronous thread without conflicts with the tasks of the other
+   * threads. By default tasks are executed by the thread they have been scheduled to, so only the tasks known to be safe on any thread override it.
+   */
+  default boolean isStealable() {
+    return false;
+  }
 }
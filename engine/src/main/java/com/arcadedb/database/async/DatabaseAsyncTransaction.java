@@ -43,6 +43,11 @@ public class DatabaseAsyncTransaction extends DatabaseAsyncAbstractTask {
     return false;
   }
 
+  @Override
+  public boolean isStealable() {
+    return true;
+  }
+
   @Override
   public void execute(final DatabaseAsyncExecutorImpl.AsyncThread async, final DatabaseInternal database) {
     ConcurrentModificationException lastException = null;
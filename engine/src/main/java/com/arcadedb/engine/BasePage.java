@@ -26,29 +26,45 @@ import com.arcadedb.database.Binary;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.zip.CRC32C;
 
 /**
  * Low level base page implementation of (default) 65536 bytes (2 exp 16 = 65Kb). The first 4 bytes (the header) are reserved to
  * store the page version (MVCC), then 4 bytes more for the actual page content size. Content size is stored in PBinary object. The
- * maximum content for a page is pageSize - 16.
+ * maximum content for a page is pageSize - 8.
+ * <p>
+ * Pages of files with the page format {@link PaginatedFile#PAGE_FORMAT_CHECKSUM} reserve the last 4 bytes of the page (the footer)
+ * to the CRC32C checksum of the page, computed when the page is written on disk, so the maximum content is pageSize - 12. The
+ * highest bit of the content size field marks the pages written with the checksum. Pages of files with the legacy page format have
+ * no footer and are never verified.
  */
 public abstract class BasePage {
   public static final    int PAGE_HEADER_SIZE        = Binary.INT_SERIALIZED_SIZE + Binary.INT_SERIALIZED_SIZE;
+  public static final    int PAGE_CHECKSUM_SIZE      = Binary.INT_SERIALIZED_SIZE;
   protected static final int PAGE_VERSION_OFFSET     = 0;
   protected static final int PAGE_CONTENTSIZE_OFFSET = Binary.INT_SERIALIZED_SIZE;
+  protected static final int PAGE_CHECKSUM_MARKER    = 0x80000000;
 
   protected final PageManager manager;
 
   protected final PageId pageId;
   protected final Binary content;
   private final   int    size;
+  private final   int    footerSize;
   protected       int    version;
   private         long   lastAccessed = System.currentTimeMillis();
+  private         int    accessCounter;
 
   protected BasePage(final PageManager manager, final PageId pageId, final int size, final byte[] buffer, final int version, final int contentSize) {
+    this(manager, pageId, size, buffer, version, contentSize, manager != null ? manager.getPageFooterSize(pageId.getFileId()) : 0);
+  }
+
+  protected BasePage(final PageManager manager, final PageId pageId, final int size, final byte[] buffer, final int version, final int contentSize,
+      final int footerSize) {
     this.manager = manager;
     this.pageId = pageId;
     this.size = size;
+    this.footerSize = footerSize;
     this.content = new Binary(buffer, contentSize);
     this.version = version;
   }
@@ -56,12 +72,12 @@ public abstract class BasePage {
   public MutablePage modify() {
     final byte[] array = this.content.getByteBuffer().array();
     // COPY THE CONTENT, SO CHANGES DOES NOT AFFECT IMMUTABLE COPY
-    return new MutablePage(manager, pageId, size, Arrays.copyOf(array, array.length), version, content.size());
+    return new MutablePage(manager, pageId, size, Arrays.copyOf(array, array.length), version, content.size(), footerSize);
   }
 
   public void loadMetadata() {
     version = content.getInt(PAGE_VERSION_OFFSET);
-    content.size(content.getInt(PAGE_CONTENTSIZE_OFFSET));
+    content.size(content.getInt(PAGE_CONTENTSIZE_OFFSET) & ~PAGE_CHECKSUM_MARKER);
   }
 
   public void flushMetadata() {
@@ -73,8 +89,40 @@ public abstract class BasePage {
     return size;
   }
 
+  /**
+   * Returns the size of the footer that contains the checksum: 0 for the pages of files with the legacy page format.
+   */
+  public int getFooterSize() {
+    return footerSize;
+  }
+
+  /**
+   * Computes the checksum (CRC32C) of the whole page, header included, except the footer that contains the checksum.
+   */
+  public int computeChecksum() {
+    final CRC32C crc = new CRC32C();
+    crc.update(content.getByteBuffer().array(), 0, size - PAGE_CHECKSUM_SIZE);
+    return (int) crc.getValue();
+  }
+
+  /**
+   * Returns true if the page has been written on disk with the checksum.
+   */
+  public boolean hasChecksum() {
+    return footerSize > 0 && (content.getByteBuffer().getInt(PAGE_CONTENTSIZE_OFFSET) & PAGE_CHECKSUM_MARKER) != 0;
+  }
+
+  /**
+   * Checks the checksum stored in the footer with the content of the page. Pages written without the checksum (legacy page format, or
+   * written with `arcadedb.pageChecksum = none`) cannot be verified and are considered valid. An invalid checksum means the page has
+   * been partially written (torn write).
+   */
+  public boolean isChecksumValid() {
+    return !hasChecksum() || content.getByteBuffer().getInt(size - PAGE_CHECKSUM_SIZE) == computeChecksum();
+  }
+
   public int getMaxContentSize() {
-    return getPhysicalSize() - PAGE_HEADER_SIZE;
+    return getPhysicalSize() - PAGE_HEADER_SIZE - footerSize;
   }
 
   /**
@@ -83,7 +131,7 @@ public abstract class BasePage {
   public ImmutablePage createImmutableView() {
     try {
       return (ImmutablePage) content.executeInLock(
-          () -> new ImmutablePage(manager, pageId, getPhysicalSize(), content.getByteBuffer().array(), version, content.size()));
+          () -> new ImmutablePage(manager, pageId, getPhysicalSize(), content.getByteBuffer().array(), version, content.size(), footerSize));
     } catch (RuntimeException e) {
       throw e;
     } catch (Exception e) {
@@ -203,6 +251,24 @@ public abstract class BasePage {
     lastAccessed = System.currentTimeMillis();
   }
 
+  public int getAccessCounter() {
+    return accessCounter;
+  }
+
+  /**
+   * Increments the access counter up to `max`. The update is not atomic on purpose: concurrent increments can be lost, but the
+   * counter is used only as an approximation of the access frequency by the eviction policy.
+   */
+  public void incrementAccessCounter(final int max) {
+    if (accessCounter < max)
+      ++accessCounter;
+  }
+
+  public void decrementAccessCounter() {
+    if (accessCounter > 0)
+      --accessCounter;
+  }
+
   public int getBufferPosition() {
     return this.content.position() - PAGE_HEADER_SIZE;
   }
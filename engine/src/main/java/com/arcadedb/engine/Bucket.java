@@ -82,6 +82,15 @@ public class Bucket extends PaginatedComponent {
     return maxRecordsInPage;
   }
 
+  /**
+   * Returns the maximum size of a record stored in a new page: the page content, except the record table and the size of the record.
+   * Pages of files with the checksum have 4 bytes less, reserved to the page footer.
+   */
+  public int getMaxRecordSize() {
+    final int available = pageSize - BasePage.PAGE_HEADER_SIZE - file.getPageFooterSize() - contentHeaderSize;
+    return available - Binary.getNumberSpace(available);
+  }
+
   public RID createRecord(final Record record) {
     return createRecordInternal(record, false);
   }
@@ -375,10 +384,11 @@ public class Bucket extends PaginatedComponent {
   private RID createRecordInternal(final Record record, final boolean isPlaceHolder) {
     final Binary buffer = database.getSerializer().serialize(database, record);
 
-    if (buffer.size() > pageSize - contentHeaderSize)
+    final int maxRecordSize = getMaxRecordSize();
+    if (buffer.size() > maxRecordSize)
       // TODO: SUPPORT MULTI-PAGE CONTENT
       throw new DatabaseOperationException(
-          "Record too big to be stored in bucket '" + name + "' (" + id + "), size=" + buffer.size() + " max=" + (pageSize - contentHeaderSize));
+          "Record too big to be stored in bucket '" + name + "' (" + id + "), size=" + buffer.size() + " max=" + maxRecordSize);
 
     // RECORD SIZE CANNOT BE < 5 BYTES IN CASE OF UPDATE AND PLACEHOLDER, 5 BYTES IS THE SPACE REQUIRED TO HOST THE PLACEHOLDER
     while (buffer.size() < 5)
@@ -431,6 +441,13 @@ public class Bucket extends PaginatedComponent {
 
       final byte[] array = buffer.toByteArray();
 
+      final int recordSizeSpace = Binary.getNumberSpace(isPlaceHolder ? (-1 * array.length) : array.length);
+      if (newPosition + recordSizeSpace + array.length > lastPage.getMaxContentSize())
+        // THE LAST BYTES OF THE PAGE ARE RESERVED TO THE FOOTER WITH THE CHECKSUM
+        throw new DatabaseOperationException(
+            "Record too big to be stored in bucket '" + name + "' (" + id + "), size=" + array.length + " max=" + (lastPage.getMaxContentSize() - newPosition
+                - recordSizeSpace));
+
       final int byteWritten = lastPage.writeNumber(newPosition, isPlaceHolder ? (-1 * array.length) : array.length);
       lastPage.writeByteArray(newPosition + byteWritten, array);
 
@@ -25,13 +25,22 @@ import com.arcadedb.database.Binary;
 
 public class BufferBloomFilter {
   private final Binary buffer;
+  private final int    offset;
   private final int    hashSeed;
   private final int    capacity;
 
   public BufferBloomFilter(final Binary buffer, final int slots, final int hashSeed) {
+    this(buffer, 0, slots, hashSeed);
+  }
+
+  /**
+   * Creates a bloom filter that uses the bytes of the buffer starting from the offset.
+   */
+  public BufferBloomFilter(final Binary buffer, final int offset, final int slots, final int hashSeed) {
     if (slots % 8 > 0)
       throw new IllegalArgumentException("Slots must be a multiplier of 8");
     this.buffer = buffer;
+    this.offset = offset;
     this.hashSeed = hashSeed;
     this.capacity = slots;
   }
@@ -41,8 +50,8 @@ public class BufferBloomFilter {
     final int hash = MurmurHash.hash32(b, 4, hashSeed);
     final int h = hash != Integer.MIN_VALUE ? Math.abs(hash) : Integer.MAX_VALUE;
 
-    final int bit2change = h > capacity ? h % capacity : h;
-    final int byte2change = bit2change / 8;
+    final int bit2change = h % capacity;
+    final int byte2change = offset + bit2change / 8;
     final int bitInByte2change = bit2change % 8;
 
     final byte v = buffer.getByte(byte2change);
@@ -54,8 +63,8 @@ public class BufferBloomFilter {
     final int hash = MurmurHash.hash32(b, 4, hashSeed);
     final int h = hash != Integer.MIN_VALUE ? Math.abs(hash) : Integer.MAX_VALUE;
 
-    final int bit2change = h > capacity ? h % capacity : h;
-    final int byte2change = bit2change / 8;
+    final int bit2change = h % capacity;
+    final int byte2change = offset + bit2change / 8;
     final int bitInByte2change = bit2change % 8;
 
     final byte v = buffer.getByte(byte2change);
@@ -36,6 +36,7 @@ import java.util.logging.Level;
 
 public class FileManager {
   private final        PaginatedFile.MODE                        mode;
+  private final        boolean                                   memoryMapped;
   private final        List<PaginatedFile>                       files           = new ArrayList<>();
   private final        ConcurrentHashMap<String, PaginatedFile>  fileNameMap     = new ConcurrentHashMap<>();
   private final        ConcurrentHashMap<Integer, PaginatedFile> fileIdMap       = new ConcurrentHashMap<>();
@@ -59,10 +60,20 @@ public class FileManager {
   public static class FileManagerStats {
     public long maxOpenFiles;
     public long totalOpenFiles;
+    public long memoryMappedReads;
+    public long memoryMappedRemaps;
   }
 
   public FileManager(final String path, final PaginatedFile.MODE mode, final Set<String> supportedFileExt) {
+    this(path, mode, supportedFileExt, false);
+  }
+
+  /**
+   * @param memoryMapped true to read the pages through memory mapped files (see {@link MemoryMappedPaginatedFile})
+   */
+  public FileManager(final String path, final PaginatedFile.MODE mode, final Set<String> supportedFileExt, final boolean memoryMapped) {
     this.mode = mode;
+    this.memoryMapped = memoryMapped;
 
     File dbDirectory = new File(path);
     if (!dbDirectory.exists()) {
@@ -74,7 +85,7 @@ public class FileManager {
 
         if (supportedFileExt.contains(fileExt))
           try {
-            final PaginatedFile file = new PaginatedFile(f.getAbsolutePath(), mode);
+            final PaginatedFile file = newPaginatedFile(f.getAbsolutePath(), mode);
             registerFile(file);
 
           } catch (FileNotFoundException e) {
@@ -143,9 +154,37 @@ public class FileManager {
     final FileManagerStats stats = new FileManagerStats();
     stats.maxOpenFiles = maxFilesOpened.get();
     stats.totalOpenFiles = fileIdMap.size();
+    for (PaginatedFile file : fileIdMap.values())
+      if (file instanceof MemoryMappedPaginatedFile) {
+        stats.memoryMappedReads += ((MemoryMappedPaginatedFile) file).getMappedReads();
+        stats.memoryMappedRemaps += ((MemoryMappedPaginatedFile) file).getRemaps();
+      }
     return stats;
   }
 
+  /**
+   * Upgrades the files with the legacy page format and one of the extensions passed as argument to the page format with the checksum.
+   * Only the files of the components that keep the content size of the pages up to date can be upgraded. To call before the pages of
+   * the files are loaded.
+   *
+   * @return the number of upgraded files
+   */
+  public int upgradePageFormat(final Set<String> fileExtensions) throws IOException {
+    int upgraded = 0;
+    for (PaginatedFile file : fileIdMap.values()) {
+      if (file.getPageFormat() >= PaginatedFile.PAGE_FORMAT_CURRENT || !fileExtensions.contains(file.getFileExtension()))
+        continue;
+
+      if (file.upgradePageFormat())
+        ++upgraded;
+      else
+        LogManager.instance()
+            .log(this, Level.WARNING, "Cannot upgrade the page format of file '%s' because some pages are full: the file has no page checksum", null,
+                file.getFileName());
+    }
+    return upgraded;
+  }
+
   public Collection<PaginatedFile> getFiles() {
     return fileNameMap.values();
   }
@@ -167,7 +206,7 @@ public class FileManager {
     if (file != null)
       return file;
 
-    file = new PaginatedFile(filePath, mode);
+    file = newPaginatedFile(filePath, mode);
     registerFile(file);
 
     if (recordedChanges != null)
@@ -179,7 +218,7 @@ public class FileManager {
   public PaginatedFile getOrCreateFile(final int fileId, final String filePath) throws IOException {
     PaginatedFile file = fileIdMap.get(fileId);
     if (file == null) {
-      file = new PaginatedFile(filePath, mode);
+      file = newPaginatedFile(filePath, mode);
       registerFile(file);
 
       if (recordedChanges != null)
@@ -202,6 +241,10 @@ public class FileManager {
     return files.size() - 1;
   }
 
+  private PaginatedFile newPaginatedFile(final String filePath, final PaginatedFile.MODE mode) throws FileNotFoundException {
+    return memoryMapped ? new MemoryMappedPaginatedFile(filePath, mode) : new PaginatedFile(filePath, mode);
+  }
+
   private void registerFile(final PaginatedFile file) {
     final int pos = file.getFileId();
     while (files.size() < pos + 1)
@@ -33,4 +33,9 @@ public class ImmutablePage extends BasePage {
   public ImmutablePage(final PageManager manager, final PageId pageId, final int size, final byte[] content, final int version, final int contentSize) {
     super(manager, pageId, size, content, version, contentSize);
   }
+
+  public ImmutablePage(final PageManager manager, final PageId pageId, final int size, final byte[] content, final int version, final int contentSize,
+      final int footerSize) {
+    super(manager, pageId, size, content, version, contentSize, footerSize);
+  }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.engine;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Paginated file that reads pages from memory mapped regions of the file instead of issuing a positional read for each page. When the
+ * dataset fits in the OS page cache, loading a page is a memory copy from the page cache without any system call. Writes still go
+ * through the file channel: on the supported operating systems the mapping is coherent with the file content.
+ * <p>
+ * The file is mapped in regions of {@link #REGION_SIZE} bytes (rounded to a multiple of the page size, so a page never spans two
+ * regions). The last region is remapped when the file grows. Pages beyond the end of the file are read through the file channel.
+ */
+public class MemoryMappedPaginatedFile extends PaginatedFile {
+  public static final int                REGION_SIZE = 1024 * 1024 * 1024;
+  private volatile    MappedByteBuffer[] regions     = new MappedByteBuffer[0];
+  private final       AtomicLong         mappedReads = new AtomicLong();
+  private final       AtomicLong         remaps      = new AtomicLong();
+
+  protected MemoryMappedPaginatedFile(final String filePath, final MODE mode) throws FileNotFoundException {
+    super(filePath, mode);
+  }
+
+  @Override
+  public void read(final ImmutablePage page) throws IOException {
+    if (page.pageId.getPageNumber() < 0)
+      throw new IllegalArgumentException("Invalid page number to read: " + page.pageId.getPageNumber());
+
+    final int pageSize = page.getPhysicalSize();
+    final long position = pageSize * (long) page.getPageId().getPageNumber();
+
+    final long regionSize = getRegionSize(pageSize);
+    final int regionIndex = (int) (position / regionSize);
+    final int regionOffset = (int) (position % regionSize);
+
+    final MappedByteBuffer region = getRegion(regionIndex, regionSize, regionOffset + pageSize);
+    if (region == null) {
+      // THE PAGE IS NOT (COMPLETELY) ON DISK YET
+      super.read(page);
+      return;
+    }
+
+    final ByteBuffer view = region.duplicate();
+    view.position(regionOffset);
+    view.get(page.getContent().array(), 0, pageSize);
+
+    mappedReads.incrementAndGet();
+  }
+
+  @Override
+  public void close() {
+    regions = new MappedByteBuffer[0];
+    super.close();
+  }
+
+  @Override
+  public boolean isMemoryMapped() {
+    return true;
+  }
+
+  public long getMappedReads() {
+    return mappedReads.get();
+  }
+
+  public long getRemaps() {
+    return remaps.get();
+  }
+
+  private MappedByteBuffer getRegion(final int regionIndex, final long regionSize, final int minimumSize) throws IOException {
+    MappedByteBuffer[] current = regions;
+    if (regionIndex < current.length && current[regionIndex] != null && current[regionIndex].capacity() >= minimumSize)
+      return current[regionIndex];
+
+    synchronized (this) {
+      // CHECK AGAIN AFTER THE LOCK: ANOTHER THREAD COULD HAVE ALREADY MAPPED THE REGION
+      current = regions;
+      if (regionIndex < current.length && current[regionIndex] != null && current[regionIndex].capacity() >= minimumSize)
+        return current[regionIndex];
+
+      final long regionStart = regionIndex * regionSize;
+      final long fileSize = getSize();
+      if (fileSize < regionStart + minimumSize)
+        return null;
+
+      final MappedByteBuffer region = getChannel().map(FileChannel.MapMode.READ_ONLY, regionStart, Math.min(regionSize, fileSize - regionStart));
+
+      final MappedByteBuffer[] newRegions = current.length > regionIndex ? current.clone() : Arrays.copyOf(current, regionIndex + 1);
+      newRegions[regionIndex] = region;
+      regions = newRegions;
+
+      remaps.incrementAndGet();
+      return region;
+    }
+  }
+
+  private static long getRegionSize(final int pageSize) {
+    return Math.max(pageSize, REGION_SIZE / pageSize * (long) pageSize);
+  }
+}
@@ -24,6 +24,8 @@ package com.arcadedb.engine;
 import com.arcadedb.database.Binary;
 import com.arcadedb.database.TrackableBinary;
 
+import java.nio.ByteBuffer;
+
 /**
  * Mutable page that accepts updates. It keeps track of the modified bytes.
  */
@@ -41,19 +43,44 @@ public class MutablePage extends BasePage implements TrackableContent {
     super(manager, pageId, size, array, version, contentSize);
   }
 
+  public MutablePage(final PageManager manager, final PageId pageId, final int size, final byte[] array, final int version, final int contentSize,
+      final int footerSize) {
+    super(manager, pageId, size, array, version, contentSize, footerSize);
+  }
+
   public TrackableBinary getTrackable() {
     content.getByteBuffer().position(PAGE_HEADER_SIZE);
     return new TrackableBinary(this, content.getByteBuffer().slice());
   }
 
   public void incrementVersion() {
-    updateModifiedRange(0, Binary.LONG_SERIALIZED_SIZE);
+    updateModifiedRange(0, PAGE_HEADER_SIZE - 1);
     version++;
   }
 
+  /**
+   * Stores the checksum of the current content in the page footer and marks the page as written with the checksum. Called right
+   * before writing the page on disk. It does nothing on pages without the footer (legacy page format).
+   */
+  public void updateChecksum() {
+    if (getFooterSize() == 0)
+      return;
+    final ByteBuffer buffer = content.getByteBuffer();
+    buffer.putInt(PAGE_CONTENTSIZE_OFFSET, buffer.getInt(PAGE_CONTENTSIZE_OFFSET) | PAGE_CHECKSUM_MARKER);
+    buffer.putInt(getPhysicalSize() - PAGE_CHECKSUM_SIZE, computeChecksum());
+  }
+
+  /**
+   * Marks the page as written without the checksum, so it is not verified at the next read.
+   */
+  public void removeChecksum() {
+    final ByteBuffer buffer = content.getByteBuffer();
+    buffer.putInt(PAGE_CONTENTSIZE_OFFSET, buffer.getInt(PAGE_CONTENTSIZE_OFFSET) & ~PAGE_CHECKSUM_MARKER);
+  }
+
   public int writeNumber(int index, final long content) {
     index += PAGE_HEADER_SIZE;
-    checkBoundariesOnWrite(index, Binary.LONG_SERIALIZED_SIZE + 1); // WITH VARSIZE NUMBER THE WORST CASE SCENARIO IS 1 BYTE MORE
+    checkBoundariesOnWrite(index, Binary.getNumberSpace(content));
     return this.content.putNumber(index, content);
   }
 
@@ -100,6 +127,18 @@ public class MutablePage extends BasePage implements TrackableContent {
     return this.content.putBytes(index, content);
   }
 
+  /**
+   * Applies a range of the page logged in the WAL. The position is absolute, header included. The bytes of the footer, if any, are
+   * ignored because the checksum is computed when the page is written on disk.
+   */
+  public void writeDelta(final int position, final byte[] delta) {
+    final int length = Math.min(delta.length, getPhysicalSize() - getFooterSize() - position);
+    if (length <= 0)
+      return;
+    checkBoundariesOnWrite(position, length);
+    this.content.putByteArray(position, delta, length);
+  }
+
   public void writeByteArray(int index, final byte[] content) {
     index += PAGE_HEADER_SIZE;
     checkBoundariesOnWrite(index, content.length);
@@ -130,6 +169,15 @@ public class MutablePage extends BasePage implements TrackableContent {
       modifiedRangeTo = end;
   }
 
+  /**
+   * Extends the modified range with the range of a previous version of the same page that has not been flushed yet.
+   */
+  public void mergeModifiedRange(final MutablePage previousVersion) {
+    final int[] range = previousVersion.getModifiedRange();
+    if (range[0] <= range[1])
+      updateModifiedRange(range[0], range[1]);
+  }
+
   public WALFile getWALFile() {
     return walFile;
   }
@@ -141,7 +189,7 @@ public class MutablePage extends BasePage implements TrackableContent {
   public void move(int startPosition, int destPosition, final int length) {
     startPosition += PAGE_HEADER_SIZE;
     destPosition += PAGE_HEADER_SIZE;
-    updateModifiedRange(startPosition, destPosition + length);
+    updateModifiedRange(Math.min(startPosition, destPosition), Math.max(startPosition, destPosition) + length - 1);
     content.move(startPosition, destPosition, length);
   }
 
@@ -149,8 +197,10 @@ public class MutablePage extends BasePage implements TrackableContent {
     if (start < 0)
       throw new IllegalArgumentException("Invalid position " + start);
 
-    if (start + length > getPhysicalSize())
-      throw new IllegalArgumentException("Cannot write outside the page space (" + (start + length) + ">" + getPhysicalSize() + ")");
+    // THE FOOTER IS WRITTEN ONLY BY updateChecksum()
+    final int maxSize = getPhysicalSize() - getFooterSize();
+    if (start + length > maxSize)
+      throw new IllegalArgumentException("Cannot write outside the page space (" + (start + length) + ">" + maxSize + ")");
 
     updateModifiedRange(start, start + length - 1);
   }
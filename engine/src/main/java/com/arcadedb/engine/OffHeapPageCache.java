@@ -0,0 +1,347 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Second level page cache stored in direct (off-heap) memory. Pages evicted from the heap read cache of the {@link PageManager} are
+ * copied here and they are promoted back to the heap on the next access, avoiding to read them from disk. Pages are never served from
+ * off-heap memory: a promoted page is copied once in a heap buffer and removed from this cache, and the eviction policy of the heap
+ * cache considers it as frequently accessed, so a hot page stays in the heap and is served without further copies. Its size is a share
+ * of the page cache RAM (`arcadedb.offHeapPageRAMPercentage` of `arcadedb.maxPageRAM`), so enabling it shrinks the heap cache by the
+ * same amount.
+ * <p>
+ * Memory is allocated in slabs of direct memory, each one split in slots of the same page size. The slots are never released: when
+ * a page is removed from this cache, its slot goes back to the pool of free slots of the same size and it is reused by the next page,
+ * so the off-heap memory never needs to be garbage collected. When the pool reached the maximum RAM and there are no free slots of the
+ * requested size, a page of the same size is evicted: the oldest one of a stripe, visiting the stripes in round robin.
+ * <p>
+ * Pages are partitioned in {@link #LOCK_STRIPES} stripes by page id, each one with its own lock, so concurrent loads, evictions and
+ * invalidations of different pages do not contend. The pools of free slots are lock-free. The copy of the page content is executed
+ * outside any lock, because a slot is always owned by one thread at a time.
+ */
+public class OffHeapPageCache {
+  public static final  int                                SLAB_SIZE            = 16 * 1024 * 1024;
+  private static final int                                INVALIDATION_STRIPES = 1024;
+  private static final int                                LOCK_STRIPES         = 64;
+  private final        long                               maxRAM;
+  private final        Map<Integer, SizeClass>            sizeClasses          = new ConcurrentHashMap<>();
+  private final        Stripe[]                           stripes              = new Stripe[LOCK_STRIPES];
+  private final        AtomicLongArray                    invalidations        = new AtomicLongArray(INVALIDATION_STRIPES);
+  private final        AtomicInteger                      evictionHand         = new AtomicInteger();
+  private final        AtomicLong                         allocatedRAM         = new AtomicLong();
+  private final        AtomicLong                         usedRAM              = new AtomicLong();
+  private final        AtomicInteger                      pages                = new AtomicInteger();
+  private final        AtomicLong                         hits                 = new AtomicLong();
+  private final        AtomicLong                         miss                 = new AtomicLong();
+  private final        AtomicLong                         pagesStored          = new AtomicLong();
+  private final        AtomicLong                         pagesEvicted         = new AtomicLong();
+
+  public static class OffHeapPageCacheStats {
+    public long maxRAM;
+    public long allocatedRAM;
+    public long usedRAM;
+    public int  pages;
+    public int  freeSlots;
+    public long hits;
+    public long miss;
+    public long pagesStored;
+    public long pagesEvicted;
+
+    /**
+     * Returns the percentage (0-100) of the allocated memory that is not used by any page.
+     */
+    public int getFragmentation() {
+      return allocatedRAM > 0 ? (int) ((allocatedRAM - usedRAM) * 100 / allocatedRAM) : 0;
+    }
+  }
+
+  private static class SizeClass {
+    private final int                               pageSize;
+    private final ConcurrentLinkedDeque<ByteBuffer> freeSlots      = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger                     freeSlotsCount = new AtomicInteger();
+
+    private SizeClass(final int pageSize) {
+      this.pageSize = pageSize;
+    }
+
+    private ByteBuffer pollFreeSlot() {
+      final ByteBuffer slot = freeSlots.poll();
+      if (slot != null)
+        freeSlotsCount.decrementAndGet();
+      return slot;
+    }
+
+    private void pushFreeSlot(final ByteBuffer slot) {
+      freeSlots.push(slot);
+      freeSlotsCount.incrementAndGet();
+    }
+  }
+
+  private static class Stripe {
+    // INSERTION ORDER IS USED TO EVICT THE OLDEST PAGES FIRST
+    private final LinkedHashMap<PageId, ByteBuffer> pages = new LinkedHashMap<>();
+  }
+
+  public OffHeapPageCache(final long maxRAM) {
+    this.maxRAM = maxRAM;
+    for (int i = 0; i < LOCK_STRIPES; ++i)
+      stripes[i] = new Stripe();
+  }
+
+  /**
+   * Returns a snapshot of the invalidation counters. Pass it to {@link #put(ImmutablePage, long[])} to discard pages that have been
+   * modified after the snapshot was taken.
+   */
+  public long[] getInvalidationSnapshot() {
+    final long[] snapshot = new long[INVALIDATION_STRIPES];
+    for (int i = 0; i < INVALIDATION_STRIPES; ++i)
+      snapshot[i] = invalidations.get(i);
+    return snapshot;
+  }
+
+  /**
+   * Copies the content of a page evicted from the heap cache in off-heap memory.
+   *
+   * @return true if the page has been stored, otherwise false
+   */
+  public boolean put(final ImmutablePage page, final long[] invalidationSnapshot) {
+    final PageId pageId = page.getPageId();
+    final int pageSize = page.getPhysicalSize();
+    final int invalidationStripe = getInvalidationStripe(pageId);
+
+    if (invalidations.get(invalidationStripe) != invalidationSnapshot[invalidationStripe])
+      // THE PAGE HAS BEEN MODIFIED IN THE MEANTIME
+      return false;
+
+    final SizeClass sizeClass = sizeClasses.computeIfAbsent(pageSize, SizeClass::new);
+    final ByteBuffer slot = acquireSlot(sizeClass);
+    if (slot == null)
+      return false;
+
+    // THE SLOT IS OWNED BY THE CURRENT THREAD, COPY THE CONTENT WITHOUT HOLDING ANY LOCK
+    slot.clear();
+    slot.put(page.getContent().array(), 0, pageSize);
+
+    final Stripe stripe = getStripe(pageId);
+    final ByteBuffer previous;
+    synchronized (stripe) {
+      if (invalidations.get(invalidationStripe) != invalidationSnapshot[invalidationStripe]) {
+        sizeClass.pushFreeSlot(slot);
+        return false;
+      }
+      previous = stripe.pages.put(pageId, slot);
+    }
+
+    usedRAM.addAndGet(pageSize);
+    pages.incrementAndGet();
+    releaseSlot(previous);
+
+    pagesStored.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Promotes the page from off-heap memory to the heap page passed as argument, by copying its content. The page is removed from this
+   * cache.
+   *
+   * @return true if the page was found, otherwise false
+   */
+  public boolean moveToHeap(final ImmutablePage page) {
+    final PageId pageId = page.getPageId();
+    final int pageSize = page.getPhysicalSize();
+
+    final Stripe stripe = getStripe(pageId);
+    final ByteBuffer slot;
+    synchronized (stripe) {
+      slot = stripe.pages.remove(pageId);
+    }
+
+    if (slot == null || slot.capacity() != pageSize) {
+      releaseSlot(slot);
+      miss.incrementAndGet();
+      return false;
+    }
+
+    slot.clear();
+    slot.get(page.getContent().array(), 0, pageSize);
+    releaseSlot(slot);
+
+    hits.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Removes the page from the cache because its content is changed.
+   */
+  public void invalidate(final PageId pageId) {
+    invalidations.incrementAndGet(getInvalidationStripe(pageId));
+
+    final Stripe stripe = getStripe(pageId);
+    final ByteBuffer slot;
+    synchronized (stripe) {
+      slot = stripe.pages.remove(pageId);
+    }
+    releaseSlot(slot);
+  }
+
+  public void invalidateFile(final int fileId) {
+    for (int i = 0; i < INVALIDATION_STRIPES; ++i)
+      invalidations.incrementAndGet(i);
+
+    for (Stripe stripe : stripes)
+      synchronized (stripe) {
+        for (Iterator<Map.Entry<PageId, ByteBuffer>> it = stripe.pages.entrySet().iterator(); it.hasNext(); ) {
+          final Map.Entry<PageId, ByteBuffer> entry = it.next();
+          if (entry.getKey().getFileId() == fileId) {
+            it.remove();
+            releaseSlot(entry.getValue());
+          }
+        }
+      }
+  }
+
+  /**
+   * Removes all the pages. The allocated memory is kept in the pool of free slots.
+   */
+  public void clear() {
+    for (int i = 0; i < INVALIDATION_STRIPES; ++i)
+      invalidations.incrementAndGet(i);
+
+    for (Stripe stripe : stripes)
+      synchronized (stripe) {
+        for (ByteBuffer slot : stripe.pages.values())
+          releaseSlot(slot);
+        stripe.pages.clear();
+      }
+  }
+
+  /**
+   * Releases all the allocated memory.
+   */
+  public void close() {
+    clear();
+    sizeClasses.clear();
+    allocatedRAM.set(0);
+  }
+
+  public OffHeapPageCacheStats getStats() {
+    final OffHeapPageCacheStats stats = new OffHeapPageCacheStats();
+    stats.maxRAM = maxRAM;
+    stats.allocatedRAM = allocatedRAM.get();
+    stats.usedRAM = usedRAM.get();
+    stats.pages = pages.get();
+    for (SizeClass sizeClass : sizeClasses.values())
+      stats.freeSlots += sizeClass.freeSlotsCount.get();
+    stats.hits = hits.get();
+    stats.miss = miss.get();
+    stats.pagesStored = pagesStored.get();
+    stats.pagesEvicted = pagesEvicted.get();
+    return stats;
+  }
+
+  private ByteBuffer acquireSlot(final SizeClass sizeClass) {
+    ByteBuffer slot = sizeClass.pollFreeSlot();
+    if (slot != null)
+      return slot;
+
+    final int slabSize = Math.max(sizeClass.pageSize, SLAB_SIZE / sizeClass.pageSize * sizeClass.pageSize);
+    if (reserveRAM(slabSize)) {
+      // ALLOCATE A NEW SLAB AND SPLIT IT IN SLOTS: THE FIRST ONE IS TAKEN BY THE CURRENT THREAD
+      final ByteBuffer slab = ByteBuffer.allocateDirect(slabSize);
+      for (int pos = 0; pos + sizeClass.pageSize <= slabSize; pos += sizeClass.pageSize) {
+        slab.limit(pos + sizeClass.pageSize);
+        slab.position(pos);
+        if (slot == null)
+          slot = slab.slice();
+        else
+          sizeClass.pushFreeSlot(slab.slice());
+      }
+      return slot;
+    }
+
+    // NO MORE RAM AVAILABLE: TAKE A SLOT FREED IN THE MEANTIME OR EVICT A PAGE OF THE SAME SIZE
+    slot = sizeClass.pollFreeSlot();
+    return slot != null ? slot : evict(sizeClass.pageSize);
+  }
+
+  private boolean reserveRAM(final int size) {
+    while (true) {
+      final long current = allocatedRAM.get();
+      if (current + size > maxRAM)
+        return false;
+      if (allocatedRAM.compareAndSet(current, current + size))
+        return true;
+    }
+  }
+
+  /**
+   * Evicts the oldest page of the requested size from the first stripe that contains one, starting from the stripe after the last
+   * visited, and returns its slot.
+   */
+  private ByteBuffer evict(final int pageSize) {
+    final int start = evictionHand.getAndIncrement();
+    for (int i = 0; i < LOCK_STRIPES; ++i) {
+      final Stripe stripe = stripes[Math.floorMod(start + i, LOCK_STRIPES)];
+      synchronized (stripe) {
+        for (Iterator<ByteBuffer> it = stripe.pages.values().iterator(); it.hasNext(); ) {
+          final ByteBuffer victim = it.next();
+          if (victim.capacity() == pageSize) {
+            it.remove();
+            usedRAM.addAndGet(-pageSize);
+            pages.decrementAndGet();
+            pagesEvicted.incrementAndGet();
+            return victim;
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  private void releaseSlot(final ByteBuffer slot) {
+    if (slot != null) {
+      final SizeClass sizeClass = sizeClasses.get(slot.capacity());
+      usedRAM.addAndGet(-slot.capacity());
+      pages.decrementAndGet();
+      if (sizeClass != null)
+        sizeClass.pushFreeSlot(slot);
+    }
+  }
+
+  private Stripe getStripe(final PageId pageId) {
+    return stripes[(pageId.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+  }
+
+  private static int getInvalidationStripe(final PageId pageId) {
+    return (pageId.hashCode() & 0x7fffffff) % INVALIDATION_STRIPES;
+  }
+}
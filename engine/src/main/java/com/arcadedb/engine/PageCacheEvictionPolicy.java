@@ -0,0 +1,60 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.engine;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Strategy used by the {@link PageManager} to select which pages to remove from the read cache when the configured RAM
+ * (`arcadedb.maxPageRAM`) is exceeded. Access recording is invoked by concurrent readers on every cache hit, so it must be cheap
+ * and lock-free. Eviction is invoked by one thread at a time.
+ */
+public interface PageCacheEvictionPolicy {
+  String getName();
+
+  /**
+   * Records the access to a page. Invoked only on cache hits: a page just loaded from disk starts with no recorded accesses, so
+   * pages read once by a full scan are the first candidates for eviction.
+   */
+  void pageAccessed(BasePage page);
+
+  /**
+   * Records that a page evicted in the past has been promoted back from the off-heap cache. The page has been requested again after
+   * its eviction, so it should stay in the read cache instead of bouncing between the heap and the off-heap memory.
+   */
+  default void pagePromoted(final BasePage page) {
+    pageAccessed(page);
+  }
+
+  /**
+   * Removes pages from the read cache until at least `ramToFree` bytes have been released or no more candidates are available.
+   *
+   * @return The pages removed from the cache
+   */
+  List<ImmutablePage> evict(ConcurrentMap<PageId, ImmutablePage> readCache, long ramToFree);
+
+  /**
+   * Returns the number of pages visited by the policy while looking for candidates to evict.
+   */
+  long getPagesScanned();
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.engine;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scan resistant generalized CLOCK policy. Every page keeps a small saturating access counter that is incremented by readers
+ * without any lock. The eviction hand sweeps the read cache starting from where the previous run stopped: pages with a counter
+ * greater than zero get the counter decremented (second chance), while the others are evicted. Pages loaded by a full scan and
+ * never accessed again are evicted first, while frequently accessed pages (like the root pages of the indexes) stay in RAM.
+ * <p>
+ * The cost of each run is proportional to the RAM to free and not to the size of the cache.
+ */
+public class PageCacheEvictionPolicyClock implements PageCacheEvictionPolicy {
+  public static final String                  NAME             = "clock";
+  public static final int                     MAX_ACCESS_COUNT = 3;
+  private final       AtomicLong              pagesScanned     = new AtomicLong();
+  private             Iterator<ImmutablePage> hand;
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public void pageAccessed(final BasePage page) {
+    page.incrementAccessCounter(MAX_ACCESS_COUNT);
+  }
+
+  @Override
+  public void pagePromoted(final BasePage page) {
+    // THE PAGE HAS BEEN REQUESTED AGAIN AFTER ITS EVICTION: GIVE IT ALL THE CHANCES TO STAY IN THE HEAP
+    while (page.getAccessCounter() < MAX_ACCESS_COUNT)
+      page.incrementAccessCounter(MAX_ACCESS_COUNT);
+  }
+
+  @Override
+  public List<ImmutablePage> evict(final ConcurrentMap<PageId, ImmutablePage> readCache, final long ramToFree) {
+    final List<ImmutablePage> evicted = new ArrayList<>();
+
+    // LIMIT THE SWEEP TO THE NUMBER OF ROUNDS NEEDED TO BRING ALL THE COUNTERS TO ZERO
+    final long maxPagesToScan = (long) readCache.size() * (MAX_ACCESS_COUNT + 1);
+
+    long freedRAM = 0;
+    long scanned = 0;
+    while (freedRAM < ramToFree && scanned < maxPagesToScan) {
+      if (hand == null || !hand.hasNext()) {
+        // RESTART FROM THE BEGINNING OF THE CACHE
+        hand = readCache.values().iterator();
+        if (!hand.hasNext())
+          break;
+      }
+
+      final ImmutablePage page = hand.next();
+      ++scanned;
+
+      if (page.getAccessCounter() > 0)
+        page.decrementAccessCounter();
+      else if (readCache.remove(page.getPageId(), page)) {
+        evicted.add(page);
+        freedRAM += page.getPhysicalSize();
+      }
+    }
+
+    pagesScanned.addAndGet(scanned);
+    return evicted;
+  }
+
+  @Override
+  public long getPagesScanned() {
+    return pagesScanned.get();
+  }
+}
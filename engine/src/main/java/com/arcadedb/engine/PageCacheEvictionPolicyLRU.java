@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.engine;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evicts the least recently accessed pages first. Every eviction run scans the whole read cache to find the oldest pages, so with
+ * large caches the cost of the run is proportional to the cache size. A full scan of a big bucket evicts also frequently used pages.
+ */
+public class PageCacheEvictionPolicyLRU implements PageCacheEvictionPolicy {
+  public static final String     NAME         = "lru";
+  private final       AtomicLong pagesScanned = new AtomicLong();
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public void pageAccessed(final BasePage page) {
+    page.updateLastAccesses();
+  }
+
+  @Override
+  public List<ImmutablePage> evict(final ConcurrentMap<PageId, ImmutablePage> readCache, final long ramToFree) {
+    // ORDER PAGES BY LAST ACCESS + SIZE
+    long oldestPagesRAM = 0;
+    final TreeSet<ImmutablePage> oldestPages = new TreeSet<>((o1, o2) -> {
+      final int lastAccessed = Long.compare(o1.getLastAccessed(), o2.getLastAccessed());
+      if (lastAccessed != 0)
+        return lastAccessed;
+
+      final int pageSize = Long.compare(o1.getPhysicalSize(), o2.getPhysicalSize());
+      if (pageSize != 0)
+        return pageSize;
+
+      return o1.getPageId().compareTo(o2.getPageId());
+    });
+
+    long scanned = 0;
+    for (ImmutablePage page : readCache.values()) {
+      ++scanned;
+      if (oldestPagesRAM < ramToFree) {
+        // FILL FIRST PAGES
+        oldestPages.add(page);
+        oldestPagesRAM += page.getPhysicalSize();
+      } else {
+        if (page.getLastAccessed() < oldestPages.last().getLastAccessed()) {
+          oldestPages.add(page);
+          oldestPagesRAM += page.getPhysicalSize();
+
+          // REMOVE THE LESS OLD
+          final Iterator<ImmutablePage> it = oldestPages.iterator();
+          final ImmutablePage pageToRemove = it.next();
+          oldestPagesRAM -= pageToRemove.getPhysicalSize();
+          it.remove();
+        }
+      }
+    }
+    pagesScanned.addAndGet(scanned);
+
+    // REMOVE OLDEST PAGES FROM RAM
+    final List<ImmutablePage> evicted = new ArrayList<>();
+    long freedRAM = 0;
+    for (ImmutablePage page : oldestPages) {
+      if (readCache.remove(page.getPageId(), page)) {
+        evicted.add(page);
+        freedRAM += page.getPhysicalSize();
+        if (freedRAM > ramToFree)
+          break;
+      }
+    }
+    return evicted;
+  }
+
+  @Override
+  public long getPagesScanned() {
+    return pagesScanned.get();
+  }
+}
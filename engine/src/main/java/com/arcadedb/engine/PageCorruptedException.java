@@ -0,0 +1,41 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.engine;
+
+import com.arcadedb.exception.ArcadeDBException;
+
+/**
+ * Thrown when a page read from disk has an invalid checksum, because it has been partially written (torn write) or it has been
+ * damaged on the storage. The page is never cached, so every access to the page fails until the database is restored from a backup.
+ */
+public class PageCorruptedException extends ArcadeDBException {
+  private final PageId pageId;
+
+  public PageCorruptedException(final String s, final PageId pageId) {
+    super(s);
+    this.pageId = pageId;
+  }
+
+  public PageId getPageId() {
+    return pageId;
+  }
+}
@@ -28,14 +28,15 @@ import com.arcadedb.exception.ConfigurationException;
 import com.arcadedb.exception.DatabaseMetadataException;
 import com.arcadedb.log.LogManager;
 import com.arcadedb.utility.FileUtils;
+import com.arcadedb.utility.LatencyHistogram;
 import com.arcadedb.utility.LockContext;
 
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
@@ -62,33 +63,58 @@ public class PageManager extends LockContext {
   private final AtomicLong                           totalConcurrentModificationExceptions = new AtomicLong();
   private final AtomicLong                           evictionRuns                          = new AtomicLong();
   private final AtomicLong                           pagesEvicted                          = new AtomicLong();
-
-  private       long                   lastCheckForRAM        = 0;
-  private final long                   lastLowRAM             = 0;
-  private final long                   highPressureRAMCounter = 0;
-  private final PageManagerFlushThread flushThread;
-  private final int                    freePageRAM;
+  private final AtomicLong                           deltaWriteBytesSaved                  = new AtomicLong();
+  private final AtomicLong                           checksumErrors                        = new AtomicLong();
+  private final LatencyHistogram                     pageFlushLatency                      = new LatencyHistogram();
+
+  private volatile long                    lastCheckForRAM        = 0;
+  private final    long                    lastLowRAM             = 0;
+  private final    long                    highPressureRAMCounter = 0;
+  private final    PageManagerFlushThread  flushThread;
+  private final    int                     freePageRAM;
+  private final    PageCacheEvictionPolicy evictionPolicy;
+  private final    OffHeapPageCache        offHeapCache;
+  private final    AtomicBoolean           evicting               = new AtomicBoolean();
+  private final    boolean                 deltaWrites;
+  private final    boolean                 checksumOnWrite;
+  private final    boolean                 checksumOnRead;
 
   public interface ConcurrentPageAccessCallback {
     void access() throws IOException;
   }
 
   public static class PPageManagerStats {
-    public long maxRAM;
-    public long readCacheRAM;
-    public long writeCacheRAM;
-    public long pagesRead;
-    public long pagesReadSize;
-    public long pagesWritten;
-    public long pagesWrittenSize;
-    public int  pageFlushQueueLength;
-    public long cacheHits;
-    public long cacheMiss;
-    public long concurrentModificationExceptions;
-    public long evictionRuns;
-    public long pagesEvicted;
-    public int  readCachePages;
-    public int  writeCachePages;
+    public long   maxRAM;
+    public long   readCacheRAM;
+    public long   writeCacheRAM;
+    public long   pagesRead;
+    public long   pagesReadSize;
+    public long   pagesWritten;
+    public long   pagesWrittenSize;
+    public int    pageFlushQueueLength;
+    public long   cacheHits;
+    public long   cacheMiss;
+    public long   concurrentModificationExceptions;
+    public long   evictionRuns;
+    public long   pagesEvicted;
+    public String evictionPolicy;
+    public long   evictionPagesScanned;
+    public int    readCachePages;
+    public int    writeCachePages;
+    public long   offHeapMaxRAM;
+    public long   offHeapAllocatedRAM;
+    public long   offHeapUsedRAM;
+    public int    offHeapFragmentation;
+    public int    offHeapPages;
+    public int    offHeapFreeSlots;
+    public long   offHeapHits;
+    public long   offHeapMiss;
+    public long   offHeapPagesStored;
+    public long   offHeapPagesEvicted;
+    public long   deltaWriteBytesSaved;
+    public long   checksumErrors;
+    public long   pageFlushLatencyP99;
+    public long   pageFlushLatencyMax;
   }
 
   public PageManager(final FileManager fileManager, final TransactionManager txManager, final ContextConfiguration configuration) {
@@ -100,10 +126,42 @@ public class PageManager extends LockContext {
     this.writeCache = new ConcurrentHashMap<>(configuration.getValueAsInteger(GlobalConfiguration.INITIAL_PAGE_CACHE_SIZE));
 
     this.flushOnlyAtClose = configuration.getValueAsBoolean(GlobalConfiguration.FLUSH_ONLY_AT_CLOSE);
-
-    maxRAM = configuration.getValueAsLong(GlobalConfiguration.MAX_PAGE_RAM) * 1024 * 1024;
-    if (maxRAM < 0)
-      throw new ConfigurationException(GlobalConfiguration.MAX_PAGE_RAM.getKey() + " configuration is invalid (" + maxRAM + " MB)");
+    this.deltaWrites = configuration.getValueAsBoolean(GlobalConfiguration.FILE_DELTA_WRITES);
+
+    final String cfgChecksum = configuration.getValueAsString(GlobalConfiguration.PAGE_CHECKSUM);
+    if ("readWrite".equalsIgnoreCase(cfgChecksum)) {
+      checksumOnWrite = true;
+      checksumOnRead = true;
+    } else if ("write".equalsIgnoreCase(cfgChecksum)) {
+      checksumOnWrite = true;
+      checksumOnRead = false;
+    } else if ("none".equalsIgnoreCase(cfgChecksum)) {
+      checksumOnWrite = false;
+      checksumOnRead = false;
+    } else
+      throw new ConfigurationException(GlobalConfiguration.PAGE_CHECKSUM.getKey() + " configuration is invalid (" + cfgChecksum + ")");
+
+    final long pageRAM = configuration.getValueAsLong(GlobalConfiguration.MAX_PAGE_RAM) * 1024 * 1024;
+    if (pageRAM < 0)
+      throw new ConfigurationException(GlobalConfiguration.MAX_PAGE_RAM.getKey() + " configuration is invalid (" + pageRAM + " MB)");
+
+    // THE OFF-HEAP CACHE TAKES ITS SHARE FROM THE SAME BUDGET OF THE HEAP CACHE
+    final int offHeapPercentage = configuration.getValueAsInteger(GlobalConfiguration.OFF_HEAP_PAGE_RAM_PERCENTAGE);
+    if (offHeapPercentage < 0 || offHeapPercentage > 90)
+      throw new ConfigurationException(
+          GlobalConfiguration.OFF_HEAP_PAGE_RAM_PERCENTAGE.getKey() + " configuration is invalid (" + offHeapPercentage + "%), it must be between 0 and 90");
+
+    final long offHeapRAM = pageRAM * offHeapPercentage / 100;
+    maxRAM = pageRAM - offHeapRAM;
+    offHeapCache = offHeapRAM > 0 ? new OffHeapPageCache(offHeapRAM) : null;
+
+    final String cfgEvictionPolicy = configuration.getValueAsString(GlobalConfiguration.PAGE_CACHE_EVICTION_POLICY);
+    if (PageCacheEvictionPolicyClock.NAME.equalsIgnoreCase(cfgEvictionPolicy))
+      evictionPolicy = new PageCacheEvictionPolicyClock();
+    else if (PageCacheEvictionPolicyLRU.NAME.equalsIgnoreCase(cfgEvictionPolicy))
+      evictionPolicy = new PageCacheEvictionPolicyLRU();
+    else
+      throw new ConfigurationException(GlobalConfiguration.PAGE_CACHE_EVICTION_POLICY.getKey() + " configuration is invalid (" + cfgEvictionPolicy + ")");
 
     flushThread = new PageManagerFlushThread(this, configuration);
     flushThread.start();
@@ -133,6 +191,8 @@ public class PageManager extends LockContext {
     readCache.clear();
     totalReadCacheRAM.set(0);
     totalWriteCacheRAM.set(0);
+    if (offHeapCache != null)
+      offHeapCache.close();
 
     flushOnlyAtClose = flushOnlyAtCloseOld;
   }
@@ -154,11 +214,15 @@ public class PageManager extends LockContext {
     readCache.clear();
     totalReadCacheRAM.set(0);
     totalWriteCacheRAM.set(0);
+    if (offHeapCache != null)
+      offHeapCache.close();
   }
 
   public void clear() {
     readCache.clear();
     totalReadCacheRAM.set(0);
+    if (offHeapCache != null)
+      offHeapCache.clear();
   }
 
   public void deleteFile(final int fileId) {
@@ -178,6 +242,9 @@ public class PageManager extends LockContext {
         it.remove();
       }
     }
+
+    if (offHeapCache != null)
+      offHeapCache.invalidateFile(fileId);
   }
 
   public BasePage getPage(final PageId pageId, final int pageSize, final boolean isNew, final boolean createIfNotExists) throws IOException {
@@ -197,7 +264,7 @@ public class PageManager extends LockContext {
 
       } else {
         cacheHits.incrementAndGet();
-        page.updateLastAccesses();
+        evictionPolicy.pageAccessed(page);
       }
 
       if (page == null)
@@ -207,6 +274,24 @@ public class PageManager extends LockContext {
     return page;
   }
 
+  /**
+   * Returns the page to restore from the WAL. If the page is not in cache, it is read from disk without verifying the checksum and
+   * without caching it, so the recovery can check if the page has been partially written.
+   */
+  public BasePage getPageToRecover(final PageId pageId, final int pageSize) throws IOException {
+    BasePage page = writeCache.get(pageId);
+    if (page == null)
+      page = readCache.get(pageId);
+    if (page != null)
+      return page;
+
+    final PaginatedFile file = fileManager.getFile(pageId.getFileId());
+    final ImmutablePage loaded = new ImmutablePage(this, pageId, pageSize);
+    concurrentPageAccess(pageId, false, () -> file.read(loaded));
+    loaded.loadMetadata();
+    return loaded;
+  }
+
   public BasePage checkPageVersion(final MutablePage page, final boolean isNew) throws IOException {
     final PageId pageId = page.getPageId();
 
@@ -260,8 +345,15 @@ public class PageManager extends LockContext {
       page.flushMetadata();
 
       // ADD THE PAGE IN TO WRITE CACHE. FROM THIS POINT THE PAGE IS NEVER MODIFIED DIRECTLY, SO IT CAN BE SHARED
-      if (writeCache.put(page.pageId, page) == null)
+      final MutablePage previousVersion = writeCache.put(page.pageId, page);
+      if (previousVersion == null)
         totalWriteCacheRAM.addAndGet(page.getPhysicalSize());
+      else
+        // THE PREVIOUS VERSION COULD BE NOT FLUSHED YET: WRITE ALSO ITS CHANGES
+        page.mergeModifiedRange(previousVersion);
+
+      if (offHeapCache != null)
+        offHeapCache.invalidate(page.pageId);
 
       if (asyncFlush) {
         // ASYNCHRONOUS FLUSH
@@ -281,8 +373,14 @@ public class PageManager extends LockContext {
     readCache.remove(page.pageId);
 
     // ADD THE PAGE IN TO WRITE CACHE. FROM THIS POINT THE PAGE IS NEVER MODIFIED DIRECTLY, SO IT CAN BE SHARED
-    if (writeCache.put(page.pageId, page) == null)
+    final MutablePage previousVersion = writeCache.put(page.pageId, page);
+    if (previousVersion == null)
       totalWriteCacheRAM.addAndGet(page.getPhysicalSize());
+    else
+      page.mergeModifiedRange(previousVersion);
+
+    if (offHeapCache != null)
+      offHeapCache.invalidate(page.pageId);
 
     flushPage(page);
 
@@ -290,6 +388,10 @@ public class PageManager extends LockContext {
         .log(this, Level.FINE, "Overwritten page %s (size=%d threadId=%d)", null, page, page.getPhysicalSize(), Thread.currentThread().getId());
   }
 
+  public LatencyHistogram getPageFlushLatency() {
+    return pageFlushLatency;
+  }
+
   public PPageManagerStats getStats() {
     final PPageManagerStats stats = new PPageManagerStats();
     stats.maxRAM = maxRAM;
@@ -300,6 +402,10 @@ public class PageManager extends LockContext {
     stats.pagesRead = totalPagesRead.get();
     stats.pagesReadSize = totalPagesReadSize.get();
     stats.pagesWritten = totalPagesWritten.get();
+    stats.deltaWriteBytesSaved = deltaWriteBytesSaved.get();
+    stats.checksumErrors = checksumErrors.get();
+    stats.pageFlushLatencyP99 = pageFlushLatency.getPercentile(99);
+    stats.pageFlushLatencyMax = pageFlushLatency.getMax();
     stats.pagesWrittenSize = totalPagesWrittenSize.get();
     stats.pageFlushQueueLength = flushThread.queue.size();
     stats.cacheHits = cacheHits.get();
@@ -307,6 +413,21 @@ public class PageManager extends LockContext {
     stats.concurrentModificationExceptions = totalConcurrentModificationExceptions.get();
     stats.evictionRuns = evictionRuns.get();
     stats.pagesEvicted = pagesEvicted.get();
+    stats.evictionPolicy = evictionPolicy.getName();
+    stats.evictionPagesScanned = evictionPolicy.getPagesScanned();
+    if (offHeapCache != null) {
+      final OffHeapPageCache.OffHeapPageCacheStats offHeapStats = offHeapCache.getStats();
+      stats.offHeapMaxRAM = offHeapStats.maxRAM;
+      stats.offHeapAllocatedRAM = offHeapStats.allocatedRAM;
+      stats.offHeapUsedRAM = offHeapStats.usedRAM;
+      stats.offHeapFragmentation = offHeapStats.getFragmentation();
+      stats.offHeapPages = offHeapStats.pages;
+      stats.offHeapFreeSlots = offHeapStats.freeSlots;
+      stats.offHeapHits = offHeapStats.hits;
+      stats.offHeapMiss = offHeapStats.miss;
+      stats.offHeapPagesStored = offHeapStats.pagesStored;
+      stats.offHeapPagesEvicted = offHeapStats.pagesEvicted;
+    }
     return stats;
   }
 
@@ -325,6 +446,9 @@ public class PageManager extends LockContext {
     final MutablePage page2 = writeCache.remove(pageId);
     if (page2 != null)
       totalWriteCacheRAM.addAndGet(-1 * page2.getPhysicalSize());
+
+    if (offHeapCache != null)
+      offHeapCache.invalidate(pageId);
   }
 
   public void flushPagesOfFile(final int fileId) {
@@ -366,11 +490,25 @@ public class PageManager extends LockContext {
         if (!flushOnlyAtClose) {
           putPageInCache(page.createImmutableView());
 
+          if (offHeapCache != null)
+            offHeapCache.invalidate(page.pageId);
+
+          if (!deltaWrites)
+            page.updateModifiedRange(0, page.getPhysicalSize() - 1);
+
+          if (checksumOnWrite)
+            page.updateChecksum();
+          else
+            page.removeChecksum();
+
           // ACQUIRE A LOCK ON THE I/O OPERATION TO AVOID PARTIAL READS/WRITES
+          final long beginTime = System.nanoTime();
           concurrentPageAccess(page.pageId, true, () -> {
             int written = file.write(page);
             totalPagesWrittenSize.addAndGet(written);
+            deltaWriteBytesSaved.addAndGet(page.getPhysicalSize() - written);
           });
+          pageFlushLatency.recordNanos(System.nanoTime() - beginTime);
 
           totalPagesWritten.incrementAndGet();
         }
@@ -387,6 +525,14 @@ public class PageManager extends LockContext {
     }
   }
 
+  /**
+   * Returns the size of the footer with the checksum of the pages of the file, depending on its page format.
+   */
+  public int getPageFooterSize(final int fileId) {
+    final PaginatedFile file = fileManager.existsFile(fileId) ? fileManager.getFile(fileId) : null;
+    return file != null ? file.getPageFooterSize() : 0;
+  }
+
   private ImmutablePage loadPage(final PageId pageId, final int size, boolean createIfNotExists) throws IOException {
     final PaginatedFile file = fileManager.getFile(pageId.getFileId());
 
@@ -398,16 +544,29 @@ public class PageManager extends LockContext {
 
     final ImmutablePage page = new ImmutablePage(this, pageId, size);
 
-    // ACQUIRE A LOCK ON THE I/O OPERATION TO AVOID PARTIAL READS/WRITES
-    concurrentPageAccess(pageId, false, () -> file.read(page));
+    if (offHeapCache != null && offHeapCache.moveToHeap(page))
+      // PROMOTED ONCE FROM THE OFF-HEAP CACHE: FROM NOW ON THE PAGE IS SERVED FROM THE HEAP WITHOUT FURTHER COPIES
+      evictionPolicy.pagePromoted(page);
+    else {
+      // ACQUIRE A LOCK ON THE I/O OPERATION TO AVOID PARTIAL READS/WRITES
+      concurrentPageAccess(pageId, false, () -> file.read(page));
+
+      totalPagesRead.incrementAndGet();
+      totalPagesReadSize.addAndGet(page.getPhysicalSize());
+
+      if (checksumOnRead && !page.isChecksumValid()) {
+        // THE PAGE HAS BEEN PARTIALLY WRITTEN OR DAMAGED: IT IS NOT CACHED, SO NO CALLER CAN USE ITS CONTENT. A TORN WRITE IS REPAIRED
+        // ONLY BY THE RECOVERY FROM THE WAL AT THE NEXT OPENING, AFTER A CRASH
+        checksumErrors.incrementAndGet();
+        LogManager.instance().log(this, Level.SEVERE, "Invalid checksum for page %s in file '%s': the page is corrupted", null, pageId, file.getFileName());
+        throw new PageCorruptedException("Invalid checksum for page " + pageId + " in file '" + file.getFileName() + "'", pageId);
+      }
+    }
 
     page.loadMetadata();
 
     LogManager.instance().log(this, Level.FINE, "Loaded page %s (threadId=%d)", null, page, Thread.currentThread().getId());
 
-    totalPagesRead.incrementAndGet();
-    totalPagesReadSize.addAndGet(page.getPhysicalSize());
-
     putPageInCache(page);
 
     return page;
@@ -429,7 +588,7 @@ public class PageManager extends LockContext {
     }
   }
 
-  private synchronized void checkForPageDisposal() {
+  private void checkForPageDisposal() {
     final long now = System.currentTimeMillis();
     if (now - lastCheckForRAM < 100)
       return;
@@ -439,73 +598,44 @@ public class PageManager extends LockContext {
     if (totalRAM < maxRAM)
       return;
 
-    final long ramToFree = totalRAM * freePageRAM / 100;
+    // ONLY ONE THREAD AT A TIME EVICTS PAGES, THE OTHER THREADS DO NOT WAIT FOR IT
+    if (!evicting.compareAndSet(false, true))
+      return;
 
-    evictionRuns.incrementAndGet();
+    try {
+      final long ramToFree = totalRAM * freePageRAM / 100;
 
-    LogManager.instance()
-        .log(this, Level.FINE, "Reached max RAM for page cache. Freeing pages from cache (target=%d current=%d max=%d threadId=%d)", null, ramToFree, totalRAM,
-            maxRAM, Thread.currentThread().getId());
-
-    // GET THE <DISPOSE_PAGES_PER_CYCLE> OLDEST PAGES
-    // ORDER PAGES BY LAST ACCESS + SIZE
-    long oldestPagesRAM = 0;
-    final TreeSet<BasePage> oldestPages = new TreeSet<>((o1, o2) -> {
-      final int lastAccessed = Long.compare(o1.getLastAccessed(), o2.getLastAccessed());
-      if (lastAccessed != 0)
-        return lastAccessed;
-
-      final int pageSize = Long.compare(o1.getPhysicalSize(), o2.getPhysicalSize());
-      if (pageSize != 0)
-        return pageSize;
-
-      return o1.getPageId().compareTo(o2.getPageId());
-    });
-
-    for (ImmutablePage page : readCache.values()) {
-      if (oldestPagesRAM < ramToFree) {
-        // FILL FIRST PAGES
-        oldestPages.add(page);
-        oldestPagesRAM += page.getPhysicalSize();
-      } else {
-        if (page.getLastAccessed() < oldestPages.last().getLastAccessed()) {
-          oldestPages.add(page);
-          oldestPagesRAM += page.getPhysicalSize();
-
-          // REMOVE THE LESS OLD
-          final Iterator<BasePage> it = oldestPages.iterator();
-          final BasePage pageToRemove = it.next();
-          oldestPagesRAM -= pageToRemove.getPhysicalSize();
-          it.remove();
-        }
-      }
-    }
+      evictionRuns.incrementAndGet();
 
-    // REMOVE OLDEST PAGES FROM RAM
-    long freedRAM = 0;
-    for (BasePage page : oldestPages) {
-      if (page instanceof ImmutablePage) {
-        final ImmutablePage removedPage = readCache.remove(page.pageId);
-        if (removedPage != null) {
-          freedRAM += page.getPhysicalSize();
-          totalReadCacheRAM.addAndGet(-1 * page.getPhysicalSize());
-          pagesEvicted.incrementAndGet();
-
-          if (freedRAM > ramToFree)
-            break;
-        }
+      LogManager.instance()
+          .log(this, Level.FINE, "Reached max RAM for page cache. Freeing pages from cache (policy=%s target=%d current=%d max=%d threadId=%d)", null,
+              evictionPolicy.getName(), ramToFree, totalRAM, maxRAM, Thread.currentThread().getId());
+
+      // TAKE THE SNAPSHOT BEFORE REMOVING THE PAGES, SO PAGES MODIFIED IN THE MEANTIME ARE NOT MOVED OFF-HEAP
+      final long[] offHeapSnapshot = offHeapCache != null ? offHeapCache.getInvalidationSnapshot() : null;
+
+      long freedRAM = 0;
+      for (ImmutablePage page : evictionPolicy.evict(readCache, ramToFree)) {
+        freedRAM += page.getPhysicalSize();
+        totalReadCacheRAM.addAndGet(-1 * page.getPhysicalSize());
+        pagesEvicted.incrementAndGet();
+
+        if (offHeapCache != null)
+          offHeapCache.put(page, offHeapSnapshot);
       }
-    }
 
-    final long newTotalRAM = totalReadCacheRAM.get();
+      final long newTotalRAM = totalReadCacheRAM.get();
 
-    LogManager.instance().log(this, Level.FINE, "Freed %s RAM (current=%s max=%s threadId=%d)", null, FileUtils.getSizeAsString(freedRAM),
-        FileUtils.getSizeAsString(newTotalRAM), FileUtils.getSizeAsString(maxRAM), Thread.currentThread().getId());
+      LogManager.instance().log(this, Level.FINE, "Freed %s RAM (current=%s max=%s threadId=%d)", null, FileUtils.getSizeAsString(freedRAM),
+          FileUtils.getSizeAsString(newTotalRAM), FileUtils.getSizeAsString(maxRAM), Thread.currentThread().getId());
 
-    if (newTotalRAM > maxRAM)
-      LogManager.instance().log(this, Level.WARNING, "Cannot free pages in RAM (current=%s > max=%s threadId=%d)", null, FileUtils.getSizeAsString(newTotalRAM),
-          FileUtils.getSizeAsString(maxRAM), Thread.currentThread().getId());
+      if (newTotalRAM > maxRAM)
+        LogManager.instance().log(this, Level.WARNING, "Cannot free pages in RAM (current=%s > max=%s threadId=%d)", null, FileUtils.getSizeAsString(newTotalRAM),
+            FileUtils.getSizeAsString(maxRAM), Thread.currentThread().getId());
 
-    lastCheckForRAM = System.currentTimeMillis();
+      lastCheckForRAM = System.currentTimeMillis();
+    } finally {
+      evicting.set(false);
+    }
   }
 }
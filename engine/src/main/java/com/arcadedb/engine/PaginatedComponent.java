@@ -62,7 +62,7 @@ public abstract class PaginatedComponent {
 
   private PaginatedComponent(final DatabaseInternal database, final String name, String filePath, final String ext, final int id, final PaginatedFile.MODE mode,
       final int pageSize) throws IOException {
-    this(database, name, filePath + "." + id + "." + pageSize + "." + ext, id, mode, pageSize);
+    this(database, name, filePath + "." + id + "." + pageSize + ".v" + PaginatedFile.PAGE_FORMAT_CURRENT + "." + ext, id, mode, pageSize);
   }
 
   public File getOSFile() {
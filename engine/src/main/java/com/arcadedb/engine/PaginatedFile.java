@@ -21,6 +21,7 @@
 
 package com.arcadedb.engine;
 
+import com.arcadedb.database.Binary;
 import com.arcadedb.log.LogManager;
 
 import java.io.File;
@@ -37,6 +38,17 @@ public class PaginatedFile {
     READ_ONLY, READ_WRITE
   }
 
+  /**
+   * Page format of the files created before the page checksum: the pages have no footer. The file name has no page format version.
+   */
+  public static final int PAGE_FORMAT_LEGACY   = 0;
+  /**
+   * Page format with the checksum in the page footer (see {@link BasePage}). The file name contains the page format version (`.v1`)
+   * between the page size and the extension.
+   */
+  public static final int PAGE_FORMAT_CHECKSUM = 1;
+  public static final int PAGE_FORMAT_CURRENT  = PAGE_FORMAT_CHECKSUM;
+
   private final MODE        mode;
   private       String      filePath;
   private       String      fileName;
@@ -44,6 +56,7 @@ public class PaginatedFile {
   private       FileChannel channel;
   private       int         fileId;
   private       int         pageSize;
+  private       int         pageFormat;
   private       String      componentName;
   private       String      fileExtension;
   private       boolean     open;
@@ -96,6 +109,13 @@ public class PaginatedFile {
     return channel.size() / pageSize;
   }
 
+  /**
+   * Truncates the file to the number of pages passed as argument. The removed pages must not be in the page cache.
+   */
+  public void truncate(final int totalPages) throws IOException {
+    channel.truncate((long) totalPages * pageSize);
+  }
+
   public void flush() throws IOException {
     channel.force(true);
   }
@@ -105,46 +125,70 @@ public class PaginatedFile {
   }
 
   /**
-   * Returns the byte written. Current implementation flushes always the entire page because (1) there is not a sensible increase of
-   * performance and (2) in case a page is modified multiple times before the flush now it's overwritten in the writeCache map.
+   * Writes the page on disk and returns the bytes written. Only the modified range of the page is written (delta write), plus the
+   * page header that contains version and content size and the page footer with the checksum of the whole page (if any), so a
+   * partial write can be detected at the next read. The checksum must be already computed with {@link MutablePage#updateChecksum()}.
+   * To write the entire page, mark the whole page as modified with {@link MutablePage#updateModifiedRange(int, int)}.
    */
   public int write(final MutablePage page) throws IOException {
     if (page.pageId.getPageNumber() < 0)
       throw new IllegalArgumentException("Invalid page number to write: " + page.pageId.getPageNumber());
 
     assert page.getPageId().getFileId() == fileId;
+
     final ByteBuffer buffer = page.getContent();
+    final int physicalSize = page.getPhysicalSize();
+    final long pagePosition = physicalSize * (long) page.getPageId().getPageNumber();
+    final int footerFrom = physicalSize - page.getFooterSize();
+
+    final int[] range = page.getModifiedRange();
+    final int rangeFrom = Math.max(range[0], 0);
+    final int rangeTo = Math.min(range[1], physicalSize - 1);
+
+    int written = 0;
+    int headerTo = BasePage.PAGE_HEADER_SIZE;
+    boolean footerWritten = footerFrom == physicalSize;
+
+    if (rangeTo < BasePage.PAGE_HEADER_SIZE || rangeFrom <= BasePage.PAGE_HEADER_SIZE) {
+      // THE MODIFIED RANGE IS CONTIGUOUS TO THE HEADER: ONE WRITE
+      headerTo = Math.max(rangeTo + 1, BasePage.PAGE_HEADER_SIZE);
+      if (headerTo >= footerFrom) {
+        headerTo = physicalSize;
+        footerWritten = true;
+      }
+    } else {
+      // WRITE THE DELTA FIRST, THEN THE FOOTER WITH THE CHECKSUM AND THE HEADER WITH THE NEW VERSION AT THE END
+      int deltaTo = rangeTo + 1;
+      if (deltaTo >= footerFrom) {
+        deltaTo = physicalSize;
+        footerWritten = true;
+      }
+      written += writeRange(buffer, pagePosition, rangeFrom, deltaTo);
+    }
+
+    if (!footerWritten)
+      written += writeRange(buffer, pagePosition, footerFrom, physicalSize);
+
+    written += writeRange(buffer, pagePosition, 0, headerTo);
+    return written;
+  }
+
+  private int writeRange(final ByteBuffer pageBuffer, final long pagePosition, final int from, final int to) throws IOException {
+    // USE A DUPLICATE TO AVOID CHANGING THE POSITION OF THE SHARED BUFFER
+    final ByteBuffer buffer = pageBuffer.duplicate();
+    buffer.limit(to);
+    buffer.position(from);
 
-    buffer.rewind();
     try {
-      channel.write(buffer, (page.getPhysicalSize() * (long) page.getPageId().getPageNumber()));
+      while (buffer.hasRemaining())
+        channel.write(buffer, pagePosition + buffer.position());
     } catch (ClosedChannelException e) {
       LogManager.instance().log(this, Level.SEVERE, "File '%s' was closed on write. Reopen it and retry...", null, fileName);
       open(filePath, mode);
-      channel.write(buffer, (page.getPhysicalSize() * (long) page.getPageId().getPageNumber()));
+      while (buffer.hasRemaining())
+        channel.write(buffer, pagePosition + buffer.position());
     }
-    return pageSize;
-//
-//    final int[] range = page.getModifiedRange();
-//
-//    assert range[0] > -1 && range[1] < pageSize;
-//
-//    if (range[0] == 0 && range[1] == pageSize - 1) {
-//      // FLUSH THE ENTIRE PAGE
-//      buffer.rewind();
-//      channel.write(buffer, (page.getPhysicalSize() * (long) page.getPageId().getPageNumber()));
-//      return pageSize;
-//    }
-//
-//    // FLUSH ONLY THE UPDATED VERSION + DELTA
-//    buffer.position(range[1] + 1);
-//    buffer.flip();
-//    buffer.rewind(); // ALWAYS WRITE FROM 0 TO INCLUDE PAGE VERSION
-//    final ByteBuffer delta = buffer.slice();
-//
-//    channel.write(delta, (page.getPhysicalSize() * (long) page.getPageId().getPageNumber()));
-//
-//    return range[1] - range[0] + 1;
+    return to - from;
   }
 
   public void read(final ImmutablePage page) throws IOException {
@@ -168,6 +212,13 @@ public class PaginatedFile {
     return open;
   }
 
+  /**
+   * Returns true if the pages are read from memory mapped regions of the file.
+   */
+  public boolean isMemoryMapped() {
+    return false;
+  }
+
   public String getFilePath() {
     return filePath;
   }
@@ -196,13 +247,57 @@ public class PaginatedFile {
     return pageSize;
   }
 
+  public int getPageFormat() {
+    return pageFormat;
+  }
+
+  /**
+   * Returns the size of the footer reserved to the checksum in every page of the file: 0 for the legacy page format.
+   */
+  public int getPageFooterSize() {
+    return pageFormat >= PAGE_FORMAT_CHECKSUM ? BasePage.PAGE_CHECKSUM_SIZE : 0;
+  }
+
+  /**
+   * Upgrades the file with the legacy page format to the page format with the checksum, by renaming the file. No page is rewritten:
+   * the checksum of a page is stored the next time the page is written on disk. The upgrade is possible only if no page uses the last
+   * bytes that become the page footer, so the content size of every page is checked before. The file must not be in use by the
+   * page cache.
+   *
+   * @return true if the file has been upgraded, false if it is already in the current format or a page is too full to be upgraded
+   */
+  public boolean upgradePageFormat() throws IOException {
+    if (pageFormat >= PAGE_FORMAT_CURRENT)
+      return false;
+
+    final ByteBuffer contentSize = ByteBuffer.allocate(Binary.INT_SERIALIZED_SIZE);
+    final long totalPages = getTotalPages();
+    for (long pageNumber = 0; pageNumber < totalPages; ++pageNumber) {
+      contentSize.clear();
+      channel.read(contentSize, pageNumber * pageSize + BasePage.PAGE_CONTENTSIZE_OFFSET);
+      if (contentSize.getInt(0) > pageSize - BasePage.PAGE_CHECKSUM_SIZE)
+        return false;
+    }
+
+    final int extPos = fileName.lastIndexOf(".");
+    rename(fileName.substring(0, extPos) + ".v" + PAGE_FORMAT_CURRENT + fileName.substring(extPos));
+    return true;
+  }
+
   @Override
   public String toString() {
     return filePath;
   }
 
+  protected FileChannel getChannel() {
+    return channel;
+  }
+
   public static String getFileNameFromPath(final String filePath) {
-    final String filePrefix = filePath.substring(0, filePath.lastIndexOf("."));
+    String filePrefix = filePath.substring(0, filePath.lastIndexOf("."));
+    final int pageFormatPos = filePrefix.lastIndexOf(".");
+    if (pageFormatPos > -1 && filePrefix.startsWith("v", pageFormatPos + 1))
+      filePrefix = filePrefix.substring(0, pageFormatPos);
 
     final String fileName;
     final int fileIdPos = filePrefix.lastIndexOf(".");
@@ -222,6 +317,13 @@ public class PaginatedFile {
     String filePrefix = filePath.substring(0, filePath.lastIndexOf("."));
     this.fileExtension = filePath.substring(filePath.lastIndexOf(".") + 1);
 
+    final int pageFormatPos = filePrefix.lastIndexOf(".");
+    if (pageFormatPos > -1 && filePrefix.startsWith("v", pageFormatPos + 1)) {
+      pageFormat = Integer.parseInt(filePrefix.substring(pageFormatPos + 2));
+      filePrefix = filePrefix.substring(0, pageFormatPos);
+    } else
+      pageFormat = PAGE_FORMAT_LEGACY;
+
     final int pageSizePos = filePrefix.lastIndexOf(".");
     pageSize = Integer.parseInt(filePrefix.substring(pageSizePos + 1));
     filePrefix = filePrefix.substring(0, pageSizePos);
@@ -21,11 +21,13 @@
 
 package com.arcadedb.engine;
 
+import com.arcadedb.GlobalConfiguration;
 import com.arcadedb.database.Binary;
 import com.arcadedb.database.DatabaseInternal;
 import com.arcadedb.exception.SchemaException;
 import com.arcadedb.exception.TransactionException;
 import com.arcadedb.log.LogManager;
+import com.arcadedb.utility.LatencyHistogram;
 import com.arcadedb.utility.LockManager;
 
 import java.io.File;
@@ -33,12 +35,17 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.channels.ClosedByInterruptException;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 
 public class TransactionManager {
-  private static final long MAX_LOG_FILE_SIZE = 64 * 1024 * 1024;
+  private static final long MAX_LOG_FILE_SIZE     = 64 * 1024 * 1024;
+  private static final long GROUP_COMMIT_MAX_PARK = 1_000_000; // 1MS: THE WAITING THREADS ARE WOKEN UP EXPLICITLY, THIS IS ONLY A SAFETY NET
 
   private final DatabaseInternal database;
   private       WALFile[]        activeWALFilePool;
@@ -52,14 +59,51 @@ public class TransactionManager {
   private final AtomicLong                   logFileCounter     = new AtomicLong();
   private final LockManager<Integer, Thread> fileIdsLockManager = new LockManager<>();
 
-  private final AtomicLong statsPagesWritten = new AtomicLong();
-  private final AtomicLong statsBytesWritten = new AtomicLong();
+  // GROUP COMMIT
+  private final int                                    groupCommitMaxSize;
+  private final long                                   groupCommitWindowNanos;
+  private final ConcurrentLinkedQueue<WALWriteRequest> groupCommitQueue  = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean                          groupCommitLeader = new AtomicBoolean();
+  private final AtomicInteger                          groupCommitFile   = new AtomicInteger();
+
+  private final AtomicLong       statsPagesWritten            = new AtomicLong();
+  private final AtomicLong       statsBytesWritten            = new AtomicLong();
+  private final AtomicLong       statsGroupCommits            = new AtomicLong();
+  private final AtomicLong       statsGroupCommitTransactions = new AtomicLong();
+  private final AtomicLong       statsDeltaBytesSaved         = new AtomicLong();
+  private final LatencyHistogram statsWALWriteLatency         = new LatencyHistogram();
+  private final LatencyHistogram statsCommit1stPhaseLatency   = new LatencyHistogram();
+  private final LatencyHistogram statsCommit2ndPhaseLatency   = new LatencyHistogram();
+
+  /**
+   * Transaction waiting to be written in the WAL by the group commit. The leader thread writes the whole group, sets `done` and wakes up
+   * the thread of each transaction.
+   */
+  private static class WALWriteRequest {
+    private final    List<MutablePage>  pages;
+    private final    WALFile.FLUSH_TYPE sync;
+    private final    long               txId;
+    private final    Binary             buffer;
+    private final    Thread             thread = Thread.currentThread();
+    private volatile boolean            done   = false;
+    private volatile RuntimeException   error;
+
+    private WALWriteRequest(final List<MutablePage> pages, final WALFile.FLUSH_TYPE sync, final long txId, final Binary buffer) {
+      this.pages = pages;
+      this.sync = sync;
+      this.txId = txId;
+      this.buffer = buffer;
+    }
+  }
 
   public TransactionManager(final DatabaseInternal database) {
     this.database = database;
 
     this.logContext = LogManager.instance().getContext();
 
+    this.groupCommitMaxSize = database.getConfiguration().getValueAsInteger(GlobalConfiguration.TX_WAL_GROUP_COMMIT_MAX_SIZE);
+    this.groupCommitWindowNanos = database.getConfiguration().getValueAsLong(GlobalConfiguration.TX_WAL_GROUP_COMMIT_WINDOW) * 1000;
+
     if (database.getMode() == PaginatedFile.MODE.READ_WRITE) {
       createWALFilePool();
 
@@ -126,10 +170,30 @@ public class TransactionManager {
   }
 
   public Binary createTransactionBuffer(final long txId, final List<MutablePage> pages) {
-    return WALFile.writeTransactionToBuffer(pages, txId);
+    final Binary buffer = WALFile.writeTransactionToBuffer(pages, txId);
+
+    // THE WAL CONTAINS ONLY THE MODIFIED RANGE OF EACH PAGE
+    long fullPagesSize = 0;
+    for (MutablePage page : pages)
+      fullPagesSize += page.getPhysicalSize();
+    statsDeltaBytesSaved.addAndGet(Math.max(0, fullPagesSize - buffer.size()));
+
+    return buffer;
   }
 
   public void writeTransactionToWAL(final List<MutablePage> pages, final WALFile.FLUSH_TYPE sync, final long txId, final Binary bufferChanges) {
+    final long beginTime = System.nanoTime();
+
+    if (sync == WALFile.FLUSH_TYPE.NO || groupCommitMaxSize < 2)
+      // WITHOUT FLUSH THERE IS NO COST TO AMORTIZE: EVERY THREAD APPENDS TO ITS OWN WAL FILE IN PARALLEL
+      writeSingleTransactionToWAL(pages, sync, txId, bufferChanges);
+    else
+      writeTransactionToWALInGroup(new WALWriteRequest(pages, sync, txId, bufferChanges));
+
+    statsWALWriteLatency.recordNanos(System.nanoTime() - beginTime);
+  }
+
+  private void writeSingleTransactionToWAL(final List<MutablePage> pages, final WALFile.FLUSH_TYPE sync, final long txId, final Binary bufferChanges) {
     while (true) {
       final WALFile file = activeWALFilePool[(int) (Thread.currentThread().getId() % activeWALFilePool.length)];
 
@@ -148,6 +212,112 @@ public class TransactionManager {
     }
   }
 
+  /**
+   * Group commit: the transaction at the head of the queue becomes the leader and writes all the pending transactions with one write and one
+   * flush. Before leading, the head waits for the group commit window without holding the leadership, so the other transactions keep joining
+   * the queue. The other threads (followers) wait for their request to be written, then they execute their own callbacks.
+   */
+  private void writeTransactionToWALInGroup(final WALWriteRequest request) {
+    groupCommitQueue.offer(request);
+
+    boolean waited = groupCommitWindowNanos <= 0;
+    while (!request.done) {
+      if (groupCommitQueue.peek() == request) {
+        if (!waited && groupCommitQueue.size() < groupCommitMaxSize) {
+          // WAIT FOR MORE TRANSACTIONS TO JOIN THE GROUP
+          waited = true;
+          LockSupport.parkNanos(this, groupCommitWindowNanos);
+          continue;
+        }
+
+        if (groupCommitLeader.compareAndSet(false, true)) {
+          try {
+            final List<WALWriteRequest> group = new ArrayList<>(Math.min(groupCommitMaxSize, 16));
+            WALWriteRequest next;
+            while (group.size() < groupCommitMaxSize && (next = groupCommitQueue.poll()) != null)
+              group.add(next);
+
+            writeGroupToWAL(group);
+          } finally {
+            groupCommitLeader.set(false);
+          }
+
+          // THE NEXT TRANSACTION IN THE QUEUE LEADS THE NEXT GROUP
+          final WALWriteRequest nextLeader = groupCommitQueue.peek();
+          if (nextLeader != null)
+            LockSupport.unpark(nextLeader.thread);
+          continue;
+        }
+      }
+
+      // WOKEN UP WHEN THE REQUEST HAS BEEN WRITTEN OR WHEN IT BECOMES THE HEAD OF THE QUEUE
+      LockSupport.parkNanos(this, GROUP_COMMIT_MAX_PARK);
+    }
+
+    if (request.error != null)
+      throw request.error;
+
+    try {
+      database.executeCallbacks(DatabaseInternal.CALLBACK_EVENT.TX_AFTER_WAL_WRITE);
+    } catch (IOException e) {
+      throw new WALException("Error on executing the callbacks after the write to the WAL", e);
+    }
+  }
+
+  private void writeGroupToWAL(final List<WALWriteRequest> group) {
+    if (group.isEmpty())
+      return;
+
+    // KEEP THE TRANSACTIONS IN THE WAL FILE ORDERED BY ID, AS EXPECTED BY THE RECOVERY
+    group.sort(Comparator.comparingLong(r -> r.txId));
+
+    WALFile.FLUSH_TYPE sync = WALFile.FLUSH_TYPE.NO;
+    final Binary[] buffers = new Binary[group.size()];
+    for (int i = 0; i < buffers.length; ++i) {
+      final WALWriteRequest r = group.get(i);
+      buffers[i] = r.buffer;
+      if (r.sync.ordinal() > sync.ordinal())
+        sync = r.sync;
+    }
+    final WALFile.FLUSH_TYPE groupSync = sync;
+
+    try {
+      while (true) {
+        final WALFile file = activeWALFilePool[(groupCommitFile.getAndIncrement() & Integer.MAX_VALUE) % activeWALFilePool.length];
+
+        if (file != null && file.acquire(() -> {
+          file.writeTransactionsToFile(buffers, groupSync);
+
+          for (WALWriteRequest r : group)
+            file.registerPagesToFlush(r.pages);
+          return null;
+        }))
+          break;
+
+        try {
+          Thread.sleep(10);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new WALException("Interrupted while writing to the WAL");
+        }
+      }
+
+      statsGroupCommits.incrementAndGet();
+      statsGroupCommitTransactions.addAndGet(group.size());
+
+    } catch (RuntimeException e) {
+      // THE WRITE OF THE GROUP FAILED: ALL THE TRANSACTIONS FAIL
+      for (WALWriteRequest r : group)
+        if (r.error == null)
+          r.error = e;
+    } finally {
+      for (WALWriteRequest r : group) {
+        r.done = true;
+        LockSupport.unpark(r.thread);
+      }
+    }
+  }
+
   public void notifyPageFlushed(final MutablePage page) {
     final WALFile walFile = page.getWALFile();
 
@@ -187,6 +357,7 @@ public class TransactionManager {
         }
 
         long lastTxId = -1;
+        final Set<PageId> tornPages = new HashSet<>();
 
         while (true) {
           int lowerTx = -1;
@@ -208,11 +379,17 @@ public class TransactionManager {
 
           lastTxId = lowerTxId;
 
-          applyChanges(walPositions[lowerTx]);
+          applyChanges(walPositions[lowerTx], tornPages);
 
           walPositions[lowerTx] = activeWALFilePool[lowerTx].getTransaction(walPositions[lowerTx].endPositionInLog);
         }
 
+        if (!tornPages.isEmpty())
+          // THE WAL FILES ARE KEPT, SO THE PAGES CAN BE RESTORED MANUALLY OR FROM A BACKUP
+          throw new PageCorruptedException(
+              "Recovery of database '" + database.getName() + "' failed: the partially written pages " + tornPages + " cannot be restored from the WAL",
+              tornPages.iterator().next());
+
         // CONTINUE FROM LAST TXID
         transactionIds.set(lastTxId + 1);
 
@@ -247,10 +424,46 @@ public class TransactionManager {
 
     map.put("pagesWritten", statsPagesWritten.get());
     map.put("bytesWritten", statsBytesWritten.get());
+    map.put("deltaBytesSaved", statsDeltaBytesSaved.get());
+    map.put("groupCommits", statsGroupCommits.get());
+    map.put("groupCommitTransactions", statsGroupCommitTransactions.get());
+    map.put("writeLatencyP50", statsWALWriteLatency.getPercentile(50));
+    map.put("writeLatencyP99", statsWALWriteLatency.getPercentile(99));
+    map.put("writeLatencyMax", statsWALWriteLatency.getMax());
+    map.put("commit1stPhaseLatencyP99", statsCommit1stPhaseLatency.getPercentile(99));
+    map.put("commit2ndPhaseLatencyP99", statsCommit2ndPhaseLatency.getPercentile(99));
     return map;
   }
 
+  public LatencyHistogram getWALWriteLatency() {
+    return statsWALWriteLatency;
+  }
+
+  /**
+   * Latency of the 1st phase of the commit: lock of the files, check of the page versions and creation of the WAL buffer.
+   */
+  public LatencyHistogram getCommit1stPhaseLatency() {
+    return statsCommit1stPhaseLatency;
+  }
+
+  /**
+   * Latency of the 2nd phase of the commit: write of the WAL and update of the pages.
+   */
+  public LatencyHistogram getCommit2ndPhaseLatency() {
+    return statsCommit2ndPhaseLatency;
+  }
+
   public boolean applyChanges(final WALFile.WALTransaction tx) {
+    return applyChanges(tx, null);
+  }
+
+  /**
+   * Applies the changes of a transaction logged in the WAL.
+   *
+   * @param tornPages Pages found partially written (invalid checksum) and not restored by the transaction. If null, a partially
+   *                  written page that cannot be restored makes the method fail
+   */
+  private boolean applyChanges(final WALFile.WALTransaction tx, final Set<PageId> tornPages) {
     boolean changed = false;
     boolean involveDictionary = false;
 
@@ -275,16 +488,32 @@ public class TransactionManager {
 
       final PageId pageId = new PageId(txPage.fileId, txPage.pageNumber);
       try {
-        final BasePage page = database.getPageManager().getPage(pageId, file.getPageSize(), false, true);
+        final BasePage page = database.getPageManager().getPageToRecover(pageId, file.getPageSize());
 
         LogManager.instance()
             .log(this, Level.FINE, "-- checking page %s versionInLog=%d versionInDB=%d", null, pageId, txPage.currentPageVersion, page.getVersion());
 
-        if (txPage.currentPageVersion < page.getVersion())
+        if (!page.isChecksumValid()) {
+          // A PARTIALLY WRITTEN PAGE (INVALID CHECKSUM) HAS AN UNRELIABLE VERSION AND CONTENT: THE BYTES OUTSIDE THE CHANGED RANGE COULD BE
+          // WRONG, SO ONLY A CHANGE THAT COVERS THE WHOLE PAGE CAN RESTORE IT. THE FOLLOWING CHANGES ARE APPLIED IN VERSION ORDER
+          if (txPage.changesFrom > BasePage.PAGE_HEADER_SIZE || txPage.changesTo < page.getPhysicalSize() - page.getFooterSize() - 1) {
+            if (tornPages == null)
+              throw new PageCorruptedException("Cannot restore the partially written page " + pageId + " in file '" + file.getFileName() + "'", pageId);
+
+            LogManager.instance().log(this, Level.WARNING, "Page %s is partially written and cannot be restored by txId=%d", null, pageId, tx.txId);
+            tornPages.add(pageId);
+            continue;
+          }
+
+          LogManager.instance().log(this, Level.WARNING, "Restoring the partially written page %s from txId=%d", null, pageId, tx.txId);
+          if (tornPages != null)
+            tornPages.remove(pageId);
+
+        } else if (txPage.currentPageVersion < page.getVersion())
           // SKIP IT
           continue;
 
-        if (txPage.currentPageVersion > page.getVersion() + 1) {
+        else if (txPage.currentPageVersion > page.getVersion() + 1) {
           LogManager.instance().log(this, Level.WARNING,
               "Cannot apply changes to the database because modified page version in WAL (" + txPage.currentPageVersion
                   + ") does not match with existent version (" + page.getVersion() + ") fileId=" + txPage.fileId);
@@ -300,10 +529,11 @@ public class TransactionManager {
         // IF VERSION IS THE SAME OR MAJOR, OVERWRITE THE PAGE
         final MutablePage modifiedPage = page.modify();
         txPage.currentContent.rewind();
-        modifiedPage.writeByteArray(txPage.changesFrom - BasePage.PAGE_HEADER_SIZE, txPage.currentContent.getContent());
+        modifiedPage.writeDelta(txPage.changesFrom, txPage.currentContent.getContent());
         modifiedPage.version = txPage.currentPageVersion;
         modifiedPage.setContentSize(txPage.currentPageSize);
         modifiedPage.flushMetadata();
+        modifiedPage.updateChecksum();
         file.write(modifiedPage);
 
         database.getPageManager().removePageFromCache(modifiedPage.pageId);
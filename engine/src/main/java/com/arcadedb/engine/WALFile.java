@@ -285,25 +285,54 @@ public class WALFile extends LockContext {
 
     file.append(buffer.getByteBuffer());
 
-    // WRITE ALL PAGES SEGMENTS
-    for (MutablePage newPage : pages) {
-      // SET THE WAL FILE TO NOTIFY LATER WHEN THE PAGE HAS BEEN FLUSHED
-      newPage.setWALFile(file);
-
-      pagesToFlush.incrementAndGet();
-      statsPagesWritten++;
-    }
+    file.registerPagesToFlush(pages);
 
     statsBytesWritten += buffer.size();
 
-    if (sync == FLUSH_TYPE.YES_NOMETADATA)
-      channel.force(false);
-    else if (sync == FLUSH_TYPE.YES_FULL)
-      channel.force(true);
+    flush(sync);
 
     database.executeCallbacks(DatabaseInternal.CALLBACK_EVENT.TX_AFTER_WAL_WRITE);
   }
 
+  /**
+   * Appends multiple transactions with one gathering write and flushes the file only once (group commit). Pages must be registered
+   * with {@link #registerPagesToFlush(List)} after the write. This method must be called inside {@link #acquire(Callable)}.
+   */
+  public void writeTransactionsToFile(final Binary[] buffers, final FLUSH_TYPE sync) throws IOException {
+    final ByteBuffer[] byteBuffers = new ByteBuffer[buffers.length];
+    long totalSize = 0;
+    for (int i = 0; i < buffers.length; ++i) {
+      byteBuffers[i] = buffers[i].getByteBuffer();
+      byteBuffers[i].rewind();
+      totalSize += byteBuffers[i].remaining();
+    }
+
+    LogManager.instance()
+        .log(this, Level.FINE, "Appending WAL for %d transactions (size=%d file=%s threadId=%d)", null, buffers.length, totalSize, filePath,
+            Thread.currentThread().getId());
+
+    channel.position(channel.size());
+    long written = 0;
+    while (written < totalSize)
+      written += channel.write(byteBuffers);
+
+    statsBytesWritten += totalSize;
+
+    flush(sync);
+  }
+
+  /**
+   * Sets the WAL file to the pages to be notified later when the page has been flushed.
+   */
+  public void registerPagesToFlush(final List<MutablePage> pages) {
+    for (MutablePage newPage : pages) {
+      newPage.setWALFile(this);
+
+      pagesToFlush.incrementAndGet();
+      statsPagesWritten++;
+    }
+  }
+
   public int getPagesToFlush() {
     return pagesToFlush.get();
   }
@@ -361,6 +390,13 @@ public class WALFile extends LockContext {
     return bufferInt.getInt(0);
   }
 
+  private void flush(final FLUSH_TYPE sync) throws IOException {
+    if (sync == FLUSH_TYPE.YES_NOMETADATA)
+      channel.force(false);
+    else if (sync == FLUSH_TYPE.YES_FULL)
+      channel.force(true);
+  }
+
   protected void append(final ByteBuffer buffer) throws IOException {
     buffer.rewind();
     channel.write(buffer, channel.size());
@@ -23,14 +23,12 @@ package com.arcadedb.index;
 
 import com.arcadedb.exception.ArcadeDBException;
 
-import java.io.IOException;
-
 public class IndexException extends ArcadeDBException {
   public IndexException(final String s) {
     super(s);
   }
 
-  public IndexException(String s, IOException e) {
+  public IndexException(final String s, final Throwable e) {
     super(s, e);
   }
 }
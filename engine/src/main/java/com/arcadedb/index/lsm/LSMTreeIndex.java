@@ -35,6 +35,7 @@ import com.arcadedb.utility.RWLockContext;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -53,6 +54,7 @@ public class LSMTreeIndex implements RangeIndex, IndexInternal {
   private              String                                                  typeName;
   protected            String[]                                                propertyNames;
   protected            LSMTreeIndexMutable                                     mutable;
+  private final        LSMTreeIndexCompactionStats                             compactionStats    = new LSMTreeIndexCompactionStats();
   protected            AtomicReference<LSMTreeIndexAbstract.COMPACTING_STATUS> compactingStatus   = new AtomicReference<>(
       LSMTreeIndexAbstract.COMPACTING_STATUS.NO);
 
@@ -333,7 +335,13 @@ public class LSMTreeIndex implements RangeIndex, IndexInternal {
 
   @Override
   public Map<String, Long> getStats() {
-    return mutable.getStats();
+    final Map<String, Long> stats = new HashMap<>(mutable.getStats());
+    compactionStats.fillStats(stats);
+    return stats;
+  }
+
+  public LSMTreeIndexCompactionStats getCompactionStats() {
+    return compactionStats;
   }
 
   @Override
@@ -332,9 +332,14 @@ public abstract class LSMTreeIndexAbstract extends PaginatedComponent {
   }
 
   protected Object[] getKeyInPagePosition(final int pageNum, final Binary currentPageBuffer, final int position) {
-    final int startIndexArray = getHeaderSize(pageNum);
-    final int contentPos = currentPageBuffer.getInt(startIndexArray + (position * INT_SERIALIZED_SIZE));
-    currentPageBuffer.position(contentPos);
+    return readKeys(currentPageBuffer, getHeaderSize(pageNum), position);
+  }
+
+  /**
+   * Reads the keys of the entry in the page. At the end the buffer is positioned on the values of the entry.
+   */
+  protected Object[] readKeys(final Binary currentPageBuffer, final int startIndexArray, final int entryIndex) {
+    currentPageBuffer.position(currentPageBuffer.getInt(startIndexArray + (entryIndex * INT_SERIALIZED_SIZE)));
 
     final Object[] key = new Object[keyTypes.length];
 
@@ -351,6 +356,13 @@ public abstract class LSMTreeIndexAbstract extends PaginatedComponent {
 
     currentPageBuffer.position(contentPos);
 
+    return compareKey(currentPageBuffer, keys);
+  }
+
+  /**
+   * Compares the keys with the serialized keys at the current position of the buffer.
+   */
+  protected int compareKey(final Binary keyBuffer, final Object[] keys) {
     int result = -1;
     for (int keyIndex = 0; keyIndex < keys.length; ++keyIndex) {
       // GET THE KEY
@@ -358,9 +370,9 @@ public abstract class LSMTreeIndexAbstract extends PaginatedComponent {
 
       if (keyTypes[keyIndex] == BinaryTypes.TYPE_STRING) {
         // OPTIMIZATION: SPECIAL CASE, LAZY EVALUATE BYTE PER BYTE THE STRING
-        result = comparator.compareBytes((byte[]) key, currentPageBuffer);
+        result = comparator.compareBytes((byte[]) key, keyBuffer);
       } else {
-        final Object keyValue = serializer.deserializeValue(database, currentPageBuffer, keyTypes[keyIndex], null);
+        final Object keyValue = serializer.deserializeValue(database, keyBuffer, keyTypes[keyIndex], null);
         result = comparator.compare(key, keyTypes[keyIndex], keyValue, keyTypes[keyIndex]);
       }
 
@@ -392,7 +404,7 @@ public abstract class LSMTreeIndexAbstract extends PaginatedComponent {
     return 0;
   }
 
-  private void writeEntryValues(final Binary buffer, final Object[] values) {
+  protected void writeEntryValues(final Binary buffer, final Object[] values) {
     // WRITE NUMBER OF VALUES
     serializer.serializeValue(database, buffer, BinaryTypes.TYPE_INT, values.length);
 
@@ -477,6 +489,16 @@ public abstract class LSMTreeIndexAbstract extends PaginatedComponent {
   protected boolean lookupInPageAndAddInResultset(final BasePage currentPage, final Binary currentPageBuffer, final int count, final Object[] originalKeys,
       final Object[] convertedKeys, final int limit, final Set<IndexCursorEntry> set, final Set<RID> removedRIDs) {
     final LookupResult result = lookupInPage(currentPage.getPageId().getPageNumber(), count, currentPageBuffer, convertedKeys, 1);
+    return addInResultset(currentPageBuffer, result, originalKeys, limit, set, removedRIDs);
+  }
+
+  /**
+   * Adds the values of the entry found in the page to the result set.
+   *
+   * @return false if the search must stop because the limit has been reached or the key has been deleted
+   */
+  protected boolean addInResultset(final Binary currentPageBuffer, final LookupResult result, final Object[] originalKeys, final int limit,
+      final Set<IndexCursorEntry> set, final Set<RID> removedRIDs) {
     if (result.found) {
       // REAL ALL THE ENTRIES
       final List<RID> allValues = readAllValuesFromResult(currentPageBuffer, result);
@@ -21,20 +21,25 @@
 
 package com.arcadedb.index.lsm;
 
+import com.arcadedb.GlobalConfiguration;
 import com.arcadedb.database.Binary;
 import com.arcadedb.database.DatabaseInternal;
 import com.arcadedb.database.RID;
 import com.arcadedb.database.TrackableBinary;
 import com.arcadedb.engine.BasePage;
+import com.arcadedb.engine.BufferBloomFilter;
+import com.arcadedb.engine.MurmurHash;
 import com.arcadedb.engine.MutablePage;
 import com.arcadedb.engine.PageId;
 import com.arcadedb.engine.PaginatedFile;
 import com.arcadedb.exception.DatabaseOperationException;
 import com.arcadedb.index.IndexCursorEntry;
 import com.arcadedb.log.LogManager;
+import com.arcadedb.serializer.BinaryTypes;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import static com.arcadedb.database.Binary.BYTE_SERIALIZED_SIZE;
@@ -42,10 +47,29 @@ import static com.arcadedb.database.Binary.INT_SERIALIZED_SIZE;
 
 /**
  * The first page (main page) contains the total pages under the fields "compactedPageNumberOfSeries". This is to avoid concurrent read/write while compaction.
+ * <p>
+ * The page flag byte (the mutable flag for the mutable index) is a bit set of {@link #KEY_COMPRESSED_PAGE} and {@link #BLOOM_FILTER_PAGE}. Pages written
+ * before these features have no flags set.
+ * <p>
+ * If the page has the {@link #BLOOM_FILTER_PAGE} flag, the last 4 bytes of the page contain the size of the bloom filter of the keys in the page, stored
+ * right before it, and the values are written before the bloom filter. Root pages have no bloom filter.
+ * <p>
+ * If the page has the {@link #KEY_COMPRESSED_PAGE} flag, the string keys are prefix compressed: each string is
+ * stored as the length of the prefix shared with the same key of the restart entry, followed by the remaining bytes. A restart entry is written every
+ * {@link #KEY_RESTART_INTERVAL} entries and shares nothing, so any entry can be decoded by reading only the entry and its restart entry, and the binary
+ * search still works.
  */
 public class LSMTreeIndexCompacted extends LSMTreeIndexAbstract {
-  public static final String UNIQUE_INDEX_EXT    = "uctidx";
-  public static final String NOTUNIQUE_INDEX_EXT = "nuctidx";
+  public static final  String UNIQUE_INDEX_EXT            = "uctidx";
+  public static final  String NOTUNIQUE_INDEX_EXT         = "nuctidx";
+  private static final int    BLOOM_FILTER_HASH_FUNCTIONS = 3;
+  private static final byte   KEY_COMPRESSED_PAGE         = 2;
+  private static final byte   BLOOM_FILTER_PAGE           = 4;
+  private static final int    KEY_RESTART_INTERVAL        = 16;
+
+  private final AtomicLong statsBloomFilterChecks         = new AtomicLong();
+  private final AtomicLong statsBloomFilterSkips          = new AtomicLong();
+  private final AtomicLong statsBloomFilterFalsePositives = new AtomicLong();
 
   /**
    * Called at cloning time.
@@ -103,7 +127,10 @@ public class LSMTreeIndexCompacted extends LSMTreeIndexAbstract {
 
     final Object[] convertedKeys = convertKeys(keys, keyTypes);
 
-    writeEntry(keyValueContent, convertedKeys, rids);
+    if (isKeyCompressed(currentPageBuffer))
+      writeCompressedEntry(keyValueContent, currentPageBuffer, getHeaderSize(pageNum), count, convertedKeys, rids);
+    else
+      writeEntry(keyValueContent, convertedKeys, rids);
 
     int keyValueFreePosition = getValuesFreePosition(currentPage);
 
@@ -115,7 +142,11 @@ public class LSMTreeIndexCompacted extends LSMTreeIndexAbstract {
       currentPageBuffer = currentPage.getTrackable();
       pageNum = currentPage.getPageId().getPageNumber();
       count = 0;
-      keyValueFreePosition = currentPage.getMaxContentSize();
+      keyValueFreePosition = getValuesFreePosition(currentPage);
+
+      if (isKeyCompressed(currentPageBuffer))
+        // THE FIRST ENTRY OF THE PAGE IS A RESTART ENTRY
+        writeCompressedEntry(keyValueContent, currentPageBuffer, getHeaderSize(pageNum), count, convertedKeys, rids);
     }
 
     keyValueFreePosition -= keyValueContent.size();
@@ -129,9 +160,30 @@ public class LSMTreeIndexCompacted extends LSMTreeIndexAbstract {
     setCount(currentPage, count + 1);
     setValuesFreePosition(currentPage, keyValueFreePosition);
 
+    final int bloomFilterSize = getBloomFilterSize(currentPage);
+    if (bloomFilterSize > 0 && !isKeyNull(convertedKeys)) {
+      final int keyHash = getKeyHash(convertedKeys);
+      final int bloomFilterOffset = currentPage.getMaxContentSize() - INT_SERIALIZED_SIZE - bloomFilterSize;
+      for (int i = 0; i < BLOOM_FILTER_HASH_FUNCTIONS; ++i)
+        new BufferBloomFilter(currentPageBuffer, bloomFilterOffset, bloomFilterSize * 8, i).add(keyHash);
+    }
+
     return currentPage;
   }
 
+  @Override
+  public Map<String, Long> getStats() {
+    final Map<String, Long> stats = super.getStats();
+    final long skips = statsBloomFilterSkips.get();
+    final long falsePositives = statsBloomFilterFalsePositives.get();
+    stats.put("bloomFilterChecks", statsBloomFilterChecks.get());
+    stats.put("bloomFilterSkips", skips);
+    stats.put("bloomFilterFalsePositives", falsePositives);
+    // FALSE POSITIVES OVER THE LOOKUPS OF KEYS NOT IN THE PAGE, IN PARTS PER MILLION
+    stats.put("bloomFilterFalsePositiveRatePPM", skips + falsePositives > 0 ? falsePositives * 1_000_000 / (skips + falsePositives) : 0);
+    return stats;
+  }
+
   protected LookupResult compareKey(final Binary currentPageBuffer, final int startIndexArray, final Object[] convertedKeys, int mid, final int count,
       final int purpose) {
 
@@ -142,14 +194,13 @@ public class LSMTreeIndexCompacted extends LSMTreeIndexAbstract {
     else if (result < 0)
       return LOWER;
 
-    if (purpose == 0) {
-      // EXISTS
-      currentPageBuffer.position(currentPageBuffer.getInt(startIndexArray + (mid * INT_SERIALIZED_SIZE)));
-      final int keySerializedSize = getSerializedKeySize(currentPageBuffer, convertedKeys.length);
+    if (purpose == 0 || purpose == 1) {
+      // EXISTS OR RETRIEVE
+      if (isKeyCompressed(currentPageBuffer)) {
+        decodeKey(currentPageBuffer, startIndexArray, mid);
+        return new LookupResult(true, false, mid, new int[] { currentPageBuffer.position() });
+      }
 
-      return new LookupResult(true, false, mid, new int[] { currentPageBuffer.getInt(startIndexArray + (mid * INT_SERIALIZED_SIZE)) + keySerializedSize });
-    } else if (purpose == 1) {
-      // RETRIEVE
       currentPageBuffer.position(currentPageBuffer.getInt(startIndexArray + (mid * INT_SERIALIZED_SIZE)));
       final int keySerializedSize = getSerializedKeySize(currentPageBuffer, convertedKeys.length);
 
@@ -166,14 +217,20 @@ public class LSMTreeIndexCompacted extends LSMTreeIndexAbstract {
 
     final MutablePage currentPage = new MutablePage(database.getPageManager(), new PageId(getFileId(), txPageCounter), pageSize);
 
+    // ROOT PAGES HAVE NO BLOOM FILTER
+    final int bloomFilterSize = compactedPageNumberOfSeries > 0 ? getConfiguredBloomFilterSize() : 0;
+    if (bloomFilterSize > 0)
+      currentPage.writeInt(currentPage.getMaxContentSize() - INT_SERIALIZED_SIZE, bloomFilterSize);
+
     int pos = 0;
-    currentPage.writeInt(pos, currentPage.getMaxContentSize());
+    currentPage.writeInt(pos, bloomFilterSize > 0 ? currentPage.getMaxContentSize() - INT_SERIALIZED_SIZE - bloomFilterSize : currentPage.getMaxContentSize());
     pos += INT_SERIALIZED_SIZE;
 
     currentPage.writeInt(pos, 0); // ENTRIES COUNT
     pos += INT_SERIALIZED_SIZE;
 
-    currentPage.writeByte(pos, (byte) 0); // IMMUTABLE PAGE
+    final boolean keyCompression = database.getConfiguration().getValueAsBoolean(GlobalConfiguration.INDEX_COMPACTED_KEY_COMPRESSION);
+    currentPage.writeByte(pos, (byte) ((keyCompression ? KEY_COMPRESSED_PAGE : 0) | (bloomFilterSize > 0 ? BLOOM_FILTER_PAGE : 0))); // IMMUTABLE PAGE
     pos += BYTE_SERIALIZED_SIZE;
 
     currentPage.writeInt(pos, compactedPageNumberOfSeries); // COMPACTED PAGE NUMBER OF SERIES
@@ -321,6 +378,10 @@ public class LSMTreeIndexCompacted extends LSMTreeIndexAbstract {
       return;
     }
 
+    // THE HASH OF THE KEY IS COMPUTED ONLY IF A PAGE WITH A BLOOM FILTER IS FOUND
+    int keyHash = 0;
+    boolean keyHashComputed = false;
+
     for (int pageNumber = mainPageCount - 1; pageNumber > 0; ) {
       final BasePage lastPage = database.getTransaction().getPage(new PageId(file.getFileId(), pageNumber), pageSize);
 
@@ -366,7 +427,28 @@ public class LSMTreeIndexCompacted extends LSMTreeIndexAbstract {
         final Binary currentPageBuffer = new Binary(currentPage.slice());
         final int count = getCount(currentPage);
 
-        if (!lookupInPageAndAddInResultset(currentPage, currentPageBuffer, count, originalKeys, convertedKeys, limit, set, removedRIDs))
+        final int bloomFilterSize = getBloomFilterSize(currentPage);
+        final boolean bloomFilterUsed = bloomFilterSize > 0 && !isKeyNull(convertedKeys);
+        if (bloomFilterUsed) {
+          if (!keyHashComputed) {
+            keyHash = getKeyHash(convertedKeys);
+            keyHashComputed = true;
+          }
+
+          statsBloomFilterChecks.incrementAndGet();
+          if (!mightContain(currentPage, currentPageBuffer, bloomFilterSize, keyHash)) {
+            // THE KEY IS NOT IN THE PAGE FOR SURE
+            statsBloomFilterSkips.incrementAndGet();
+            --pageNumber;
+            continue;
+          }
+        }
+
+        final LookupResult result = lookupInPage(pageNum, count, currentPageBuffer, convertedKeys, 1);
+        if (bloomFilterUsed && !result.found)
+          statsBloomFilterFalsePositives.incrementAndGet();
+
+        if (!addInResultset(currentPageBuffer, result, originalKeys, limit, set, removedRIDs))
           return;
       }
 
@@ -374,6 +456,145 @@ public class LSMTreeIndexCompacted extends LSMTreeIndexAbstract {
     }
   }
 
+  @Override
+  protected int compareKey(final Binary currentPageBuffer, final int startIndexArray, final Object[] keys, final int mid, final int count) {
+    if (isKeyCompressed(currentPageBuffer))
+      return compareKey(decodeKey(currentPageBuffer, startIndexArray, mid), keys);
+    return super.compareKey(currentPageBuffer, startIndexArray, keys, mid, count);
+  }
+
+  @Override
+  protected Object[] readKeys(final Binary currentPageBuffer, final int startIndexArray, final int entryIndex) {
+    if (!isKeyCompressed(currentPageBuffer))
+      return super.readKeys(currentPageBuffer, startIndexArray, entryIndex);
+
+    final Binary keyBuffer = decodeKey(currentPageBuffer, startIndexArray, entryIndex);
+
+    final Object[] key = new Object[keyTypes.length];
+    for (int keyIndex = 0; keyIndex < keyTypes.length; ++keyIndex)
+      key[keyIndex] = serializer.deserializeValue(database, keyBuffer, keyTypes[keyIndex], null);
+    return key;
+  }
+
+  private boolean isKeyCompressed(final Binary currentPageBuffer) {
+    return (currentPageBuffer.getByte(INT_SERIALIZED_SIZE + INT_SERIALIZED_SIZE) & KEY_COMPRESSED_PAGE) != 0;
+  }
+
+  /**
+   * Writes the entry with the string keys compressed against the restart entry. The entry at the position `count` must be the next in the page.
+   */
+  private void writeCompressedEntry(final Binary buffer, final Binary currentPageBuffer, final int startIndexArray, final int count,
+      final Object[] convertedKeys, final Object[] rids) {
+    buffer.clear();
+
+    final int restartEntry = count - count % KEY_RESTART_INTERVAL;
+    final byte[][] restartKeys = restartEntry < count ? readRestartStrings(currentPageBuffer, startIndexArray, restartEntry) : null;
+
+    for (int i = 0; i < keyTypes.length; ++i) {
+      if (keyTypes[i] == BinaryTypes.TYPE_STRING) {
+        final byte[] key = (byte[]) convertedKeys[i];
+
+        int shared = 0;
+        if (restartKeys != null) {
+          final byte[] restartKey = restartKeys[i];
+          final int maxShared = Math.min(restartKey.length, key.length);
+          while (shared < maxShared && restartKey[shared] == key[shared])
+            ++shared;
+        }
+
+        buffer.putUnsignedNumber(shared);
+        buffer.putUnsignedNumber(key.length - shared);
+        buffer.putByteArray(Arrays.copyOfRange(key, shared, key.length));
+      } else
+        serializer.serializeValue(database, buffer, keyTypes[i], convertedKeys[i]);
+    }
+
+    writeEntryValues(buffer, rids);
+  }
+
+  /**
+   * Returns the string keys of a restart entry. Restart entries have no shared prefix.
+   */
+  private byte[][] readRestartStrings(final Binary currentPageBuffer, final int startIndexArray, final int restartEntry) {
+    currentPageBuffer.position(currentPageBuffer.getInt(startIndexArray + (restartEntry * INT_SERIALIZED_SIZE)));
+
+    final byte[][] strings = new byte[keyTypes.length][];
+    for (int i = 0; i < keyTypes.length; ++i) {
+      if (keyTypes[i] == BinaryTypes.TYPE_STRING) {
+        currentPageBuffer.getUnsignedNumber(); // SHARED, ALWAYS 0
+        strings[i] = new byte[(int) currentPageBuffer.getUnsignedNumber()];
+        currentPageBuffer.getByteArray(strings[i]);
+      } else
+        serializer.deserializeValue(database, currentPageBuffer, keyTypes[i], null);
+    }
+    return strings;
+  }
+
+  /**
+   * Decodes the prefix compressed keys of the entry in a buffer with the keys in the uncompressed format. At the end the page buffer is positioned on
+   * the values of the entry.
+   */
+  private Binary decodeKey(final Binary currentPageBuffer, final int startIndexArray, final int entryIndex) {
+    final int restartEntry = entryIndex - entryIndex % KEY_RESTART_INTERVAL;
+    final byte[][] restartKeys = restartEntry < entryIndex ? readRestartStrings(currentPageBuffer, startIndexArray, restartEntry) : null;
+
+    currentPageBuffer.position(currentPageBuffer.getInt(startIndexArray + (entryIndex * INT_SERIALIZED_SIZE)));
+
+    final Binary keyBuffer = new Binary(64);
+    for (int i = 0; i < keyTypes.length; ++i) {
+      if (keyTypes[i] == BinaryTypes.TYPE_STRING) {
+        final int shared = (int) currentPageBuffer.getUnsignedNumber();
+        final byte[] key = new byte[shared + (int) currentPageBuffer.getUnsignedNumber()];
+        if (shared > 0)
+          System.arraycopy(restartKeys[i], 0, key, 0, shared);
+        currentPageBuffer.getByteArray(currentPageBuffer.position(), key, shared, key.length - shared);
+        keyBuffer.putBytes(key);
+      } else {
+        final int start = currentPageBuffer.position();
+        serializer.deserializeValue(database, currentPageBuffer, keyTypes[i], null);
+        final byte[] key = new byte[currentPageBuffer.position() - start];
+        currentPageBuffer.getByteArray(start, key);
+        keyBuffer.putByteArray(key);
+      }
+    }
+
+    keyBuffer.position(0);
+    return keyBuffer;
+  }
+
+  private boolean mightContain(final BasePage currentPage, final Binary currentPageBuffer, final int bloomFilterSize, final int keyHash) {
+    final int bloomFilterOffset = currentPage.getMaxContentSize() - INT_SERIALIZED_SIZE - bloomFilterSize;
+    for (int i = 0; i < BLOOM_FILTER_HASH_FUNCTIONS; ++i)
+      if (!new BufferBloomFilter(currentPageBuffer, bloomFilterOffset, bloomFilterSize * 8, i).mightContain(keyHash))
+        return false;
+    return true;
+  }
+
+  /**
+   * Returns the hash of the serialized keys, so it does not depend on the Java type of the keys passed in input.
+   */
+  private int getKeyHash(final Object[] convertedKeys) {
+    final Binary buffer = new Binary(64);
+    for (int i = 0; i < keyTypes.length; ++i)
+      serializer.serializeValue(database, buffer, keyTypes[i], convertedKeys[i]);
+    return MurmurHash.hash32(buffer.getContent(), buffer.size());
+  }
+
+  /**
+   * Returns the size of the bloom filter of the page, or 0 if the page has no bloom filter (root pages, pages written with the bloom filter disabled
+   * and pages written before the bloom filter, where the last bytes of the page contain keys and values).
+   */
+  private int getBloomFilterSize(final BasePage currentPage) {
+    if ((currentPage.readByte(INT_SERIALIZED_SIZE + INT_SERIALIZED_SIZE) & BLOOM_FILTER_PAGE) == 0)
+      return 0;
+    return currentPage.readInt(currentPage.getMaxContentSize() - INT_SERIALIZED_SIZE);
+  }
+
+  private int getConfiguredBloomFilterSize() {
+    final int percentage = database.getConfiguration().getValueAsInteger(GlobalConfiguration.INDEX_COMPACTED_BLOOM_FILTER);
+    return percentage > 0 ? pageSize * Math.min(percentage, 50) / 100 : 0;
+  }
+
   private int getCompactedPageNumberOfSeries(final BasePage currentPage) {
     return currentPage.readInt(INT_SERIALIZED_SIZE + INT_SERIALIZED_SIZE + BYTE_SERIALIZED_SIZE);
   }
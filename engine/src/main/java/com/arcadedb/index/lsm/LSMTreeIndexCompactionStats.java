@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.index.lsm;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and throughput of the compactions of an index. The counters of the compaction in progress are reset at the beginning of each
+ * compaction, while the throughput refers to the last completed compaction.
+ */
+public class LSMTreeIndexCompactionStats {
+  protected final AtomicLong compactions        = new AtomicLong();
+  protected final AtomicLong pagesToCompact     = new AtomicLong();
+  protected final AtomicLong compactedPages     = new AtomicLong();
+  protected final AtomicLong keys               = new AtomicLong();
+  protected final AtomicLong pagesRead          = new AtomicLong();
+  protected final AtomicLong pagesWritten       = new AtomicLong();
+  protected final AtomicLong throttledTime      = new AtomicLong();
+  protected final AtomicLong lastElapsed        = new AtomicLong();
+  protected final AtomicLong lastKeysPerSecond  = new AtomicLong();
+  protected final AtomicLong lastBytesPerSecond = new AtomicLong();
+
+  protected void begin(final int pagesToCompact) {
+    compactions.incrementAndGet();
+    this.pagesToCompact.set(pagesToCompact);
+    compactedPages.set(0);
+    keys.set(0);
+    pagesRead.set(0);
+    pagesWritten.set(0);
+  }
+
+  protected void end(final long elapsedMs, final int pageSize, final long throttledMs) {
+    final long elapsed = Math.max(1, elapsedMs);
+    lastElapsed.set(elapsedMs);
+    lastKeysPerSecond.set(keys.get() * 1000 / elapsed);
+    lastBytesPerSecond.set((pagesRead.get() + pagesWritten.get()) * pageSize * 1000 / elapsed);
+    throttledTime.addAndGet(throttledMs);
+  }
+
+  /**
+   * Returns the progress of the compaction in progress (or the last one) in percentage.
+   */
+  public long getProgress() {
+    final long total = pagesToCompact.get();
+    return total > 0 ? compactedPages.get() * 100 / total : 0;
+  }
+
+  public void fillStats(final Map<String, Long> stats) {
+    stats.put("compactions", compactions.get());
+    stats.put("compactionProgress", getProgress());
+    stats.put("compactionKeys", keys.get());
+    stats.put("compactionPagesRead", pagesRead.get());
+    stats.put("compactionPagesWritten", pagesWritten.get());
+    stats.put("compactionThrottledTime", throttledTime.get());
+    stats.put("compactionLastElapsed", lastElapsed.get());
+    stats.put("compactionLastKeysPerSecond", lastKeysPerSecond.get());
+    stats.put("compactionLastBytesPerSecond", lastBytesPerSecond.get());
+  }
+}
@@ -29,19 +29,257 @@ import com.arcadedb.database.TrackableBinary;
 import com.arcadedb.engine.BasePage;
 import com.arcadedb.engine.MutablePage;
 import com.arcadedb.engine.PageId;
+import com.arcadedb.index.IndexException;
 import com.arcadedb.log.LogManager;
 import com.arcadedb.serializer.BinaryComparator;
-import com.arcadedb.serializer.BinarySerializer;
 import com.arcadedb.utility.FileUtils;
+import com.arcadedb.utility.RateLimiter;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 
+/**
+ * Compacts the immutable pages of the mutable index into a new series of the compacted index. The pages are merged with a k-way merge
+ * based on a heap. If more threads are configured ({@link GlobalConfiguration#INDEX_COMPACTION_THREADS}), the key space is split in
+ * ranges that are merged in parallel, while the current thread writes the merged entries in order, so the resulting series is the same.
+ * The I/O used by the compaction can be limited with {@link GlobalConfiguration#INDEX_COMPACTION_MAX_IO}.
+ */
 public class LSMTreeIndexCompactor {
+  // MAXIMUM NUMBER OF MERGED ENTRIES EACH PARALLEL RANGE CAN BUFFER AHEAD OF THE WRITER
+  private static final int         RANGE_QUEUE_SIZE = 16 * 1024;
+  private static final MergedEntry END_OF_RANGE     = new MergedEntry(null, null, 0);
+
   public LSMTreeIndexCompactor() {
   }
 
+  /**
+   * Key with all the values found in the compacted pages, in the order of the pages.
+   */
+  private static class MergedEntry {
+    private final Object[] keys;
+    private final RID[]    rids;
+    private final int      mergedKeys;
+
+    private MergedEntry(final Object[] keys, final RID[] rids, final int mergedKeys) {
+      this.keys = keys;
+      this.rids = rids;
+      this.mergedKeys = mergedKeys;
+    }
+  }
+
+  private static class MergeCursor {
+    private final int                              pageIndex;
+    private final LSMTreeIndexUnderlyingPageCursor cursor;
+    private       Object[]                         keys;
+
+    private MergeCursor(final int pageIndex, final LSMTreeIndexUnderlyingPageCursor cursor) {
+      this.pageIndex = pageIndex;
+      this.cursor = cursor;
+    }
+  }
+
+  /**
+   * K-way merge of the pages in the key range [fromKeys, toKeys). Cursors with the same key are ordered by page, so the values (and the
+   * deleted values) are merged in the same order they were inserted.
+   */
+  private static class KWayMerger {
+    private final byte[]                     keyTypes;
+    private final BinaryComparator           comparator;
+    private final Object[]                   toKeys;
+    private final PriorityQueue<MergeCursor> heap;
+    private final List<MergeCursor>          sameKey = new ArrayList<>();
+    private final Set<RID>                   rids    = new LinkedHashSet<>();
+
+    private KWayMerger(final LSMTreeIndexMutable index, final BasePage[] pages, final Object[] fromKeys, final Object[] toKeys) {
+      this.keyTypes = index.getKeyTypes();
+      this.comparator = index.getDatabase().getSerializer().getComparator();
+      this.toKeys = toKeys;
+      this.heap = new PriorityQueue<>(Math.max(1, pages.length), (c1, c2) -> {
+        final int cmp = LSMTreeIndexMutable.compareKeys(comparator, keyTypes, c1.keys, c2.keys);
+        return cmp != 0 ? cmp : Integer.compare(c1.pageIndex, c2.pageIndex);
+      });
+
+      for (int p = 0; p < pages.length; ++p) {
+        final BasePage page = pages[p];
+        final int count = index.getCount(page);
+        final int headerSize = index.getHeaderSize(page.getPageId().getPageNumber());
+
+        final int first = fromKeys != null ? lowerBound(index, page, headerSize, count, fromKeys) : 0;
+        if (first >= count)
+          continue;
+
+        final MergeCursor c = new MergeCursor(p, new LSMTreeIndexUnderlyingPageCursor(index, page, first, headerSize, keyTypes, count, true));
+        c.keys = c.cursor.getKeys();
+        heap.add(c);
+      }
+    }
+
+    /**
+     * Returns the first position in the page with a key major or equal than the requested one.
+     */
+    private int lowerBound(final LSMTreeIndexMutable index, final BasePage page, final int headerSize, final int count, final Object[] keys) {
+      int low = 0;
+      int high = count;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        final Object[] midKeys = new LSMTreeIndexUnderlyingPageCursor(index, page, mid, headerSize, keyTypes, count, true).getKeys();
+        if (LSMTreeIndexMutable.compareKeys(comparator, keyTypes, midKeys, keys) < 0)
+          low = mid + 1;
+        else
+          high = mid;
+      }
+      return low;
+    }
+
+    /**
+     * Returns the next merged entry, or null if the range is finished.
+     */
+    private MergedEntry next() {
+      while (!heap.isEmpty()) {
+        final MergeCursor first = heap.poll();
+        final Object[] minorKey = first.keys;
+
+        if (toKeys != null && LSMTreeIndexMutable.compareKeys(comparator, keyTypes, minorKey, toKeys) >= 0) {
+          // END OF THE RANGE
+          heap.clear();
+          return null;
+        }
+
+        sameKey.clear();
+        sameKey.add(first);
+        while (!heap.isEmpty() && LSMTreeIndexMutable.compareKeys(comparator, keyTypes, heap.peek().keys, minorKey) == 0)
+          sameKey.add(heap.poll());
+
+        rids.clear();
+        for (int i = 0; i < sameKey.size(); ++i) {
+          final MergeCursor c = sameKey.get(i);
+
+          // BROWSE THE SAME CURSOR TO CHECK IF NEXT VALUES HAVE THE SAME KEY
+          while (true) {
+            final RID[] value = c.cursor.getValue();
+            if (value != null)
+              // ADD ALSO REMOVED RIDS. ONCE THE COMPACTING OF COMPACTED INDEXES (2nd LEVEL) IS DONE, REMOVED ENTRIES CAN BE REMOVED
+              Collections.addAll(rids, value);
+
+            if (!c.cursor.hasNext()) {
+              c.cursor.close();
+              break;
+            }
+
+            c.cursor.next();
+            c.keys = c.cursor.getKeys();
+
+            if (LSMTreeIndexMutable.compareKeys(comparator, keyTypes, c.keys, minorKey) != 0) {
+              heap.add(c);
+              break;
+            }
+          }
+        }
+
+        if (!rids.isEmpty())
+          return new MergedEntry(minorKey, rids.toArray(new RID[rids.size()]), sameKey.size() - 1);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Writes the merged entries in a new series of the compacted index: a root page with the first key of each page, followed by the
+   * pages with the entries.
+   */
+  private static class SeriesWriter {
+    private final LSMTreeIndexMutable         index;
+    private final LSMTreeIndexCompacted       compactedIndex;
+    private final DatabaseInternal            database;
+    private final RateLimiter                 rateLimiter;
+    private final LSMTreeIndexCompactionStats stats;
+    private final Binary                      keyValueContent = new Binary();
+    private       MutablePage                 rootPage;
+    private       TrackableBinary             rootPageBuffer;
+    private       MutablePage                 lastPage        = null;
+    private       TrackableBinary             currentPageBuffer;
+    private       Object[]                    lastPageMaxKey  = null;
+    private       int                         compactedPageNumberInSeries = 1;
+
+    private SeriesWriter(final LSMTreeIndexMutable index, final LSMTreeIndexCompacted compactedIndex, final RateLimiter rateLimiter,
+        final LSMTreeIndexCompactionStats stats) {
+      this.index = index;
+      this.compactedIndex = compactedIndex;
+      this.database = index.getDatabase();
+      this.rateLimiter = rateLimiter;
+      this.stats = stats;
+
+      // CREATE ROOT PAGE
+      rootPage = compactedIndex.createNewPage(0);
+      rootPageBuffer = rootPage.getTrackable();
+    }
+
+    private void append(final Object[] minorKey, final RID[] ridsArray) throws IOException, InterruptedException {
+      final MutablePage newPage = compactedIndex
+          .appendDuringCompaction(keyValueContent, lastPage, currentPageBuffer, compactedPageNumberInSeries, minorKey, ridsArray);
+
+      if (newPage != lastPage) {
+        ++compactedPageNumberInSeries;
+
+        if (lastPage != null) {
+          // THE PREVIOUS PAGE HAS BEEN WRITTEN
+          stats.pagesWritten.incrementAndGet();
+          rateLimiter.acquire(index.getPageSize());
+        }
+
+        if (rootPage != null) {
+          // NEW PAGE: STORE THE MIN KEY IN THE ROOT PAGE
+          final int newPageNum = newPage.getPageId().getPageNumber();
+
+          final MutablePage newRootPage = compactedIndex
+              .appendDuringCompaction(keyValueContent, rootPage, rootPageBuffer, compactedPageNumberInSeries, minorKey,
+                  new RID[] { new RID(database, 0, newPageNum) });
+
+          LogManager.instance().log(index, Level.FINE, "- Creating a new entry in index '%s' root page %s->%d (entry in page=%d)", null, index,
+              Arrays.toString(minorKey), newPageNum, index.getCount(rootPage) - 1);
+
+          if (newRootPage != rootPage)
+            throw new UnsupportedOperationException("Root index page overflow");
+        }
+
+        currentPageBuffer = newPage.getTrackable();
+        lastPage = newPage;
+      }
+
+      // UPDATE LAST PAGE'S KEY
+      if (minorKey != null)
+        lastPageMaxKey = minorKey;
+    }
+
+    private void close() throws IOException, InterruptedException {
+      if (rootPage != null && lastPageMaxKey != null) {
+        // WRITE THE MAX KEY
+        compactedIndex.appendDuringCompaction(keyValueContent, rootPage, rootPageBuffer, compactedPageNumberInSeries, lastPageMaxKey,
+            new RID[] { new RID(database, 0, 0) });
+        LogManager.instance()
+            .log(index, Level.FINE, "- Creating last entry in index '%s' root page %s (entriesInRootPage=%d)", null, index, Arrays.toString(lastPageMaxKey),
+                compactedIndex.getCount(rootPage));
+      }
+
+      if (lastPage != null) {
+        database.getPageManager().updatePage(lastPage, true, false);
+        stats.pagesWritten.incrementAndGet();
+        rateLimiter.acquire(index.getPageSize());
+      }
+      if (rootPage != null) {
+        database.getPageManager().updatePage(rootPage, true, false);
+        stats.pagesWritten.incrementAndGet();
+        rateLimiter.acquire(index.getPageSize());
+      }
+    }
+  }
+
   public static boolean compact(final LSMTreeIndex mainIndex) throws IOException, InterruptedException {
     final LSMTreeIndexMutable index = mainIndex.getMutableIndex();
 
@@ -64,8 +302,6 @@ public class LSMTreeIndexCompactor {
       index.getDatabase().getSchema().getEmbedded().registerFile(compactedIndex);
     }
 
-    final byte[] keyTypes = index.getKeyTypes();
-
     long indexCompactionRAM = database.getConfiguration().getValueAsLong(GlobalConfiguration.INDEX_COMPACTION_RAM_MB) * 1024 * 1024;
 
     final long maxUsableRAM = Runtime.getRuntime().maxMemory() * 30 / 100;
@@ -76,13 +312,13 @@ public class LSMTreeIndexCompactor {
       indexCompactionRAM = maxUsableRAM;
     }
 
+    final int threads = Math.max(1, database.getConfiguration().getValueAsInteger(GlobalConfiguration.INDEX_COMPACTION_THREADS));
+    final RateLimiter rateLimiter = new RateLimiter(database.getConfiguration().getValueAsLong(GlobalConfiguration.INDEX_COMPACTION_MAX_IO) * 1024 * 1024);
+
     long iterations = 1;
     long totalKeys = 0;
     long totalValues = 0;
     long totalMergedKeys = 0;
-    long totalMergedValues = 0;
-
-    final Binary keyValueContent = new Binary();
 
     int pagesToCompact;
     int compactedPages = 0;
@@ -97,196 +333,117 @@ public class LSMTreeIndexCompactor {
       }
     }
 
-    for (int pageIndex = 0; pageIndex < lastImmutablePage; ) {
+    final LSMTreeIndexCompactionStats stats = mainIndex.getCompactionStats();
+    stats.begin(lastImmutablePage + 1);
 
-      final long totalRAMNeeded = (lastImmutablePage - pageIndex + 1) * index.getPageSize();
+    final ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads - 1, r -> {
+      final Thread t = new Thread(r, "ArcadeDB IndexCompaction " + mainIndex.getName());
+      t.setDaemon(true);
+      return t;
+    }) : null;
 
-      if (totalRAMNeeded > indexCompactionRAM) {
-        pagesToCompact = (int) (indexCompactionRAM / index.getPageSize());
-        LogManager.instance().log(mainIndex, Level.INFO, "- Creating partial index with %d pages by using %s (totalRAMNeeded=%s)", null, pagesToCompact,
-            FileUtils.getSizeAsString(indexCompactionRAM), FileUtils.getSizeAsString(totalRAMNeeded));
-      } else
-        pagesToCompact = lastImmutablePage - pageIndex + 1;
+    try {
+      for (int pageIndex = 0; pageIndex < lastImmutablePage; ) {
 
-      // CREATE ROOT PAGE
-      MutablePage rootPage = compactedIndex.createNewPage(0);
-      TrackableBinary rootPageBuffer = rootPage.getTrackable();
-      Object[] lastPageMaxKey = null;
-
-      int compactedPageNumberInSeries = 1;
+        final long totalRAMNeeded = (lastImmutablePage - pageIndex + 1) * index.getPageSize();
 
-      final LSMTreeIndexUnderlyingPageCursor[] iterators = new LSMTreeIndexUnderlyingPageCursor[pagesToCompact];
-      for (int i = 0; i < pagesToCompact; ++i)
-        iterators[i] = index.newPageIterator(pageIndex + i, -1, true);
+        if (totalRAMNeeded > indexCompactionRAM) {
+          pagesToCompact = (int) (indexCompactionRAM / index.getPageSize());
+          LogManager.instance().log(mainIndex, Level.INFO, "- Creating partial index with %d pages by using %s (totalRAMNeeded=%s)", null, pagesToCompact,
+              FileUtils.getSizeAsString(indexCompactionRAM), FileUtils.getSizeAsString(totalRAMNeeded));
+        } else
+          pagesToCompact = lastImmutablePage - pageIndex + 1;
 
-      final Object[][] keys = new Object[pagesToCompact][keyTypes.length];
-
-      for (int p = 0; p < pagesToCompact; ++p) {
-        if (iterators[p].hasNext()) {
-          iterators[p].next();
-          keys[p] = iterators[p].getKeys();
-        } else {
-          iterators[p].close();
-          iterators[p] = null;
-          keys[p] = null;
+        final BasePage[] pages = new BasePage[pagesToCompact];
+        for (int i = 0; i < pagesToCompact; ++i) {
+          rateLimiter.acquire(index.getPageSize());
+          pages[i] = database.getTransaction().getPage(new PageId(index.getFileId(), pageIndex + i), index.getPageSize());
+          stats.pagesRead.incrementAndGet();
         }
-      }
-
-      final BinarySerializer serializer = database.getSerializer();
-      final BinaryComparator comparator = serializer.getComparator();
-
-      MutablePage lastPage = null;
-      TrackableBinary currentPageBuffer = null;
-
-      final Set<RID> rids = new LinkedHashSet<>();
 
-      boolean moreItems = true;
-      for (; moreItems; ++iterations) {
-        moreItems = false;
+        final SeriesWriter writer = new SeriesWriter(index, compactedIndex, rateLimiter, stats);
 
-        Object[] minorKey = null;
-        final List<Integer> minorKeyIndexes = new ArrayList<>();
+        final List<Object[]> splitKeys = executor != null ? computeSplitKeys(index, pages, threads) : Collections.emptyList();
 
-        // FIND THE MINOR KEY
-        for (int p = 0; p < pagesToCompact; ++p) {
-          if (minorKey == null) {
-            minorKey = keys[p];
-            if (minorKey != null) {
-              moreItems = true;
-              minorKeyIndexes.add(p);
-            }
-          } else {
-            if (keys[p] != null) {
-              moreItems = true;
-              final int cmp = LSMTreeIndexMutable.compareKeys(comparator, keyTypes, keys[p], minorKey);
-              if (cmp == 0) {
-                minorKeyIndexes.add(p);
-                ++totalMergedKeys;
-              } else if (cmp < 0) {
-                minorKey = keys[p];
-                if (minorKey != null) {
-                  minorKeyIndexes.clear();
-                  minorKeyIndexes.add(p);
-                }
-              }
-            }
+        if (splitKeys.isEmpty()) {
+          // MERGE AND WRITE IN THE SAME THREAD
+          final KWayMerger merger = new KWayMerger(index, pages, null, null);
+          for (MergedEntry entry; (entry = merger.next()) != null; ++iterations) {
+            writer.append(entry.keys, entry.rids);
+            totalMergedKeys += entry.mergedKeys;
+            totalValues += entry.rids.length;
+            ++totalKeys;
+            stats.keys.incrementAndGet();
           }
-        }
-
-        rids.clear();
-        for (int i = 0; i < minorKeyIndexes.size(); ++i) {
-          final int idx = minorKeyIndexes.get(i);
-          final LSMTreeIndexUnderlyingPageCursor iter = iterators[idx];
-
-          // BROWSE THE SAME ITERATOR TO CHECK IF NEXT VALUES HAVE THE SAME KEY
-          while (true) {
-            if (iter == null)
-              break;
-
-            final Object[] value = iter.getValue();
-            if (value != null) {
-              // NOT DELETED
-              for (int r = 0; r < value.length; ++r) {
-                final RID rid = (RID) value[r];
-                // ADD ALSO REMOVED RIDS. ONCE THE COMPACTING OF COMPACTED INDEXES (2nd LEVEL) IS DONE, REMOVED ENTRIES CAN BE REMOVED
-                rids.add(rid);
+        } else {
+          // MERGE THE KEY RANGES IN PARALLEL: THE LAST RANGE IS MERGED BY THE CURRENT THREAD WHILE WRITING
+          final int ranges = splitKeys.size() + 1;
+          final List<BlockingQueue<MergedEntry>> queues = new ArrayList<>(ranges - 1);
+          final AtomicReference<Throwable> error = new AtomicReference<>();
+
+          for (int r = 0; r < ranges - 1; ++r) {
+            final BlockingQueue<MergedEntry> queue = new ArrayBlockingQueue<>(RANGE_QUEUE_SIZE);
+            queues.add(queue);
+
+            final Object[] fromKeys = r == 0 ? null : splitKeys.get(r - 1);
+            final Object[] toKeys = splitKeys.get(r);
+
+            executor.submit(() -> {
+              try {
+                final KWayMerger merger = new KWayMerger(index, pages, fromKeys, toKeys);
+                for (MergedEntry entry; (entry = merger.next()) != null; )
+                  queue.put(entry);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+              } catch (Throwable e) {
+                error.compareAndSet(null, e);
               }
 
-              if (!rids.isEmpty())
-                totalMergedValues += rids.size();
-            }
+              try {
+                queue.put(END_OF_RANGE);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+          }
 
-            // CHECK IF THE NEXT ELEMENT HAS THE SAME KEY
-            if (iter.hasNext()) {
-              iter.next();
-              keys[idx] = iterators[idx].getKeys();
+          for (int r = 0; r < ranges; ++r) {
+            final KWayMerger lastRangeMerger = r == ranges - 1 ? new KWayMerger(index, pages, splitKeys.get(r - 1), null) : null;
+            final BlockingQueue<MergedEntry> queue = r < ranges - 1 ? queues.get(r) : null;
 
-              if (LSMTreeIndexMutable.compareKeys(comparator, keyTypes, keys[idx], minorKey) != 0)
+            while (true) {
+              final MergedEntry entry = queue != null ? queue.take() : lastRangeMerger.next();
+              if (entry == null || entry == END_OF_RANGE)
                 break;
 
-            } else {
-              iterators[idx].close();
-              iterators[idx] = null;
-              keys[idx] = null;
-              break;
-            }
-          }
-        }
-
-        if (!rids.isEmpty()) {
-          final RID[] ridsArray = new RID[rids.size()];
-          rids.toArray(ridsArray);
-
-          final MutablePage newPage = compactedIndex
-              .appendDuringCompaction(keyValueContent, lastPage, currentPageBuffer, compactedPageNumberInSeries, minorKey, ridsArray);
-
-          if (newPage != lastPage) {
-            ++compactedPageNumberInSeries;
-
-            if (rootPage != null) {
-              // NEW PAGE: STORE THE MIN KEY IN THE ROOT PAGE
-              final int newPageNum = newPage.getPageId().getPageNumber();
-
-              final MutablePage newRootPage = compactedIndex
-                  .appendDuringCompaction(keyValueContent, rootPage, rootPageBuffer, compactedPageNumberInSeries, minorKey,
-                      new RID[] { new RID(database, 0, newPageNum) });
-
-              LogManager.instance().log(mainIndex, Level.FINE, "- Creating a new entry in index '%s' root page %s->%d (entry in page=%d)", null, index,
-                  Arrays.toString(minorKey), newPageNum, index.getCount(rootPage) - 1);
-
-              if (newRootPage != rootPage) {
-                throw new UnsupportedOperationException("Root index page overflow");
-//
-//                // TODO: MANAGE A LINKED LIST OF ROOT PAGES INSTEAD
-//                ++compactedPageNumberInSeries;
-//
-//                LogManager.instance().info(mainIndex, "- End of space in root index page for index '%s' (rootEntries=%d)", compactedIndex.getName(),
-//                    compactedIndex.getCount(rootPage));
-//                database.getPageManager().updatePage(rootPage, true, false);
-//                rootPage = null;
-//                rootPageBuffer = null;
-              }
+              writer.append(entry.keys, entry.rids);
+              totalMergedKeys += entry.mergedKeys;
+              totalValues += entry.rids.length;
+              ++totalKeys;
+              ++iterations;
+              stats.keys.incrementAndGet();
             }
 
-            currentPageBuffer = newPage.getTrackable();
-            lastPage = newPage;
+            if (error.get() != null)
+              throw new IndexException("Error on merging the pages of index '" + index.getName() + "'", error.get());
           }
-
-          // UPDATE LAST PAGE'S KEY
-          if (minorKey != null)
-            lastPageMaxKey = minorKey;
-
-          ++totalKeys;
-          totalValues += rids.size();
-
-          if (totalKeys % 1000000 == 0)
-            LogManager.instance()
-                .log(mainIndex, Level.FINE, "- Keys %d values %d - iterations %d (entriesInRootPage=%d)", null, totalKeys, totalValues, iterations,
-                    compactedIndex.getCount(rootPage));
         }
-      }
 
-      if (rootPage != null && lastPageMaxKey != null) {
-        // WRITE THE MAX KEY
-        compactedIndex.appendDuringCompaction(keyValueContent, rootPage, rootPageBuffer, compactedPageNumberInSeries, lastPageMaxKey,
-            new RID[] { new RID(database, 0, 0) });
-        LogManager.instance()
-            .log(mainIndex, Level.FINE, "- Creating last entry in index '%s' root page %s (entriesInRootPage=%d)", null, index, Arrays.toString(lastPageMaxKey),
-                compactedIndex.getCount(rootPage));
-      }
+        writer.close();
 
-      if (lastPage != null)
-        database.getPageManager().updatePage(lastPage, true, false);
-      if (rootPage != null)
-        database.getPageManager().updatePage(rootPage, true, false);
+        compactedPages += pagesToCompact;
+        stats.compactedPages.set(compactedPages);
 
-      compactedPages += pagesToCompact;
-
-      LogManager.instance()
-          .log(mainIndex, Level.FINE, "- compacted %d pages, remaining %d pages (totalKeys=%d totalValues=%d totalMergedKeys=%d totalMergedValues=%d)", null,
-              compactedPages, (lastImmutablePage - compactedPages + 1), totalKeys, totalValues, totalMergedKeys, totalMergedValues);
+        LogManager.instance()
+            .log(mainIndex, Level.FINE, "- compacted %d pages, remaining %d pages (totalKeys=%d totalValues=%d totalMergedKeys=%d)", null, compactedPages,
+                (lastImmutablePage - compactedPages + 1), totalKeys, totalValues, totalMergedKeys);
 
-      pageIndex += pagesToCompact;
+        pageIndex += pagesToCompact;
+      }
+    } finally {
+      if (executor != null)
+        executor.shutdownNow();
     }
 
     final String oldMutableFileName = index.getName();
@@ -294,12 +451,45 @@ public class LSMTreeIndexCompactor {
 
     final LSMTreeIndexMutable newIndex = mainIndex.splitIndex(lastImmutablePage + 1, compactedIndex);
 
+    final long elapsed = System.currentTimeMillis() - startTime;
+    stats.end(elapsed, index.getPageSize(), rateLimiter.getTotalWaitTime());
+
     LogManager.instance().log(mainIndex, Level.INFO, String.format(
-        "Index '%s' compacted in %dms (keys=%d values=%d mutablePages=%d immutablePages=%d iterations=%d oldLevel0File=%s(%d) newLevel0File=%s(%d) newLevel1File=%s(%d) threadId=%d)",
-        mainIndex.getName(), (System.currentTimeMillis() - startTime), totalKeys, totalValues, newIndex.getTotalPages(), compactedIndex.getTotalPages(),
-        iterations, oldMutableFileName, oldMutableFileId, mainIndex.getMutableIndex().getName(), mainIndex.getMutableIndex().getFileId(),
+        "Index '%s' compacted in %dms (keys=%d values=%d mutablePages=%d immutablePages=%d iterations=%d threads=%d throttled=%dms oldLevel0File=%s(%d) newLevel0File=%s(%d) newLevel1File=%s(%d) threadId=%d)",
+        mainIndex.getName(), elapsed, totalKeys, totalValues, newIndex.getTotalPages(), compactedIndex.getTotalPages(), iterations, threads,
+        rateLimiter.getTotalWaitTime(), oldMutableFileName, oldMutableFileId, mainIndex.getMutableIndex().getName(), mainIndex.getMutableIndex().getFileId(),
         compactedIndex.getName(), compactedIndex.getFileId(), Thread.currentThread().getId()));
 
     return true;
   }
+
+  /**
+   * Splits the key space of the pages in ranges with a similar number of entries, by sampling the keys of each page. Returns the keys
+   * that separate the ranges, or an empty list if the pages cannot be split.
+   */
+  private static List<Object[]> computeSplitKeys(final LSMTreeIndexMutable index, final BasePage[] pages, final int ranges) {
+    final byte[] keyTypes = index.getKeyTypes();
+    final BinaryComparator comparator = index.getDatabase().getSerializer().getComparator();
+
+    final List<Object[]> samples = new ArrayList<>();
+    for (BasePage page : pages) {
+      final int count = index.getCount(page);
+      final int headerSize = index.getHeaderSize(page.getPageId().getPageNumber());
+      for (int i = 1; i < ranges && count > 0; ++i)
+        samples.add(new LSMTreeIndexUnderlyingPageCursor(index, page, count * i / ranges, headerSize, keyTypes, count, true).getKeys());
+    }
+
+    if (samples.size() < ranges)
+      return Collections.emptyList();
+
+    samples.sort((k1, k2) -> LSMTreeIndexMutable.compareKeys(comparator, keyTypes, k1, k2));
+
+    final List<Object[]> splitKeys = new ArrayList<>(ranges - 1);
+    for (int i = 1; i < ranges; ++i) {
+      final Object[] key = samples.get(samples.size() * i / ranges);
+      if (splitKeys.isEmpty() || LSMTreeIndexMutable.compareKeys(comparator, keyTypes, splitKeys.get(splitKeys.size() - 1), key) < 0)
+        splitKeys.add(key);
+    }
+    return splitKeys;
+  }
 }
@@ -207,6 +207,11 @@ public class LSMTreeIndexMutable extends LSMTreeIndexAbstract {
     final Map<String, Long> stats = new HashMap<>();
     stats.put("pages", (long) getTotalPages());
     stats.put("adjacentSteps", statsAdjacentSteps.get());
+    if (subIndex != null) {
+      final Map<String, Long> subIndexStats = subIndex.getStats();
+      stats.put("compactedPages", subIndexStats.remove("pages"));
+      stats.putAll(subIndexStats);
+    }
     return stats;
   }
 
@@ -67,12 +67,7 @@ public class LSMTreeIndexUnderlyingPageCursor extends LSMTreeIndexUnderlyingAbst
     if (currentEntryIndex < 0)
       throw new IllegalStateException("Invalid page cursor index " + currentEntryIndex);
 
-    int contentPos = buffer.getInt(keyStartPosition + (currentEntryIndex * INT_SERIALIZED_SIZE));
-    buffer.position(contentPos);
-
-    nextKeys = new Object[keyTypes.length];
-    for (int k = 0; k < keyTypes.length; ++k)
-      nextKeys[k] = index.getDatabase().getSerializer().deserializeValue(index.getDatabase(), buffer, keyTypes[k], null);
+    nextKeys = index.readKeys(buffer, keyStartPosition, currentEntryIndex);
 
     valuePosition = buffer.position();
     nextValue = index.readEntryValues(buffer);
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.query;
+
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.query.sql.executor.BasicCommandContext;
+import com.arcadedb.query.sql.executor.ResultSet;
+import com.arcadedb.query.sql.parser.Statement;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statement prepared once and executed many times by its id with different parameters. SQL statements are parsed and validated when prepared. The
+ * execution plans are taken from the {@link com.arcadedb.query.sql.parser.ExecutionPlanCache} of the database, so they are shared by all the
+ * connections executing the same statement. Idempotent SQL statements are executed directly, all the other statements are executed as commands
+ * through the database, so in HA they are forwarded to the leader.
+ */
+public class PreparedStatement {
+  private final long             id;
+  private final DatabaseInternal database;
+  private final String           language;
+  private final String           text;
+  private final Statement        sqlStatement;
+  private final boolean          idempotent;
+  private final LongAdder        executions     = new LongAdder();
+  private final LongAdder        errors         = new LongAdder();
+  private final LongAdder        totalTimeNanos = new LongAdder();
+  private final AtomicLong       maxTimeNanos   = new AtomicLong();
+
+  public PreparedStatement(final long id, final DatabaseInternal database, final String language, final String text, final Statement sqlStatement) {
+    this.id = id;
+    this.database = database;
+    this.language = language;
+    this.text = text;
+    this.sqlStatement = sqlStatement;
+    this.idempotent = sqlStatement != null && sqlStatement.isIdempotent();
+  }
+
+  public ResultSet execute(final Object... parameters) {
+    final long begin = System.nanoTime();
+    boolean ok = false;
+    try {
+      final DatabaseInternal db = database.getWrappedDatabaseInstance();
+      final ResultSet resultSet;
+      if (idempotent)
+        resultSet = sqlStatement.execute(db, parameters != null ? parameters : new Object[0], new BasicCommandContext().setIdempotent(true));
+      else
+        resultSet = db.command(language, text, parameters != null ? parameters : new Object[0]);
+      ok = true;
+      return resultSet;
+    } finally {
+      updateStats(begin, ok);
+    }
+  }
+
+  public ResultSet execute(final Map<String, Object> parameters) {
+    final long begin = System.nanoTime();
+    boolean ok = false;
+    try {
+      final DatabaseInternal db = database.getWrappedDatabaseInstance();
+      final ResultSet resultSet;
+      if (idempotent)
+        resultSet = sqlStatement.execute(db, parameters, new BasicCommandContext().setIdempotent(true));
+      else
+        resultSet = db.command(language, text, parameters);
+      ok = true;
+      return resultSet;
+    } finally {
+      updateStats(begin, ok);
+    }
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getLanguage() {
+    return language;
+  }
+
+  public String getText() {
+    return text;
+  }
+
+  /**
+   * Returns true if the statement does not change the database, so it can be executed as a query.
+   */
+  public boolean isIdempotent() {
+    return idempotent;
+  }
+
+  public long getExecutions() {
+    return executions.sum();
+  }
+
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  /**
+   * Returns the average time in microseconds to execute the statement and create its result set. The results are fetched lazily, so the time to browse
+   * the result set is not included.
+   */
+  public long getAverageTimeMicros() {
+    final long total = executions.sum();
+    return total > 0 ? TimeUnit.NANOSECONDS.toMicros(totalTimeNanos.sum() / total) : 0;
+  }
+
+  public long getMaxTimeMicros() {
+    return TimeUnit.NANOSECONDS.toMicros(maxTimeNanos.get());
+  }
+
+  public Map<String, Object> getStats() {
+    final Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("id", id);
+    stats.put("language", language);
+    stats.put("command", text);
+    stats.put("idempotent", idempotent);
+    stats.put("executions", getExecutions());
+    stats.put("errors", getErrors());
+    stats.put("averageTimeMicros", getAverageTimeMicros());
+    stats.put("maxTimeMicros", getMaxTimeMicros());
+    return stats;
+  }
+
+  @Override
+  public String toString() {
+    return id + ": " + text;
+  }
+
+  private void updateStats(final long begin, final boolean ok) {
+    final long elapsed = System.nanoTime() - begin;
+    executions.increment();
+    if (!ok)
+      errors.increment();
+    totalTimeNanos.add(elapsed);
+    maxTimeNanos.accumulateAndGet(elapsed, Math::max);
+  }
+}
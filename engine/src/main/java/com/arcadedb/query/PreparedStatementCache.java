@@ -0,0 +1,193 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.query;
+
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.query.sql.executor.SQLEngine;
+import com.arcadedb.query.sql.parser.Statement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * LRU cache of the statements prepared on a database. The same statement prepared by different connections (also with different protocols) gets the
+ * same id, so its execution plan and its statistics are shared. A statement removed from the cache cannot be executed by id anymore and must be
+ * prepared again. Ids are random and never reused, so a stale id kept by a client after the statement has been removed, or after the database has
+ * been reopened, is rejected instead of executing a different statement.
+ * <p>
+ * Statements explicitly prepared by the clients, which can be executed by id, are kept apart from the statements prepared implicitly by the protocols
+ * to execute ad-hoc queries (see {@link #prepareImplicit(String, String)}), so a burst of ad-hoc queries never evicts the handles held by the clients.
+ * Both caches are sized with `arcadedb.sqlStatementCache`.
+ */
+public class PreparedStatementCache {
+  private final DatabaseInternal               database;
+  private final int                            maxSize;
+  private final Map<String, PreparedStatement> explicit;
+  private final Map<String, PreparedStatement> implicit;
+  private final Map<Long, PreparedStatement>   byId = new HashMap<>();
+
+  public PreparedStatementCache(final DatabaseInternal database, final int maxSize) {
+    this.database = database;
+    this.maxSize = maxSize;
+    this.explicit = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, PreparedStatement> eldest) {
+        if (size() > PreparedStatementCache.this.maxSize) {
+          byId.remove(eldest.getValue().getId());
+          return true;
+        }
+        return false;
+      }
+    };
+    this.implicit = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, PreparedStatement> eldest) {
+        return size() > PreparedStatementCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * Prepares the statement or returns the statement already prepared with the same language and text. The statement can be executed by id until it is
+   * removed from the cache. SQL statements are parsed, so syntax errors are thrown here.
+   */
+  public PreparedStatement prepare(final String language, final String text) {
+    final String key = getKey(language, text);
+
+    synchronized (this) {
+      final PreparedStatement prepared = explicit.get(key);
+      if (prepared != null)
+        return prepared;
+
+      final PreparedStatement adHoc = implicit.remove(key);
+      if (adHoc != null)
+        return register(key, adHoc);
+    }
+
+    // PARSE OUTSIDE THE LOCK
+    final Statement sqlStatement = parse(language, text);
+
+    synchronized (this) {
+      final PreparedStatement prepared = explicit.get(key);
+      if (prepared != null)
+        return prepared;
+
+      final PreparedStatement adHoc = implicit.remove(key);
+      return register(key, adHoc != null ? adHoc : new PreparedStatement(newId(), database, language, text, sqlStatement));
+    }
+  }
+
+  /**
+   * Prepares a statement to execute an ad-hoc query, or returns the statement already prepared with the same language and text. The statement is kept
+   * in a separate cache and it cannot be executed by id, unless it is also prepared explicitly with {@link #prepare(String, String)}.
+   */
+  public PreparedStatement prepareImplicit(final String language, final String text) {
+    final String key = getKey(language, text);
+
+    synchronized (this) {
+      PreparedStatement prepared = explicit.get(key);
+      if (prepared == null)
+        prepared = implicit.get(key);
+      if (prepared != null)
+        return prepared;
+    }
+
+    // PARSE OUTSIDE THE LOCK
+    final Statement sqlStatement = parse(language, text);
+
+    synchronized (this) {
+      PreparedStatement prepared = explicit.get(key);
+      if (prepared == null)
+        prepared = implicit.computeIfAbsent(key, k -> new PreparedStatement(newId(), database, language, text, sqlStatement));
+      return prepared;
+    }
+  }
+
+  /**
+   * Returns the prepared statement with the id, or null if it has never been prepared or it has been removed from the cache.
+   */
+  public synchronized PreparedStatement get(final long id) {
+    final PreparedStatement prepared = byId.get(id);
+    if (prepared != null)
+      // UPDATE THE LRU ORDER
+      explicit.get(getKey(prepared.getLanguage(), prepared.getText()));
+    return prepared;
+  }
+
+  public synchronized boolean remove(final long id) {
+    final PreparedStatement prepared = byId.remove(id);
+    if (prepared == null)
+      return false;
+    explicit.remove(getKey(prepared.getLanguage(), prepared.getText()));
+    return true;
+  }
+
+  /**
+   * Returns the statements explicitly prepared.
+   */
+  public synchronized List<PreparedStatement> getStatements() {
+    return new ArrayList<>(explicit.values());
+  }
+
+  /**
+   * Returns the number of statements explicitly prepared.
+   */
+  public synchronized int size() {
+    return explicit.size();
+  }
+
+  public synchronized void clear() {
+    explicit.clear();
+    implicit.clear();
+    byId.clear();
+  }
+
+  private PreparedStatement register(final String key, final PreparedStatement prepared) {
+    explicit.put(key, prepared);
+    byId.put(prepared.getId(), prepared);
+    return prepared;
+  }
+
+  private Statement parse(final String language, final String text) {
+    return "sql".equalsIgnoreCase(language) ? SQLEngine.parse(text, database) : null;
+  }
+
+  /**
+   * Returns a new random positive id. Ids are not derived from a counter, so they are not reused after a statement is removed or the database is
+   * reopened.
+   */
+  private long newId() {
+    long id;
+    do {
+      id = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+    } while (id == 0 || byId.containsKey(id));
+    return id;
+  }
+
+  private static String getKey(final String language, final String text) {
+    return language.toLowerCase() + ":" + text;
+  }
+}
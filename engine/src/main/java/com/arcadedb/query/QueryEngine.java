@@ -24,6 +24,7 @@ package com.arcadedb.query;
 import com.arcadedb.database.DatabaseInternal;
 import com.arcadedb.query.sql.executor.ResultSet;
 
+import java.util.Collections;
 import java.util.Map;
 
 public interface QueryEngine {
@@ -33,6 +34,19 @@ public interface QueryEngine {
     String getLanguage();
 
     QueryEngine create(DatabaseInternal database);
+
+    /**
+     * Returns the statistics of the engines created by the factory, like the hits of their caches.
+     */
+    default Map<String, Object> getStats() {
+      return Collections.emptyMap();
+    }
+
+    /**
+     * Releases the resources kept by the factory for its database, like the caches of the engines. Invoked when the database is closed.
+     */
+    default void close() {
+    }
   }
 
   ResultSet query(String query, Map<String, Object> parameters);
@@ -22,6 +22,7 @@
 package com.arcadedb.query;
 
 import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.log.LogManager;
 import com.arcadedb.query.cypher.CypherQueryEngine;
 import com.arcadedb.query.gremlin.GremlinQueryEngine;
 import com.arcadedb.query.mongo.MongoQueryEngine;
@@ -29,6 +30,7 @@ import com.arcadedb.query.sql.SQLQueryEngine;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.logging.Level;
 
 public class QueryEngineManager {
   private Map<String, QueryEngine.QueryEngineFactory> implementations = new HashMap<>();
@@ -45,6 +47,29 @@ public class QueryEngineManager {
       implementations.put(impl.getLanguage().toLowerCase(), impl);
   }
 
+  /**
+   * Returns the statistics of all the query engines. The names of the statistics are prefixed by the language.
+   */
+  public Map<String, Object> getStats() {
+    final Map<String, Object> stats = new HashMap<>();
+    for (Map.Entry<String, QueryEngine.QueryEngineFactory> entry : implementations.entrySet())
+      for (Map.Entry<String, Object> stat : entry.getValue().getStats().entrySet())
+        stats.put(entry.getKey() + "." + stat.getKey(), stat.getValue());
+    return stats;
+  }
+
+  /**
+   * Releases the resources of all the query engines. Invoked when the database is closed.
+   */
+  public void close() {
+    for (QueryEngine.QueryEngineFactory impl : implementations.values())
+      try {
+        impl.close();
+      } catch (Exception e) {
+        LogManager.instance().log(this, Level.WARNING, "Error on closing the query engine '%s'", e, impl.getLanguage());
+      }
+  }
+
   public QueryEngine create(final String language, DatabaseInternal database) {
     final QueryEngine.QueryEngineFactory impl = implementations.get(language.toLowerCase());
     if (impl == null)
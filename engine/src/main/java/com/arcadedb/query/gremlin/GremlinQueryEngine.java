@@ -28,6 +28,7 @@ import com.arcadedb.log.LogManager;
 import com.arcadedb.query.QueryEngine;
 import com.arcadedb.query.sql.executor.ResultSet;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Level;
@@ -36,9 +37,10 @@ public class GremlinQueryEngine implements QueryEngine {
   private final Object arcadeGraph;
 
   public static class GremlinQueryEngineFactory implements QueryEngineFactory {
-    private static Boolean available = null;
-    private static Class   arcadeGraphClass;
-    private static Class   arcadeGremlinClass;
+    private static   Boolean available = null;
+    private static   Class   arcadeGraphClass;
+    private static   Class   arcadeGremlinClass;
+    private volatile Object  arcadeGraph;
 
     @Override
     public boolean isAvailable() {
@@ -62,12 +64,53 @@ public class GremlinQueryEngine implements QueryEngine {
     @Override
     public QueryEngine create(final DatabaseInternal database) {
       try {
-        return new GremlinQueryEngine(arcadeGraphClass.getMethod("open", Database.class).invoke(null, database));
+        // THE GRAPH IS CREATED ONCE PER DATABASE, SO ITS EXECUTOR AND CACHES LIVE ACROSS THE QUERIES
+        Object graph = arcadeGraph;
+        if (graph == null) {
+          synchronized (this) {
+            if (arcadeGraph == null)
+              arcadeGraph = arcadeGraphClass.getMethod("open", Database.class).invoke(null, database);
+            graph = arcadeGraph;
+          }
+        }
+        return new GremlinQueryEngine(graph);
       } catch (Exception e) {
         LogManager.instance().log(this, Level.SEVERE, "Error on initializing Gremlin query engine", e);
         throw new QueryParsingException("Error on initializing Gremlin query engine", e);
       }
     }
+
+    @Override
+    public Map<String, Object> getStats() {
+      final Object graph = arcadeGraph;
+      if (graph == null)
+        return Collections.emptyMap();
+
+      try {
+        return (Map<String, Object>) arcadeGraphClass.getMethod("getStats").invoke(graph);
+      } catch (Exception e) {
+        LogManager.instance().log(this, Level.WARNING, "Error on retrieving the statistics of the Gremlin query engine", e);
+        return Collections.emptyMap();
+      }
+    }
+
+    @Override
+    public void close() {
+      final Object graph;
+      synchronized (this) {
+        graph = arcadeGraph;
+        arcadeGraph = null;
+      }
+      if (graph == null)
+        return;
+
+      try {
+        // RELEASE THE EXECUTOR AND ITS CACHES: THE DATABASE IS CLOSED BY THE CALLER
+        arcadeGraphClass.getMethod("closeGremlinExecutor").invoke(graph);
+      } catch (Exception e) {
+        LogManager.instance().log(this, Level.WARNING, "Error on closing the Gremlin query engine", e);
+      }
+    }
   }
 
   protected GremlinQueryEngine(final Object arcadeGraph) {
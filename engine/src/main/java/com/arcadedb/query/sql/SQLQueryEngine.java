@@ -23,6 +23,7 @@ package com.arcadedb.query.sql;
 
 import com.arcadedb.database.DatabaseInternal;
 import com.arcadedb.query.QueryEngine;
+import com.arcadedb.query.sql.executor.BasicCommandContext;
 import com.arcadedb.query.sql.executor.ResultSet;
 import com.arcadedb.query.sql.executor.SQLEngine;
 import com.arcadedb.query.sql.parser.Statement;
@@ -59,7 +60,7 @@ public class SQLQueryEngine implements QueryEngine {
     if (!statement.isIdempotent())
       throw new IllegalArgumentException("Query '" + query + "' is not idempotent");
 
-    return statement.execute(database, parameters);
+    return statement.execute(database, parameters, new BasicCommandContext().setIdempotent(true));
   }
 
   @Override
@@ -68,7 +69,7 @@ public class SQLQueryEngine implements QueryEngine {
     if (!statement.isIdempotent())
       throw new IllegalArgumentException("Query '" + query + "' is not idempotent");
 
-    return statement.execute(database, parameters);
+    return statement.execute(database, parameters, new BasicCommandContext().setIdempotent(true));
   }
 
   @Override
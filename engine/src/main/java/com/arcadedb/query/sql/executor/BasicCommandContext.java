@@ -42,6 +42,7 @@ public class BasicCommandContext implements CommandContext {
   protected CommandContext      child;
   protected Map<String, Object> variables;
   protected Map<Object, Object> inputParameters;
+  protected boolean             idempotent    = false;
 
   // MANAGES THE TIMEOUT
   private long executionStartedOn;
@@ -273,6 +274,19 @@ public class BasicCommandContext implements CommandContext {
     return getVariables().toString();
   }
 
+  @Override
+  public boolean isIdempotent() {
+    return idempotent || CommandContext.super.isIdempotent();
+  }
+
+  /**
+   * Marks the context of a statement executed as a query. The flag is inherited by the child contexts.
+   */
+  public BasicCommandContext setIdempotent(final boolean idempotent) {
+    this.idempotent = idempotent;
+    return this;
+  }
+
   public boolean isRecordingMetrics() {
     return recordMetrics;
   }
@@ -320,6 +334,7 @@ public class BasicCommandContext implements CommandContext {
       copy.variables.putAll(variables);
 
     copy.recordMetrics = recordMetrics;
+    copy.idempotent = idempotent;
     copy.parent = parent;
     copy.child = child;
     return copy;
@@ -94,4 +94,12 @@ public interface CommandContext {
 
   DatabaseInternal getDatabase();
 
+  /**
+   * Returns true if the statement is executed as a query, so it must not change the database. Commands and statements executed without a query return
+   * false.
+   */
+  default boolean isIdempotent() {
+    final CommandContext parent = getParent();
+    return parent != null && parent.isIdempotent();
+  }
 }
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.query.sql.executor;
+
+import com.arcadedb.database.Binary;
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.database.Document;
+import com.arcadedb.database.RID;
+import com.arcadedb.exception.CommandExecutionException;
+import com.arcadedb.log.LogManager;
+import com.arcadedb.serializer.BinarySerializer;
+import com.arcadedb.serializer.BinaryTypes;
+
+import java.io.*;
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * Sorts an unbounded amount of results keeping in heap at most <code>runSize</code> elements. When the buffer is full, the results are sorted and
+ * written in a temporary file (run). At the end the runs are merged together with a k-way merge. Results bound to a persistent record are stored as RID and
+ * reloaded while merging.
+ */
+public class ExternalMergeSort implements Closeable {
+  private static final byte RESULT_PROJECTION = 0;
+  private static final byte RESULT_RECORD     = 1;
+
+  private final DatabaseInternal   database;
+  private final BinarySerializer   serializer;
+  private final Comparator<Result> comparator;
+  private final int                runSize;
+  private final List<Result>       buffer         = new ArrayList<>();
+  private final List<File>         runs           = new ArrayList<>();
+  private final List<RunReader>    readers        = new ArrayList<>();
+  private       long               spilledResults = 0;
+  private       long               spilledBytes   = 0;
+
+  private static class RunReader implements Closeable {
+    private final DataInputStream in;
+    private final int             runIndex;
+    private       long            remaining;
+    private       Result          current;
+
+    private RunReader(final File file, final int runIndex, final long count) throws IOException {
+      this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+      this.runIndex = runIndex;
+      this.remaining = count;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
+  public ExternalMergeSort(final DatabaseInternal database, final Comparator<Result> comparator, final int runSize) {
+    this.database = database;
+    this.serializer = database.getSerializer();
+    this.comparator = comparator;
+    this.runSize = Math.max(1, runSize);
+  }
+
+  public void add(final Result result) {
+    buffer.add(result);
+    if (buffer.size() >= runSize)
+      spill();
+  }
+
+  public boolean isSpilled() {
+    return !runs.isEmpty();
+  }
+
+  public int getRuns() {
+    return runs.size();
+  }
+
+  public long getSpilledResults() {
+    return spilledResults;
+  }
+
+  public long getSpilledBytes() {
+    return spilledBytes;
+  }
+
+  /**
+   * Returns the sorted results. The last run is kept in heap and merged with the runs on disk.
+   */
+  public Iterator<Result> sorted() {
+    buffer.sort(comparator);
+
+    if (runs.isEmpty())
+      return buffer.iterator();
+
+    // THE RUNS ARE IN INPUT ORDER: WITH THE SAME KEY THE LOWEST RUN WINS TO KEEP THE SORT STABLE. THE RESULTS IN HEAP ARE THE LAST RUN
+    final int heapRunIndex = runs.size();
+    final PriorityQueue<Object[]> queue = new PriorityQueue<>(runs.size() + 1, (a, b) -> {
+      final int cmp = comparator.compare((Result) a[0], (Result) b[0]);
+      return cmp != 0 ? cmp : Integer.compare((Integer) a[1], (Integer) b[1]);
+    });
+
+    try {
+      for (int i = 0; i < runs.size(); ++i) {
+        final RunReader reader = readers.get(i);
+        if (readNext(reader))
+          queue.add(new Object[] { reader.current, reader.runIndex, reader });
+      }
+    } catch (IOException e) {
+      close();
+      throw new CommandExecutionException("Error on reading the temporary files of ORDER BY", e);
+    }
+
+    final Iterator<Result> heapIterator = buffer.iterator();
+    if (heapIterator.hasNext())
+      queue.add(new Object[] { heapIterator.next(), heapRunIndex, null });
+
+    return new Iterator<Result>() {
+      @Override
+      public boolean hasNext() {
+        return !queue.isEmpty();
+      }
+
+      @Override
+      public Result next() {
+        final Object[] head = queue.poll();
+        if (head == null)
+          throw new NoSuchElementException();
+
+        final RunReader reader = (RunReader) head[2];
+        if (reader == null) {
+          if (heapIterator.hasNext())
+            queue.add(new Object[] { heapIterator.next(), heapRunIndex, null });
+        } else
+          try {
+            if (readNext(reader))
+              queue.add(new Object[] { reader.current, reader.runIndex, reader });
+          } catch (IOException e) {
+            close();
+            throw new CommandExecutionException("Error on reading the temporary files of ORDER BY", e);
+          }
+
+        return (Result) head[0];
+      }
+    };
+  }
+
+  @Override
+  public void close() {
+    for (RunReader reader : readers)
+      try {
+        reader.close();
+      } catch (IOException e) {
+        // IGNORE IT
+      }
+    readers.clear();
+
+    for (File run : runs)
+      if (!run.delete())
+        LogManager.instance().log(this, Level.WARNING, "Cannot delete temporary file '%s' of ORDER BY", null, run);
+    runs.clear();
+
+    buffer.clear();
+  }
+
+  private void spill() {
+    buffer.sort(comparator);
+
+    File file = null;
+    try {
+      // THE FILE IS DELETED BY close(): deleteOnExit() WOULD KEEP ITS PATH IN MEMORY UNTIL THE JVM EXITS
+      file = File.createTempFile("arcadedb-orderby-", ".tmp");
+
+      final Binary content = new Binary(1024);
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024))) {
+        for (Result result : buffer) {
+          content.clear();
+          serializeResult(content, result);
+
+          out.writeInt(content.size());
+          out.write(content.getContent(), 0, content.size());
+          spilledBytes += Binary.INT_SERIALIZED_SIZE + content.size();
+        }
+      }
+
+      runs.add(file);
+      readers.add(new RunReader(file, runs.size() - 1, buffer.size()));
+      spilledResults += buffer.size();
+
+    } catch (IOException | IllegalArgumentException | ClassCastException e) {
+      if (file != null && !runs.contains(file))
+        file.delete();
+      close();
+      throw new CommandExecutionException("Error on writing the temporary files of ORDER BY", e);
+    }
+
+    buffer.clear();
+  }
+
+  private boolean readNext(final RunReader reader) throws IOException {
+    if (reader.remaining <= 0) {
+      reader.current = null;
+      reader.close();
+      return false;
+    }
+
+    final byte[] content = new byte[reader.in.readInt()];
+    reader.in.readFully(content);
+    reader.remaining--;
+
+    reader.current = deserializeResult(new Binary(content));
+    return true;
+  }
+
+  private void serializeResult(final Binary content, final Result result) {
+    final Optional<Document> element = result.getElement();
+    if (element.isPresent() && element.get().getIdentity() != null) {
+      content.putByte(RESULT_RECORD);
+      final RID rid = element.get().getIdentity();
+      content.putNumber(rid.getBucketId());
+      content.putNumber(rid.getPosition());
+    } else
+      content.putByte(RESULT_PROJECTION);
+
+    if (result instanceof ResultInternal) {
+      final ResultInternal internal = (ResultInternal) result;
+      serializeMap(content, element.isPresent() && element.get().getIdentity() != null ? internal.content : result.toMap());
+      serializeMap(content, internal.temporaryContent);
+      serializeMap(content, internal.metadata);
+    } else {
+      serializeMap(content, element.isPresent() && element.get().getIdentity() != null ? null : result.toMap());
+      serializeMap(content, null);
+      serializeMap(content, null);
+    }
+  }
+
+  private Result deserializeResult(final Binary content) {
+    final ResultInternal result;
+    if (content.getByte() == RESULT_RECORD) {
+      final RID rid = new RID(database, (int) content.getNumber(), content.getNumber());
+      result = new ResultInternal((Document) database.lookupByRID(rid, true));
+      result.content = deserializeMap(content);
+    } else {
+      result = new ResultInternal();
+      final Map<String, Object> map = deserializeMap(content);
+      if (map != null)
+        result.content = map;
+    }
+    result.temporaryContent = deserializeMap(content);
+    result.metadata = deserializeMap(content);
+    return result;
+  }
+
+  private void serializeMap(final Binary content, final Map<String, Object> map) {
+    if (map == null) {
+      content.putNumber(-1);
+      return;
+    }
+
+    content.putNumber(map.size());
+    for (Map.Entry<String, Object> entry : map.entrySet()) {
+      content.putString(entry.getKey());
+
+      Object value = entry.getValue();
+      if (value instanceof Result)
+        // NESTED PROJECTIONS ARE STORED AS MAPS
+        value = ((Result) value).isElement() ? ((Result) value).getElement().get() : ((Result) value).toMap();
+
+      final byte type = BinaryTypes.getTypeFromValue(value);
+      content.putByte(type);
+      serializer.serializeValue(database, content, type, value);
+    }
+  }
+
+  private Map<String, Object> deserializeMap(final Binary content) {
+    final int size = (int) content.getNumber();
+    if (size < 0)
+      return null;
+
+    // KEEP THE ORDER OF THE PROPERTIES
+    final Map<String, Object> map = new LinkedHashMap<>(size);
+    for (int i = 0; i < size; ++i) {
+      final String key = content.getString();
+      final byte type = content.getByte();
+      map.put(key, serializer.deserializeValue(database, content, type, null));
+    }
+    return map;
+  }
+}
@@ -38,8 +38,24 @@ public class OrderByStep extends AbstractExecutionStep {
 
   private long cost = 0;
 
-  List<Result> cachedResult = null;
-  int          nextElement  = 0;
+  List<Result>      cachedResult    = null;
+  Iterator<Result>  sortedResult    = null;
+  ExternalMergeSort externalSort    = null;
+  long              spilledElements = 0;
+  int               spilledRuns     = 0;
+
+  /**
+   * Element of the top-N heap. The sequence keeps the sort stable between elements with the same key.
+   */
+  private static class TopElement {
+    private final Result result;
+    private final long   sequence;
+
+    private TopElement(final Result result, final long sequence) {
+      this.result = result;
+      this.sequence = sequence;
+    }
+  }
 
   public OrderByStep(OrderBy orderBy, CommandContext ctx, long timeoutMillis, boolean profilingEnabled) {
     this(orderBy, null, ctx, timeoutMillis, profilingEnabled);
@@ -57,21 +73,22 @@ public class OrderByStep extends AbstractExecutionStep {
 
   @Override
   public ResultSet syncPull(CommandContext ctx, int nRecords) throws TimeoutException {
-    if (cachedResult == null) {
+    if (sortedResult == null) {
       cachedResult = new ArrayList<>();
+      sortedResult = cachedResult.iterator();
       prev.ifPresent(p -> init(p, ctx));
     }
 
     return new ResultSet() {
       private int currentBatchReturned = 0;
-      private int offset = nextElement;
 
       @Override
       public boolean hasNext() {
         if (currentBatchReturned >= nRecords) {
           return false;
         }
-        if (cachedResult.size() <= nextElement) {
+        if (!sortedResult.hasNext()) {
+          closeExternalSort();
           return false;
         }
         return true;
@@ -84,11 +101,10 @@ public class OrderByStep extends AbstractExecutionStep {
           if (currentBatchReturned >= nRecords) {
             throw new IllegalStateException();
           }
-          if (cachedResult.size() <= nextElement) {
+          if (!sortedResult.hasNext()) {
             throw new IllegalStateException();
           }
-          Result result = cachedResult.get(offset + currentBatchReturned);
-          nextElement++;
+          Result result = sortedResult.next();
           currentBatchReturned++;
           return result;
         } finally {
@@ -115,10 +131,98 @@ public class OrderByStep extends AbstractExecutionStep {
     };
   }
 
+  @Override
+  public void close() {
+    closeExternalSort();
+    super.close();
+  }
+
   private void init(ExecutionStepInternal p, CommandContext ctx) {
-    long timeoutBegin = System.currentTimeMillis();
+    if (maxResults != null)
+      initTopN(p, ctx);
+    else
+      initFullSort(p, ctx);
+  }
+
+  /**
+   * With a LIMIT only the first N elements are kept in a max-heap: every new element replaces the greatest one in the heap if it is lower.
+   */
+  private void initTopN(ExecutionStepInternal p, CommandContext ctx) {
+    final long timeoutBegin = System.currentTimeMillis();
     final long maxElementsAllowed = GlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getValueAsLong();
-    boolean sorted = true;
+
+    final Comparator<TopElement> comparator = (a, b) -> {
+      final int cmp = orderBy.compare(a.result, b.result, ctx);
+      return cmp != 0 ? cmp : Long.compare(a.sequence, b.sequence);
+    };
+    final PriorityQueue<TopElement> heap = new PriorityQueue<>(Math.max(1, Math.min(maxResults, 1024)), comparator.reversed());
+    long sequence = 0;
+
+    if (maxResults > 0)
+      do {
+        ResultSet lastBatch = p.syncPull(ctx, 100);
+        if (!lastBatch.hasNext()) {
+          break;
+        }
+        while (lastBatch.hasNext()) {
+          if (timeoutMillis > 0 && timeoutBegin + timeoutMillis < System.currentTimeMillis()) {
+            sendTimeout();
+          }
+
+          if (this.timedOut) {
+            break;
+          }
+          Result item = lastBatch.next();
+          long begin = profilingEnabled ? System.nanoTime() : 0;
+          try {
+            final TopElement element = new TopElement(item, sequence++);
+            if (heap.size() < maxResults) {
+              heap.add(element);
+              if (maxElementsAllowed >= 0 && maxElementsAllowed < heap.size()) {
+                heap.clear();
+                throw new CommandExecutionException(
+                    "Limit of allowed elements for in-heap ORDER BY in a single query exceeded (" + maxElementsAllowed + ") . You can set "
+                        + GlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getKey() + " to increase this limit");
+              }
+            } else if (comparator.compare(element, heap.peek()) < 0) {
+              heap.poll();
+              heap.add(element);
+            }
+          } finally {
+            if (profilingEnabled) {
+              cost += (System.nanoTime() - begin);
+            }
+          }
+        }
+        if (timedOut) {
+          break;
+        }
+      } while (true);
+
+    long begin = profilingEnabled ? System.nanoTime() : 0;
+    try {
+      final TopElement[] sorted = heap.toArray(new TopElement[heap.size()]);
+      Arrays.sort(sorted, comparator);
+      for (TopElement e : sorted)
+        cachedResult.add(e.result);
+      sortedResult = cachedResult.iterator();
+    } finally {
+      if (profilingEnabled) {
+        cost += (System.nanoTime() - begin);
+      }
+    }
+  }
+
+  /**
+   * Without a LIMIT all the elements are sorted. If they exceed the heap budget, the sorted runs are written in temporary files and merged at the end.
+   */
+  private void initFullSort(ExecutionStepInternal p, CommandContext ctx) {
+    final long timeoutBegin = System.currentTimeMillis();
+    final long maxElementsAllowed = GlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getValueAsLong();
+    final int maxHeapElements = GlobalConfiguration.QUERY_ORDER_BY_MAX_HEAP_ELEMENTS.getValueAsInteger();
+    if (maxHeapElements > 0 && ctx.getDatabase() != null)
+      externalSort = new ExternalMergeSort(ctx.getDatabase(), (a, b) -> orderBy.compare(a, b, ctx), maxHeapElements);
+
     do {
       ResultSet lastBatch = p.syncPull(ctx, 100);
       if (!lastBatch.hasNext()) {
@@ -135,21 +239,15 @@ public class OrderByStep extends AbstractExecutionStep {
         Result item = lastBatch.next();
         long begin = profilingEnabled ? System.nanoTime() : 0;
         try {
-          cachedResult.add(item);
-          if (maxElementsAllowed >= 0 && maxElementsAllowed < cachedResult.size()) {
-            this.cachedResult.clear();
-            throw new CommandExecutionException(
-                "Limit of allowed elements for in-heap ORDER BY in a single query exceeded (" + maxElementsAllowed + ") . You can set "
-                    + GlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getKey() + " to increase this limit");
-          }
-          sorted = false;
-          // compact, only at twice as the buffer, to avoid to do it at each add
-          if (this.maxResults != null) {
-            long compactThreshold = 2L * maxResults;
-            if (compactThreshold < cachedResult.size()) {
-              cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
-              cachedResult = new ArrayList<>(cachedResult.subList(0, maxResults));
-              sorted = true;
+          if (externalSort != null)
+            externalSort.add(item);
+          else {
+            cachedResult.add(item);
+            if (maxElementsAllowed >= 0 && maxElementsAllowed < cachedResult.size()) {
+              this.cachedResult.clear();
+              throw new CommandExecutionException(
+                  "Limit of allowed elements for in-heap ORDER BY in a single query exceeded (" + maxElementsAllowed + ") . You can set "
+                      + GlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getKey() + " to increase this limit");
             }
           }
         } finally {
@@ -161,24 +259,15 @@ public class OrderByStep extends AbstractExecutionStep {
       if (timedOut) {
         break;
       }
-      long begin = profilingEnabled ? System.nanoTime() : 0;
-      try {
-        // compact at each batch, if needed
-        if (!sorted && this.maxResults != null && maxResults < cachedResult.size()) {
-          cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
-          cachedResult = new ArrayList<>(cachedResult.subList(0, maxResults));
-          sorted = true;
-        }
-      } finally {
-        if (profilingEnabled) {
-          cost += (System.nanoTime() - begin);
-        }
-      }
     } while (true);
+
     long begin = profilingEnabled ? System.nanoTime() : 0;
     try {
-      if (!sorted) {
+      if (externalSort != null)
+        sortedResult = externalSort.sorted();
+      else {
         cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
+        sortedResult = cachedResult.iterator();
       }
     } finally {
       if (profilingEnabled) {
@@ -187,6 +276,16 @@ public class OrderByStep extends AbstractExecutionStep {
     }
   }
 
+  private void closeExternalSort() {
+    if (externalSort != null) {
+      spilledElements = externalSort.getSpilledResults();
+      spilledRuns = externalSort.getRuns();
+      externalSort.close();
+      externalSort = null;
+      sortedResult = Collections.emptyIterator();
+    }
+  }
+
   @Override
   public String prettyPrint(int depth, int indent) {
     String result = ExecutionStepInternal.getIndent(depth, indent) + "+ " + orderBy;
@@ -194,6 +293,10 @@ public class OrderByStep extends AbstractExecutionStep {
       result += " (" + getCostFormatted() + ")";
     }
     result += (maxResults != null ? "\n  (buffer size: " + maxResults + ")" : "");
+    if (externalSort != null && externalSort.isSpilled())
+      result += "\n  (spilled on disk: " + externalSort.getSpilledResults() + " elements in " + externalSort.getRuns() + " runs)";
+    else if (spilledRuns > 0)
+      result += "\n  (spilled on disk: " + spilledElements + " elements in " + spilledRuns + " runs)";
     return result;
   }
 
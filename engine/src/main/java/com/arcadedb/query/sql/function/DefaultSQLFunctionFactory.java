@@ -82,6 +82,12 @@ public final class DefaultSQLFunctionFactory extends SQLFunctionFactoryTemplate
     register(SQLFunctionShortestPath.NAME, SQLFunctionShortestPath.class);
     register(SQLFunctionDijkstra.NAME, SQLFunctionDijkstra.class);
     register(SQLFunctionAstar.NAME, SQLFunctionAstar.class);
+    register(SQLFunctionPageRank.NAME, SQLFunctionPageRank.class);
+    register(SQLFunctionWeaklyConnectedComponents.NAME, SQLFunctionWeaklyConnectedComponents.class);
+    register(SQLFunctionLabelPropagation.NAME, SQLFunctionLabelPropagation.class);
+    register(SQLFunctionTriangleCount.NAME, SQLFunctionTriangleCount.class);
+    register(SQLFunctionKCore.NAME, SQLFunctionKCore.class);
+    register(SQLFunctionBFS.NAME, SQLFunctionBFS.class);
 
     reflectionFactory = new SQLFunctionReflectionFactory(this);
   }
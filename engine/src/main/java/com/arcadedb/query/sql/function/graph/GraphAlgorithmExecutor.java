@@ -0,0 +1,125 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.query.sql.function.graph;
+
+import com.arcadedb.exception.CommandExecutionException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.IntFunction;
+
+/**
+ * Fork/join pool used by the graph algorithm functions. The vertices are split in ranges of contiguous indexes, so every task works on a contiguous slice
+ * of the primitive arrays of the {@link GraphSnapshot}.
+ */
+public class GraphAlgorithmExecutor implements AutoCloseable {
+  private static final int          RANGES_PER_THREAD = 4;
+  private static final int          MIN_RANGE_SIZE    = 1024;
+  private final        ForkJoinPool pool;
+  private final        int          threads;
+
+  public interface RangeTask {
+    void execute(int from, int to);
+  }
+
+  public interface RangeFunction<T> {
+    T execute(int from, int to);
+  }
+
+  public GraphAlgorithmExecutor(final int threads) {
+    this.threads = Math.max(1, threads);
+    this.pool = new ForkJoinPool(this.threads, p -> {
+      final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+      thread.setName("ArcadeDB GraphAlgorithm-" + thread.getPoolIndex());
+      thread.setDaemon(true);
+      return thread;
+    }, null, false);
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * Executes the task on the range [0, total) split in slices, waiting for all of them.
+   */
+  public void forRange(final int total, final RangeTask task) {
+    mapRange(total, (from, to) -> {
+      task.execute(from, to);
+      return null;
+    });
+  }
+
+  /**
+   * Executes the function on the range [0, total) split in slices and returns the results of the slices in order.
+   */
+  public <T> List<T> mapRange(final int total, final RangeFunction<T> function) {
+    final int slices = Math.max(1, Math.min(threads * RANGES_PER_THREAD, total / MIN_RANGE_SIZE));
+    final int sliceSize = Math.max(1, (total + slices - 1) / slices);
+
+    final List<ForkJoinTask<T>> tasks = new ArrayList<>(slices);
+    int from = 0;
+    do {
+      final int begin = from;
+      final int end = Math.min(total, from + sliceSize);
+      tasks.add(pool.submit(() -> function.execute(begin, end)));
+      from = end;
+    } while (from < total);
+    return join(tasks);
+  }
+
+  /**
+   * Executes one task per item, used to browse the buckets in parallel.
+   */
+  public <T> List<T> forEach(final int items, final IntFunction<T> function) {
+    final List<ForkJoinTask<T>> tasks = new ArrayList<>(items);
+    for (int i = 0; i < items; ++i) {
+      final int item = i;
+      tasks.add(pool.submit(() -> function.apply(item)));
+    }
+    return join(tasks);
+  }
+
+  @Override
+  public void close() {
+    pool.shutdownNow();
+  }
+
+  private static <T> List<T> join(final List<ForkJoinTask<T>> tasks) {
+    final List<T> results = new ArrayList<>(tasks.size());
+    try {
+      for (ForkJoinTask<T> task : tasks)
+        results.add(task.join());
+    } catch (RuntimeException e) {
+      for (ForkJoinTask<T> task : tasks)
+        task.cancel(true);
+      throw e;
+    }
+
+    if (Thread.interrupted())
+      throw new CommandExecutionException("The graph algorithm has been interrupted");
+    return results;
+  }
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.query.sql.function.graph;
+
+import com.arcadedb.database.Database;
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.database.RID;
+import com.arcadedb.database.Record;
+import com.arcadedb.engine.Bucket;
+import com.arcadedb.graph.EdgeLinkedList;
+import com.arcadedb.graph.GraphEngine;
+import com.arcadedb.graph.Vertex;
+import com.arcadedb.graph.VertexInternal;
+import com.arcadedb.schema.DocumentType;
+import com.arcadedb.schema.EdgeType;
+import com.arcadedb.schema.VertexType;
+import com.arcadedb.utility.Pair;
+
+import java.util.*;
+
+/**
+ * Read-only copy of the adjacency of a graph in compressed sparse row format, used by the graph algorithm functions. Every vertex is identified by a dense
+ * index: the vertices of the same bucket have contiguous indexes in the order of their position, so the RID of a vertex is mapped to its index with a
+ * binary search on the positions of its bucket and all the per-vertex values are kept in primitive arrays indexed by the vertex index.
+ * <p>
+ * The snapshot is loaded by browsing the vertex buckets in parallel and reading the connected vertices directly from the edge segments of every vertex,
+ * without loading the edge and the connected vertex records. The edges pointing to vertices not included in the snapshot are ignored.
+ */
+public class GraphSnapshot {
+  private final Database database;
+  private final int[]    bucketIds;
+  private final long[][] positions;
+  private final int[]    bucketOffsets;
+  private final int[]    bucketSlots;
+  private final int[]    offsets;
+  private final int[]    targets;
+
+  private GraphSnapshot(final Database database, final int[] bucketIds, final long[][] positions, final int[] bucketOffsets, final int[] bucketSlots,
+      final int[] offsets, final int[] targets) {
+    this.database = database;
+    this.bucketIds = bucketIds;
+    this.positions = positions;
+    this.bucketOffsets = bucketOffsets;
+    this.bucketSlots = bucketSlots;
+    this.offsets = offsets;
+    this.targets = targets;
+  }
+
+  /**
+   * Loads the snapshot of the vertices of the types (all the vertex types if null) following the edges of the types (all the edge types if null) in the
+   * direction. With direction BOTH the outgoing edges are loaded and the snapshot is turned into an undirected graph, see {@link #undirected}.
+   */
+  public static GraphSnapshot load(final Database database, final Collection<String> vertexTypes, final Collection<String> edgeTypes,
+      final Vertex.DIRECTION direction, final GraphAlgorithmExecutor executor) {
+    final List<Bucket> buckets = getVertexBuckets(database, vertexTypes);
+    final boolean[] validEdgeBuckets = getEdgeBuckets(database, edgeTypes);
+    final GraphEngine graphEngine = ((DatabaseInternal) database).getGraphEngine();
+    final Vertex.DIRECTION loadDirection = direction == Vertex.DIRECTION.BOTH ? Vertex.DIRECTION.OUT : direction;
+
+    // BROWSE THE BUCKETS IN PARALLEL COLLECTING THE POSITIONS OF THE VERTICES AND THE RIDS OF THE CONNECTED VERTICES
+    final List<BucketScan> scans = executor.forEach(buckets.size(), slot -> {
+      final BucketScan scan = new BucketScan();
+      final Iterator<Record> records = database.iterateBucket(buckets.get(slot).getName());
+      while (records.hasNext()) {
+        final Record record = records.next();
+        if (!(record instanceof VertexInternal))
+          continue;
+
+        scan.positions.add(record.getIdentity().getPosition());
+        final EdgeLinkedList edges = graphEngine.getEdgeHeadChunk((VertexInternal) record, loadDirection);
+        if (edges != null) {
+          final Iterator<Pair<RID, RID>> entries = edges.entryIterator();
+          while (entries.hasNext()) {
+            final Pair<RID, RID> entry = entries.next();
+            final int edgeBucketId = entry.getFirst().getBucketId();
+            if (validEdgeBuckets == null || (edgeBucketId < validEdgeBuckets.length && validEdgeBuckets[edgeBucketId])) {
+              scan.targetBuckets.add(entry.getSecond().getBucketId());
+              scan.targetPositions.add(entry.getSecond().getPosition());
+            }
+          }
+        }
+        scan.offsets.add(scan.targetBuckets.size());
+      }
+      return scan;
+    });
+
+    final int slots = buckets.size();
+    final int[] bucketIds = new int[slots];
+    final long[][] positions = new long[slots][];
+    final int[] bucketOffsets = new int[slots + 1];
+    int maxBucketId = -1;
+    for (int slot = 0; slot < slots; ++slot) {
+      bucketIds[slot] = buckets.get(slot).getId();
+      positions[slot] = scans.get(slot).positions.toArray();
+      bucketOffsets[slot + 1] = bucketOffsets[slot] + positions[slot].length;
+      maxBucketId = Math.max(maxBucketId, bucketIds[slot]);
+    }
+
+    final int[] bucketSlots = new int[maxBucketId + 1];
+    Arrays.fill(bucketSlots, -1);
+    for (int slot = 0; slot < slots; ++slot)
+      bucketSlots[bucketIds[slot]] = slot;
+
+    final GraphSnapshot mapping = new GraphSnapshot(database, bucketIds, positions, bucketOffsets, bucketSlots, null, null);
+
+    // RESOLVE THE CONNECTED VERTICES TO THEIR INDEX, SKIPPING THE ONES NOT IN THE SNAPSHOT
+    final List<int[][]> resolved = executor.forEach(slots, slot -> {
+      final BucketScan scan = scans.get(slot);
+      final int vertices = positions[slot].length;
+      final int[] localOffsets = new int[vertices + 1];
+      final int[] localTargets = new int[scan.targetBuckets.size()];
+      int total = 0;
+      for (int i = 0; i < vertices; ++i) {
+        for (int e = scan.offsets.get(i); e < scan.offsets.get(i + 1); ++e) {
+          final int target = mapping.indexOf(scan.targetBuckets.get(e), scan.targetPositions.get(e));
+          if (target > -1)
+            localTargets[total++] = target;
+        }
+        localOffsets[i + 1] = total;
+      }
+      return new int[][] { localOffsets, localTargets };
+    });
+
+    final int vertexCount = bucketOffsets[slots];
+    final int[] edgeOffsets = new int[slots + 1];
+    for (int slot = 0; slot < slots; ++slot)
+      edgeOffsets[slot + 1] = edgeOffsets[slot] + resolved.get(slot)[0][positions[slot].length];
+
+    final int[] offsets = new int[vertexCount + 1];
+    final int[] targets = new int[edgeOffsets[slots]];
+    executor.forEach(slots, slot -> {
+      final int[] localOffsets = resolved.get(slot)[0];
+      final int base = bucketOffsets[slot];
+      for (int i = 0; i < positions[slot].length; ++i)
+        offsets[base + i] = edgeOffsets[slot] + localOffsets[i];
+      System.arraycopy(resolved.get(slot)[1], 0, targets, edgeOffsets[slot], localOffsets[positions[slot].length]);
+      return null;
+    });
+    offsets[vertexCount] = targets.length;
+
+    final GraphSnapshot snapshot = new GraphSnapshot(database, bucketIds, positions, bucketOffsets, bucketSlots, offsets, targets);
+    return direction == Vertex.DIRECTION.BOTH ? snapshot.undirected(executor) : snapshot;
+  }
+
+  public int getVertexCount() {
+    return bucketOffsets[bucketOffsets.length - 1];
+  }
+
+  public long getEdgeCount() {
+    return targets.length;
+  }
+
+  /**
+   * Returns the offsets of the adjacency lists: the vertices connected to the vertex i are in the targets between offsets[i] (included) and offsets[i+1]
+   * (excluded). The array is returned without copying it for performance and must not be modified.
+   */
+  public int[] getOffsets() {
+    return offsets;
+  }
+
+  /**
+   * Returns the indexes of the connected vertices. The array is returned without copying it for performance and must not be modified.
+   */
+  public int[] getTargets() {
+    return targets;
+  }
+
+  public int getDegree(final int vertex) {
+    return offsets[vertex + 1] - offsets[vertex];
+  }
+
+  /**
+   * Returns the index of the vertex, or -1 if the vertex is not in the snapshot.
+   */
+  public int indexOf(final RID rid) {
+    return indexOf(rid.getBucketId(), rid.getPosition());
+  }
+
+  public RID getRID(final int vertex) {
+    int slot = Arrays.binarySearch(bucketOffsets, vertex);
+    if (slot < 0)
+      slot = -slot - 2;
+    else
+      // SKIP EMPTY BUCKETS
+      while (slot < bucketIds.length - 1 && bucketOffsets[slot + 1] == vertex)
+        ++slot;
+    return new RID(database, bucketIds[slot], positions[slot][vertex - bucketOffsets[slot]]);
+  }
+
+  /**
+   * Returns a snapshot with the edges reversed.
+   */
+  public GraphSnapshot transpose() {
+    final int vertexCount = getVertexCount();
+    final int[] reversedOffsets = new int[vertexCount + 1];
+    for (int target : targets)
+      ++reversedOffsets[target + 1];
+    for (int i = 0; i < vertexCount; ++i)
+      reversedOffsets[i + 1] += reversedOffsets[i];
+
+    // THE SOURCES ARE BROWSED IN ORDER, SO THE REVERSED ADJACENCY LISTS ARE SORTED
+    final int[] cursors = Arrays.copyOf(reversedOffsets, vertexCount);
+    final int[] reversedTargets = new int[targets.length];
+    for (int source = 0; source < vertexCount; ++source)
+      for (int e = offsets[source]; e < offsets[source + 1]; ++e)
+        reversedTargets[cursors[targets[e]]++] = source;
+
+    return new GraphSnapshot(database, bucketIds, positions, bucketOffsets, bucketSlots, reversedOffsets, reversedTargets);
+  }
+
+  /**
+   * Returns a snapshot where every edge is followed in both directions, without duplicated edges and self loops. The adjacency lists of the returned
+   * snapshot are sorted. The adjacency lists of this snapshot are sorted in place.
+   */
+  public GraphSnapshot undirected(final GraphAlgorithmExecutor executor) {
+    final int vertexCount = getVertexCount();
+    final GraphSnapshot reversed = transpose();
+    final int[] reversedOffsets = reversed.offsets;
+    final int[] reversedTargets = reversed.targets;
+
+    executor.forRange(vertexCount, (from, to) -> {
+      for (int v = from; v < to; ++v)
+        Arrays.sort(targets, offsets[v], offsets[v + 1]);
+    });
+
+    final int[] degrees = new int[vertexCount + 1];
+    executor.forRange(vertexCount, (from, to) -> {
+      for (int v = from; v < to; ++v)
+        degrees[v + 1] = merge(v, targets, offsets[v], offsets[v + 1], reversedTargets, reversedOffsets[v], reversedOffsets[v + 1], null, 0);
+    });
+    for (int i = 0; i < vertexCount; ++i)
+      degrees[i + 1] += degrees[i];
+
+    final int[] mergedTargets = new int[degrees[vertexCount]];
+    executor.forRange(vertexCount, (from, to) -> {
+      for (int v = from; v < to; ++v)
+        merge(v, targets, offsets[v], offsets[v + 1], reversedTargets, reversedOffsets[v], reversedOffsets[v + 1], mergedTargets, degrees[v]);
+    });
+
+    return new GraphSnapshot(database, bucketIds, positions, bucketOffsets, bucketSlots, degrees, mergedTargets);
+  }
+
+  private int indexOf(final int bucketId, final long position) {
+    if (bucketId < 0 || bucketId >= bucketSlots.length)
+      return -1;
+    final int slot = bucketSlots[bucketId];
+    if (slot < 0)
+      return -1;
+    final int index = Arrays.binarySearch(positions[slot], position);
+    return index < 0 ? -1 : bucketOffsets[slot] + index;
+  }
+
+  /**
+   * Merges two sorted lists skipping duplicates and the vertex itself. If the output is null the merged items are only counted.
+   */
+  private static int merge(final int vertex, final int[] a, int aFrom, final int aTo, final int[] b, int bFrom, final int bTo, final int[] output,
+      final int outputFrom) {
+    int count = 0;
+    int last = -1;
+    while (aFrom < aTo || bFrom < bTo) {
+      final int next;
+      if (bFrom >= bTo || (aFrom < aTo && a[aFrom] <= b[bFrom]))
+        next = a[aFrom++];
+      else
+        next = b[bFrom++];
+
+      if (next == last || next == vertex)
+        continue;
+      if (output != null)
+        output[outputFrom + count] = next;
+      ++count;
+      last = next;
+    }
+    return count;
+  }
+
+  private static List<Bucket> getVertexBuckets(final Database database, final Collection<String> vertexTypes) {
+    final Map<Integer, Bucket> buckets = new TreeMap<>();
+    if (vertexTypes == null) {
+      for (DocumentType type : database.getSchema().getTypes())
+        if (type instanceof VertexType)
+          for (Bucket bucket : type.getBuckets(false))
+            buckets.put(bucket.getId(), bucket);
+    } else
+      for (String typeName : vertexTypes) {
+        final DocumentType type = database.getSchema().getType(typeName);
+        if (!(type instanceof VertexType))
+          throw new IllegalArgumentException("Type '" + typeName + "' is not a vertex type");
+        for (Bucket bucket : type.getBuckets(true))
+          buckets.put(bucket.getId(), bucket);
+      }
+    return new ArrayList<>(buckets.values());
+  }
+
+  private static boolean[] getEdgeBuckets(final Database database, final Collection<String> edgeTypes) {
+    if (edgeTypes == null)
+      return null;
+
+    final Set<Integer> bucketIds = new HashSet<>();
+    for (String typeName : edgeTypes) {
+      final DocumentType type = database.getSchema().getType(typeName);
+      if (!(type instanceof EdgeType))
+        throw new IllegalArgumentException("Type '" + typeName + "' is not an edge type");
+      for (Bucket bucket : type.getBuckets(true))
+        bucketIds.add(bucket.getId());
+    }
+
+    final boolean[] valid = new boolean[bucketIds.stream().mapToInt(Integer::intValue).max().orElse(-1) + 1];
+    for (int bucketId : bucketIds)
+      valid[bucketId] = true;
+    return valid;
+  }
+
+  /**
+   * Vertices and raw adjacency collected by browsing a bucket. The buckets are browsed by position, so the positions are sorted.
+   */
+  private static class BucketScan {
+    private final LongList positions       = new LongList();
+    private final IntList  offsets         = new IntList();
+    private final IntList  targetBuckets   = new IntList();
+    private final LongList targetPositions = new LongList();
+
+    private BucketScan() {
+      offsets.add(0);
+    }
+  }
+
+  /**
+   * Growable list of primitive ints.
+   */
+  static class IntList {
+    private int[] items = new int[16];
+    private int   size  = 0;
+
+    void add(final int value) {
+      if (size == items.length)
+        items = Arrays.copyOf(items, size << 1);
+      items[size++] = value;
+    }
+
+    int get(final int index) {
+      return items[index];
+    }
+
+    int size() {
+      return size;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(items, size);
+    }
+  }
+
+  /**
+   * Growable list of primitive longs.
+   */
+  static class LongList {
+    private long[] items = new long[16];
+    private int    size  = 0;
+
+    void add(final long value) {
+      if (size == items.length)
+        items = Arrays.copyOf(items, size << 1);
+      items[size++] = value;
+    }
+
+    long get(final int index) {
+      return items[index];
+    }
+
+    int size() {
+      return size;
+    }
+
+    long[] toArray() {
+      return Arrays.copyOf(items, size);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.query.sql.function.graph;
+
+import com.arcadedb.database.Identifiable;
+import com.arcadedb.database.RID;
+import com.arcadedb.query.sql.executor.MultiValue;
+import com.arcadedb.query.sql.executor.Result;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntFunction;
+
+/**
+ * Multi-source breadth-first search: returns the distance of every reachable vertex from the closest source. The search expands one level at a time and
+ * the vertices of the frontier are expanded in parallel, every vertex is visited once by claiming it atomically. Options (besides the common ones):
+ * <ul>
+ * <li>maxDepth: maximum distance from the sources, by default unlimited</li>
+ * </ul>
+ * Syntax: <code>bfs( &lt;sourceVertices&gt; [, &lt;options&gt;] )</code>
+ */
+public class SQLFunctionBFS extends SQLFunctionGraphAlgorithmAbstract {
+  public static final String NAME            = "bfs";
+  public static final String PARAM_MAX_DEPTH = "maxDepth";
+
+  public SQLFunctionBFS() {
+    super(NAME);
+  }
+
+  @Override
+  protected IntFunction<Object> compute(final GraphSnapshot graph, final Object[] params, final Map<String, Object> options,
+      final GraphAlgorithmExecutor executor, final Map<String, Object> statistics) {
+    if (params == null || params.length == 0 || params[0] == null || params[0] instanceof Map)
+      throw new IllegalArgumentException("Syntax error: " + getSyntax());
+
+    final int maxDepth = getInteger(options, PARAM_MAX_DEPTH, Integer.MAX_VALUE);
+    final int vertexCount = graph.getVertexCount();
+    final int[] offsets = graph.getOffsets();
+    final int[] targets = graph.getTargets();
+
+    // THE DISTANCE IS STORED PLUS ONE, SO 0 MEANS NOT VISITED
+    final AtomicIntegerArray distances = new AtomicIntegerArray(vertexCount);
+
+    final GraphSnapshot.IntList sources = new GraphSnapshot.IntList();
+    for (RID rid : getSources(params[0])) {
+      final int source = graph.indexOf(rid);
+      if (source > -1 && distances.compareAndSet(source, 0, 1))
+        sources.add(source);
+    }
+
+    int[] frontier = sources.toArray();
+    long reached = frontier.length;
+    int depth = 0;
+    while (frontier.length > 0 && depth < maxDepth) {
+      checkInterrupted();
+
+      final int[] current = frontier;
+      final int distance = depth + 2;
+      frontier = concat(executor.mapRange(current.length, (from, to) -> {
+        final GraphSnapshot.IntList visited = new GraphSnapshot.IntList();
+        for (int i = from; i < to; ++i) {
+          final int v = current[i];
+          for (int e = offsets[v]; e < offsets[v + 1]; ++e) {
+            final int neighbor = targets[e];
+            if (distances.get(neighbor) == 0 && distances.compareAndSet(neighbor, 0, distance))
+              visited.add(neighbor);
+          }
+        }
+        return visited;
+      }));
+
+      if (frontier.length > 0)
+        ++depth;
+      reached += frontier.length;
+    }
+
+    statistics.put("reached", reached);
+    statistics.put("maxDistance", depth);
+    return v -> {
+      final int distance = distances.get(v);
+      return distance == 0 ? null : distance - 1;
+    };
+  }
+
+  /**
+   * The options are the second parameter, because the first one contains the source vertices.
+   */
+  @Override
+  protected Map<String, Object> getOptions(final Object[] params) {
+    return params != null && params.length > 1 ? super.getOptions(new Object[] { params[1] }) : Collections.emptyMap();
+  }
+
+  @Override
+  protected String getResultProperty() {
+    return "distance";
+  }
+
+  @Override
+  public String getSyntax() {
+    return "bfs( <sourceVertices> [, <options>] )";
+  }
+
+  private static List<RID> getSources(final Object value) {
+    final List<RID> sources = new ArrayList<>();
+    if (MultiValue.isMultiValue(value)) {
+      for (Object item : MultiValue.getMultiValueIterable(value))
+        sources.addAll(getSources(item));
+    } else if (value instanceof Result && ((Result) value).isElement())
+      sources.add(((Result) value).getElement().get().getIdentity());
+    else if (value instanceof Identifiable)
+      sources.add(((Identifiable) value).getIdentity());
+    else if (value instanceof String)
+      sources.add(new RID(null, (String) value));
+    else
+      throw new IllegalArgumentException("Invalid source vertex: " + value);
+    return sources;
+  }
+}
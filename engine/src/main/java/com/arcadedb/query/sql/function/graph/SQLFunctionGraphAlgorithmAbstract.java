@@ -0,0 +1,243 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.query.sql.function.graph;
+
+import com.arcadedb.GlobalConfiguration;
+import com.arcadedb.database.Database;
+import com.arcadedb.database.Identifiable;
+import com.arcadedb.database.MutableDocument;
+import com.arcadedb.exception.CommandExecutionException;
+import com.arcadedb.graph.Vertex;
+import com.arcadedb.query.sql.executor.CommandContext;
+import com.arcadedb.query.sql.executor.Result;
+import com.arcadedb.query.sql.executor.ResultInternal;
+import com.arcadedb.query.sql.function.SQLFunctionAbstract;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Base class of the graph algorithm functions. The algorithm runs on a {@link GraphSnapshot} of the committed graph and the vertices are processed in
+ * parallel by a {@link GraphAlgorithmExecutor}. The last parameter of the function is an optional map of options:
+ * <ul>
+ * <li>vertexTypes: vertex type or list of vertex types to include (subtypes are included), by default all the vertices</li>
+ * <li>edgeTypes: edge type or list of edge types to follow, by default all the edges</li>
+ * <li>direction: direction of the edges to follow between 'out', 'in' and 'both', where supported by the algorithm</li>
+ * <li>threads: number of parallel threads, by default the setting {@link GlobalConfiguration#SQL_GRAPH_ALGORITHM_THREADS}</li>
+ * <li>writeProperty: if defined, the result is written in this property of every vertex and the function returns a summary instead of the results.
+ * Allowed only when the function is executed by a command, because a query must not change the database. The vertices are written in parallel in their
+ * own transactions, committed as they go: the writes are not part of the transaction of the caller and they are not rolled back if it fails</li>
+ * <li>commitEvery: number of vertices updated in each transaction when the results are written, by default the setting
+ * {@link GlobalConfiguration#SQL_GRAPH_ALGORITHM_COMMIT_EVERY}</li>
+ * </ul>
+ * Without writeProperty, the function returns a list of results with the properties 'vertex' (the RID) and the value computed by the algorithm, so it can
+ * be used as <code>SELECT expand( pageRank() )</code>.
+ */
+public abstract class SQLFunctionGraphAlgorithmAbstract extends SQLFunctionAbstract {
+  public static final String PARAM_VERTEX_TYPES   = "vertexTypes";
+  public static final String PARAM_EDGE_TYPES     = "edgeTypes";
+  public static final String PARAM_DIRECTION      = "direction";
+  public static final String PARAM_THREADS        = "threads";
+  public static final String PARAM_WRITE_PROPERTY = "writeProperty";
+  public static final String PARAM_COMMIT_EVERY   = "commitEvery";
+
+  protected SQLFunctionGraphAlgorithmAbstract(final String name) {
+    super(name);
+  }
+
+  @Override
+  public Object execute(final Object iThis, final Identifiable iCurrentRecord, final Object iCurrentResult, final Object[] iParams,
+      final CommandContext iContext) {
+    final Database database = iContext.getDatabase();
+    final Map<String, Object> options = getOptions(iParams);
+    if (options.get(PARAM_WRITE_PROPERTY) != null && iContext.isIdempotent())
+      throw new CommandExecutionException("The " + name + "() function cannot write the results in a query, execute it as a command");
+
+    final long begin = System.currentTimeMillis();
+
+    final int threads = getInteger(options, PARAM_THREADS, database.getConfiguration().getValueAsInteger(GlobalConfiguration.SQL_GRAPH_ALGORITHM_THREADS));
+    try (GraphAlgorithmExecutor executor = new GraphAlgorithmExecutor(threads)) {
+      final GraphSnapshot graph = GraphSnapshot.load(database, getStrings(options, PARAM_VERTEX_TYPES), getStrings(options, PARAM_EDGE_TYPES),
+          getDirection(options), executor);
+
+      final Map<String, Object> statistics = new LinkedHashMap<>();
+      final IntFunction<Object> values = compute(graph, iParams, options, executor, statistics);
+
+      final String writeProperty = (String) options.get(PARAM_WRITE_PROPERTY);
+      if (writeProperty != null) {
+        final int commitEvery = getInteger(options, PARAM_COMMIT_EVERY,
+            database.getConfiguration().getValueAsInteger(GlobalConfiguration.SQL_GRAPH_ALGORITHM_COMMIT_EVERY));
+        final long written = write(database, graph, values, writeProperty, commitEvery, executor);
+
+        final ResultInternal summary = new ResultInternal();
+        summary.setProperty("vertices", graph.getVertexCount());
+        summary.setProperty("edges", graph.getEdgeCount());
+        for (Map.Entry<String, Object> entry : statistics.entrySet())
+          summary.setProperty(entry.getKey(), entry.getValue());
+        summary.setProperty("written", written);
+        summary.setProperty("elapsed", System.currentTimeMillis() - begin);
+        return summary;
+      }
+
+      final String resultProperty = getResultProperty();
+      final List<Result> results = new ArrayList<>();
+      for (int v = 0; v < graph.getVertexCount(); ++v) {
+        final Object value = values.apply(v);
+        if (value != null) {
+          final ResultInternal result = new ResultInternal();
+          result.setProperty("vertex", graph.getRID(v));
+          result.setProperty(resultProperty, value);
+          results.add(result);
+        }
+      }
+      return results;
+    }
+  }
+
+  /**
+   * Executes the algorithm and returns the function that gives the value of every vertex, or null for the vertices without a value. The statistics
+   * are returned in the summary when the results are written.
+   */
+  protected abstract IntFunction<Object> compute(GraphSnapshot graph, Object[] params, Map<String, Object> options, GraphAlgorithmExecutor executor,
+      Map<String, Object> statistics);
+
+  /**
+   * Returns the name of the property with the value computed for every vertex.
+   */
+  protected abstract String getResultProperty();
+
+  /**
+   * Returns the direction of the edges to load. Undirected algorithms override it to always return BOTH.
+   */
+  protected Vertex.DIRECTION getDirection(final Map<String, Object> options) {
+    final Object direction = options.get(PARAM_DIRECTION);
+    return direction != null ? Vertex.DIRECTION.valueOf(direction.toString().toUpperCase(Locale.ENGLISH)) : Vertex.DIRECTION.OUT;
+  }
+
+  /**
+   * Returns the options passed as last parameter, if it is a map.
+   */
+  protected Map<String, Object> getOptions(final Object[] params) {
+    if (params == null || params.length == 0)
+      return Collections.emptyMap();
+
+    final Object last = params[params.length - 1];
+    if (last instanceof Map)
+      return (Map<String, Object>) last;
+    else if (last instanceof Result && !((Result) last).isElement())
+      return ((Result) last).toMap();
+    return Collections.emptyMap();
+  }
+
+  protected void checkInterrupted() {
+    if (Thread.interrupted())
+      throw new CommandExecutionException("The " + name + "() function has been interrupted");
+  }
+
+  protected static int getInteger(final Map<String, Object> options, final String name, final int defaultValue) {
+    final Object value = options.get(name);
+    if (value == null)
+      return defaultValue;
+    return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString());
+  }
+
+  protected static double getDouble(final Map<String, Object> options, final String name, final double defaultValue) {
+    final Object value = options.get(name);
+    if (value == null)
+      return defaultValue;
+    return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString());
+  }
+
+  protected static double sum(final List<Double> values) {
+    double total = 0;
+    for (double value : values)
+      total += value;
+    return total;
+  }
+
+  protected static long sumLongs(final List<Long> values) {
+    long total = 0;
+    for (long value : values)
+      total += value;
+    return total;
+  }
+
+  protected static int[] concat(final List<GraphSnapshot.IntList> lists) {
+    int total = 0;
+    for (GraphSnapshot.IntList list : lists)
+      total += list.size();
+
+    final int[] result = new int[total];
+    int offset = 0;
+    for (GraphSnapshot.IntList list : lists) {
+      System.arraycopy(list.toArray(), 0, result, offset, list.size());
+      offset += list.size();
+    }
+    return result;
+  }
+
+  private static Collection<String> getStrings(final Map<String, Object> options, final String name) {
+    final Object value = options.get(name);
+    if (value == null)
+      return null;
+    if (value instanceof Collection) {
+      final List<String> result = new ArrayList<>();
+      for (Object item : (Collection<?>) value)
+        result.add(item.toString());
+      return result;
+    }
+    return Collections.singletonList(value.toString());
+  }
+
+  /**
+   * Writes the values in the vertices. The ranges of vertices are written in parallel, every range in transactions of commitEvery vertices.
+   */
+  private static long write(final Database database, final GraphSnapshot graph, final IntFunction<Object> values, final String property,
+      final int commitEvery, final GraphAlgorithmExecutor executor) {
+    final int retries = database.getConfiguration().getValueAsInteger(GlobalConfiguration.TX_RETRIES);
+    final int batchSize = Math.max(1, commitEvery);
+    final List<Long> written = executor.mapRange(graph.getVertexCount(), (from, to) -> {
+      long total = 0;
+      for (int batch = from; batch < to; batch += batchSize) {
+        final int begin = batch;
+        final int end = Math.min(to, batch + batchSize);
+        database.transaction(db -> {
+          for (int v = begin; v < end; ++v) {
+            final Object value = values.apply(v);
+            if (value != null) {
+              final MutableDocument record = graph.getRID(v).asVertex().modify();
+              record.set(property, value);
+              record.save();
+            }
+          }
+        }, false, retries);
+
+        for (int v = begin; v < end; ++v)
+          if (values.apply(v) != null)
+            ++total;
+      }
+      return total;
+    });
+
+    return sumLongs(written);
+  }
+}
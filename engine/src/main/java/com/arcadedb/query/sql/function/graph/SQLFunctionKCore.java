@@ -0,0 +1,132 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.query.sql.function.graph;
+
+import com.arcadedb.graph.Vertex;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntFunction;
+
+/**
+ * Core number of every vertex on the undirected graph: the highest k such that the vertex belongs to a subgraph where every vertex has at least k
+ * neighbors. The vertices are peeled level by level in parallel: the vertices with degree not greater than k are removed decrementing the degree of
+ * their neighbors atomically, and the neighbors dropping to k are removed in the next round of the same level.
+ * <p>
+ * Syntax: <code>kCore( [&lt;options&gt;] )</code>
+ */
+public class SQLFunctionKCore extends SQLFunctionGraphAlgorithmAbstract {
+  public static final String NAME = "kCore";
+
+  public SQLFunctionKCore() {
+    super(NAME);
+  }
+
+  @Override
+  protected IntFunction<Object> compute(final GraphSnapshot graph, final Object[] params, final Map<String, Object> options,
+      final GraphAlgorithmExecutor executor, final Map<String, Object> statistics) {
+    final int vertexCount = graph.getVertexCount();
+    final int[] offsets = graph.getOffsets();
+    final int[] targets = graph.getTargets();
+
+    final AtomicIntegerArray degrees = new AtomicIntegerArray(vertexCount);
+    final int[] cores = new int[vertexCount];
+    executor.forRange(vertexCount, (from, to) -> {
+      for (int v = from; v < to; ++v) {
+        degrees.set(v, offsets[v + 1] - offsets[v]);
+        cores[v] = -1;
+      }
+    });
+
+    int remaining = vertexCount;
+    int k = 0;
+    int maxCore = 0;
+    while (remaining > 0) {
+      checkInterrupted();
+
+      final int level = k;
+      int[] frontier = concat(executor.mapRange(vertexCount, (from, to) -> {
+        final GraphSnapshot.IntList removed = new GraphSnapshot.IntList();
+        for (int v = from; v < to; ++v)
+          if (cores[v] == -1 && degrees.get(v) <= level) {
+            cores[v] = level;
+            removed.add(v);
+          }
+        return removed;
+      }));
+
+      if (frontier.length == 0) {
+        // NO VERTICES AT THIS LEVEL: JUMP TO THE LOWEST DEGREE LEFT
+        final int lowest = executor.mapRange(vertexCount, (from, to) -> {
+          int min = Integer.MAX_VALUE;
+          for (int v = from; v < to; ++v)
+            if (cores[v] == -1)
+              min = Math.min(min, degrees.get(v));
+          return min;
+        }).stream().mapToInt(Integer::intValue).min().orElse(Integer.MAX_VALUE);
+        k = Math.max(k + 1, lowest);
+        continue;
+      }
+
+      maxCore = level;
+      while (frontier.length > 0) {
+        remaining -= frontier.length;
+
+        final int[] current = frontier;
+        frontier = concat(executor.mapRange(current.length, (from, to) -> {
+          final GraphSnapshot.IntList removed = new GraphSnapshot.IntList();
+          for (int i = from; i < to; ++i) {
+            final int v = current[i];
+            for (int e = offsets[v]; e < offsets[v + 1]; ++e) {
+              final int neighbor = targets[e];
+              // ONLY ONE THREAD SEES THE DEGREE DROPPING TO THE LEVEL
+              if (cores[neighbor] == -1 && degrees.decrementAndGet(neighbor) == level) {
+                cores[neighbor] = level;
+                removed.add(neighbor);
+              }
+            }
+          }
+          return removed;
+        }));
+      }
+      ++k;
+    }
+
+    statistics.put("maxCore", maxCore);
+    return v -> cores[v];
+  }
+
+  @Override
+  protected Vertex.DIRECTION getDirection(final Map<String, Object> options) {
+    return Vertex.DIRECTION.BOTH;
+  }
+
+  @Override
+  protected String getResultProperty() {
+    return "core";
+  }
+
+  @Override
+  public String getSyntax() {
+    return "kCore( [<options>] )";
+  }
+}
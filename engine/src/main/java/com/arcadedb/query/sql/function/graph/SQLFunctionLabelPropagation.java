@@ -0,0 +1,137 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.query.sql.function.graph;
+
+import com.arcadedb.graph.Vertex;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Community detection by label propagation on the undirected graph. At every iteration each vertex takes the most frequent label among its neighbors and
+ * itself, choosing the lowest label in case of ties. The labels are updated synchronously, so the result does not depend on the number of threads, and
+ * counting the label of the vertex itself avoids the oscillation of the labels between two connected vertices. The community is identified by the RID of
+ * the vertex that originated the label. Options (besides the common ones):
+ * <ul>
+ * <li>maxIterations: maximum number of iterations, default 10</li>
+ * </ul>
+ * Syntax: <code>labelPropagation( [&lt;options&gt;] )</code>
+ */
+public class SQLFunctionLabelPropagation extends SQLFunctionGraphAlgorithmAbstract {
+  public static final String NAME                 = "labelPropagation";
+  public static final String PARAM_MAX_ITERATIONS = "maxIterations";
+
+  public SQLFunctionLabelPropagation() {
+    super(NAME);
+  }
+
+  @Override
+  protected IntFunction<Object> compute(final GraphSnapshot graph, final Object[] params, final Map<String, Object> options,
+      final GraphAlgorithmExecutor executor, final Map<String, Object> statistics) {
+    final int maxIterations = getInteger(options, PARAM_MAX_ITERATIONS, 10);
+    final int vertexCount = graph.getVertexCount();
+    final int[] offsets = graph.getOffsets();
+    final int[] targets = graph.getTargets();
+
+    int[] labels = new int[vertexCount];
+    int[] next = new int[vertexCount];
+    for (int v = 0; v < vertexCount; ++v)
+      labels[v] = v;
+
+    int iteration = 0;
+    while (iteration < maxIterations) {
+      checkInterrupted();
+
+      final int[] current = labels;
+      final int[] updated = next;
+      final long changes = sumLongs(executor.mapRange(vertexCount, (from, to) -> {
+        long changed = 0;
+        int[] buffer = new int[16];
+        for (int v = from; v < to; ++v) {
+          final int degree = offsets[v + 1] - offsets[v];
+          if (buffer.length < degree + 1)
+            buffer = new int[degree + 1];
+
+          for (int i = 0; i < degree; ++i)
+            buffer[i] = current[targets[offsets[v] + i]];
+          buffer[degree] = current[v];
+          Arrays.sort(buffer, 0, degree + 1);
+
+          // THE LABELS ARE SORTED, SO THE FIRST LABEL WITH THE MAXIMUM FREQUENCY IS THE LOWEST ONE
+          int best = buffer[0];
+          int bestCount = 0;
+          for (int i = 0; i <= degree; ) {
+            int j = i;
+            while (j <= degree && buffer[j] == buffer[i])
+              ++j;
+            if (j - i > bestCount) {
+              best = buffer[i];
+              bestCount = j - i;
+            }
+            i = j;
+          }
+
+          updated[v] = best;
+          if (best != current[v])
+            ++changed;
+        }
+        return changed;
+      }));
+
+      next = current;
+      labels = updated;
+      ++iteration;
+
+      if (changes == 0)
+        break;
+    }
+
+    final boolean[] used = new boolean[vertexCount];
+    long communities = 0;
+    for (int v = 0; v < vertexCount; ++v)
+      if (!used[labels[v]]) {
+        used[labels[v]] = true;
+        ++communities;
+      }
+
+    statistics.put("iterations", iteration);
+    statistics.put("communities", communities);
+
+    final int[] result = labels;
+    return v -> graph.getRID(result[v]);
+  }
+
+  @Override
+  protected Vertex.DIRECTION getDirection(final Map<String, Object> options) {
+    return Vertex.DIRECTION.BOTH;
+  }
+
+  @Override
+  protected String getResultProperty() {
+    return "community";
+  }
+
+  @Override
+  public String getSyntax() {
+    return "labelPropagation( [<options>] )";
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.query.sql.function.graph;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * PageRank of the vertices, computed by pulling the rank of the incoming vertices, so every vertex is updated by one thread only. The rank of the vertices
+ * without outgoing edges is distributed to all the vertices. Options (besides the common ones):
+ * <ul>
+ * <li>dampingFactor: probability to follow an edge, default 0.85</li>
+ * <li>maxIterations: maximum number of iterations, default 20</li>
+ * <li>tolerance: the computation stops when the sum of the changes of the ranks is lower than this value, default 0.0000001</li>
+ * </ul>
+ * Syntax: <code>pageRank( [&lt;options&gt;] )</code>
+ */
+public class SQLFunctionPageRank extends SQLFunctionGraphAlgorithmAbstract {
+  public static final String NAME                 = "pageRank";
+  public static final String PARAM_DAMPING_FACTOR = "dampingFactor";
+  public static final String PARAM_MAX_ITERATIONS = "maxIterations";
+  public static final String PARAM_TOLERANCE      = "tolerance";
+
+  public SQLFunctionPageRank() {
+    super(NAME);
+  }
+
+  @Override
+  protected IntFunction<Object> compute(final GraphSnapshot graph, final Object[] params, final Map<String, Object> options,
+      final GraphAlgorithmExecutor executor, final Map<String, Object> statistics) {
+    final double dampingFactor = getDouble(options, PARAM_DAMPING_FACTOR, 0.85);
+    final int maxIterations = getInteger(options, PARAM_MAX_ITERATIONS, 20);
+    final double tolerance = getDouble(options, PARAM_TOLERANCE, 0.0000001);
+
+    final int vertexCount = graph.getVertexCount();
+    final int[] outOffsets = graph.getOffsets();
+    final GraphSnapshot incoming = graph.transpose();
+    final int[] inOffsets = incoming.getOffsets();
+    final int[] inTargets = incoming.getTargets();
+
+    double[] ranks = new double[vertexCount];
+    double[] next = new double[vertexCount];
+    final double[] contributions = new double[vertexCount];
+    Arrays.fill(ranks, 1D / vertexCount);
+
+    int iteration = 0;
+    while (iteration < maxIterations && vertexCount > 0) {
+      checkInterrupted();
+
+      final double[] current = ranks;
+      final double[] updated = next;
+
+      // COMPUTE THE RANK SENT THROUGH EVERY OUTGOING EDGE AND THE RANK OF THE VERTICES WITHOUT OUTGOING EDGES
+      final double dangling = sum(executor.mapRange(vertexCount, (from, to) -> {
+        double danglingRank = 0;
+        for (int v = from; v < to; ++v) {
+          final int degree = outOffsets[v + 1] - outOffsets[v];
+          if (degree == 0) {
+            danglingRank += current[v];
+            contributions[v] = 0;
+          } else
+            contributions[v] = current[v] / degree;
+        }
+        return danglingRank;
+      }));
+
+      final double base = (1 - dampingFactor) / vertexCount + dampingFactor * dangling / vertexCount;
+      final double delta = sum(executor.mapRange(vertexCount, (from, to) -> {
+        double changes = 0;
+        for (int v = from; v < to; ++v) {
+          double received = 0;
+          for (int e = inOffsets[v]; e < inOffsets[v + 1]; ++e)
+            received += contributions[inTargets[e]];
+          updated[v] = base + dampingFactor * received;
+          changes += Math.abs(updated[v] - current[v]);
+        }
+        return changes;
+      }));
+
+      next = current;
+      ranks = updated;
+      ++iteration;
+
+      if (delta < tolerance)
+        break;
+    }
+
+    statistics.put("iterations", iteration);
+
+    final double[] result = ranks;
+    return v -> result[v];
+  }
+
+  @Override
+  protected String getResultProperty() {
+    return NAME;
+  }
+
+  @Override
+  public String getSyntax() {
+    return "pageRank( [<options>] )";
+  }
+}
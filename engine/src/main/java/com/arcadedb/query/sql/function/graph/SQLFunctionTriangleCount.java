@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.query.sql.function.graph;
+
+import com.arcadedb.graph.Vertex;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Number of triangles every vertex belongs to, on the undirected graph without duplicated edges and self loops. The triangles of a vertex are the edges
+ * between its neighbors, counted by intersecting the sorted adjacency lists, so every vertex is computed by one thread only without synchronization.
+ * <p>
+ * Syntax: <code>triangleCount( [&lt;options&gt;] )</code>
+ */
+public class SQLFunctionTriangleCount extends SQLFunctionGraphAlgorithmAbstract {
+  public static final String NAME = "triangleCount";
+
+  public SQLFunctionTriangleCount() {
+    super(NAME);
+  }
+
+  @Override
+  protected IntFunction<Object> compute(final GraphSnapshot graph, final Object[] params, final Map<String, Object> options,
+      final GraphAlgorithmExecutor executor, final Map<String, Object> statistics) {
+    final int vertexCount = graph.getVertexCount();
+    final int[] offsets = graph.getOffsets();
+    final int[] targets = graph.getTargets();
+
+    final long[] triangles = new long[vertexCount];
+    final long total = sumLongs(executor.mapRange(vertexCount, (from, to) -> {
+      long sum = 0;
+      for (int v = from; v < to; ++v) {
+        long count = 0;
+        for (int e = offsets[v]; e < offsets[v + 1]; ++e) {
+          final int neighbor = targets[e];
+          count += intersect(targets, offsets[v], offsets[v + 1], offsets[neighbor], offsets[neighbor + 1]);
+        }
+        // EVERY EDGE BETWEEN TWO NEIGHBORS IS FOUND FROM BOTH THE NEIGHBORS
+        triangles[v] = count / 2;
+        sum += triangles[v];
+      }
+      return sum;
+    }));
+
+    statistics.put("triangles", total / 3);
+    return v -> triangles[v];
+  }
+
+  @Override
+  protected Vertex.DIRECTION getDirection(final Map<String, Object> options) {
+    return Vertex.DIRECTION.BOTH;
+  }
+
+  @Override
+  protected String getResultProperty() {
+    return "triangles";
+  }
+
+  @Override
+  public String getSyntax() {
+    return "triangleCount( [<options>] )";
+  }
+
+  private static int intersect(final int[] targets, int aFrom, final int aTo, int bFrom, final int bTo) {
+    int count = 0;
+    while (aFrom < aTo && bFrom < bTo) {
+      final int a = targets[aFrom];
+      final int b = targets[bFrom];
+      if (a == b) {
+        ++count;
+        ++aFrom;
+        ++bFrom;
+      } else if (a < b)
+        ++aFrom;
+      else
+        ++bFrom;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.query.sql.function.graph;
+
+import com.arcadedb.graph.Vertex;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntFunction;
+
+/**
+ * Weakly connected components, computed with a lock-free union-find where every root is linked to the lower root, so the component is identified by the
+ * vertex with the lowest RID. The direction of the edges is ignored.
+ * <p>
+ * Syntax: <code>weaklyConnectedComponents( [&lt;options&gt;] )</code>
+ */
+public class SQLFunctionWeaklyConnectedComponents extends SQLFunctionGraphAlgorithmAbstract {
+  public static final String NAME = "weaklyConnectedComponents";
+
+  public SQLFunctionWeaklyConnectedComponents() {
+    super(NAME);
+  }
+
+  @Override
+  protected IntFunction<Object> compute(final GraphSnapshot graph, final Object[] params, final Map<String, Object> options,
+      final GraphAlgorithmExecutor executor, final Map<String, Object> statistics) {
+    final int vertexCount = graph.getVertexCount();
+    final int[] offsets = graph.getOffsets();
+    final int[] targets = graph.getTargets();
+
+    final AtomicIntegerArray parents = new AtomicIntegerArray(vertexCount);
+    executor.forRange(vertexCount, (from, to) -> {
+      for (int v = from; v < to; ++v)
+        parents.set(v, v);
+    });
+
+    checkInterrupted();
+
+    executor.forRange(vertexCount, (from, to) -> {
+      for (int v = from; v < to; ++v)
+        for (int e = offsets[v]; e < offsets[v + 1]; ++e)
+          union(parents, v, targets[e]);
+    });
+
+    checkInterrupted();
+
+    final int[] components = new int[vertexCount];
+    final List<Long> roots = executor.mapRange(vertexCount, (from, to) -> {
+      long total = 0;
+      for (int v = from; v < to; ++v) {
+        components[v] = find(parents, v);
+        if (components[v] == v)
+          ++total;
+      }
+      return total;
+    });
+
+    statistics.put("components", sumLongs(roots));
+    return v -> graph.getRID(components[v]);
+  }
+
+  /**
+   * The direction is irrelevant for the weak connectivity: only the outgoing edges are loaded.
+   */
+  @Override
+  protected Vertex.DIRECTION getDirection(final Map<String, Object> options) {
+    return Vertex.DIRECTION.OUT;
+  }
+
+  @Override
+  protected String getResultProperty() {
+    return "component";
+  }
+
+  @Override
+  public String getSyntax() {
+    return "weaklyConnectedComponents( [<options>] )";
+  }
+
+  /**
+   * Returns the root of the vertex halving the path. The parent of a vertex is never greater than the vertex.
+   */
+  private static int find(final AtomicIntegerArray parents, int v) {
+    while (true) {
+      final int parent = parents.get(v);
+      if (parent == v)
+        return v;
+
+      final int grandParent = parents.get(parent);
+      if (parent != grandParent)
+        parents.compareAndSet(v, parent, grandParent);
+      v = grandParent;
+    }
+  }
+
+  private static void union(final AtomicIntegerArray parents, int a, int b) {
+    while (true) {
+      a = find(parents, a);
+      b = find(parents, b);
+      if (a == b)
+        return;
+
+      // LINK THE GREATER ROOT UNDER THE LOWER ONE
+      if (a < b) {
+        final int swap = a;
+        a = b;
+        b = swap;
+      }
+      if (parents.compareAndSet(a, a, b))
+        return;
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.utility;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the throughput of an operation to a maximum amount of units (like bytes) per second. The caller is paused in {@link #acquire(long)} when
+ * it goes faster than the configured rate. The time not used is not accumulated, so there are no bursts after an idle period. A rate
+ * &lt;= 0 means unlimited.
+ */
+public class RateLimiter {
+  private final long       ratePerSecond;
+  private       long       nextAvailableTime = System.nanoTime();
+  private final AtomicLong totalWaitNanos    = new AtomicLong();
+
+  public RateLimiter(final long ratePerSecond) {
+    this.ratePerSecond = ratePerSecond;
+  }
+
+  public void acquire(final long amount) throws InterruptedException {
+    if (ratePerSecond <= 0 || amount <= 0)
+      return;
+
+    final long waitNanos;
+    synchronized (this) {
+      final long now = System.nanoTime();
+      if (nextAvailableTime < now)
+        nextAvailableTime = now;
+
+      waitNanos = nextAvailableTime - now;
+      nextAvailableTime += amount * 1_000_000_000L / ratePerSecond;
+    }
+
+    if (waitNanos > 0) {
+      totalWaitNanos.addAndGet(waitNanos);
+      Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+    }
+  }
+
+  public boolean isUnlimited() {
+    return ratePerSecond <= 0;
+  }
+
+  public long getRatePerSecond() {
+    return ratePerSecond;
+  }
+
+  /**
+   * Returns the total time the callers have been paused, in milliseconds.
+   */
+  public long getTotalWaitTime() {
+    return totalWaitNanos.get() / 1_000_000;
+  }
+}
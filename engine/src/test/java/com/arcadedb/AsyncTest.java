@@ -24,6 +24,7 @@ package com.arcadedb;
 import com.arcadedb.database.Document;
 import com.arcadedb.database.DocumentCallback;
 import com.arcadedb.database.MutableDocument;
+import com.arcadedb.database.async.DatabaseAsyncExecutorImpl;
 import com.arcadedb.database.async.ErrorCallback;
 import com.arcadedb.database.async.OkCallback;
 import com.arcadedb.schema.DocumentType;
@@ -86,6 +87,70 @@ public class AsyncTest extends TestHelper {
     }
   }
 
+  @Test
+  public void testShardedMode() {
+    GlobalConfiguration.ASYNC_MODE.setValue("sharded");
+    try {
+      reopenDatabase();
+
+      final DatabaseAsyncExecutorImpl async = (DatabaseAsyncExecutorImpl) database.async();
+      Assertions.assertTrue(async.isSharded());
+
+      async.setParallelLevel(3);
+      async.onError(new ErrorCallback() {
+        @Override
+        public void call(Throwable exception) {
+          Assertions.fail("Error on creating async record", exception);
+        }
+      });
+
+      database.getSchema().createDocumentType("Sharded", 6);
+
+      // EVERY BUCKET IS OWNED BY ONE THREAD ONLY AND THE BUCKETS ARE SPREAD BETWEEN THE THREADS
+      final int[] owned = new int[3];
+      for (com.arcadedb.engine.Bucket b : database.getSchema().getType("Sharded").getBuckets(false)) {
+        final int slot = async.getBucketSlot(b.getId());
+        Assertions.assertEquals(slot, async.getBucketSlot(b.getId()));
+        owned[slot]++;
+      }
+      for (int i = 0; i < owned.length; ++i)
+        Assertions.assertEquals(2, owned[i]);
+
+      for (int i = 0; i < TOT; ++i) {
+        final MutableDocument v = database.newDocument("Sharded");
+        v.set("id", i);
+        async.createRecord(v, null);
+      }
+
+      // THE PENDING BATCHES MUST BE COMMITTED BEFORE EXECUTING TRANSACTIONS THAT CAN WRITE IN ANY BUCKET
+      Assertions.assertTrue(async.waitCompletion(30_000));
+      Assertions.assertEquals(TOT, database.countType("Sharded", true));
+
+      // TRANSACTIONS CAN BE RETRIED IN CASE OF CONFLICT
+      final AtomicLong transactions = new AtomicLong();
+      for (int i = 0; i < 100; ++i)
+        async.transaction((db) -> {
+          db.newDocument("Sharded").set("id", -1).save();
+          transactions.incrementAndGet();
+        }, 10);
+
+      Assertions.assertTrue(async.waitCompletion(30_000));
+
+      Assertions.assertTrue(transactions.get() >= 100);
+      Assertions.assertEquals(TOT + 100, database.countType("Sharded", true));
+
+      final DatabaseAsyncExecutorImpl.DBAsyncStats stats = async.getStats();
+      Assertions.assertEquals(0, stats.queueSize);
+      Assertions.assertEquals(3, stats.threadExecuted.length);
+      Assertions.assertTrue(stats.executed >= TOT + 100);
+      for (int i = 0; i < stats.threadExecuted.length; ++i)
+        Assertions.assertTrue(stats.threadExecuted[i] > 0);
+
+    } finally {
+      GlobalConfiguration.ASYNC_MODE.reset();
+    }
+  }
+
   @Override
   protected void beginTest() {
     database.begin();
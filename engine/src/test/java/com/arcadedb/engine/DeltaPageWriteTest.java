@@ -0,0 +1,227 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.engine;
+
+import com.arcadedb.GlobalConfiguration;
+import com.arcadedb.TestHelper;
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.database.Document;
+import com.arcadedb.database.MutableDocument;
+import com.arcadedb.database.RID;
+import com.arcadedb.exception.DatabaseOperationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class DeltaPageWriteTest extends TestHelper {
+  private static final int TOT = 10_000;
+
+  @Test
+  public void onlyModifiedRangeIsWritten() {
+    final AtomicReference<RID> rid = new AtomicReference<>();
+    database.transaction((db) -> {
+      db.getSchema().createDocumentType("Doc", 1);
+      for (int i = 0; i < TOT; ++i) {
+        final MutableDocument doc = db.newDocument("Doc");
+        doc.set("id", i);
+        doc.set("name", "Jay" + i);
+        doc.save();
+        if (i == TOT / 2)
+          rid.set(doc.getIdentity());
+      }
+    });
+
+    reopenDatabase();
+
+    final PageManager pageManager = ((DatabaseInternal) database).getPageManager();
+    final long savedBefore = pageManager.getStats().deltaWriteBytesSaved;
+
+    database.transaction((db) -> {
+      final MutableDocument doc = ((Document) db.lookupByRID(rid.get(), true)).modify();
+      doc.set("name", "Updated");
+      doc.save();
+    });
+
+    reopenDatabase();
+
+    Assertions.assertTrue(pageManager.getStats().deltaWriteBytesSaved > savedBefore);
+
+    final Document doc = (Document) database.lookupByRID(rid.get(), true);
+    Assertions.assertEquals("Updated", doc.getString("name"));
+    Assertions.assertEquals(TOT, database.countType("Doc", false));
+
+    long total = 0;
+    for (var it = database.iterateType("Doc", false); it.hasNext(); ) {
+      final Document d = (Document) it.next();
+      Assertions.assertNotNull(d.getString("name"));
+      ++total;
+    }
+    Assertions.assertEquals(TOT, total);
+  }
+
+  @Test
+  public void tornPageIsDetected() throws Exception {
+    final String[] bucketFile = new String[1];
+    database.transaction((db) -> {
+      db.getSchema().createDocumentType("Doc", 1);
+      for (int i = 0; i < 100; ++i)
+        db.newDocument("Doc").set("id", i).save();
+      bucketFile[0] = ((DatabaseInternal) db).getFileManager().getFile(db.getSchema().getType("Doc").getBuckets(false).get(0).getId()).getFilePath();
+    });
+
+    database.close();
+
+    // SIMULATE A PARTIAL WRITE BY CHANGING THE CONTENT OF THE FIRST PAGE WITHOUT UPDATING THE CHECKSUM
+    try (RandomAccessFile file = new RandomAccessFile(bucketFile[0], "rw")) {
+      final long pos = BasePage.PAGE_HEADER_SIZE + 100;
+      file.seek(pos);
+      final byte b = file.readByte();
+      file.seek(pos);
+      file.writeByte(b + 1);
+    }
+
+    database = factory.open();
+
+    // THE CORRUPTED PAGE IS NEVER RETURNED, NOT EVEN AT THE SECOND ACCESS
+    Assertions.assertThrows(PageCorruptedException.class, () -> database.countType("Doc", false));
+    Assertions.assertThrows(PageCorruptedException.class, () -> database.iterateType("Doc", false).hasNext());
+
+    Assertions.assertEquals(2, ((DatabaseInternal) database).getPageManager().getStats().checksumErrors);
+  }
+
+  @Test
+  public void tornPageWithZeroChecksumIsDetected() throws Exception {
+    final String bucketFile = createBucketFile();
+    database.close();
+
+    // SIMULATE A PARTIAL WRITE THAT LEFT THE CHECKSUM FIELD TO ZERO
+    try (RandomAccessFile file = new RandomAccessFile(bucketFile, "rw")) {
+      file.seek(Bucket.DEF_PAGE_SIZE - BasePage.PAGE_CHECKSUM_SIZE);
+      file.writeInt(0);
+    }
+
+    database = factory.open();
+
+    // THE CORRUPTED PAGE IS NEVER RETURNED, NOT EVEN AT THE SECOND ACCESS
+    Assertions.assertThrows(PageCorruptedException.class, () -> database.countType("Doc", false));
+    Assertions.assertThrows(PageCorruptedException.class, () -> database.iterateType("Doc", false).hasNext());
+
+    Assertions.assertEquals(2, ((DatabaseInternal) database).getPageManager().getStats().checksumErrors);
+  }
+
+  @Test
+  public void legacyPageFormatIsReadAndUpgraded() throws Exception {
+    final String bucketFile = createBucketFile();
+    Assertions.assertTrue(bucketFile.contains(".v" + PaginatedFile.PAGE_FORMAT_CURRENT + "."));
+    database.close();
+
+    // SIMULATE A FILE CREATED BEFORE THE PAGE CHECKSUM: NO PAGE FORMAT IN THE NAME AND NO CHECKSUM MARKER IN THE PAGES
+    final File legacyFile = new File(bucketFile.replace(".v" + PaginatedFile.PAGE_FORMAT_CURRENT + ".", "."));
+    Assertions.assertTrue(new File(bucketFile).renameTo(legacyFile));
+    try (RandomAccessFile file = new RandomAccessFile(legacyFile, "rw")) {
+      for (long page = 0; page < file.length() / Bucket.DEF_PAGE_SIZE; ++page) {
+        file.seek(page * Bucket.DEF_PAGE_SIZE + BasePage.PAGE_CONTENTSIZE_OFFSET);
+        final int contentSize = file.readInt();
+        file.seek(page * Bucket.DEF_PAGE_SIZE + BasePage.PAGE_CONTENTSIZE_OFFSET);
+        file.writeInt(contentSize & ~BasePage.PAGE_CHECKSUM_MARKER);
+        file.seek((page + 1) * Bucket.DEF_PAGE_SIZE - BasePage.PAGE_CHECKSUM_SIZE);
+        file.writeInt(0);
+      }
+    }
+
+    database = factory.open();
+    Assertions.assertEquals(100, database.countType("Doc", false));
+    Assertions.assertEquals(0, ((DatabaseInternal) database).getPageManager().getStats().checksumErrors);
+    final int bucketId = database.getSchema().getType("Doc").getBuckets(false).get(0).getId();
+    Assertions.assertEquals(PaginatedFile.PAGE_FORMAT_LEGACY, ((DatabaseInternal) database).getFileManager().getFile(bucketId).getPageFormat());
+    database.close();
+
+    GlobalConfiguration.PAGE_CHECKSUM_UPGRADE.setValue(true);
+    try {
+      database = factory.open();
+    } finally {
+      GlobalConfiguration.PAGE_CHECKSUM_UPGRADE.reset();
+    }
+
+    final PaginatedFile upgraded = ((DatabaseInternal) database).getFileManager().getFile(bucketId);
+    Assertions.assertEquals(PaginatedFile.PAGE_FORMAT_CURRENT, upgraded.getPageFormat());
+    Assertions.assertEquals(new File(bucketFile).getName(), upgraded.getFileName());
+    Assertions.assertEquals(100, database.countType("Doc", false));
+
+    database.transaction((db) -> db.newDocument("Doc").set("id", 100).save());
+    reopenDatabase();
+
+    Assertions.assertEquals(101, database.countType("Doc", false));
+    Assertions.assertEquals(0, ((DatabaseInternal) database).getPageManager().getStats().checksumErrors);
+  }
+
+  @Test
+  public void recordOfMaxSizeFitsBeforeFooter() {
+    final int[] maxRecordSize = new int[1];
+    final int[] valueLength = new int[1];
+    final AtomicReference<RID> rid = new AtomicReference<>();
+    database.transaction((db) -> {
+      final DatabaseInternal dbi = (DatabaseInternal) db;
+      db.getSchema().createDocumentType("Doc", 1);
+      final Bucket bucket = db.getSchema().getType("Doc").getBuckets(false).get(0);
+      Assertions.assertEquals(BasePage.PAGE_CHECKSUM_SIZE, dbi.getFileManager().getFile(bucket.getId()).getPageFooterSize());
+      maxRecordSize[0] = bucket.getMaxRecordSize();
+
+      // FILL THE RECORD UP TO THE MAXIMUM SIZE: THE SERIALIZED SIZE ALSO DEPENDS ON THE SIZE OF THE STRING LENGTH
+      final MutableDocument doc = db.newDocument("Doc");
+      doc.set("value", "");
+      valueLength[0] = maxRecordSize[0] - dbi.getSerializer().serialize(db, doc).size();
+      doc.set("value", "x".repeat(valueLength[0]));
+      valueLength[0] -= dbi.getSerializer().serialize(db, doc).size() - maxRecordSize[0];
+      doc.set("value", "x".repeat(valueLength[0]));
+      Assertions.assertEquals(maxRecordSize[0], dbi.getSerializer().serialize(db, doc).size());
+
+      doc.save();
+      rid.set(doc.getIdentity());
+    });
+
+    // ONE BYTE MORE IS REJECTED
+    Assertions.assertThrows(DatabaseOperationException.class,
+        () -> database.transaction((db) -> db.newDocument("Doc").set("value", "x".repeat(valueLength[0] + 1)).save()));
+
+    reopenDatabase();
+
+    final Document doc = (Document) database.lookupByRID(rid.get(), true);
+    Assertions.assertEquals("x".repeat(valueLength[0]), doc.getString("value"));
+    Assertions.assertEquals(1, database.countType("Doc", false));
+    Assertions.assertEquals(0, ((DatabaseInternal) database).getPageManager().getStats().checksumErrors);
+  }
+
+  private String createBucketFile() {
+    final String[] bucketFile = new String[1];
+    database.transaction((db) -> {
+      db.getSchema().createDocumentType("Doc", 1);
+      for (int i = 0; i < 100; ++i)
+        db.newDocument("Doc").set("id", i).save();
+      bucketFile[0] = ((DatabaseInternal) db).getFileManager().getFile(db.getSchema().getType("Doc").getBuckets(false).get(0).getId()).getFilePath();
+    });
+    return bucketFile[0];
+  }
+}
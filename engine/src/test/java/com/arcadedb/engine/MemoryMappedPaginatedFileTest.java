@@ -0,0 +1,104 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.engine;
+
+import com.arcadedb.GlobalConfiguration;
+import com.arcadedb.TestHelper;
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.database.MutableDocument;
+import com.arcadedb.query.sql.executor.ResultSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MemoryMappedPaginatedFileTest extends TestHelper {
+  private static final int TOT = 10_000;
+
+  @Test
+  public void readOnlyDatabase() {
+    database.transaction((db) -> {
+      db.getSchema().createDocumentType("Doc", 3);
+      for (int i = 0; i < TOT; ++i) {
+        final MutableDocument doc = db.newDocument("Doc");
+        doc.set("id", i);
+        doc.set("name", "Jay" + i);
+        doc.save();
+      }
+    });
+
+    GlobalConfiguration.FILE_MEMORY_MAPPED.setValue("readOnly");
+    try {
+      reopenDatabaseInReadOnlyMode();
+
+      final FileManager fileManager = ((DatabaseInternal) database).getFileManager();
+      for (PaginatedFile file : fileManager.getFiles())
+        Assertions.assertTrue(file.isMemoryMapped());
+
+      final ResultSet result = database.query("sql", "select from Doc");
+      long total = 0;
+      while (result.hasNext()) {
+        final int id = result.next().getProperty("id");
+        Assertions.assertTrue(id >= 0 && id < TOT);
+        ++total;
+      }
+      Assertions.assertEquals(TOT, total);
+
+      Assertions.assertTrue(fileManager.getStats().memoryMappedReads > 0);
+
+      // IN READ/WRITE MODE THE FILES ARE NOT MAPPED
+      reopenDatabase();
+      for (PaginatedFile file : ((DatabaseInternal) database).getFileManager().getFiles())
+        Assertions.assertFalse(file.isMemoryMapped());
+
+    } finally {
+      GlobalConfiguration.FILE_MEMORY_MAPPED.setValue(GlobalConfiguration.FILE_MEMORY_MAPPED.getDefValue());
+    }
+  }
+
+  @Test
+  public void readWhileTheFileGrows() {
+    GlobalConfiguration.FILE_MEMORY_MAPPED.setValue("always");
+    try {
+      reopenDatabase();
+
+      database.transaction((db) -> db.getSchema().createDocumentType("Doc", 1));
+
+      for (int batch = 0; batch < 5; ++batch) {
+        final int base = batch * TOT;
+        database.transaction((db) -> {
+          for (int i = 0; i < TOT; ++i) {
+            final MutableDocument doc = db.newDocument("Doc");
+            doc.set("id", base + i);
+            doc.save();
+          }
+        });
+
+        // FORCE READING THE PAGES FROM THE FILES
+        ((DatabaseInternal) database).getPageManager().clear();
+        Assertions.assertEquals(base + TOT, database.countType("Doc", true));
+        Assertions.assertEquals(base + TOT, database.query("sql", "select from Doc").stream().count());
+      }
+
+    } finally {
+      GlobalConfiguration.FILE_MEMORY_MAPPED.setValue(GlobalConfiguration.FILE_MEMORY_MAPPED.getDefValue());
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.engine;
+
+import com.arcadedb.ContextConfiguration;
+import com.arcadedb.GlobalConfiguration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class OffHeapPageCacheTest {
+  private static final int PAGE_SIZE = 64 * 1024;
+
+  @Test
+  public void moveToHeap() {
+    final OffHeapPageCache cache = new OffHeapPageCache(OffHeapPageCache.SLAB_SIZE);
+
+    final ImmutablePage page = createPage(new PageId(1, 0), (byte) 7);
+    Assertions.assertTrue(cache.put(page, cache.getInvalidationSnapshot()));
+    Assertions.assertEquals(1, cache.getStats().pages);
+
+    final ImmutablePage loaded = new ImmutablePage(null, page.getPageId(), PAGE_SIZE);
+    Assertions.assertTrue(cache.moveToHeap(loaded));
+    Assertions.assertArrayEquals(page.getContent().array(), loaded.getContent().array());
+
+    // THE PAGE HAS BEEN MOVED: THE SLOT IS BACK IN THE POOL
+    Assertions.assertFalse(cache.moveToHeap(loaded));
+    final OffHeapPageCache.OffHeapPageCacheStats stats = cache.getStats();
+    Assertions.assertEquals(0, stats.pages);
+    Assertions.assertEquals(0, stats.usedRAM);
+    Assertions.assertEquals(OffHeapPageCache.SLAB_SIZE, stats.allocatedRAM);
+    Assertions.assertEquals(OffHeapPageCache.SLAB_SIZE / PAGE_SIZE, stats.freeSlots);
+    Assertions.assertEquals(1, stats.hits);
+    Assertions.assertEquals(1, stats.miss);
+  }
+
+  @Test
+  public void invalidatedPagesAreNotStored() {
+    final OffHeapPageCache cache = new OffHeapPageCache(OffHeapPageCache.SLAB_SIZE);
+
+    final ImmutablePage page = createPage(new PageId(1, 0), (byte) 1);
+    final long[] snapshot = cache.getInvalidationSnapshot();
+    cache.invalidate(page.getPageId());
+
+    Assertions.assertFalse(cache.put(page, snapshot));
+    Assertions.assertFalse(cache.moveToHeap(new ImmutablePage(null, page.getPageId(), PAGE_SIZE)));
+
+    Assertions.assertTrue(cache.put(page, cache.getInvalidationSnapshot()));
+    cache.invalidateFile(1);
+    Assertions.assertEquals(0, cache.getStats().pages);
+  }
+
+  @Test
+  public void recycleSlotsWhenFull() {
+    final OffHeapPageCache cache = new OffHeapPageCache(OffHeapPageCache.SLAB_SIZE);
+    final int slots = OffHeapPageCache.SLAB_SIZE / PAGE_SIZE;
+
+    for (int i = 0; i < slots * 2; ++i)
+      Assertions.assertTrue(cache.put(createPage(new PageId(1, i), (byte) i), cache.getInvalidationSnapshot()));
+
+    final OffHeapPageCache.OffHeapPageCacheStats stats = cache.getStats();
+    Assertions.assertEquals(OffHeapPageCache.SLAB_SIZE, stats.allocatedRAM);
+    Assertions.assertEquals(slots, stats.pages);
+    Assertions.assertEquals(slots, stats.pagesEvicted);
+    Assertions.assertEquals(0, stats.getFragmentation());
+
+    // HALF OF THE PAGES HAVE BEEN EVICTED
+    int found = 0;
+    for (int i = 0; i < slots * 2; ++i)
+      if (cache.moveToHeap(new ImmutablePage(null, new PageId(1, i), PAGE_SIZE)))
+        ++found;
+    Assertions.assertEquals(slots, found);
+  }
+
+  @Test
+  public void lastStoredPageIsNotEvicted() {
+    final OffHeapPageCache cache = new OffHeapPageCache(OffHeapPageCache.SLAB_SIZE);
+    final int slots = OffHeapPageCache.SLAB_SIZE / PAGE_SIZE;
+
+    for (int i = 0; i < slots * 2; ++i)
+      Assertions.assertTrue(cache.put(createPage(new PageId(1, i), (byte) i), cache.getInvalidationSnapshot()));
+
+    final ImmutablePage last = new ImmutablePage(null, new PageId(1, slots * 2 - 1), PAGE_SIZE);
+    Assertions.assertTrue(cache.moveToHeap(last));
+    Assertions.assertEquals((byte) (slots * 2 - 1), last.getContent().array()[PAGE_SIZE - 1]);
+  }
+
+  @Test
+  public void concurrentAccess() throws Exception {
+    final OffHeapPageCache cache = new OffHeapPageCache(OffHeapPageCache.SLAB_SIZE);
+    final int slots = OffHeapPageCache.SLAB_SIZE / PAGE_SIZE;
+
+    final Thread[] threads = new Thread[8];
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    for (int t = 0; t < threads.length; ++t) {
+      final int fileId = t;
+      threads[t] = new Thread(() -> {
+        try {
+          for (int i = 0; i < slots * 4; ++i) {
+            final ImmutablePage page = createPage(new PageId(fileId, i), (byte) i);
+            cache.put(page, cache.getInvalidationSnapshot());
+            if (i % 3 == 0)
+              cache.invalidate(page.getPageId());
+
+            final ImmutablePage loaded = new ImmutablePage(null, new PageId(fileId, i / 2), PAGE_SIZE);
+            if (cache.moveToHeap(loaded))
+              // A PAGE IS NEVER RETURNED WITH THE CONTENT OF ANOTHER PAGE
+              Assertions.assertEquals((byte) (i / 2), loaded.getContent().array()[PAGE_SIZE - 1]);
+          }
+        } catch (Throwable e) {
+          error.set(e);
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads)
+      thread.join();
+
+    Assertions.assertNull(error.get());
+
+    final OffHeapPageCache.OffHeapPageCacheStats stats = cache.getStats();
+    Assertions.assertTrue(stats.allocatedRAM <= OffHeapPageCache.SLAB_SIZE);
+    Assertions.assertEquals(stats.allocatedRAM / PAGE_SIZE, stats.pages + stats.freeSlots);
+    Assertions.assertEquals((long) stats.pages * PAGE_SIZE, stats.usedRAM);
+  }
+
+  @Test
+  public void sharesPageRAMBudget() {
+    final ContextConfiguration configuration = new ContextConfiguration();
+    configuration.setValue(GlobalConfiguration.MAX_PAGE_RAM, 64L);
+    configuration.setValue(GlobalConfiguration.OFF_HEAP_PAGE_RAM_PERCENTAGE, 25);
+
+    final PageManager pageManager = new PageManager(null, null, configuration);
+    try {
+      final PageManager.PPageManagerStats stats = pageManager.getStats();
+      Assertions.assertEquals(48 * 1024 * 1024, stats.maxRAM);
+      Assertions.assertEquals(16 * 1024 * 1024, stats.offHeapMaxRAM);
+    } finally {
+      pageManager.kill();
+    }
+  }
+
+  private static ImmutablePage createPage(final PageId pageId, final byte filler) {
+    final ImmutablePage page = new ImmutablePage(null, pageId, PAGE_SIZE);
+    Arrays.fill(page.getContent().array(), filler);
+    return page;
+  }
+}
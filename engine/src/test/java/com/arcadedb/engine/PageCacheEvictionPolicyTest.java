@@ -0,0 +1,98 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.engine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class PageCacheEvictionPolicyTest {
+  private static final int PAGE_SIZE = 1024;
+
+  @Test
+  public void clockKeepsHotPagesOnScan() {
+    final PageCacheEvictionPolicy policy = new PageCacheEvictionPolicyClock();
+    final ConcurrentMap<PageId, ImmutablePage> cache = new ConcurrentHashMap<>();
+
+    // HOT PAGES ACCESSED MULTIPLE TIMES
+    for (int i = 0; i < 10; ++i) {
+      final ImmutablePage page = new ImmutablePage(null, new PageId(1, i), PAGE_SIZE);
+      cache.put(page.getPageId(), page);
+      for (int k = 0; k < 5; ++k)
+        policy.pageAccessed(page);
+    }
+
+    // PAGES LOADED BY A SCAN AND NEVER ACCESSED AGAIN
+    for (int i = 0; i < 1000; ++i) {
+      final ImmutablePage page = new ImmutablePage(null, new PageId(2, i), PAGE_SIZE);
+      cache.put(page.getPageId(), page);
+    }
+
+    final List<ImmutablePage> evicted = policy.evict(cache, 500L * PAGE_SIZE);
+
+    Assertions.assertEquals(500, evicted.size());
+    for (ImmutablePage page : evicted)
+      Assertions.assertEquals(2, page.getPageId().getFileId());
+
+    for (int i = 0; i < 10; ++i)
+      Assertions.assertTrue(cache.containsKey(new PageId(1, i)));
+
+    Assertions.assertTrue(policy.getPagesScanned() >= 500);
+  }
+
+  @Test
+  public void clockEvictsEverythingWhenRequested() {
+    final PageCacheEvictionPolicy policy = new PageCacheEvictionPolicyClock();
+    final ConcurrentMap<PageId, ImmutablePage> cache = new ConcurrentHashMap<>();
+
+    for (int i = 0; i < 100; ++i) {
+      final ImmutablePage page = new ImmutablePage(null, new PageId(1, i), PAGE_SIZE);
+      cache.put(page.getPageId(), page);
+      for (int k = 0; k < 10; ++k)
+        policy.pageAccessed(page);
+    }
+
+    final List<ImmutablePage> evicted = policy.evict(cache, Long.MAX_VALUE);
+    Assertions.assertEquals(100, evicted.size());
+    Assertions.assertTrue(cache.isEmpty());
+
+    Assertions.assertTrue(policy.evict(cache, PAGE_SIZE).isEmpty());
+  }
+
+  @Test
+  public void lruEvictsOldestPages() {
+    final PageCacheEvictionPolicy policy = new PageCacheEvictionPolicyLRU();
+    final ConcurrentMap<PageId, ImmutablePage> cache = new ConcurrentHashMap<>();
+
+    for (int i = 0; i < 100; ++i) {
+      final ImmutablePage page = new ImmutablePage(null, new PageId(1, i), PAGE_SIZE);
+      cache.put(page.getPageId(), page);
+    }
+
+    final List<ImmutablePage> evicted = policy.evict(cache, 10L * PAGE_SIZE);
+    Assertions.assertFalse(evicted.isEmpty());
+    Assertions.assertEquals(100 - evicted.size(), cache.size());
+  }
+}
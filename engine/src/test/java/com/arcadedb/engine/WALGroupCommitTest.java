@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.engine;
+
+import com.arcadedb.TestHelper;
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.database.MutableDocument;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WALGroupCommitTest extends TestHelper {
+  private static final int THREADS       = 8;
+  private static final int TX_PER_THREAD   = 200;
+
+  @Test
+  public void concurrentCommitsAreGrouped() throws InterruptedException {
+    database.transaction((db) -> {
+      for (int i = 0; i < THREADS; ++i)
+        db.getSchema().createDocumentType("Doc" + i, 1);
+    });
+
+    final Map<String, Object> statsBefore = ((DatabaseInternal) database).getTransactionManager().getStats();
+
+    // THE CALLBACKS OF EACH TRANSACTION ARE EXECUTED BY THE THREAD THAT COMMITS IT, NOT BY THE LEADER OF THE GROUP
+    final Map<Thread, AtomicInteger> callbacksPerThread = new ConcurrentHashMap<>();
+    final Callable<Void> callback = () -> {
+      callbacksPerThread.computeIfAbsent(Thread.currentThread(), t -> new AtomicInteger()).incrementAndGet();
+      return null;
+    };
+    ((DatabaseInternal) database).registerCallback(DatabaseInternal.CALLBACK_EVENT.TX_AFTER_WAL_WRITE, callback);
+
+    final AtomicInteger errors = new AtomicInteger();
+    final Thread[] threads = new Thread[THREADS];
+    for (int i = 0; i < THREADS; ++i) {
+      final String typeName = "Doc" + i;
+      threads[i] = new Thread(() -> {
+        try {
+          for (int k = 0; k < TX_PER_THREAD; ++k) {
+            database.begin();
+            database.getTransaction().setWALFlush(WALFile.FLUSH_TYPE.YES_NOMETADATA);
+            final MutableDocument doc = database.newDocument(typeName);
+            doc.set("id", k);
+            doc.save();
+            database.commit();
+          }
+        } catch (Exception e) {
+          errors.incrementAndGet();
+        }
+      });
+      threads[i].start();
+    }
+
+    for (Thread t : threads)
+      t.join();
+
+    Assertions.assertEquals(0, errors.get());
+
+    ((DatabaseInternal) database).unregisterCallback(DatabaseInternal.CALLBACK_EVENT.TX_AFTER_WAL_WRITE, callback);
+    Assertions.assertEquals(THREADS, callbacksPerThread.size());
+    for (Thread t : threads)
+      Assertions.assertEquals(TX_PER_THREAD, callbacksPerThread.get(t).get());
+
+    final Map<String, Object> stats = ((DatabaseInternal) database).getTransactionManager().getStats();
+    final long groupCommits = (Long) stats.get("groupCommits") - (Long) statsBefore.get("groupCommits");
+    final long groupCommitTransactions = (Long) stats.get("groupCommitTransactions") - (Long) statsBefore.get("groupCommitTransactions");
+
+    Assertions.assertEquals(THREADS * TX_PER_THREAD, groupCommitTransactions);
+    Assertions.assertTrue(groupCommits > 0 && groupCommits <= groupCommitTransactions);
+    Assertions.assertTrue((Long) stats.get("writeLatencyMax") > 0);
+
+    // CRASH THE DATABASE AND CHECK ALL THE TRANSACTIONS ARE RECOVERED FROM THE WAL
+    ((DatabaseInternal) database).kill();
+    database = factory.open();
+
+    for (int i = 0; i < THREADS; ++i)
+      Assertions.assertEquals(TX_PER_THREAD, database.countType("Doc" + i, false));
+  }
+}
@@ -23,19 +23,26 @@ package com.arcadedb.index;
 
 import com.arcadedb.GlobalConfiguration;
 import com.arcadedb.TestHelper;
+import com.arcadedb.database.Binary;
 import com.arcadedb.database.Database;
 import com.arcadedb.database.Document;
 import com.arcadedb.database.Identifiable;
 import com.arcadedb.database.MutableDocument;
 import com.arcadedb.database.async.ErrorCallback;
+import com.arcadedb.engine.BasePage;
+import com.arcadedb.engine.PaginatedFile;
 import com.arcadedb.engine.WALFile;
+import com.arcadedb.index.lsm.LSMTreeIndexCompacted;
 import com.arcadedb.log.LogManager;
 import com.arcadedb.schema.DocumentType;
 import com.arcadedb.schema.Schema;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.io.RandomAccessFile;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.CountDownLatch;
@@ -116,6 +123,190 @@ public class LSMTreeIndexCompactionTest extends TestHelper {
     }
   }
 
+  @Test
+  public void testParallelCompactionWithIOLimit() {
+    try {
+      GlobalConfiguration.INDEX_COMPACTION_RAM_MB.setValue(COMPACTION_RAM_MB);
+      GlobalConfiguration.INDEX_COMPACTION_MIN_PAGES_SCHEDULE.setValue(0);
+      GlobalConfiguration.INDEX_COMPACTION_THREADS.setValue(4);
+      GlobalConfiguration.INDEX_COMPACTION_MAX_IO.setValue(64);
+
+      insertData();
+      compaction();
+      checkLookups(1, 1);
+
+      insertData();
+      compaction();
+      checkLookups(1, 2);
+
+      long compactions = 0;
+      for (Index index : database.getSchema().getIndexes()) {
+        if (index instanceof TypeIndex)
+          continue;
+
+        final Map<String, Long> stats = ((IndexInternal) index).getStats();
+        if (stats.get("compactions") > 0) {
+          compactions += stats.get("compactions");
+          Assertions.assertEquals(100L, stats.get("compactionProgress"));
+          Assertions.assertTrue(stats.get("compactionKeys") > 0);
+          Assertions.assertTrue(stats.get("compactionPagesRead") > 0);
+          Assertions.assertTrue(stats.get("compactionPagesWritten") > 0);
+        }
+      }
+      Assertions.assertTrue(compactions > 0);
+
+    } finally {
+      GlobalConfiguration.INDEX_COMPACTION_RAM_MB.setValue(300);
+      GlobalConfiguration.INDEX_COMPACTION_MIN_PAGES_SCHEDULE.setValue(10);
+      GlobalConfiguration.INDEX_COMPACTION_THREADS.reset();
+      GlobalConfiguration.INDEX_COMPACTION_MAX_IO.reset();
+    }
+  }
+
+  @Test
+  public void testBloomFilterOnMissingKeys() {
+    try {
+      GlobalConfiguration.INDEX_COMPACTION_RAM_MB.setValue(COMPACTION_RAM_MB);
+      GlobalConfiguration.INDEX_COMPACTION_MIN_PAGES_SCHEDULE.setValue(0);
+      GlobalConfiguration.INDEX_COMPACTED_BLOOM_FILTER.setValue(10);
+
+      insertData();
+      compaction();
+      checkLookups(1, 1);
+
+      // LOOK UP FOR KEYS THAT DO NOT EXIST
+      database.transaction((db) -> {
+        for (long id = TOT; id < TOT * 2; ++id)
+          Assertions.assertEquals(0, db.lookupByKey(TYPE_NAME, new String[] { "id" }, new Object[] { id }).size());
+      });
+
+      long skips = 0;
+      long falsePositives = 0;
+      for (Index index : database.getSchema().getIndexes()) {
+        if (index instanceof TypeIndex)
+          continue;
+
+        final Map<String, Long> stats = ((IndexInternal) index).getStats();
+        if (stats.containsKey("bloomFilterSkips")) {
+          skips += stats.get("bloomFilterSkips");
+          falsePositives += stats.get("bloomFilterFalsePositives");
+        }
+      }
+
+      Assertions.assertTrue(skips > 0);
+      Assertions.assertTrue(falsePositives * 100 / (skips + falsePositives) < 5, "Too many false positives: " + falsePositives + "/" + skips);
+
+    } finally {
+      GlobalConfiguration.INDEX_COMPACTION_RAM_MB.setValue(300);
+      GlobalConfiguration.INDEX_COMPACTION_MIN_PAGES_SCHEDULE.setValue(10);
+      GlobalConfiguration.INDEX_COMPACTED_BLOOM_FILTER.reset();
+    }
+  }
+
+  @Test
+  public void testCompactedPagesWithoutBloomFilter() throws Exception {
+    try {
+      GlobalConfiguration.INDEX_COMPACTION_RAM_MB.setValue(COMPACTION_RAM_MB);
+      GlobalConfiguration.INDEX_COMPACTION_MIN_PAGES_SCHEDULE.setValue(0);
+      GlobalConfiguration.INDEX_COMPACTED_BLOOM_FILTER.setValue(0);
+
+      insertData();
+      compaction();
+
+      database.close();
+
+      // WITH THE BLOOM FILTER DISABLED THE PAGES HAVE THE LAYOUT USED BEFORE THE BLOOM FILTER: THE LAST BYTES OF THE PAGE CONTAIN VALUES, NOT THE
+      // SIZE OF THE BLOOM FILTER
+      int pagesWithValuesAtTheEnd = 0;
+      for (File file : new File(getDatabasePath()).listFiles()) {
+        final String fileName = file.getName();
+        if (!fileName.endsWith("." + LSMTreeIndexCompacted.NOTUNIQUE_INDEX_EXT))
+          continue;
+
+        final int footerSize = fileName.contains(".v" + PaginatedFile.PAGE_FORMAT_CHECKSUM + ".") ? BasePage.PAGE_CHECKSUM_SIZE : 0;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+          for (long page = 1; page < raf.length() / INDEX_PAGE_SIZE; ++page) {
+            raf.seek((page + 1) * INDEX_PAGE_SIZE - footerSize - Binary.INT_SERIALIZED_SIZE);
+            if (raf.readInt() != 0)
+              ++pagesWithValuesAtTheEnd;
+          }
+        }
+      }
+      Assertions.assertTrue(pagesWithValuesAtTheEnd > 0);
+
+      database = factory.open();
+
+      checkLookups(1, 1);
+
+      for (Index index : database.getSchema().getIndexes())
+        if (!(index instanceof TypeIndex))
+          Assertions.assertEquals(0L, ((IndexInternal) index).getStats().getOrDefault("bloomFilterChecks", 0L));
+
+    } finally {
+      GlobalConfiguration.INDEX_COMPACTION_RAM_MB.setValue(300);
+      GlobalConfiguration.INDEX_COMPACTION_MIN_PAGES_SCHEDULE.setValue(10);
+      GlobalConfiguration.INDEX_COMPACTED_BLOOM_FILTER.reset();
+    }
+  }
+
+  @Test
+  public void testKeyCompression() {
+    try {
+      GlobalConfiguration.INDEX_COMPACTION_RAM_MB.setValue(COMPACTION_RAM_MB);
+      GlobalConfiguration.INDEX_COMPACTION_MIN_PAGES_SCHEDULE.setValue(0);
+
+      // THE FIRST COMPACTION WRITES UNCOMPRESSED PAGES, THE SECOND ONE COMPRESSED PAGES IN THE SAME FILE
+      insertData();
+      compaction();
+      final long uncompressedPages = getCompactedPages("relativeName");
+
+      GlobalConfiguration.INDEX_COMPACTED_KEY_COMPRESSION.setValue(true);
+
+      insertData();
+      compaction();
+      final long compressedPages = getCompactedPages("relativeName") - uncompressedPages;
+
+      Assertions.assertTrue(compressedPages < uncompressedPages, "Compressed pages " + compressedPages + " >= uncompressed pages " + uncompressedPages);
+
+      checkLookups(1, 2);
+
+      database.transaction((db) -> {
+        for (long id = 0; id < TOT; id += 7)
+          Assertions.assertEquals(2, db.lookupByKey(TYPE_NAME, new String[] { "relativeName" }, new Object[] { "/shelf=" + id + "/slot=1" }).size());
+        Assertions.assertEquals(0, db.lookupByKey(TYPE_NAME, new String[] { "relativeName" }, new Object[] { "/shelf=" + TOT + "/slot=1" }).size());
+
+        // BROWSE ALL THE KEYS IN ORDER
+        for (Index index : db.getSchema().getIndexes()) {
+          if (index instanceof TypeIndex || !index.getPropertyNames()[0].equals("relativeName"))
+            continue;
+
+          String lastKey = null;
+          final IndexCursor cursor = ((RangeIndex) index).iterator(true);
+          while (cursor.hasNext()) {
+            cursor.next();
+            final String key = (String) cursor.getKeys()[0];
+            if (lastKey != null)
+              Assertions.assertTrue(lastKey.compareTo(key) <= 0, "Key " + key + " is after " + lastKey);
+            lastKey = key;
+          }
+        }
+      });
+
+    } finally {
+      GlobalConfiguration.INDEX_COMPACTION_RAM_MB.setValue(300);
+      GlobalConfiguration.INDEX_COMPACTION_MIN_PAGES_SCHEDULE.setValue(10);
+      GlobalConfiguration.INDEX_COMPACTED_KEY_COMPRESSION.reset();
+    }
+  }
+
+  private long getCompactedPages(final String propertyName) {
+    long pages = 0;
+    for (Index index : database.getSchema().getIndexes())
+      if (!(index instanceof TypeIndex) && index.getPropertyNames()[0].equals(propertyName))
+        pages += ((IndexInternal) index).getStats().getOrDefault("compactedPages", 0L);
+    return pages;
+  }
+
   private void compaction() {
     if (database.isOpen())
       for (Index index : database.getSchema().getIndexes()) {
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.query;
+
+import com.arcadedb.TestHelper;
+import com.arcadedb.database.DatabaseInternal;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PreparedStatementCacheTest extends TestHelper {
+  @Test
+  public void adHocQueriesDoNotEvictExplicitStatements() {
+    final PreparedStatementCache cache = new PreparedStatementCache((DatabaseInternal) database, 2);
+
+    final long id = cache.prepare("sql", "select from schema:types where name = ?").getId();
+
+    for (int i = 0; i < 10; i++)
+      cache.prepareImplicit("sql", "select from schema:types where name = 'T" + i + "'");
+
+    Assertions.assertNotNull(cache.get(id));
+    Assertions.assertEquals(1, cache.size());
+
+    // AD-HOC STATEMENTS CANNOT BE EXECUTED BY ID UNTIL THEY ARE PREPARED EXPLICITLY
+    final PreparedStatement adHoc = cache.prepareImplicit("sql", "select from schema:indexes");
+    Assertions.assertNull(cache.get(adHoc.getId()));
+    Assertions.assertSame(adHoc, cache.prepare("sql", "select from schema:indexes"));
+    Assertions.assertSame(adHoc, cache.get(adHoc.getId()));
+  }
+
+  @Test
+  public void idsAreNotReused() {
+    final PreparedStatementCache cache = new PreparedStatementCache((DatabaseInternal) database, 1);
+
+    final long first = cache.prepare("sql", "select from schema:types").getId();
+    // EVICTS THE FIRST STATEMENT
+    final long second = cache.prepare("sql", "select from schema:indexes").getId();
+
+    Assertions.assertNull(cache.get(first));
+    Assertions.assertNotEquals(first, second);
+
+    // A NEW CACHE, AS AFTER THE DATABASE IS REOPENED, DOES NOT ASSIGN THE OLD IDS TO DIFFERENT STATEMENTS
+    final PreparedStatementCache reopened = new PreparedStatementCache((DatabaseInternal) database, 1);
+    final long third = reopened.prepare("sql", "select from schema:database").getId();
+    Assertions.assertNull(reopened.get(first));
+    Assertions.assertNull(reopened.get(second));
+    Assertions.assertNotEquals(first, third);
+    Assertions.assertNotEquals(second, third);
+  }
+}
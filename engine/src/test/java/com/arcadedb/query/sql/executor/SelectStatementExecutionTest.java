@@ -3729,6 +3729,8 @@ public class SelectStatementExecutionTest extends TestHelper {
     Long oldValue = GlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.getValueAsLong();
     try {
       GlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.setValue(3);
+      // WITHOUT SPILLING ON DISK
+      GlobalConfiguration.QUERY_ORDER_BY_MAX_HEAP_ELEMENTS.setValue(0);
 
       String className = "testHeapLimitForOrderBy";
 
@@ -3750,6 +3752,70 @@ public class SelectStatementExecutionTest extends TestHelper {
       }
     } finally {
       GlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.setValue(oldValue);
+      GlobalConfiguration.QUERY_ORDER_BY_MAX_HEAP_ELEMENTS.reset();
+    }
+  }
+
+  @Test
+  public void testOrderBySpillOnDisk() {
+    GlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.setValue(100);
+    GlobalConfiguration.QUERY_ORDER_BY_MAX_HEAP_ELEMENTS.setValue(100);
+    try {
+      String className = "testOrderBySpillOnDisk";
+
+      database.getSchema().getOrCreateDocumentType(className);
+      database.begin();
+      for (int i = 0; i < 1000; i++)
+        database.newDocument(className).set("id", i, "value", (i * 7919) % 100, "name", "name" + i).save();
+      database.commit();
+
+      // RECORDS
+      try (ResultSet result = database.query("sql", "select from " + className + " ORDER BY value, id")) {
+        int lastValue = -1;
+        int lastId = -1;
+        int count = 0;
+        while (result.hasNext()) {
+          final Result item = result.next();
+          Assertions.assertTrue(item.isElement());
+          final int value = item.getProperty("value");
+          final int id = item.getProperty("id");
+          Assertions.assertTrue(value > lastValue || (value == lastValue && id > lastId));
+          lastValue = value;
+          lastId = id;
+          count++;
+        }
+        Assertions.assertEquals(1000, count);
+        Assertions.assertTrue(result.getExecutionPlan().get().prettyPrint(0, 2).contains("spilled on disk"));
+      }
+
+      // PROJECTIONS
+      try (ResultSet result = database.query("sql", "select value, id, name from " + className + " ORDER BY value DESC, id")) {
+        int lastValue = Integer.MAX_VALUE;
+        int lastId = -1;
+        int count = 0;
+        while (result.hasNext()) {
+          final Result item = result.next();
+          Assertions.assertEquals(Arrays.asList("value", "id", "name"), new ArrayList<>(item.getPropertyNames()));
+          final int value = item.getProperty("value");
+          final int id = item.getProperty("id");
+          Assertions.assertTrue(value < lastValue || (value == lastValue && id > lastId));
+          Assertions.assertEquals("name" + id, item.getProperty("name"));
+          lastValue = value;
+          lastId = id;
+          count++;
+        }
+        Assertions.assertEquals(1000, count);
+      }
+
+      // TOP-N
+      try (ResultSet result = database.query("sql", "select from " + className + " ORDER BY id DESC LIMIT 10")) {
+        for (int i = 999; i > 989; --i)
+          Assertions.assertEquals(i, (int) result.next().getProperty("id"));
+        Assertions.assertFalse(result.hasNext());
+      }
+    } finally {
+      GlobalConfiguration.QUERY_MAX_HEAP_ELEMENTS_ALLOWED_PER_OP.reset();
+      GlobalConfiguration.QUERY_ORDER_BY_MAX_HEAP_ELEMENTS.reset();
     }
   }
 
@@ -0,0 +1,200 @@
+package com.arcadedb.query.sql.functions.graph;
+
+import com.arcadedb.TestHelper;
+import com.arcadedb.database.Database;
+import com.arcadedb.database.RID;
+import com.arcadedb.exception.CommandExecutionException;
+import com.arcadedb.graph.MutableVertex;
+import com.arcadedb.query.sql.executor.BasicCommandContext;
+import com.arcadedb.query.sql.executor.Result;
+import com.arcadedb.query.sql.executor.ResultSet;
+import com.arcadedb.query.sql.function.graph.SQLFunctionBFS;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class SQLFunctionGraphAlgorithmsTest {
+  private final Map<String, MutableVertex> vertices = new HashMap<>();
+
+  @Test
+  public void testPageRank() throws Exception {
+    TestHelper.executeInNewDatabase("testPageRank", (graph) -> {
+      setUpDatabase(graph);
+
+      final Map<RID, Double> ranks = new HashMap<>();
+      try (ResultSet rs = graph.query("sql", "select expand( pageRank() )")) {
+        while (rs.hasNext()) {
+          final Result r = rs.next();
+          ranks.put(r.getProperty("vertex"), r.getProperty("pageRank"));
+        }
+      }
+
+      Assertions.assertEquals(7, ranks.size());
+      Assertions.assertEquals(1.0, ranks.values().stream().mapToDouble(Double::doubleValue).sum(), 0.0001);
+
+      // A0 RECEIVES THE RANK OF A2 AND A3
+      final double a0 = ranks.get(vertices.get("a0").getIdentity());
+      for (Map.Entry<RID, Double> entry : ranks.entrySet())
+        if (!entry.getKey().equals(vertices.get("a0").getIdentity()))
+          Assertions.assertTrue(a0 > entry.getValue());
+    });
+  }
+
+  @Test
+  public void testWeaklyConnectedComponents() throws Exception {
+    TestHelper.executeInNewDatabase("testWeaklyConnectedComponents", (graph) -> {
+      setUpDatabase(graph);
+
+      final Map<RID, Object> components = execute(graph, "select expand( weaklyConnectedComponents() )", "component");
+      Assertions.assertEquals(7, components.size());
+      for (String name : new String[] { "a0", "a1", "a2", "a3" })
+        Assertions.assertEquals(vertices.get("a0").getIdentity(), components.get(vertices.get(name).getIdentity()));
+      Assertions.assertEquals(vertices.get("b0").getIdentity(), components.get(vertices.get("b1").getIdentity()));
+      Assertions.assertEquals(vertices.get("c0").getIdentity(), components.get(vertices.get("c0").getIdentity()));
+    });
+  }
+
+  @Test
+  public void testLabelPropagation() throws Exception {
+    TestHelper.executeInNewDatabase("testLabelPropagation", (graph) -> {
+      setUpDatabase(graph);
+
+      final Map<RID, Object> communities = execute(graph, "select expand( labelPropagation() )", "community");
+      Assertions.assertEquals(3, new HashSet<>(communities.values()).size());
+      for (String name : new String[] { "a1", "a2", "a3" })
+        Assertions.assertEquals(communities.get(vertices.get("a0").getIdentity()), communities.get(vertices.get(name).getIdentity()));
+      Assertions.assertEquals(communities.get(vertices.get("b0").getIdentity()), communities.get(vertices.get("b1").getIdentity()));
+    });
+  }
+
+  @Test
+  public void testTriangleCount() throws Exception {
+    TestHelper.executeInNewDatabase("testTriangleCount", (graph) -> {
+      setUpDatabase(graph);
+
+      final Map<RID, Object> triangles = execute(graph, "select expand( triangleCount() )", "triangles");
+      for (String name : new String[] { "a0", "a1", "a2" })
+        Assertions.assertEquals(1L, triangles.get(vertices.get(name).getIdentity()));
+      for (String name : new String[] { "a3", "b0", "b1", "c0" })
+        Assertions.assertEquals(0L, triangles.get(vertices.get(name).getIdentity()));
+    });
+  }
+
+  @Test
+  public void testKCore() throws Exception {
+    TestHelper.executeInNewDatabase("testKCore", (graph) -> {
+      setUpDatabase(graph);
+
+      final Map<RID, Object> cores = execute(graph, "select expand( kCore() )", "core");
+      for (String name : new String[] { "a0", "a1", "a2" })
+        Assertions.assertEquals(2, cores.get(vertices.get(name).getIdentity()));
+      for (String name : new String[] { "a3", "b0", "b1" })
+        Assertions.assertEquals(1, cores.get(vertices.get(name).getIdentity()));
+      Assertions.assertEquals(0, cores.get(vertices.get("c0").getIdentity()));
+    });
+  }
+
+  @Test
+  public void testBFS() throws Exception {
+    TestHelper.executeInNewDatabase("testBFS", (graph) -> {
+      setUpDatabase(graph);
+
+      final BasicCommandContext context = new BasicCommandContext();
+      context.setDatabase(graph);
+
+      final Map<RID, Object> distances = toMap(
+          (List<Result>) new SQLFunctionBFS().execute(null, null, null, new Object[] { vertices.get("a3") }, context), "distance");
+      Assertions.assertEquals(4, distances.size());
+      Assertions.assertEquals(0, distances.get(vertices.get("a3").getIdentity()));
+      Assertions.assertEquals(1, distances.get(vertices.get("a0").getIdentity()));
+      Assertions.assertEquals(2, distances.get(vertices.get("a1").getIdentity()));
+      Assertions.assertEquals(3, distances.get(vertices.get("a2").getIdentity()));
+
+      // MULTIPLE SOURCES, BOTH DIRECTIONS AND MAXIMUM DEPTH
+      final Map<String, Object> options = new HashMap<>();
+      options.put("direction", "both");
+      options.put("maxDepth", 1);
+      final Map<RID, Object> limited = toMap((List<Result>) new SQLFunctionBFS()
+              .execute(null, null, null, new Object[] { Arrays.asList(vertices.get("a1"), vertices.get("b1")), options }, context),
+          "distance");
+      Assertions.assertEquals(5, limited.size());
+      Assertions.assertEquals(1, limited.get(vertices.get("a0").getIdentity()));
+      Assertions.assertEquals(1, limited.get(vertices.get("a2").getIdentity()));
+      Assertions.assertEquals(1, limited.get(vertices.get("b0").getIdentity()));
+      Assertions.assertFalse(limited.containsKey(vertices.get("a3").getIdentity()));
+    });
+  }
+
+  @Test
+  public void testWriteProperty() throws Exception {
+    TestHelper.executeInNewDatabase("testWriteProperty", (graph) -> {
+      setUpDatabase(graph);
+
+      try (ResultSet rs = graph.command("sql",
+          "select weaklyConnectedComponents( { 'edgeTypes': 'Link', 'writeProperty': 'component', 'commitEvery': 2, 'threads': 2 } ) as summary")) {
+        final Result summary = rs.next().getProperty("summary");
+        Assertions.assertEquals(7L, (long) summary.getProperty("written"));
+        Assertions.assertEquals(3L, (long) summary.getProperty("components"));
+      }
+
+      try (ResultSet rs = graph.query("sql", "select component, count(*) as total from Node group by component order by total desc")) {
+        Assertions.assertEquals(4L, (long) rs.next().getProperty("total"));
+        Assertions.assertEquals(2L, (long) rs.next().getProperty("total"));
+        Assertions.assertEquals(1L, (long) rs.next().getProperty("total"));
+        Assertions.assertFalse(rs.hasNext());
+      }
+
+      // A QUERY CANNOT WRITE THE RESULTS
+      Assertions.assertThrows(CommandExecutionException.class, () -> {
+        try (ResultSet rs = graph.query("sql", "select weaklyConnectedComponents( { 'edgeTypes': 'Link', 'writeProperty': 'other' } ) as summary")) {
+          rs.next();
+        }
+      });
+      try (ResultSet rs = graph.query("sql", "select from Node where other is not null")) {
+        Assertions.assertFalse(rs.hasNext());
+      }
+    });
+  }
+
+  private static Map<RID, Object> execute(final Database graph, final String query, final String property) {
+    final Map<RID, Object> values = new HashMap<>();
+    try (ResultSet rs = graph.query("sql", query)) {
+      while (rs.hasNext()) {
+        final Result r = rs.next();
+        values.put(r.getProperty("vertex"), r.getProperty(property));
+      }
+    }
+    return values;
+  }
+
+  private static Map<RID, Object> toMap(final List<Result> results, final String property) {
+    final Map<RID, Object> values = new HashMap<>();
+    for (Result r : results)
+      values.put(r.getProperty("vertex"), r.getProperty(property));
+    return values;
+  }
+
+  /**
+   * Creates the triangle a0-a1-a2 with a3 pointing to a0, the pair b0-b1 and the isolated vertex c0.
+   */
+  private void setUpDatabase(final Database graph) {
+    graph.transaction((db) -> {
+      graph.getSchema().createVertexType("Node");
+      graph.getSchema().createEdgeType("Link");
+
+      for (String name : new String[] { "a0", "a1", "a2", "a3", "b0", "b1", "c0" }) {
+        final MutableVertex v = graph.newVertex("Node");
+        v.set("name", name);
+        v.save();
+        vertices.put(name, v);
+      }
+
+      vertices.get("a0").newEdge("Link", vertices.get("a1"), true);
+      vertices.get("a1").newEdge("Link", vertices.get("a2"), true);
+      vertices.get("a2").newEdge("Link", vertices.get("a0"), true);
+      vertices.get("a3").newEdge("Link", vertices.get("a0"), true);
+      vertices.get("b0").newEdge("Link", vertices.get("b1"), true);
+    });
+  }
+}
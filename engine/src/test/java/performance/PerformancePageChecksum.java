@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+ */
+
+package performance;
+
+import com.arcadedb.GlobalConfiguration;
+import com.arcadedb.database.Database;
+import com.arcadedb.database.DatabaseFactory;
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.engine.PageManager;
+
+/**
+ * Measures the cost of the page checksum (arcadedb.pageChecksum) on writing and reading the pages from disk.
+ */
+public class PerformancePageChecksum {
+  private static final String TYPE_NAME = "Doc";
+  private static final int    TOT       = 1_000_000;
+  private static final int    SCANS     = 5;
+
+  public static void main(String[] args) {
+    for (String mode : new String[] { "none", "write", "readWrite" })
+      new PerformancePageChecksum().run(mode);
+  }
+
+  private void run(final String mode) {
+    PerformanceTest.clean();
+    GlobalConfiguration.PAGE_CHECKSUM.setValue(mode);
+
+    final DatabaseFactory factory = new DatabaseFactory(PerformanceTest.DATABASE_PATH);
+    Database database = factory.create();
+    try {
+      long begin = System.currentTimeMillis();
+      database.getSchema().createDocumentType(TYPE_NAME, 1);
+      database.transaction((db) -> {
+        for (int i = 0; i < TOT; ++i)
+          db.newDocument(TYPE_NAME).set("id", i).set("name", "Jay" + i).save();
+      });
+      database.close();
+      final long writeTime = System.currentTimeMillis() - begin;
+
+      long readTime = 0;
+      long pagesRead = 0;
+      for (int i = 0; i < SCANS; ++i) {
+        // REOPEN THE DATABASE TO READ ALL THE PAGES FROM DISK
+        database = factory.open();
+        begin = System.currentTimeMillis();
+        database.scanType(TYPE_NAME, false, (record) -> true);
+        readTime += System.currentTimeMillis() - begin;
+
+        final PageManager.PPageManagerStats stats = ((DatabaseInternal) database).getPageManager().getStats();
+        pagesRead += stats.pagesRead;
+        database.close();
+      }
+
+      System.out.println(
+          "pageChecksum=" + mode + ": inserted " + TOT + " records in " + writeTime + "ms, scanned " + SCANS + " times in " + readTime + "ms (" + pagesRead
+              + " pages read from disk)");
+
+    } finally {
+      if (database.isOpen())
+        database.close();
+      GlobalConfiguration.PAGE_CHECKSUM.reset();
+    }
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb.process.computer;
+
+import com.arcadedb.database.RID;
+import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeGraph;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeVertex;
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Transaction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Read-only result graph of a computation with {@link GraphComputer.ResultGraph#NEW}. The vertices are the vertices of the database overlaid with the
+ * properties computed by the vertex program, which are kept in memory and never written to the database. With {@link GraphComputer.Persist#EDGES} the
+ * edges of the database are visible, with {@link GraphComputer.Persist#VERTEX_PROPERTIES} the graph has no edges.
+ * <p>
+ * A graph computer created from this graph executes on the database starting from the computed properties, so the OLAP traversals can chain vertex
+ * programs, like in `g.withComputer().V().pageRank()`.
+ */
+public class ArcadeComputerResultGraph implements Graph {
+  private final ArcadeGraph             graph;
+  private final ArcadeGraphComputerView view;
+
+  public ArcadeComputerResultGraph(final ArcadeGraph graph, final Map<RID, Map<String, Object>> properties, final boolean includeEdges) {
+    this.graph = graph;
+    this.view = ArcadeGraphComputerView.readOnly(graph, properties, includeEdges);
+  }
+
+  public ArcadeGraph getGraph() {
+    return graph;
+  }
+
+  /**
+   * Returns the computed properties, keyed by the RID of the vertex.
+   */
+  public Map<RID, Map<String, Object>> getProperties() {
+    return view.getAllProperties();
+  }
+
+  @Override
+  public Vertex addVertex(final Object... keyValues) {
+    throw Graph.Exceptions.vertexAdditionsNotSupported();
+  }
+
+  @Override
+  public <C extends GraphComputer> C compute(final Class<C> graphComputerClass) throws IllegalArgumentException {
+    if (!graphComputerClass.equals(ArcadeGraphComputer.class))
+      throw Graph.Exceptions.graphDoesNotSupportProvidedGraphComputer(graphComputerClass);
+    return (C) new ArcadeGraphComputer(this);
+  }
+
+  @Override
+  public GraphComputer compute() throws IllegalArgumentException {
+    return new ArcadeGraphComputer(this);
+  }
+
+  @Override
+  public Iterator<Vertex> vertices(final Object... vertexIds) {
+    return IteratorUtils.map(graph.vertices(vertexIds),
+        vertex -> new ArcadeComputerVertex(graph, ((ArcadeVertex) vertex).getBaseElement(), view));
+  }
+
+  @Override
+  public Iterator<Edge> edges(final Object... edgeIds) {
+    return view.isIncludeEdges() ? graph.edges(edgeIds) : Collections.emptyIterator();
+  }
+
+  @Override
+  public Transaction tx() {
+    throw Graph.Exceptions.transactionsNotSupported();
+  }
+
+  @Override
+  public void close() {
+    // THE DATABASE IS OWNED BY THE ORIGINAL GRAPH
+  }
+
+  @Override
+  public Variables variables() {
+    throw Graph.Exceptions.variablesNotSupported();
+  }
+
+  @Override
+  public Configuration configuration() {
+    return graph.configuration();
+  }
+
+  @Override
+  public Features features() {
+    return new Features() {
+      @Override
+      public GraphFeatures graph() {
+        return new GraphFeatures() {
+          @Override
+          public boolean supportsPersistence() {
+            return false;
+          }
+
+          @Override
+          public boolean supportsTransactions() {
+            return false;
+          }
+
+          @Override
+          public boolean supportsThreadedTransactions() {
+            return false;
+          }
+        };
+      }
+
+      @Override
+      public VertexFeatures vertex() {
+        return new VertexFeatures() {
+          @Override
+          public boolean supportsAddVertices() {
+            return false;
+          }
+
+          @Override
+          public boolean supportsRemoveVertices() {
+            return false;
+          }
+        };
+      }
+
+      @Override
+      public EdgeFeatures edge() {
+        return new EdgeFeatures() {
+          @Override
+          public boolean supportsAddEdges() {
+            return false;
+          }
+
+          @Override
+          public boolean supportsRemoveEdges() {
+            return false;
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return StringFactory.graphString(this, graph.getDatabase().getName());
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb.process.computer;
+
+import com.arcadedb.database.RID;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeGraph;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeProperty;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeVertex;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeVertexProperty;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+
+import java.util.*;
+
+/**
+ * Vertex seen by the vertex programs and by the traversals on an {@link ArcadeComputerResultGraph}. The properties of the record are read from the
+ * immutable record, while the compute keys and the properties computed by a previous computation are read and written in the
+ * {@link ArcadeGraphComputerView}. The incident edges are filtered by the graph filter of the computer, if any.
+ */
+public class ArcadeComputerVertex extends ArcadeVertex {
+  private final ArcadeGraphComputerView view;
+
+  public ArcadeComputerVertex(final ArcadeGraph graph, final com.arcadedb.graph.Vertex baseElement, final ArcadeGraphComputerView view) {
+    super(graph, baseElement);
+    this.view = view;
+  }
+
+  public RID getIdentity() {
+    return baseElement.getIdentity();
+  }
+
+  @Override
+  public <V> VertexProperty<V> property(final VertexProperty.Cardinality cardinality, final String key, final V value, final Object... keyValues) {
+    if (cardinality != VertexProperty.Cardinality.single)
+      throw VertexProperty.Exceptions.multiPropertiesNotSupported();
+    if (keyValues.length > 0)
+      throw VertexProperty.Exceptions.metaPropertiesNotSupported();
+    return property(key, value);
+  }
+
+  @Override
+  public <V> VertexProperty<V> property(final String key, final V value) {
+    ElementHelper.validateProperty(key, value);
+    ArcadeProperty.validateValue(value);
+    view.setProperty(getIdentity(), key, value);
+    return new ComputeProperty<>(this, key, value);
+  }
+
+  @Override
+  public <V> VertexProperty<V> property(final String key) {
+    if (view.isViewKey(key)) {
+      final V value = (V) view.getProperty(getIdentity(), key);
+      return value != null ? new ComputeProperty<>(this, key, value) : VertexProperty.empty();
+    }
+    return super.property(key);
+  }
+
+  @Override
+  public <V> Iterator<VertexProperty<V>> properties(final String... propertyKeys) {
+    final List<VertexProperty<V>> props = new ArrayList<>();
+    if (propertyKeys == null || propertyKeys.length == 0) {
+      final Iterator<VertexProperty<V>> recordProperties = super.properties();
+      while (recordProperties.hasNext()) {
+        final VertexProperty<V> property = recordProperties.next();
+        if (!view.isViewKey(property.key()))
+          props.add(property);
+      }
+      for (Map.Entry<String, Object> entry : view.getProperties(getIdentity()).entrySet())
+        props.add(new ComputeProperty<>(this, entry.getKey(), (V) entry.getValue()));
+    } else
+      for (String key : propertyKeys) {
+        final VertexProperty<V> property = property(key);
+        if (property.isPresent())
+          props.add(property);
+      }
+    return props.iterator();
+  }
+
+  @Override
+  public Set<String> keys() {
+    final Set<String> keys = new HashSet<>();
+    for (String key : super.keys())
+      if (!view.isViewKey(key))
+        keys.add(key);
+    keys.addAll(view.getProperties(getIdentity()).keySet());
+    return keys;
+  }
+
+  @Override
+  public <V> V value(final String key) throws NoSuchElementException {
+    final VertexProperty<V> property = property(key);
+    if (!property.isPresent())
+      throw Property.Exceptions.propertyDoesNotExist(this, key);
+    return property.value();
+  }
+
+  @Override
+  public <V> Iterator<V> values(final String... propertyKeys) {
+    final List<V> values = new ArrayList<>();
+    final Iterator<VertexProperty<V>> props = properties(propertyKeys);
+    while (props.hasNext())
+      values.add(props.next().value());
+    return values.iterator();
+  }
+
+  @Override
+  public Iterator<Edge> edges(final Direction direction, final String... edgeLabels) {
+    if (!view.isIncludeEdges())
+      return Collections.emptyIterator();
+    if (!view.getGraphFilter().hasFilter())
+      return super.edges(direction, edgeLabels);
+
+    final List<Edge> result = new ArrayList<>();
+    final Set<String> labels = new HashSet<>(Arrays.asList(edgeLabels));
+    for (Edge edge : view.legalEdges(graph.wrapVertex(baseElement))) {
+      if (!labels.isEmpty() && !labels.contains(edge.label()))
+        continue;
+      if (direction == Direction.BOTH || getIdentity().equals(edge.vertices(direction).next().id()))
+        result.add(edge);
+    }
+    return result.iterator();
+  }
+
+  @Override
+  public Iterator<Vertex> vertices(final Direction direction, final String... edgeLabels) {
+    if (!view.isIncludeEdges())
+      return Collections.emptyIterator();
+    if (!view.getGraphFilter().hasFilter())
+      return super.vertices(direction, edgeLabels);
+
+    final List<Vertex> result = new ArrayList<>();
+    final Iterator<Edge> edges = edges(direction, edgeLabels);
+    while (edges.hasNext()) {
+      final Edge edge = edges.next();
+      if (direction == Direction.BOTH)
+        result.add(getIdentity().equals(edge.outVertex().id()) ? edge.inVertex() : edge.outVertex());
+      else
+        result.add(edge.vertices(direction.opposite()).next());
+    }
+    return result.iterator();
+  }
+
+  @Override
+  public Edge addEdge(final String label, final Vertex inVertex, final Object... keyValues) {
+    throw Vertex.Exceptions.edgeAdditionsNotSupported();
+  }
+
+  @Override
+  public void remove() {
+    throw Vertex.Exceptions.vertexRemovalNotSupported();
+  }
+
+  /**
+   * Property of a compute key, removed from the view instead of from the record.
+   */
+  private static class ComputeProperty<T> extends ArcadeVertexProperty<T> {
+    private ComputeProperty(final ArcadeComputerVertex vertex, final String key, final T value) {
+      super(vertex, key, value);
+    }
+
+    @Override
+    public void remove() {
+      ((ArcadeComputerVertex) vertex).view.removeProperty(((ArcadeComputerVertex) vertex).getIdentity(), key);
+    }
+  }
+}
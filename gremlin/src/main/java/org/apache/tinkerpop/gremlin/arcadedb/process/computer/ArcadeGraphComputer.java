@@ -0,0 +1,353 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb.process.computer;
+
+import com.arcadedb.GlobalConfiguration;
+import com.arcadedb.database.Database;
+import com.arcadedb.database.Record;
+import com.arcadedb.engine.Bucket;
+import com.arcadedb.schema.DocumentType;
+import com.arcadedb.schema.VertexType;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeGraph;
+import org.apache.tinkerpop.gremlin.process.computer.ComputerResult;
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.computer.GraphFilter;
+import org.apache.tinkerpop.gremlin.process.computer.MapReduce;
+import org.apache.tinkerpop.gremlin.process.computer.VertexProgram;
+import org.apache.tinkerpop.gremlin.process.computer.util.ComputerGraph;
+import org.apache.tinkerpop.gremlin.process.computer.util.DefaultComputerResult;
+import org.apache.tinkerpop.gremlin.process.computer.util.GraphComputerHelper;
+import org.apache.tinkerpop.gremlin.process.computer.util.MapReducePool;
+import org.apache.tinkerpop.gremlin.process.computer.util.VertexProgramPool;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * In-process graph computer. The buckets of the vertex types are split in partitions of similar size, one per worker, and the partitions are executed in
+ * parallel on a fork/join pool in bulk synchronous supersteps: every superstep executes the vertex program on all the vertices, then the messages sent
+ * become visible to the receivers in the next superstep.
+ * <p>
+ * The workers read the committed state of the database. The compute keys are stored in memory by the {@link ArcadeGraphComputerView} and written to the
+ * vertices at the end of the computation only with the result graph {@link ResultGraph#ORIGINAL} and the persist mode
+ * {@link Persist#VERTEX_PROPERTIES} or {@link Persist#EDGES}. With the result graph {@link ResultGraph#NEW}, the default of most vertex programs, the
+ * database is not changed and the result is a read-only {@link ArcadeComputerResultGraph} overlaying the computed properties on the vertices. A computer
+ * created from a result graph starts from its properties and can only return a new result graph, as done by the OLAP traversals chaining vertex
+ * programs.
+ */
+public class ArcadeGraphComputer implements GraphComputer {
+  private final ArcadeGraph               graph;
+  private final ArcadeComputerResultGraph sourceGraph;
+  private final Set<MapReduce>            mapReducers = new HashSet<>();
+  private final GraphFilter               graphFilter = new GraphFilter();
+  private       ResultGraph               resultGraph = null;
+  private       Persist                   persist     = null;
+  private       VertexProgram<?>          vertexProgram;
+  private       int                       workers     = Runtime.getRuntime().availableProcessors();
+  private       boolean                   executed    = false;
+
+  public ArcadeGraphComputer(final ArcadeGraph graph) {
+    this.graph = graph;
+    this.sourceGraph = null;
+  }
+
+  /**
+   * Creates a computer on the result graph of a previous computation.
+   */
+  public ArcadeGraphComputer(final ArcadeComputerResultGraph sourceGraph) {
+    this.graph = sourceGraph.getGraph();
+    this.sourceGraph = sourceGraph;
+  }
+
+  @Override
+  public GraphComputer result(final ResultGraph resultGraph) {
+    this.resultGraph = resultGraph;
+    return this;
+  }
+
+  @Override
+  public GraphComputer persist(final Persist persist) {
+    this.persist = persist;
+    return this;
+  }
+
+  @Override
+  public GraphComputer program(final VertexProgram vertexProgram) {
+    this.vertexProgram = vertexProgram;
+    return this;
+  }
+
+  @Override
+  public GraphComputer mapReduce(final MapReduce mapReduce) {
+    this.mapReducers.add(mapReduce);
+    return this;
+  }
+
+  @Override
+  public GraphComputer workers(final int workers) {
+    this.workers = workers;
+    return this;
+  }
+
+  @Override
+  public GraphComputer vertices(final Traversal<Vertex, Vertex> vertexFilter) {
+    this.graphFilter.setVertexFilter(vertexFilter);
+    return this;
+  }
+
+  @Override
+  public GraphComputer edges(final Traversal<Vertex, Edge> edgeFilter) {
+    this.graphFilter.setEdgeFilter(edgeFilter);
+    return this;
+  }
+
+  @Override
+  public Future<ComputerResult> submit() {
+    // A GRAPH COMPUTER CAN ONLY BE EXECUTED ONCE
+    if (executed)
+      throw Exceptions.computerHasAlreadyBeenSubmittedAVertexProgram();
+    executed = true;
+
+    if (vertexProgram == null && mapReducers.isEmpty())
+      throw Exceptions.computerHasNoVertexProgramNorMapReducers();
+
+    if (vertexProgram != null) {
+      GraphComputerHelper.validateProgramOnComputer(this, vertexProgram);
+      mapReducers.addAll(vertexProgram.getMapReducers());
+    }
+
+    resultGraph = GraphComputerHelper.getResultGraphState(Optional.ofNullable(vertexProgram), Optional.ofNullable(resultGraph));
+    persist = GraphComputerHelper.getPersistState(Optional.ofNullable(vertexProgram), Optional.ofNullable(persist));
+    if (!features().supportsResultGraphPersistCombination(resultGraph, persist))
+      throw Exceptions.resultGraphPersistCombinationNotSupported(resultGraph, persist);
+    if (workers > features().getMaxWorkers())
+      throw Exceptions.computerRequiresMoreWorkersThanSupported(workers, features().getMaxWorkers());
+
+    final ForkJoinPool pool = new ForkJoinPool(workers, p -> {
+      final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+      thread.setName("ArcadeGraphComputer-" + thread.getPoolIndex());
+      thread.setDaemon(true);
+      return thread;
+    }, null, false);
+
+    return pool.submit(() -> {
+      try {
+        return execute();
+      } finally {
+        pool.shutdown();
+      }
+    });
+  }
+
+  @Override
+  public String toString() {
+    return StringFactory.graphComputerString(this);
+  }
+
+  @Override
+  public Features features() {
+    return new Features() {
+      @Override
+      public boolean supportsVertexAddition() {
+        return false;
+      }
+
+      @Override
+      public boolean supportsVertexRemoval() {
+        return false;
+      }
+
+      @Override
+      public boolean supportsEdgeAddition() {
+        return false;
+      }
+
+      @Override
+      public boolean supportsEdgeRemoval() {
+        return false;
+      }
+
+      @Override
+      public boolean supportsEdgePropertyAddition() {
+        return false;
+      }
+
+      @Override
+      public boolean supportsEdgePropertyRemoval() {
+        return false;
+      }
+
+      @Override
+      public boolean supportsResultGraphPersistCombination(final ResultGraph resultGraph, final Persist persist) {
+        // A RESULT GRAPH IS READ-ONLY, SO THE PROPERTIES COMPUTED ON IT CAN ONLY BE RETURNED IN A NEW GRAPH
+        return resultGraph == ResultGraph.NEW || persist == Persist.NOTHING || sourceGraph == null;
+      }
+    };
+  }
+
+  private ComputerResult execute() {
+    final long time = System.currentTimeMillis();
+    final ArcadeMemory memory = new ArcadeMemory(vertexProgram, mapReducers);
+    final ArcadeGraphComputerView view = new ArcadeGraphComputerView(graph, graphFilter,
+        vertexProgram != null ? vertexProgram.getVertexComputeKeys() : Collections.emptySet(), sourceGraph != null ? sourceGraph.getProperties() : null);
+    final List<List<Bucket>> partitions = getPartitions();
+
+    if (vertexProgram != null) {
+      final VertexProgramPool vertexProgramPool = new VertexProgramPool(vertexProgram, Math.max(1, partitions.size()));
+      final ArcadeMessageBoard<Object> messageBoard = new ArcadeMessageBoard<>();
+
+      vertexProgram.setup(memory);
+      while (true) {
+        memory.completeSubRound();
+        invokeAll(partitions, partition -> {
+          final VertexProgram<Object> workerProgram = vertexProgramPool.take();
+          workerProgram.workerIterationStart(memory.asImmutable());
+          try {
+            iterate(partition, view, vertex -> workerProgram.execute(ComputerGraph.vertexProgram(vertex, workerProgram),
+                new ArcadeMessenger<>(vertex, messageBoard, workerProgram.getMessageCombiner(), view), memory));
+          } finally {
+            workerProgram.workerIterationEnd(memory.asImmutable());
+            vertexProgramPool.offer(workerProgram);
+          }
+        });
+        messageBoard.completeIteration();
+        memory.completeSubRound();
+
+        final boolean terminate = vertexProgram.terminate(memory);
+        memory.incrIteration();
+        if (terminate)
+          break;
+      }
+      view.complete();
+    }
+
+    for (MapReduce mapReduce : mapReducers) {
+      final MapReducePool mapReducePool = new MapReducePool(mapReduce, Math.max(1, partitions.size()));
+      final ArcadeMapEmitter<?, ?> mapEmitter = new ArcadeMapEmitter<>(mapReduce.doStage(MapReduce.Stage.REDUCE));
+      invokeAll(partitions, partition -> {
+        final MapReduce workerMapReduce = mapReducePool.take();
+        workerMapReduce.workerStart(MapReduce.Stage.MAP);
+        try {
+          iterate(partition, view, vertex -> workerMapReduce.map(ComputerGraph.mapReduce(vertex), mapEmitter));
+        } finally {
+          workerMapReduce.workerEnd(MapReduce.Stage.MAP);
+          mapReducePool.offer(workerMapReduce);
+        }
+      });
+      mapEmitter.complete(mapReduce);
+
+      if (mapReduce.doStage(MapReduce.Stage.REDUCE)) {
+        final ArcadeReduceEmitter<?, ?> reduceEmitter = new ArcadeReduceEmitter<>();
+        final Iterator<Map.Entry<?, Queue<?>>> keyValues = (Iterator) mapEmitter.reduceMap.entrySet().iterator();
+        invokeAll(partitions, partition -> {
+          final MapReduce workerMapReduce = mapReducePool.take();
+          workerMapReduce.workerStart(MapReduce.Stage.REDUCE);
+          try {
+            while (true) {
+              final Map.Entry<?, Queue<?>> entry;
+              synchronized (keyValues) {
+                if (!keyValues.hasNext())
+                  break;
+                entry = keyValues.next();
+              }
+              workerMapReduce.reduce(entry.getKey(), entry.getValue().iterator(), reduceEmitter);
+            }
+          } finally {
+            workerMapReduce.workerEnd(MapReduce.Stage.REDUCE);
+            mapReducePool.offer(workerMapReduce);
+          }
+        });
+        reduceEmitter.complete(mapReduce);
+        mapReduce.addResultToMemory(memory, reduceEmitter.reduceQueue.iterator());
+      } else
+        mapReduce.addResultToMemory(memory, mapEmitter.mapQueue.iterator());
+    }
+
+    memory.setRuntime(System.currentTimeMillis() - time);
+    memory.complete();
+
+    final Graph result = view.processResultGraphPersist(resultGraph, persist, sourceGraph != null ? sourceGraph : graph,
+        graph.getDatabase().getConfiguration().getValueAsInteger(GlobalConfiguration.GREMLIN_COMPUTER_COMMIT_EVERY));
+    return new DefaultComputerResult(result, memory.asImmutable());
+  }
+
+  /**
+   * Splits the buckets of the vertex types in partitions, one per worker, assigning the largest buckets first to the partition with less pages.
+   */
+  private List<List<Bucket>> getPartitions() {
+    final List<Bucket> buckets = new ArrayList<>();
+    for (DocumentType type : graph.getDatabase().getSchema().getTypes())
+      if (type instanceof VertexType)
+        buckets.addAll(type.getBuckets(false));
+    buckets.sort((a, b) -> Integer.compare(b.getTotalPages(), a.getTotalPages()));
+
+    final int total = Math.min(workers, buckets.size());
+    final List<List<Bucket>> partitions = new ArrayList<>(total);
+    final long[] pages = new long[total];
+    for (int i = 0; i < total; ++i)
+      partitions.add(new ArrayList<>());
+
+    for (Bucket bucket : buckets) {
+      int min = 0;
+      for (int i = 1; i < total; ++i)
+        if (pages[i] < pages[min])
+          min = i;
+      partitions.get(min).add(bucket);
+      pages[min] += bucket.getTotalPages();
+    }
+    return partitions;
+  }
+
+  /**
+   * Executes the task on every partition in parallel and waits for all of them. The first exception thrown by a task is rethrown.
+   */
+  private static void invokeAll(final List<List<Bucket>> partitions, final Consumer<List<Bucket>> task) {
+    final List<ForkJoinTask<?>> tasks = new ArrayList<>(partitions.size());
+    for (List<Bucket> partition : partitions)
+      tasks.add(ForkJoinTask.adapt(() -> task.accept(partition)));
+    ForkJoinTask.invokeAll(tasks);
+  }
+
+  /**
+   * Browses the vertices of the partition passing the vertex filter.
+   */
+  private void iterate(final List<Bucket> partition, final ArcadeGraphComputerView view, final Consumer<ArcadeComputerVertex> consumer) {
+    final Database database = graph.getDatabase();
+    for (Bucket bucket : partition) {
+      final Iterator<Record> records = database.iterateBucket(bucket.getName());
+      while (records.hasNext()) {
+        final com.arcadedb.graph.Vertex vertex = records.next().asVertex();
+        if (view.legalVertex(graph.wrapVertex(vertex)))
+          consumer.accept(new ArcadeComputerVertex(graph, vertex, view));
+      }
+    }
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb.process.computer;
+
+import com.arcadedb.database.Database;
+import com.arcadedb.database.MutableDocument;
+import com.arcadedb.database.RID;
+import com.arcadedb.exception.RecordNotFoundException;
+import com.arcadedb.log.LogManager;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeGraph;
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.computer.GraphFilter;
+import org.apache.tinkerpop.gremlin.process.computer.VertexComputeKey;
+import org.apache.tinkerpop.gremlin.process.computer.util.VertexProgramHelper;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Properties written by the vertex program during the computation, keyed by the RID of the vertex. The database is never changed during the
+ * computation: the properties are stored in the view and written to the vertices at the end only if the persist mode requires it.
+ * <p>
+ * A computation executed on the result graph of a previous computation starts from the properties computed by the previous one, which are visible to
+ * the vertex program as the other properties of the vertices. The read-only view of a result graph holds the final properties and rejects any change.
+ */
+public class ArcadeGraphComputerView {
+  private final ArcadeGraph                   graph;
+  private final GraphFilter                   graphFilter;
+  private final Set<VertexComputeKey>         computeKeys;
+  private final Set<String>                   computeKeyNames;
+  private final Set<String>                   viewKeyNames;
+  private final Map<RID, Map<String, Object>> computeProperties = new ConcurrentHashMap<>();
+  private final Map<RID, Boolean>             legalVertices     = new ConcurrentHashMap<>();
+  private final boolean                       readOnly;
+  private final boolean                       includeEdges;
+
+  public ArcadeGraphComputerView(final ArcadeGraph graph, final GraphFilter graphFilter, final Set<VertexComputeKey> computeKeys) {
+    this(graph, graphFilter, computeKeys, null, false, true);
+  }
+
+  /**
+   * Creates the view of a computation starting from the properties computed by a previous one, if not null.
+   */
+  public ArcadeGraphComputerView(final ArcadeGraph graph, final GraphFilter graphFilter, final Set<VertexComputeKey> computeKeys,
+      final Map<RID, Map<String, Object>> inheritedProperties) {
+    this(graph, graphFilter, computeKeys, inheritedProperties, false, true);
+  }
+
+  private ArcadeGraphComputerView(final ArcadeGraph graph, final GraphFilter graphFilter, final Set<VertexComputeKey> computeKeys,
+      final Map<RID, Map<String, Object>> inheritedProperties, final boolean readOnly, final boolean includeEdges) {
+    this.graph = graph;
+    this.graphFilter = graphFilter;
+    this.computeKeys = computeKeys;
+    this.computeKeyNames = VertexProgramHelper.vertexComputeKeysAsSet(computeKeys);
+    this.viewKeyNames = new HashSet<>(computeKeyNames);
+    this.readOnly = readOnly;
+    this.includeEdges = includeEdges;
+
+    if (inheritedProperties != null)
+      for (Map.Entry<RID, Map<String, Object>> entry : inheritedProperties.entrySet()) {
+        computeProperties.put(entry.getKey(), new HashMap<>(entry.getValue()));
+        viewKeyNames.addAll(entry.getValue().keySet());
+      }
+  }
+
+  /**
+   * Returns the read-only view of a result graph with the properties computed, without the edges if `includeEdges` is false.
+   */
+  public static ArcadeGraphComputerView readOnly(final ArcadeGraph graph, final Map<RID, Map<String, Object>> properties, final boolean includeEdges) {
+    return new ArcadeGraphComputerView(graph, new GraphFilter(), Collections.emptySet(), properties, true, includeEdges);
+  }
+
+  public ArcadeGraph getGraph() {
+    return graph;
+  }
+
+  public GraphFilter getGraphFilter() {
+    return graphFilter;
+  }
+
+  public boolean isComputeKey(final String key) {
+    return computeKeyNames.contains(key);
+  }
+
+  /**
+   * Returns true if the values of the property are read from the view instead of from the records: compute keys and properties computed by a previous
+   * computation.
+   */
+  public boolean isViewKey(final String key) {
+    return viewKeyNames.contains(key);
+  }
+
+  public boolean isIncludeEdges() {
+    return includeEdges;
+  }
+
+  /**
+   * Returns all the properties in the view, keyed by the RID of the vertex.
+   */
+  public Map<RID, Map<String, Object>> getAllProperties() {
+    return Collections.unmodifiableMap(computeProperties);
+  }
+
+  public Map<String, Object> getProperties(final RID vertex) {
+    final Map<String, Object> properties = computeProperties.get(vertex);
+    return properties != null ? properties : Collections.emptyMap();
+  }
+
+  public Object getProperty(final RID vertex, final String key) {
+    final Map<String, Object> properties = computeProperties.get(vertex);
+    return properties != null ? properties.get(key) : null;
+  }
+
+  public void setProperty(final RID vertex, final String key, final Object value) {
+    if (readOnly)
+      throw Element.Exceptions.propertyAdditionNotSupported();
+    if (!isComputeKey(key))
+      throw GraphComputer.Exceptions.providedKeyIsNotAnElementComputeKey(key);
+    // EVERY VERTEX IS EXECUTED BY ONE WORKER ONLY
+    computeProperties.computeIfAbsent(vertex, k -> new HashMap<>()).put(key, value);
+  }
+
+  public void removeProperty(final RID vertex, final String key) {
+    if (readOnly)
+      throw Property.Exceptions.propertyRemovalNotSupported();
+    if (!isComputeKey(key))
+      throw GraphComputer.Exceptions.providedKeyIsNotAnElementComputeKey(key);
+    final Map<String, Object> properties = computeProperties.get(vertex);
+    if (properties != null)
+      properties.remove(key);
+  }
+
+  /**
+   * Returns true if the vertex passes the vertex filter. The result is cached because the check is repeated on the adjacent vertices.
+   */
+  public boolean legalVertex(final Vertex vertex) {
+    if (!graphFilter.hasVertexFilter())
+      return true;
+    return legalVertices.computeIfAbsent((RID) vertex.id(), k -> graphFilter.legalVertex(vertex));
+  }
+
+  /**
+   * Returns the edges of the vertex passing the edge filter and connecting to vertices passing the vertex filter.
+   */
+  public List<Edge> legalEdges(final Vertex vertex) {
+    final List<Edge> edges = new ArrayList<>();
+    final Iterator<Edge> iterator = graphFilter.hasEdgeFilter() ? graphFilter.legalEdges(vertex) : vertex.edges(Direction.BOTH);
+    while (iterator.hasNext()) {
+      final Edge edge = iterator.next();
+      if (legalVertex(edge.outVertex()) && legalVertex(edge.inVertex()))
+        edges.add(edge);
+    }
+    return edges;
+  }
+
+  /**
+   * Removes the transient properties at the end of the computation.
+   */
+  public void complete() {
+    final List<String> transientKeys = new ArrayList<>();
+    for (VertexComputeKey computeKey : computeKeys)
+      if (computeKey.isTransient())
+        transientKeys.add(computeKey.getKey());
+
+    if (!transientKeys.isEmpty())
+      for (Map<String, Object> properties : computeProperties.values())
+        properties.keySet().removeAll(transientKeys);
+  }
+
+  /**
+   * Returns the result graph of the computation. With {@link GraphComputer.ResultGraph#NEW} the database is not changed and the result is a read-only
+   * {@link ArcadeComputerResultGraph} overlaying the computed properties on the vertices. With {@link GraphComputer.ResultGraph#ORIGINAL} the computed
+   * properties are written to the vertices if the persist mode requires it. The changes are committed in batches of
+   * {@link com.arcadedb.GlobalConfiguration#GREMLIN_COMPUTER_COMMIT_EVERY} vertices.
+   *
+   * @param originalGraph graph the computer has been created from, returned as the result graph {@link GraphComputer.ResultGraph#ORIGINAL}
+   */
+  public Graph processResultGraphPersist(final GraphComputer.ResultGraph resultGraph, final GraphComputer.Persist persist, final Graph originalGraph,
+      final int commitEvery) {
+    if (persist == GraphComputer.Persist.NOTHING)
+      return resultGraph == GraphComputer.ResultGraph.NEW ? EmptyGraph.instance() : originalGraph;
+
+    if (resultGraph == GraphComputer.ResultGraph.NEW)
+      return new ArcadeComputerResultGraph(graph, computeProperties, persist == GraphComputer.Persist.EDGES);
+
+    if (originalGraph != graph)
+      // THE RESULT GRAPH OF A PREVIOUS COMPUTATION IS READ-ONLY
+      throw GraphComputer.Exceptions.resultGraphPersistCombinationNotSupported(resultGraph, persist);
+
+    final Database database = graph.getDatabase();
+    database.begin();
+    try {
+      int pending = 0;
+      for (Map.Entry<RID, Map<String, Object>> entry : computeProperties.entrySet()) {
+        if (entry.getValue().isEmpty())
+          continue;
+
+        final MutableDocument record;
+        try {
+          record = entry.getKey().asVertex().modify();
+        } catch (RecordNotFoundException e) {
+          LogManager.instance().log(this, Level.WARNING, "Cannot persist the computed properties of the deleted vertex %s", null, entry.getKey());
+          continue;
+        }
+
+        record.set(entry.getValue());
+        record.save();
+
+        if (++pending >= commitEvery) {
+          database.commit();
+          database.begin();
+          pending = 0;
+        }
+      }
+      database.commit();
+    } finally {
+      if (database.isTransactionActive())
+        database.rollback();
+    }
+    return graph;
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb.process.computer;
+
+import org.apache.tinkerpop.gremlin.process.computer.KeyValue;
+import org.apache.tinkerpop.gremlin.process.computer.MapReduce;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects the pairs emitted by the map stage. If the map reduce has a reduce stage the values are grouped by key.
+ */
+public class ArcadeMapEmitter<K, V> implements MapReduce.MapEmitter<K, V> {
+  protected     Map<K, Queue<V>>       reduceMap;
+  protected     Queue<KeyValue<K, V>> mapQueue;
+  private final boolean               doReduce;
+
+  public ArcadeMapEmitter(final boolean doReduce) {
+    this.doReduce = doReduce;
+    if (doReduce)
+      this.reduceMap = new ConcurrentHashMap<>();
+    else
+      this.mapQueue = new ConcurrentLinkedQueue<>();
+  }
+
+  @Override
+  public void emit(final K key, final V value) {
+    if (doReduce)
+      reduceMap.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()).add(value);
+    else
+      mapQueue.add(new KeyValue<>(key, value));
+  }
+
+  /**
+   * Sorts the emitted pairs if the map reduce defines a sort for the keys of the map stage.
+   */
+  protected void complete(final MapReduce<K, V, ?, ?, ?> mapReduce) {
+    final Optional<Comparator<K>> mapKeySort = mapReduce.getMapKeySort();
+    if (mapKeySort.isEmpty())
+      return;
+
+    if (doReduce) {
+      final List<Map.Entry<K, Queue<V>>> list = new ArrayList<>(reduceMap.entrySet());
+      list.sort(Map.Entry.comparingByKey(mapKeySort.get()));
+      reduceMap = new LinkedHashMap<>();
+      for (Map.Entry<K, Queue<V>> entry : list)
+        reduceMap.put(entry.getKey(), entry.getValue());
+    } else {
+      final List<KeyValue<K, V>> list = new ArrayList<>(mapQueue);
+      list.sort(Comparator.comparing(KeyValue::getKey, mapKeySort.get()));
+      mapQueue.clear();
+      mapQueue.addAll(list);
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb.process.computer;
+
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.computer.MapReduce;
+import org.apache.tinkerpop.gremlin.process.computer.Memory;
+import org.apache.tinkerpop.gremlin.process.computer.MemoryComputeKey;
+import org.apache.tinkerpop.gremlin.process.computer.VertexProgram;
+import org.apache.tinkerpop.gremlin.process.computer.util.MemoryHelper;
+import org.apache.tinkerpop.gremlin.process.traversal.Operator;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Memory shared by the workers of the {@link ArcadeGraphComputer}. The values added during a superstep are reduced in the current map and become visible
+ * in the next superstep.
+ */
+public class ArcadeMemory implements Memory.Admin {
+  private final    Map<String, MemoryComputeKey> memoryKeys = new HashMap<>();
+  private volatile Map<String, Object>           previousMap;
+  private final    Map<String, Object>           currentMap;
+  private final    AtomicInteger                 iteration  = new AtomicInteger(0);
+  private final    AtomicLong                    runtime    = new AtomicLong(0L);
+  private volatile boolean                       inExecute  = false;
+
+  public ArcadeMemory(final VertexProgram<?> vertexProgram, final Set<MapReduce> mapReducers) {
+    this.currentMap = new ConcurrentHashMap<>();
+    this.previousMap = new ConcurrentHashMap<>();
+    if (vertexProgram != null)
+      for (MemoryComputeKey memoryComputeKey : vertexProgram.getMemoryComputeKeys())
+        memoryKeys.put(memoryComputeKey.getKey(), memoryComputeKey);
+
+    for (MapReduce mapReduce : mapReducers)
+      memoryKeys.put(mapReduce.getMemoryKey(), MemoryComputeKey.of(mapReduce.getMemoryKey(), Operator.assign, false, false));
+  }
+
+  @Override
+  public Set<String> keys() {
+    return previousMap.keySet().stream().filter(key -> !inExecute || memoryKeys.get(key).isBroadcast()).collect(Collectors.toSet());
+  }
+
+  @Override
+  public void incrIteration() {
+    iteration.getAndIncrement();
+  }
+
+  @Override
+  public void setIteration(final int iteration) {
+    this.iteration.set(iteration);
+  }
+
+  @Override
+  public int getIteration() {
+    return iteration.get();
+  }
+
+  @Override
+  public void setRuntime(final long runtime) {
+    this.runtime.set(runtime);
+  }
+
+  @Override
+  public long getRuntime() {
+    return runtime.get();
+  }
+
+  @Override
+  public boolean isInitialIteration() {
+    return getIteration() == 0;
+  }
+
+  @Override
+  public <R> R get(final String key) throws IllegalArgumentException {
+    if (!memoryKeys.containsKey(key))
+      throw Memory.Exceptions.memoryDoesNotExist(key);
+    if (inExecute && !memoryKeys.get(key).isBroadcast())
+      throw Memory.Exceptions.memoryDoesNotExist(key);
+
+    final R value = (R) previousMap.get(key);
+    if (value == null)
+      throw Memory.Exceptions.memoryDoesNotExist(key);
+    return value;
+  }
+
+  @Override
+  public void add(final String key, final Object value) {
+    checkKeyValue(key, value);
+    if (!inExecute)
+      throw Memory.Exceptions.memoryAddOnlyDuringVertexProgramExecute(key);
+    currentMap.compute(key, (k, v) -> v == null ? value : memoryKeys.get(key).getReducer().apply(v, value));
+  }
+
+  @Override
+  public void set(final String key, final Object value) {
+    checkKeyValue(key, value);
+    if (inExecute)
+      throw Memory.Exceptions.memorySetOnlyDuringVertexProgramSetUpAndTerminate(key);
+    currentMap.put(key, value);
+  }
+
+  /**
+   * Called between the setup/terminate phase and the execute phase of every superstep: the values reduced so far become readable.
+   */
+  protected void completeSubRound() {
+    previousMap = new ConcurrentHashMap<>(currentMap);
+    inExecute = !inExecute;
+  }
+
+  /**
+   * Called at the end of the computation to remove the transient keys.
+   */
+  protected void complete() {
+    iteration.decrementAndGet();
+    previousMap = currentMap;
+    for (MemoryComputeKey computeKey : memoryKeys.values())
+      if (computeKey.isTransient())
+        previousMap.remove(computeKey.getKey());
+  }
+
+  @Override
+  public String toString() {
+    return StringFactory.memoryString(this);
+  }
+
+  private void checkKeyValue(final String key, final Object value) {
+    if (!memoryKeys.containsKey(key))
+      throw GraphComputer.Exceptions.providedKeyIsNotAMemoryComputeKey(key);
+    MemoryHelper.validateValue(value);
+  }
+}
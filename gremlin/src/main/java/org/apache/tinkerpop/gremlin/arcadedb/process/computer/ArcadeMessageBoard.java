@@ -0,0 +1,55 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb.process.computer;
+
+import com.arcadedb.database.RID;
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Messages of the current and of the next superstep, keyed by the RID of the vertex. Messages sent to a local scope are stored once under the sender
+ * and pulled by the receivers through their incident edges, so the memory used is proportional to the vertices and not to the edges. Messages sent to
+ * a global scope are stored under the receivers.
+ */
+public class ArcadeMessageBoard<M> {
+  private volatile Map<MessageScope, Map<RID, Queue<M>>> sendMessages    = new ConcurrentHashMap<>();
+  private volatile Map<MessageScope, Map<RID, Queue<M>>> receiveMessages = new ConcurrentHashMap<>();
+
+  public Map<RID, Queue<M>> getSendMessages(final MessageScope messageScope) {
+    return sendMessages.computeIfAbsent(messageScope, k -> new ConcurrentHashMap<>());
+  }
+
+  public Map<MessageScope, Map<RID, Queue<M>>> getReceiveMessages() {
+    return receiveMessages;
+  }
+
+  /**
+   * The messages sent in the superstep just completed become the messages to receive in the next one.
+   */
+  public void completeIteration() {
+    receiveMessages = sendMessages;
+    sendMessages = new ConcurrentHashMap<>();
+  }
+}
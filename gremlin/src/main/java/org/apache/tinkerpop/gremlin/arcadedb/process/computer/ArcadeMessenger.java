@@ -0,0 +1,171 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb.process.computer;
+
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.database.RID;
+import com.arcadedb.graph.EdgeLinkedList;
+import com.arcadedb.graph.GraphEngine;
+import com.arcadedb.graph.VertexInternal;
+import com.arcadedb.utility.Pair;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeGraph;
+import org.apache.tinkerpop.gremlin.process.computer.MessageCombiner;
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+import org.apache.tinkerpop.gremlin.process.computer.Messenger;
+import org.apache.tinkerpop.gremlin.process.computer.util.VertexProgramHelper;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.StartStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.apache.tinkerpop.gremlin.util.iterator.MultiIterator;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Messenger of a vertex. Messages sent to a local scope are stored under the sender and pulled by the receivers through their incident edges. When the
+ * incident traversal is a single step returning the edges and the graph is not filtered, the messages are pulled by reading the senders from the edge
+ * segments of the receiver, without loading the edge and vertex records.
+ */
+public class ArcadeMessenger<M> implements Messenger<M> {
+  private final ArcadeComputerVertex    vertex;
+  private final ArcadeMessageBoard<M>   messageBoard;
+  private final MessageCombiner<M>      combiner;
+  private final ArcadeGraphComputerView view;
+
+  public ArcadeMessenger(final ArcadeComputerVertex vertex, final ArcadeMessageBoard<M> messageBoard, final Optional<MessageCombiner<M>> combiner,
+      final ArcadeGraphComputerView view) {
+    this.vertex = vertex;
+    this.messageBoard = messageBoard;
+    this.combiner = combiner.orElse(null);
+    this.view = view;
+  }
+
+  @Override
+  public Iterator<M> receiveMessages() {
+    final MultiIterator<M> multiIterator = new MultiIterator<>();
+    for (Map.Entry<MessageScope, Map<RID, Queue<M>>> entry : messageBoard.getReceiveMessages().entrySet()) {
+      final MessageScope messageScope = entry.getKey();
+      final Map<RID, Queue<M>> messages = entry.getValue();
+
+      if (messageScope instanceof MessageScope.Local)
+        multiIterator.addIterator(receiveLocalMessages((MessageScope.Local<M>) messageScope, messages));
+      else {
+        final Queue<M> queue = messages.get(vertex.getIdentity());
+        if (queue != null)
+          multiIterator.addIterator(queue.iterator());
+      }
+    }
+
+    if (combiner == null || !multiIterator.hasNext())
+      return multiIterator;
+
+    M combined = multiIterator.next();
+    while (multiIterator.hasNext())
+      combined = combiner.combine(combined, multiIterator.next());
+    return IteratorUtils.of(combined);
+  }
+
+  @Override
+  public void sendMessage(final MessageScope messageScope, final M message) {
+    if (messageScope instanceof MessageScope.Local)
+      addMessage(messageScope, vertex.getIdentity(), message);
+    else
+      for (Vertex v : ((MessageScope.Global) messageScope).vertices())
+        addMessage(messageScope, (RID) v.id(), message);
+  }
+
+  private void addMessage(final MessageScope messageScope, final RID rid, final M message) {
+    messageBoard.getSendMessages(messageScope).compute(rid, (k, queue) -> {
+      if (queue == null)
+        queue = new ConcurrentLinkedQueue<>();
+      queue.add(combiner != null && !queue.isEmpty() ? combiner.combine(queue.remove(), message) : message);
+      return queue;
+    });
+  }
+
+  private Iterator<M> receiveLocalMessages(final MessageScope.Local<M> localMessageScope, final Map<RID, Queue<M>> messages) {
+    final Traversal.Admin<Vertex, Edge> incidentTraversal = localMessageScope.getIncidentTraversal().get().asAdmin();
+    final List<M> result = new ArrayList<>();
+
+    final List<Step> steps = incidentTraversal.getSteps();
+    if (!view.getGraphFilter().hasFilter() && steps.size() == 1 && steps.get(0) instanceof VertexStep && ((VertexStep<?>) steps.get(0)).returnsEdge()) {
+      // FAST PATH: READ THE SENDERS FROM THE EDGE SEGMENTS OF THE RECEIVER IN THE OPPOSITE DIRECTION
+      final VertexStep<?> step = (VertexStep<?>) steps.get(0);
+      final Direction direction = step.getDirection();
+      if (direction == Direction.BOTH) {
+        receiveFromEdgeSegments(Direction.IN, step.getEdgeLabels(), localMessageScope, messages, result);
+        receiveFromEdgeSegments(Direction.OUT, step.getEdgeLabels(), localMessageScope, messages, result);
+      } else
+        receiveFromEdgeSegments(direction.opposite(), step.getEdgeLabels(), localMessageScope, messages, result);
+      return result.iterator();
+    }
+
+    // GENERIC PATH: RUN THE REVERSED INCIDENT TRAVERSAL FROM THE RECEIVER
+    incidentTraversal.addStep(0, new StartStep<>(incidentTraversal, vertex));
+    final Direction direction = getDirection(incidentTraversal);
+    final Iterator<Edge> edges = VertexProgramHelper.reverse(incidentTraversal);
+    while (edges.hasNext()) {
+      final Edge edge = edges.next();
+      final Object sender;
+      if (direction == Direction.IN || direction == Direction.OUT)
+        sender = edge.vertices(direction).next().id();
+      else
+        sender = vertex.getIdentity().equals(edge.outVertex().id()) ? edge.inVertex().id() : edge.outVertex().id();
+
+      final Queue<M> queue = messages.get((RID) sender);
+      if (queue != null)
+        for (M message : queue)
+          result.add(localMessageScope.getEdgeFunction().apply(message, edge));
+    }
+    return result.iterator();
+  }
+
+  private void receiveFromEdgeSegments(final Direction direction, final String[] edgeLabels, final MessageScope.Local<M> localMessageScope,
+      final Map<RID, Queue<M>> messages, final List<M> result) {
+    final ArcadeGraph graph = view.getGraph();
+    final GraphEngine graphEngine = ((DatabaseInternal) graph.getDatabase()).getGraphEngine();
+    final EdgeLinkedList edgeList = graphEngine.getEdgeHeadChunk((VertexInternal) vertex.getBaseElement(), ArcadeGraph.mapDirection(direction));
+    if (edgeList == null)
+      return;
+
+    final Iterator<Pair<RID, RID>> entries = edgeList.entryIterator(edgeLabels);
+    while (entries.hasNext()) {
+      final Pair<RID, RID> entry = entries.next();
+      final Queue<M> queue = messages.get(entry.getSecond());
+      if (queue != null)
+        for (M message : queue)
+          // THE EDGE RECORD IS LOADED ONLY IF THE EDGE FUNCTION READS IT
+          result.add(localMessageScope.getEdgeFunction().apply(message, graph.wrapEdge(entry.getFirst().asEdge(false))));
+    }
+  }
+
+  private static Direction getDirection(final Traversal.Admin<Vertex, Edge> incidentTraversal) {
+    final VertexStep step = TraversalHelper.getLastStepOfAssignableClass(VertexStep.class, incidentTraversal).get();
+    return step.getDirection();
+  }
+}
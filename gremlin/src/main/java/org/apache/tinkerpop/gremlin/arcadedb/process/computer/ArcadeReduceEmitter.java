@@ -0,0 +1,54 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb.process.computer;
+
+import org.apache.tinkerpop.gremlin.process.computer.KeyValue;
+import org.apache.tinkerpop.gremlin.process.computer.MapReduce;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects the pairs emitted by the reduce stage.
+ */
+public class ArcadeReduceEmitter<OK, OV> implements MapReduce.ReduceEmitter<OK, OV> {
+  protected final Queue<KeyValue<OK, OV>> reduceQueue = new ConcurrentLinkedQueue<>();
+
+  @Override
+  public void emit(final OK key, final OV value) {
+    reduceQueue.add(new KeyValue<>(key, value));
+  }
+
+  /**
+   * Sorts the emitted pairs if the map reduce defines a sort for the keys of the reduce stage.
+   */
+  protected void complete(final MapReduce<?, ?, OK, OV, ?> mapReduce) {
+    final Optional<Comparator<OK>> reduceKeySort = mapReduce.getReduceKeySort();
+    if (reduceKeySort.isEmpty())
+      return;
+
+    final List<KeyValue<OK, OV>> list = new ArrayList<>(reduceQueue);
+    list.sort(Comparator.comparing(KeyValue::getKey, reduceKeySort.get()));
+    reduceQueue.clear();
+    reduceQueue.addAll(list);
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb.process.traversal.step.map;
+
+import com.arcadedb.database.Database;
+import com.arcadedb.schema.DocumentType;
+import com.arcadedb.schema.EdgeType;
+import com.arcadedb.schema.VertexType;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeGraph;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Start step that counts the vertices or the edges of the selected types (or of all the types) from the record counters of the buckets, without loading
+ * the records.
+ */
+public class ArcadeCountGlobalStep<S extends Element> extends AbstractStep<S, Long> {
+  private final Class<S>    elementClass;
+  private final Set<String> typeNames;
+  private       boolean     done = false;
+
+  public ArcadeCountGlobalStep(final Traversal.Admin traversal, final Class<S> elementClass, final Set<String> typeNames) {
+    super(traversal);
+    this.elementClass = elementClass;
+    this.typeNames = typeNames;
+  }
+
+  @Override
+  protected Traverser.Admin<Long> processNextStart() throws NoSuchElementException {
+    if (done)
+      throw FastNoSuchElementException.instance();
+
+    done = true;
+
+    final ArcadeGraph graph = (ArcadeGraph) getTraversal().getGraph().get();
+    graph.tx().readWrite();
+
+    final Database database = graph.getDatabase();
+    final boolean vertices = Vertex.class.isAssignableFrom(elementClass);
+
+    long total = 0;
+    for (DocumentType type : database.getSchema().getTypes())
+      if ((vertices ? type instanceof VertexType : type instanceof EdgeType) && (typeNames == null || typeNames.contains(type.getName())))
+        total += database.countType(type.getName(), false);
+
+    return getTraversal().getTraverserGenerator().generate(total, (AbstractStep) this, 1L);
+  }
+
+  @Override
+  public String toString() {
+    return StringFactory.stepString(this, elementClass.getSimpleName().toLowerCase(), typeNames);
+  }
+
+  @Override
+  public int hashCode() {
+    return super.hashCode() ^ elementClass.hashCode() ^ (typeNames != null ? typeNames.hashCode() : 0);
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    done = false;
+  }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb.process.traversal.step.sideEffect;
+
+import com.arcadedb.database.Database;
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.database.Identifiable;
+import com.arcadedb.database.RID;
+import com.arcadedb.database.Record;
+import com.arcadedb.exception.RecordNotFoundException;
+import com.arcadedb.index.Index;
+import com.arcadedb.index.IndexCursor;
+import com.arcadedb.index.TypeIndex;
+import com.arcadedb.schema.DocumentType;
+import com.arcadedb.schema.EdgeType;
+import com.arcadedb.schema.VertexType;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeGraph;
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.AndP;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.stream.Stream;
+
+/**
+ * Graph step that folds the following has() steps and the upper bound of the following range() step. The elements are fetched by scanning only the
+ * types selected by hasLabel() and, when possible, by looking up a type index on the property of a has() predicate: equality and within predicates use
+ * the index lookup, comparison predicates use the range of an ordered index. All the predicates are always checked again on the fetched elements,
+ * because the indexes are only used to restrict the candidates.
+ * <p>
+ * The range of the indexes does not read the pending changes of the current transaction, so the indexes are used only when the current transaction
+ * has no pending index changes.
+ */
+public class ArcadeGraphStep<S, E extends Element> extends GraphStep<S, E> implements HasContainerHolder {
+  private final List<HasContainer> hasContainers = new ArrayList<>();
+  private       long               limit         = -1;
+
+  public ArcadeGraphStep(final GraphStep<S, E> originalGraphStep) {
+    super(originalGraphStep.getTraversal(), originalGraphStep.getReturnClass(), originalGraphStep.isStartStep(), originalGraphStep.getIds());
+    originalGraphStep.getLabels().forEach(this::addLabel);
+    this.setIteratorSupplier(this::elements);
+  }
+
+  @Override
+  public List<HasContainer> getHasContainers() {
+    return Collections.unmodifiableList(hasContainers);
+  }
+
+  @Override
+  public void addHasContainer(final HasContainer hasContainer) {
+    if (hasContainer.getPredicate() instanceof AndP) {
+      // SPLIT AND PREDICATES (LIKE BETWEEN AND INSIDE) SO THE BOUNDS CAN BE USED FOR INDEX RANGES
+      for (Object predicate : ((AndP<?>) hasContainer.getPredicate()).getPredicates())
+        addHasContainer(new HasContainer(hasContainer.getKey(), (P<?>) predicate));
+    } else
+      hasContainers.add(hasContainer);
+  }
+
+  /**
+   * Returns the maximum number of elements returned by the step, -1 for no limit.
+   */
+  public long getLimit() {
+    return limit;
+  }
+
+  public void setLimit(final long limit) {
+    this.limit = limit;
+  }
+
+  /**
+   * Returns the type names selected by the hasLabel() predicates, or null if the labels are not restricted.
+   */
+  public Set<String> getTypeNames() {
+    Set<String> labels = null;
+    for (HasContainer hasContainer : hasContainers) {
+      if (!hasContainer.getKey().equals(T.label.getAccessor()))
+        continue;
+
+      final Set<String> current = new HashSet<>();
+      final BiPredicate<?, ?> predicate = hasContainer.getBiPredicate();
+      if (predicate == Compare.eq)
+        current.add(String.valueOf(hasContainer.getValue()));
+      else if (predicate == Contains.within && hasContainer.getValue() instanceof Collection)
+        for (Object value : (Collection<?>) hasContainer.getValue())
+          current.add(String.valueOf(value));
+      else
+        continue;
+
+      if (labels == null)
+        labels = current;
+      else
+        labels.retainAll(current);
+    }
+    return labels;
+  }
+
+  @Override
+  public String toString() {
+    final String suffix = limit > -1 ? "limit(" + limit + ")" : null;
+    if (hasContainers.isEmpty() && suffix == null)
+      return super.toString();
+
+    final String returnClassName = returnClass.getSimpleName().toLowerCase();
+    final List<Object> arguments = new ArrayList<>();
+    arguments.add(returnClassName);
+    if (ids.length > 0)
+      arguments.add(Arrays.toString(ids));
+    if (!hasContainers.isEmpty())
+      arguments.add(hasContainers);
+    if (suffix != null)
+      arguments.add(suffix);
+    return StringFactory.stepString(this, arguments.toArray());
+  }
+
+  @Override
+  public int hashCode() {
+    return super.hashCode() ^ hasContainers.hashCode() ^ Long.hashCode(limit);
+  }
+
+  private Iterator<E> elements() {
+    final ArcadeGraph graph = (ArcadeGraph) getTraversal().getGraph().get();
+    final boolean vertices = Vertex.class.isAssignableFrom(returnClass);
+
+    Stream<Element> stream;
+    if (ids != null && ids.length > 0)
+      stream = IteratorUtils.stream(vertices ? (Iterator<Element>) (Iterator) graph.vertices(ids) : (Iterator<Element>) (Iterator) graph.edges(ids));
+    else {
+      graph.tx().readWrite();
+
+      final Database database = graph.getDatabase();
+      final boolean useIndexes = ((DatabaseInternal) database).getTransaction().getIndexChanges().getTotalEntries() == 0;
+      final Set<String> labels = getTypeNames();
+
+      final List<DocumentType> types = new ArrayList<>();
+      for (DocumentType type : database.getSchema().getTypes())
+        if ((vertices ? type instanceof VertexType : type instanceof EdgeType) && (labels == null || labels.contains(type.getName())))
+          types.add(type);
+
+      stream = types.stream().flatMap(type -> IteratorUtils.stream(fetch(database, type, useIndexes)))//
+          .map(record -> vertices ? (Element) graph.wrapVertex(record.asVertex()) : (Element) graph.wrapEdge(record.asEdge()));
+    }
+
+    stream = stream.filter(element -> HasContainer.testAll(element, hasContainers));
+    if (limit > -1)
+      stream = stream.limit(limit);
+
+    return (Iterator<E>) stream.iterator();
+  }
+
+  /**
+   * Returns the records of the type (subtypes excluded) that are candidates for the predicates.
+   */
+  private Iterator<Record> fetch(final Database database, final DocumentType type, final boolean useIndexes) {
+    if (useIndexes) {
+      // LOOK FOR AN EQUALITY PREDICATE FIRST, THEN FOR A RANGE
+      for (HasContainer hasContainer : hasContainers) {
+        final TypeIndex index = getIndex(type, hasContainer.getKey());
+        if (index == null)
+          continue;
+
+        final BiPredicate<?, ?> predicate = hasContainer.getBiPredicate();
+        final Object value = hasContainer.getValue();
+        if (predicate == Compare.eq && value != null)
+          return lookup(database, Collections.singletonList(index.get(new Object[] { value })));
+
+        if (predicate == Contains.within && value instanceof Collection && !((Collection<?>) value).contains(null)) {
+          final List<IndexCursor> cursors = new ArrayList<>();
+          for (Object v : (Collection<?>) value)
+            cursors.add(index.get(new Object[] { v }));
+          return lookup(database, cursors);
+        }
+      }
+
+      for (HasContainer hasContainer : hasContainers) {
+        final TypeIndex index = getIndex(type, hasContainer.getKey());
+        if (index == null || !index.supportsOrderedIterations())
+          continue;
+
+        HasContainer lower = null;
+        HasContainer upper = null;
+        for (HasContainer c : hasContainers) {
+          if (!c.getKey().equals(hasContainer.getKey()) || c.getValue() == null)
+            continue;
+
+          final BiPredicate<?, ?> predicate = c.getBiPredicate();
+          if (predicate == Compare.gt || predicate == Compare.gte)
+            lower = c;
+          else if (predicate == Compare.lt || predicate == Compare.lte)
+            upper = c;
+        }
+
+        if (lower != null && upper != null)
+          return lookup(database, Collections.singletonList(
+              index.range(new Object[] { lower.getValue() }, lower.getBiPredicate() == Compare.gte, new Object[] { upper.getValue() },
+                  upper.getBiPredicate() == Compare.lte)));
+        else if (lower != null)
+          return lookup(database,
+              Collections.singletonList(index.iterator(true, new Object[] { lower.getValue() }, lower.getBiPredicate() == Compare.gte)));
+        else if (upper != null)
+          return lookup(database,
+              Collections.singletonList(index.iterator(false, new Object[] { upper.getValue() }, upper.getBiPredicate() == Compare.lte)));
+      }
+    }
+
+    return database.iterateType(type.getName(), false);
+  }
+
+  /**
+   * Returns the index defined on the type (not inherited) on the only property, or null if not found.
+   */
+  private static TypeIndex getIndex(final DocumentType type, final String propertyName) {
+    if (Graph.Hidden.isHidden(propertyName))
+      return null;
+
+    for (Index index : type.getAllIndexes(false)) {
+      final String[] propertyNames = index.getPropertyNames();
+      if (index instanceof TypeIndex && propertyNames.length == 1 && propertyNames[0].equals(propertyName))
+        return (TypeIndex) index;
+    }
+    return null;
+  }
+
+  /**
+   * Loads the records pointed by the index cursors, skipping duplicated and deleted entries.
+   */
+  private static Iterator<Record> lookup(final Database database, final List<IndexCursor> cursors) {
+    final Set<RID> visited = new HashSet<>();
+    return cursors.stream().flatMap(cursor -> IteratorUtils.stream((Iterator<Identifiable>) cursor))//
+        .map(Identifiable::getIdentity)//
+        .filter(visited::add)//
+        .map(rid -> {
+          try {
+            return database.lookupByRID(rid, true);
+          } catch (RecordNotFoundException e) {
+            // DELETED RECORD STILL IN THE INDEX
+            return null;
+          }
+        })//
+        .filter(Objects::nonNull)//
+        .iterator();
+  }
+}
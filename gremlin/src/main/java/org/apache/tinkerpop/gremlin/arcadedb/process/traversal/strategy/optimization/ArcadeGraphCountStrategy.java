@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.arcadedb.process.traversal.step.map.ArcadeCountGlobalStep;
+import org.apache.tinkerpop.gremlin.arcadedb.process.traversal.step.sideEffect.ArcadeGraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.T;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Replaces g.V().count() and g.E().count(), optionally restricted with hasLabel(), with a step that sums the record counters of the buckets of the
+ * selected types, so the records are not loaded.
+ */
+public class ArcadeGraphCountStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+    implements TraversalStrategy.ProviderOptimizationStrategy {
+  private static final ArcadeGraphCountStrategy INSTANCE = new ArcadeGraphCountStrategy();
+
+  private ArcadeGraphCountStrategy() {
+  }
+
+  @Override
+  public void apply(final Traversal.Admin<?, ?> traversal) {
+    if (!(traversal.getParent() instanceof EmptyStep) || TraversalHelper.onGraphComputer(traversal))
+      return;
+
+    final List<Step> steps = traversal.getSteps();
+    if (steps.size() < 2 || !(steps.get(0) instanceof ArcadeGraphStep) || !(steps.get(1) instanceof CountGlobalStep))
+      return;
+
+    final ArcadeGraphStep<?, ?> graphStep = (ArcadeGraphStep<?, ?>) steps.get(0);
+    if (graphStep.getIds().length > 0 || !graphStep.getLabels().isEmpty() || graphStep.getLimit() > -1)
+      return;
+
+    // ONLY THE EQUALITY AND WITHIN PREDICATES ON THE LABEL CAN BE RESOLVED BY COUNTING THE BUCKETS
+    for (HasContainer hasContainer : graphStep.getHasContainers())
+      if (!hasContainer.getKey().equals(T.label.getAccessor()) || (hasContainer.getBiPredicate() != Compare.eq
+          && hasContainer.getBiPredicate() != Contains.within))
+        return;
+
+    final Set<String> typeNames = graphStep.getTypeNames();
+
+    final Step<?, ?> countStep = steps.get(1);
+    final ArcadeCountGlobalStep<?> arcadeCountStep = new ArcadeCountGlobalStep<>(traversal, graphStep.getReturnClass(), typeNames);
+    TraversalHelper.copyLabels(countStep, arcadeCountStep, false);
+
+    traversal.removeStep(countStep);
+    TraversalHelper.replaceStep((Step) graphStep, arcadeCountStep, traversal);
+  }
+
+  @Override
+  public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+    return Collections.singleton(ArcadeGraphStepStrategy.class);
+  }
+
+  public static ArcadeGraphCountStrategy instance() {
+    return INSTANCE;
+  }
+}
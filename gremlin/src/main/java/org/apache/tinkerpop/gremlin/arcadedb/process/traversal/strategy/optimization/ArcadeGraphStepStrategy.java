@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.arcadedb.process.traversal.step.sideEffect.ArcadeGraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+
+/**
+ * Replaces the graph steps with {@link ArcadeGraphStep} folding the following has() steps, so hasLabel() restricts the scan to the selected types and
+ * the has() predicates can use the type indexes. The upper bound of a following range() or limit() step is pushed down as a limit of the elements to
+ * fetch. The range step is left in the traversal because it also applies the lower bound.
+ */
+public class ArcadeGraphStepStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+    implements TraversalStrategy.ProviderOptimizationStrategy {
+  private static final ArcadeGraphStepStrategy INSTANCE = new ArcadeGraphStepStrategy();
+
+  private ArcadeGraphStepStrategy() {
+  }
+
+  @Override
+  public void apply(final Traversal.Admin<?, ?> traversal) {
+    if (TraversalHelper.onGraphComputer(traversal))
+      return;
+
+    for (final GraphStep originalGraphStep : TraversalHelper.getStepsOfClass(GraphStep.class, traversal)) {
+      final ArcadeGraphStep<?, ?> arcadeGraphStep = new ArcadeGraphStep<>(originalGraphStep);
+      TraversalHelper.replaceStep(originalGraphStep, arcadeGraphStep, traversal);
+
+      Step<?, ?> currentStep = arcadeGraphStep.getNextStep();
+      while (currentStep instanceof HasStep || currentStep instanceof NoOpBarrierStep) {
+        if (currentStep instanceof HasStep) {
+          for (final HasContainer hasContainer : ((HasContainerHolder) currentStep).getHasContainers())
+            if (!GraphStep.processHasContainerIds(arcadeGraphStep, hasContainer))
+              arcadeGraphStep.addHasContainer(hasContainer);
+
+          TraversalHelper.copyLabels(currentStep, currentStep.getPreviousStep(), false);
+          traversal.removeStep(currentStep);
+        }
+        currentStep = currentStep.getNextStep();
+      }
+
+      if (currentStep instanceof RangeGlobalStep && currentStep.getPreviousStep() == arcadeGraphStep) {
+        // THE ELEMENTS AFTER THE UPPER BOUND ARE DISCARDED ANYWAY
+        final long highRange = ((RangeGlobalStep<?>) currentStep).getHighRange();
+        if (highRange > -1)
+          arcadeGraphStep.setLimit(highRange);
+      }
+    }
+  }
+
+  public static ArcadeGraphStepStrategy instance() {
+    return INSTANCE;
+  }
+}
@@ -21,16 +21,14 @@
 
 package org.apache.tinkerpop.gremlin.arcadedb.structure;
 
-import org.opencypher.gremlin.translation.TranslationFacade;
-
 /**
- * Cypher Expression builder. Transform a cypher expression into Gremlin.
+ * Cypher Expression builder. Transform a cypher expression into Gremlin. The translations are cached by the executor of the graph.
  *
  * @author Luca Garulli (l.garulli@arcadedata.com)
  */
 
 public class ArcadeCypher extends ArcadeGremlin {
   protected ArcadeCypher(final ArcadeGraph graph, final String query) {
-    super(graph, new TranslationFacade().toGremlinGroovy(query));
+    super(graph, graph.getGremlinExecutor().translateCypher(query));
   }
 }
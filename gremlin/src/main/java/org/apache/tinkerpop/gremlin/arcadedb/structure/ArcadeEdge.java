@@ -21,7 +21,7 @@
 
 package org.apache.tinkerpop.gremlin.arcadedb.structure;
 
-import com.arcadedb.graph.MutableEdge;
+import com.arcadedb.database.MutableDocument;
 import org.apache.commons.collections.iterators.ArrayIterator;
 import org.apache.commons.collections.iterators.SingletonIterator;
 import org.apache.tinkerpop.gremlin.structure.Direction;
@@ -39,32 +39,32 @@ import java.util.Set;
 /**
  * Created by Enrico Risa on 30/07/2018.
  */
-public class ArcadeEdge extends ArcadeElement<MutableEdge> implements Edge {
+public class ArcadeEdge extends ArcadeElement<com.arcadedb.graph.Edge> implements Edge {
 
-  protected ArcadeEdge(final ArcadeGraph graph, final MutableEdge baseElement) {
+  protected ArcadeEdge(final ArcadeGraph graph, final com.arcadedb.graph.Edge baseElement) {
     super(graph, baseElement);
   }
 
   @Override
   public Vertex outVertex() {
-    return new ArcadeVertex(graph, baseElement.getOutVertex().modify());
+    return new ArcadeVertex(graph, baseElement.getOutVertex());
   }
 
   @Override
   public Vertex inVertex() {
-    return new ArcadeVertex(graph, baseElement.getInVertex().modify());
+    return new ArcadeVertex(graph, baseElement.getInVertex());
   }
 
   @Override
   public Iterator<Vertex> vertices(final Direction direction) {
     switch (direction) {
     case IN:
-      return new SingletonIterator(new ArcadeVertex(graph, baseElement.getInVertex().modify()));
+      return new SingletonIterator(new ArcadeVertex(graph, baseElement.getInVertex()));
     case OUT:
-      return new SingletonIterator(new ArcadeVertex(graph, baseElement.getOutVertex().modify()));
+      return new SingletonIterator(new ArcadeVertex(graph, baseElement.getOutVertex()));
     case BOTH:
       return new ArrayIterator(
-          new Vertex[] { new ArcadeVertex(graph, baseElement.getOutVertex().modify()), new ArcadeVertex(graph, baseElement.getInVertex().modify()) });
+          new Vertex[] { new ArcadeVertex(graph, baseElement.getOutVertex()), new ArcadeVertex(graph, baseElement.getInVertex()) });
     default:
       throw new IllegalArgumentException("Direction " + direction + " not supported");
     }
@@ -75,8 +75,9 @@ public class ArcadeEdge extends ArcadeElement<MutableEdge> implements Edge {
     ElementHelper.validateProperty(key, value);
     ArcadeProperty.validateValue(value);
     this.graph.tx().readWrite();
-    baseElement.set(key, value);
-    baseElement.save();
+    final MutableDocument record = modifyBaseElement();
+    record.set(key, value);
+    record.save();
     return new ArcadeProperty<>(this, key, value);
   }
 
@@ -21,6 +21,7 @@
 
 package org.apache.tinkerpop.gremlin.arcadedb.structure;
 
+import com.arcadedb.database.Document;
 import com.arcadedb.database.MutableDocument;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Graph;
@@ -31,10 +32,13 @@ import java.util.*;
 
 /**
  * Created by Enrico Risa on 30/07/2018.
+ * <p>
+ * The wrapped record is the immutable one returned by the database, so the properties are read directly from the record buffer without copying it. The
+ * record is replaced by its mutable copy at the first write.
  */
-public abstract class ArcadeElement<T extends MutableDocument> implements Element {
+public abstract class ArcadeElement<T extends Document> implements Element {
 
-  protected final T           baseElement;
+  protected       T           baseElement;
   protected final ArcadeGraph graph;
 
   protected ArcadeElement(final ArcadeGraph graph, final T baseElement) {
@@ -106,4 +110,13 @@ public abstract class ArcadeElement<T extends MutableDocument> implements Elemen
   public T getBaseElement() {
     return baseElement;
   }
+
+  /**
+   * Returns the mutable record to change, promoting the wrapped record to mutable if it is still immutable.
+   */
+  public MutableDocument modifyBaseElement() {
+    if (!(baseElement instanceof MutableDocument))
+      baseElement = (T) baseElement.modify();
+    return (MutableDocument) baseElement;
+  }
 }
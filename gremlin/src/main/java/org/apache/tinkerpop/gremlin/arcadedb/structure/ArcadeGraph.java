@@ -27,7 +27,6 @@ import com.arcadedb.database.RID;
 import com.arcadedb.database.Record;
 import com.arcadedb.engine.Bucket;
 import com.arcadedb.exception.RecordNotFoundException;
-import com.arcadedb.graph.MutableEdge;
 import com.arcadedb.graph.MutableVertex;
 import com.arcadedb.query.sql.executor.ResultSet;
 import com.arcadedb.schema.DocumentType;
@@ -36,8 +35,12 @@ import com.arcadedb.schema.VertexType;
 import com.arcadedb.utility.FileUtils;
 import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.arcadedb.process.computer.ArcadeGraphComputer;
+import org.apache.tinkerpop.gremlin.arcadedb.process.traversal.strategy.optimization.ArcadeGraphCountStrategy;
+import org.apache.tinkerpop.gremlin.arcadedb.process.traversal.strategy.optimization.ArcadeGraphStepStrategy;
 import org.apache.tinkerpop.gremlin.arcadedb.structure.io.ArcadeIoRegistry;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
 import org.apache.tinkerpop.gremlin.structure.*;
 import org.apache.tinkerpop.gremlin.structure.io.Io;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
@@ -61,12 +64,18 @@ public class ArcadeGraph implements Graph {
   private final   ArcadeGraphTransaction transaction;
   protected final Database               database;
   protected final BaseConfiguration      configuration  = new BaseConfiguration();
+  private volatile ArcadeGremlinExecutor gremlinExecutor;
 
   private final static Iterator<Vertex> EMPTY_VERTICES = Collections.emptyIterator();
   private final static Iterator<Edge>   EMPTY_EDGES    = Collections.emptyIterator();
 
   protected Features features = new ArcadeGraphFeatures();
 
+  static {
+    TraversalStrategies.GlobalCache.registerStrategies(ArcadeGraph.class, TraversalStrategies.GlobalCache.getStrategies(Graph.class).clone()
+        .addStrategies(ArcadeGraphStepStrategy.instance(), ArcadeGraphCountStrategy.instance()));
+  }
+
   protected ArcadeGraph(final Configuration configuration) {
     this.configuration.copy(configuration);
     final String directory = this.configuration.getString(CONFIG_DIRECTORY);
@@ -122,6 +131,37 @@ public class ArcadeGraph implements Graph {
     return new ArcadeSQL(this, query);
   }
 
+  /**
+   * Returns the long-lived executor of the Gremlin and Cypher queries, created at the first use.
+   */
+  public ArcadeGremlinExecutor getGremlinExecutor() {
+    if (gremlinExecutor == null) {
+      synchronized (this) {
+        if (gremlinExecutor == null)
+          gremlinExecutor = new ArcadeGremlinExecutor(this);
+      }
+    }
+    return gremlinExecutor;
+  }
+
+  /**
+   * Releases the Gremlin executor and its caches without closing the database. A new executor is created at the next query.
+   */
+  public synchronized void closeGremlinExecutor() {
+    if (gremlinExecutor != null) {
+      gremlinExecutor.close();
+      gremlinExecutor = null;
+    }
+  }
+
+  /**
+   * Returns the statistics of the caches of the compiled Gremlin scripts and of the Cypher translations.
+   */
+  public Map<String, Object> getStats() {
+    final ArcadeGremlinExecutor executor = gremlinExecutor;
+    return executor != null ? executor.getStats() : Collections.emptyMap();
+  }
+
   @Override
   public Vertex addVertex(final Object... keyValues) {
     ElementHelper.legalPropertyKeyValueArray(keyValues);
@@ -143,12 +183,14 @@ public class ArcadeGraph implements Graph {
 
   @Override
   public <C extends GraphComputer> C compute(Class<C> graphComputerClass) throws IllegalArgumentException {
-    throw Graph.Exceptions.graphComputerNotSupported();
+    if (!graphComputerClass.equals(ArcadeGraphComputer.class))
+      throw Graph.Exceptions.graphDoesNotSupportProvidedGraphComputer(graphComputerClass);
+    return (C) new ArcadeGraphComputer(this);
   }
 
   @Override
   public GraphComputer compute() throws IllegalArgumentException {
-    throw Graph.Exceptions.graphComputerNotSupported();
+    return new ArcadeGraphComputer(this);
   }
 
   @Override
@@ -179,7 +221,7 @@ public class ArcadeGraph implements Graph {
       query.append("]");
 
       final ResultSet resultset = this.database.query("sql", query.toString());
-      return resultset.stream().map(result -> (Vertex) new ArcadeVertex(this, (MutableVertex) (result.toElement()).modify())).iterator();
+      return resultset.stream().map(result -> (Vertex) new ArcadeVertex(this, (com.arcadedb.graph.Vertex) result.toElement())).iterator();
 
     }
 
@@ -201,7 +243,7 @@ public class ArcadeGraph implements Graph {
       try {
         final Record r = database.lookupByRID(rid, true);
         if (r instanceof com.arcadedb.graph.Vertex)
-          resultset.add(new ArcadeVertex(this, ((com.arcadedb.graph.Vertex) r).modify()));
+          resultset.add(new ArcadeVertex(this, (com.arcadedb.graph.Vertex) r));
       } catch (RecordNotFoundException e) {
         // NP, IGNORE IT
       }
@@ -239,7 +281,7 @@ public class ArcadeGraph implements Graph {
       query.append("]");
 
       final ResultSet resultset = this.database.query("sql", query.toString());
-      return resultset.stream().map(result -> (Edge) new ArcadeEdge(this, (MutableEdge) (result.toElement()).modify())).iterator();
+      return resultset.stream().map(result -> (Edge) new ArcadeEdge(this, (com.arcadedb.graph.Edge) result.toElement())).iterator();
 
     }
 
@@ -261,7 +303,7 @@ public class ArcadeGraph implements Graph {
       try {
         final Record r = database.lookupByRID(rid, true);
         if (r instanceof com.arcadedb.graph.Edge)
-          resultset.add(new ArcadeEdge(this, ((com.arcadedb.graph.Edge) r).modify()));
+          resultset.add(new ArcadeEdge(this, (com.arcadedb.graph.Edge) r));
       } catch (RecordNotFoundException e) {
         // NP, IGNORE IT
       }
@@ -282,6 +324,8 @@ public class ArcadeGraph implements Graph {
 
   @Override
   public void close() {
+    closeGremlinExecutor();
+
     if (this.database != null) {
       if (this.database.isTransactionActive())
         this.database.commit();
@@ -320,6 +364,20 @@ public class ArcadeGraph implements Graph {
     return database;
   }
 
+  /**
+   * Wraps a vertex record of the database in a Gremlin vertex.
+   */
+  public ArcadeVertex wrapVertex(final com.arcadedb.graph.Vertex vertex) {
+    return new ArcadeVertex(this, vertex);
+  }
+
+  /**
+   * Wraps an edge record of the database in a Gremlin edge.
+   */
+  public ArcadeEdge wrapEdge(final com.arcadedb.graph.Edge edge) {
+    return new ArcadeEdge(this, edge);
+  }
+
   @Override
   public boolean equals(final Object o) {
     if (this == o)
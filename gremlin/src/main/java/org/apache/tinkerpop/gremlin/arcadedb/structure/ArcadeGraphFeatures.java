@@ -64,7 +64,7 @@ public class ArcadeGraphFeatures implements Graph.Features {
 
     @Override
     public boolean supportsComputer() {
-      return false;
+      return true;
     }
 
     @Override
@@ -24,20 +24,15 @@ package org.apache.tinkerpop.gremlin.arcadedb.structure;
 import com.arcadedb.query.sql.executor.IteratorResultSet;
 import com.arcadedb.query.sql.executor.ResultInternal;
 import com.arcadedb.query.sql.executor.ResultSet;
-import org.apache.tinkerpop.gremlin.groovy.engine.GremlinExecutor;
-import org.apache.tinkerpop.gremlin.jsr223.ConcurrentBindings;
-import org.apache.tinkerpop.gremlin.process.traversal.AnonymousTraversalSource;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
-import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
 
 import java.util.Iterator;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Gremlin Expression builder.
+ * Gremlin Expression builder. The scripts are evaluated by the long-lived executor of the graph, that caches the compiled scripts.
  *
  * @author Luca Garulli (l.garulli@arcadedata.com)
  */
@@ -51,25 +46,7 @@ public class ArcadeGremlin extends ArcadeQuery {
 
   @Override
   public ResultSet execute() throws ExecutionException, InterruptedException {
-    final GraphTraversalSource g = AnonymousTraversalSource.traversal().withEmbedded(graph);
-
-    final ConcurrentBindings b = new ConcurrentBindings();
-    b.putIfAbsent("g", g);
-
-    if (parameters != null)
-      // BIND THE PARAMETERS
-      for (Map.Entry<String, Object> entry : parameters.entrySet())
-        b.put(entry.getKey(), entry.getValue());
-
-    final GremlinExecutor.Builder builder = GremlinExecutor.build();
-    builder.globalBindings(b);
-    if (timeout != null)
-      builder.evaluationTimeout(timeout);
-    final GremlinExecutor ge = builder.create();
-
-    final CompletableFuture<Object> evalResult = ge.eval(query);
-
-    final GraphTraversal resultSet = (GraphTraversal) evalResult.get();
+    final GraphTraversal resultSet = (GraphTraversal) graph.getGremlinExecutor().eval(query, parameters, timeout);
 
     return new IteratorResultSet(new Iterator() {
       @Override
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb.structure;
+
+import com.arcadedb.ContextConfiguration;
+import com.arcadedb.GlobalConfiguration;
+import com.arcadedb.log.LogManager;
+import org.apache.tinkerpop.gremlin.groovy.engine.GremlinExecutor;
+import org.apache.tinkerpop.gremlin.groovy.jsr223.GremlinGroovyScriptEngine;
+import org.apache.tinkerpop.gremlin.groovy.jsr223.GroovyCompilerGremlinPlugin;
+import org.apache.tinkerpop.gremlin.jsr223.ConcurrentBindings;
+import org.apache.tinkerpop.gremlin.process.traversal.AnonymousTraversalSource;
+import org.opencypher.gremlin.translation.TranslationFacade;
+
+import javax.script.Bindings;
+import javax.script.SimpleBindings;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Long-lived Gremlin executor of a graph. The Groovy script engine keeps the compiled scripts in a LRU cache keyed by the script text, so a script is
+ * compiled only the first time and the parameters are bound at every execution. The translations of Cypher queries to Gremlin are cached the same
+ * way. The executors of all the graphs share the same pool of daemon threads.
+ */
+public class ArcadeGremlinExecutor {
+  private static final String                   LANGUAGE = "gremlin-groovy";
+  private static final AtomicInteger            THREADS  = new AtomicInteger();
+  private static final ScheduledExecutorService POOL     = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+    final Thread thread = new Thread(r, "ArcadeDB Gremlin " + THREADS.incrementAndGet());
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final GremlinExecutor           executor;
+  private final GremlinGroovyScriptEngine scriptEngine;
+  private final Map<String, String>       cypherTranslations;
+  private final LongAdder                 cypherHits             = new LongAdder();
+  private final LongAdder                 cypherMisses           = new LongAdder();
+  private final LongAdder                 cypherTranslationNanos = new LongAdder();
+
+  public ArcadeGremlinExecutor(final ArcadeGraph graph) {
+    final ContextConfiguration configuration = graph.getDatabase().getConfiguration();
+
+    final Bindings bindings = new ConcurrentBindings();
+    bindings.put("g", AnonymousTraversalSource.traversal().withEmbedded(graph));
+
+    final Map<String, Object> compilerConfiguration = new HashMap<>();
+    compilerConfiguration.put("classMapCacheSpecification",
+        "maximumSize=" + configuration.getValueAsInteger(GlobalConfiguration.GREMLIN_SCRIPT_CACHE));
+
+    this.executor = GremlinExecutor.build()//
+        .globalBindings(bindings)//
+        .executorService(POOL)//
+        .scheduledExecutorService(POOL)//
+        .addPlugins(LANGUAGE, Collections.singletonMap(GroovyCompilerGremlinPlugin.class.getName(), compilerConfiguration))//
+        .create();
+    this.scriptEngine = (GremlinGroovyScriptEngine) executor.getScriptEngineManager().getEngineByName(LANGUAGE);
+
+    final int cypherCacheSize = configuration.getValueAsInteger(GlobalConfiguration.CYPHER_TRANSLATION_CACHE);
+    this.cypherTranslations = new LinkedHashMap<>(16, 0.75F, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+        return size() > cypherCacheSize;
+      }
+    };
+  }
+
+  /**
+   * Evaluates a Gremlin script binding the parameters as variables. The timeout is expressed in milliseconds, null to use the default one.
+   */
+  public Object eval(final String script, final Map<String, Object> parameters, final Long timeout) throws ExecutionException, InterruptedException {
+    final Bindings bindings = new SimpleBindings();
+    if (parameters != null)
+      bindings.putAll(parameters);
+
+    final GremlinExecutor.LifeCycle.Builder lifeCycle = GremlinExecutor.LifeCycle.build();
+    if (timeout != null)
+      lifeCycle.evaluationTimeoutOverride(timeout);
+
+    return executor.eval(script, LANGUAGE, bindings, lifeCycle.create()).get();
+  }
+
+  /**
+   * Returns the translation of a Cypher query in a Gremlin script. The translation does not depend on the parameters, so it is cached by query text.
+   */
+  public String translateCypher(final String query) {
+    synchronized (cypherTranslations) {
+      final String translated = cypherTranslations.get(query);
+      if (translated != null) {
+        cypherHits.increment();
+        return translated;
+      }
+    }
+
+    cypherMisses.increment();
+
+    // TRANSLATE OUTSIDE THE LOCK: CONCURRENT TRANSLATIONS OF THE SAME QUERY PRODUCE THE SAME SCRIPT
+    final long beginTime = System.nanoTime();
+    final String translated = new TranslationFacade().toGremlinGroovy(query);
+    cypherTranslationNanos.add(System.nanoTime() - beginTime);
+
+    synchronized (cypherTranslations) {
+      cypherTranslations.put(query, translated);
+    }
+    return translated;
+  }
+
+  public Map<String, Object> getStats() {
+    final Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("scriptCacheSize", scriptEngine.getClassCacheEstimatedSize());
+    stats.put("scriptCacheHits", scriptEngine.getClassCacheHitCount());
+    stats.put("scriptCacheMisses", scriptEngine.getClassCacheMissCount());
+    stats.put("scriptCacheEvictions", scriptEngine.getClassCacheEvictionCount());
+    stats.put("scriptCompileTimeMicros", TimeUnit.NANOSECONDS.toMicros(scriptEngine.getClassCacheTotalLoadTime()));
+
+    synchronized (cypherTranslations) {
+      stats.put("cypherCacheSize", cypherTranslations.size());
+    }
+    stats.put("cypherCacheHits", cypherHits.sum());
+    stats.put("cypherCacheMisses", cypherMisses.sum());
+    stats.put("cypherTranslationTimeMicros", TimeUnit.NANOSECONDS.toMicros(cypherTranslationNanos.sum()));
+    return stats;
+  }
+
+  public void close() {
+    try {
+      // THE SHARED POOL IS NOT CLOSED BECAUSE IT IS SUPPLIED FROM OUTSIDE
+      executor.close();
+    } catch (Exception e) {
+      LogManager.instance().log(this, Level.WARNING, "Error on closing the Gremlin executor", e);
+    }
+  }
+}
@@ -21,6 +21,7 @@
 
 package org.apache.tinkerpop.gremlin.arcadedb.structure;
 
+import com.arcadedb.database.MutableDocument;
 import com.arcadedb.schema.Type;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Property;
@@ -73,8 +74,9 @@ public class ArcadeProperty<T> implements Property<T> {
     if (this.removed)
       return;
     this.graph.tx().readWrite();
-    element.baseElement.remove(key);
-    element.baseElement.save();
+    final MutableDocument record = element.modifyBaseElement();
+    record.remove(key);
+    record.save();
     this.removed = true;
   }
 
@@ -21,8 +21,8 @@
 
 package org.apache.tinkerpop.gremlin.arcadedb.structure;
 
+import com.arcadedb.database.MutableDocument;
 import com.arcadedb.graph.MutableEdge;
-import com.arcadedb.graph.MutableVertex;
 import org.apache.tinkerpop.gremlin.structure.*;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
@@ -35,9 +35,9 @@ import java.util.Set;
 /**
  * Created by Enrico Risa on 30/07/2018.
  */
-public class ArcadeVertex extends ArcadeElement<MutableVertex> implements Vertex {
+public class ArcadeVertex extends ArcadeElement<com.arcadedb.graph.Vertex> implements Vertex {
 
-  protected ArcadeVertex(final ArcadeGraph graph, final MutableVertex baseElement) {
+  protected ArcadeVertex(final ArcadeGraph graph, final com.arcadedb.graph.Vertex baseElement) {
     super(graph, baseElement);
   }
 
@@ -60,8 +60,6 @@ public class ArcadeVertex extends ArcadeElement<MutableVertex> implements Vertex
       this.graph.getDatabase().getSchema().createEdgeType(label);
     }
 
-    MutableVertex baseElement = getBaseElement();
-
     MutableEdge edge = baseElement.newEdge(label, vertex.getBaseElement(), true);
     ArcadeEdge arcadeEdge = new ArcadeEdge(graph, edge);
     ElementHelper.attachProperties(arcadeEdge, keyValues);
@@ -83,8 +81,9 @@ public class ArcadeVertex extends ArcadeElement<MutableVertex> implements Vertex
 
     this.graph.tx().readWrite();
 
-    baseElement.set(key, value);
-    baseElement.save();
+    final MutableDocument record = modifyBaseElement();
+    record.set(key, value);
+    record.save();
     return new ArcadeVertexProperty<>(this, key, value);
   }
 
@@ -93,8 +92,9 @@ public class ArcadeVertex extends ArcadeElement<MutableVertex> implements Vertex
     ElementHelper.validateProperty(key, value);
     ArcadeProperty.validateValue(value);
     this.graph.tx().readWrite();
-    baseElement.set(key, value);
-    baseElement.save();
+    final MutableDocument record = modifyBaseElement();
+    record.set(key, value);
+    record.save();
     return new ArcadeVertexProperty<>(this, key, value);
   }
 
@@ -139,10 +139,10 @@ public class ArcadeVertex extends ArcadeElement<MutableVertex> implements Vertex
 
     if (edgeLabels.length == 0)
       for (com.arcadedb.graph.Edge edge : this.baseElement.getEdges(ArcadeGraph.mapDirection(direction)))
-        result.add(new ArcadeEdge(this.graph, (MutableEdge) edge.modify()));
+        result.add(new ArcadeEdge(this.graph, edge));
     else
       for (com.arcadedb.graph.Edge edge : this.baseElement.getEdges(ArcadeGraph.mapDirection(direction), edgeLabels))
-        result.add(new ArcadeEdge(this.graph, (MutableEdge) edge.modify()));
+        result.add(new ArcadeEdge(this.graph, edge));
 
     return result.iterator();
   }
@@ -153,10 +153,10 @@ public class ArcadeVertex extends ArcadeElement<MutableVertex> implements Vertex
 
     if (edgeLabels.length == 0)
       for (com.arcadedb.graph.Vertex vertex : this.baseElement.getVertices(ArcadeGraph.mapDirection(direction)))
-        result.add(new ArcadeVertex(this.graph, (MutableVertex) vertex.modify()));
+        result.add(new ArcadeVertex(this.graph, vertex));
     else
       for (com.arcadedb.graph.Vertex vertex : this.baseElement.getVertices(ArcadeGraph.mapDirection(direction), edgeLabels))
-        result.add(new ArcadeVertex(this.graph, (MutableVertex) vertex.modify()));
+        result.add(new ArcadeVertex(this.graph, vertex));
 
     return result.iterator();
   }
@@ -21,6 +21,7 @@
 
 package org.apache.tinkerpop.gremlin.arcadedb.structure;
 
+import com.arcadedb.database.MutableDocument;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Property;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
@@ -69,8 +70,9 @@ public class ArcadeVertexProperty<T> implements VertexProperty<T> {
   @Override
   public void remove() {
     graph().tx().readWrite();
-    vertex.getBaseElement().remove(key);
-    vertex.getBaseElement().save();
+    final MutableDocument record = vertex.modifyBaseElement();
+    record.remove(key);
+    record.save();
   }
 
   @Override
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb;
+
+import com.arcadedb.database.MutableDocument;
+import com.arcadedb.utility.FileUtils;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeEdge;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeGraph;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeVertex;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+public class ArcadeElementTest {
+  @Test
+  public void testPromoteToMutableOnWrite() {
+    FileUtils.deleteRecursively(new File("./target/testelements"));
+
+    final ArcadeGraph graph = ArcadeGraph.open("./target/testelements");
+    try {
+      final Vertex jay = graph.addVertex("Person");
+      jay.property("name", "Jay");
+      final Vertex elon = graph.addVertex("Person");
+      elon.property("name", "Elon");
+      jay.addEdge("Knows", elon, "since", 2010);
+      graph.tx().commit();
+
+      // READS DO NOT COPY THE RECORDS
+      final ArcadeVertex vertex = (ArcadeVertex) graph.vertices(jay.id()).next();
+      Assertions.assertFalse(vertex.getBaseElement() instanceof MutableDocument);
+      Assertions.assertEquals("Jay", vertex.value("name"));
+
+      final ArcadeEdge edge = (ArcadeEdge) vertex.edges(Direction.OUT, "Knows").next();
+      Assertions.assertFalse(edge.getBaseElement() instanceof MutableDocument);
+      Assertions.assertEquals(2010, (int) edge.value("since"));
+      Assertions.assertFalse(((ArcadeVertex) edge.inVertex()).getBaseElement() instanceof MutableDocument);
+      Assertions.assertEquals("Elon", edge.inVertex().value("name"));
+
+      for (Vertex v : graph.traversal().V().hasLabel("Person").toList())
+        Assertions.assertFalse(((ArcadeVertex) v).getBaseElement() instanceof MutableDocument);
+
+      // THE FIRST WRITE PROMOTES THE RECORD TO MUTABLE
+      vertex.property("age", 40);
+      Assertions.assertTrue(vertex.getBaseElement() instanceof MutableDocument);
+      Assertions.assertEquals("Jay", vertex.value("name"));
+      Assertions.assertEquals(40, (int) vertex.value("age"));
+
+      edge.property("since", 2011);
+      Assertions.assertTrue(edge.getBaseElement() instanceof MutableDocument);
+
+      vertex.property("name").remove();
+      Assertions.assertFalse(vertex.property("name").isPresent());
+
+      // EDGES CAN BE ADDED FROM IMMUTABLE VERTICES
+      final Vertex other = graph.vertices(elon.id()).next();
+      final Edge back = other.addEdge("Knows", vertex);
+      Assertions.assertEquals(vertex.id(), back.inVertex().id());
+      graph.tx().commit();
+
+      final Vertex reloaded = graph.vertices(jay.id()).next();
+      Assertions.assertEquals(40, (int) reloaded.value("age"));
+      Assertions.assertFalse(reloaded.property("name").isPresent());
+      Assertions.assertEquals(2011, (int) reloaded.edges(Direction.OUT, "Knows").next().value("since"));
+      Assertions.assertEquals(1L, graph.traversal().V(elon.id()).out("Knows").count().next());
+
+    } finally {
+      graph.drop();
+    }
+  }
+}
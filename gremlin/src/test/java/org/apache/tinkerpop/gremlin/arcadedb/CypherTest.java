@@ -23,6 +23,7 @@ package org.apache.tinkerpop.gremlin.arcadedb;
 
 import com.arcadedb.database.Database;
 import com.arcadedb.database.DatabaseFactory;
+import com.arcadedb.database.DatabaseInternal;
 import com.arcadedb.query.sql.executor.Result;
 import com.arcadedb.query.sql.executor.ResultSet;
 import com.arcadedb.utility.FileUtils;
@@ -31,6 +32,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -111,4 +113,46 @@ public class CypherTest {
       database.drop();
     }
   }
+
+  @Test
+  public void testCypherTranslationCache() {
+    FileUtils.deleteRecursively(new File("./target/testcypher"));
+
+    final ArcadeGraph graph = ArcadeGraph.open("./target/testcypher");
+    try {
+      final String query = "MATCH (p:Person) WHERE p.age >= $p1 RETURN p.name, p.age ORDER BY p.age";
+
+      final String translated = graph.cypher(query).getQuery();
+      Assertions.assertEquals(translated, graph.cypher(query).getQuery());
+
+      final Map<String, Object> stats = graph.getStats();
+      Assertions.assertEquals(1L, stats.get("cypherCacheMisses"));
+      Assertions.assertEquals(1L, stats.get("cypherCacheHits"));
+      Assertions.assertEquals(1, stats.get("cypherCacheSize"));
+
+    } finally {
+      graph.drop();
+    }
+  }
+
+  @Test
+  public void testCacheReleasedOnDatabaseClose() {
+    final DatabaseFactory factory = new DatabaseFactory("./target/testcypher");
+    if (factory.exists())
+      factory.open().drop();
+
+    final DatabaseInternal database = (DatabaseInternal) factory.create();
+    try {
+      database.query("cypher", "MATCH (p) RETURN p").close();
+      Assertions.assertEquals(1, database.getStats().get("cypher.cypherCacheSize"));
+
+      database.close();
+
+      // THE CACHED GRAPH AND EXECUTOR HAVE BEEN RELEASED WITH THE DATABASE
+      Assertions.assertNull(database.getStats().get("cypher.cypherCacheSize"));
+
+    } finally {
+      factory.open().drop();
+    }
+  }
 }
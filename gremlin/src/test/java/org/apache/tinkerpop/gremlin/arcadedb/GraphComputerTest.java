@@ -0,0 +1,177 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb;
+
+import com.arcadedb.utility.FileUtils;
+import org.apache.tinkerpop.gremlin.arcadedb.process.computer.ArcadeComputerResultGraph;
+import org.apache.tinkerpop.gremlin.arcadedb.process.computer.ArcadeGraphComputer;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeGraph;
+import org.apache.tinkerpop.gremlin.process.computer.Computer;
+import org.apache.tinkerpop.gremlin.process.computer.ComputerResult;
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.computer.clustering.connected.ConnectedComponentVertexProgram;
+import org.apache.tinkerpop.gremlin.process.computer.ranking.pagerank.PageRankVertexProgram;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Map;
+
+public class GraphComputerTest {
+  @Test
+  public void testPageRank() throws Exception {
+    final ArcadeGraph graph = createGraph("./target/testcomputerpagerank");
+    try {
+      final ComputerResult result = graph.compute().workers(4).program(PageRankVertexProgram.build().iterations(20).property("pageRank").create(graph))
+          .result(GraphComputer.ResultGraph.ORIGINAL).persist(GraphComputer.Persist.VERTEX_PROPERTIES).submit().get();
+      Assertions.assertTrue(result.memory().getIteration() <= 20);
+
+      // THE HUB RECEIVES THE LINKS FROM ALL THE LEAVES
+      double hubRank = 0;
+      double maxLeafRank = 0;
+      for (Vertex v : graph.traversal().V().hasLabel("Page").toList()) {
+        final double rank = v.value("pageRank");
+        if (v.value("name").equals("hub"))
+          hubRank = rank;
+        else
+          maxLeafRank = Math.max(maxLeafRank, rank);
+      }
+      Assertions.assertTrue(hubRank > maxLeafRank);
+
+      // THE TRANSIENT EDGE COUNT IS NOT PERSISTED
+      Assertions.assertFalse(graph.traversal().V().has("gremlin.pageRankVertexProgram.edgeCount").hasNext());
+    } finally {
+      graph.drop();
+    }
+  }
+
+  @Test
+  public void testConnectedComponents() throws Exception {
+    final ArcadeGraph graph = createGraph("./target/testcomputercomponents");
+    try {
+      graph.compute(ArcadeGraphComputer.class).program(ConnectedComponentVertexProgram.build().property("component").create(graph))
+          .result(GraphComputer.ResultGraph.ORIGINAL).persist(GraphComputer.Persist.VERTEX_PROPERTIES).submit().get();
+
+      final Map<Object, Long> components = graph.traversal().V().groupCount().by("component").next();
+      Assertions.assertEquals(2, components.size());
+      Assertions.assertTrue(components.containsValue(11L));
+      Assertions.assertTrue(components.containsValue(3L));
+    } finally {
+      graph.drop();
+    }
+  }
+
+  @Test
+  public void testTraversalOnComputer() {
+    final ArcadeGraph graph = createGraph("./target/testcomputertraversal");
+    try {
+      final GraphTraversalSource g = graph.traversal().withComputer();
+      Assertions.assertEquals(14L, (long) g.V().count().next());
+      Assertions.assertEquals(12L, (long) g.V().outE().count().next());
+      Assertions.assertEquals(10L, (long) g.V().has("name", "hub").in("Links").count().next());
+
+      // THE VERTEX FILTER EXCLUDES THE OTHER COMPONENT
+      Assertions.assertEquals(11L, (long) graph.traversal().withComputer(Computer.compute().vertices(__.hasLabel("Page"))).V().count().next());
+    } finally {
+      graph.drop();
+    }
+  }
+
+  @Test
+  public void testNewResultGraph() throws Exception {
+    final ArcadeGraph graph = createGraph("./target/testcomputernewresult");
+    try {
+      // THE DEFAULT OF PAGE RANK IS A NEW RESULT GRAPH WITH THE VERTEX PROPERTIES
+      final ComputerResult result = graph.compute().program(PageRankVertexProgram.build().property("pageRank").create(graph)).submit().get();
+
+      final Graph resultGraph = result.graph();
+      Assertions.assertTrue(resultGraph instanceof ArcadeComputerResultGraph);
+      Assertions.assertEquals(14L, (long) resultGraph.traversal().V().values("pageRank").count().next());
+      Assertions.assertEquals(0L, (long) resultGraph.traversal().E().count().next());
+      Assertions.assertEquals("hub", resultGraph.traversal().V().hasLabel("Page").order().by("pageRank", Order.desc).limit(1).values("name").next());
+
+      // THE DATABASE IS NOT CHANGED
+      Assertions.assertFalse(graph.traversal().V().has("pageRank").hasNext());
+
+      // THE RESULT GRAPH IS READ-ONLY
+      final Vertex vertex = resultGraph.vertices().next();
+      Assertions.assertThrows(IllegalStateException.class, () -> vertex.property("pageRank", 1D));
+      Assertions.assertThrows(IllegalArgumentException.class,
+          () -> resultGraph.compute().program(ConnectedComponentVertexProgram.build().create(resultGraph)).result(GraphComputer.ResultGraph.ORIGINAL)
+              .persist(GraphComputer.Persist.VERTEX_PROPERTIES).submit());
+
+      // THE DEFAULT OF CONNECTED COMPONENTS IS A NEW RESULT GRAPH WITH THE VERTEX PROPERTIES
+      final Graph components = graph.compute().program(ConnectedComponentVertexProgram.build().property("component").create(graph)).submit().get()
+          .graph();
+      Assertions.assertEquals(2, components.traversal().V().groupCount().by("component").next().size());
+      Assertions.assertFalse(graph.traversal().V().has("component").hasNext());
+    } finally {
+      graph.drop();
+    }
+  }
+
+  @Test
+  public void testPageRankStepOnComputer() {
+    final ArcadeGraph graph = createGraph("./target/testcomputerpagerankstep");
+    try {
+      final GraphTraversalSource g = graph.traversal().withComputer();
+      Assertions.assertEquals(14L, (long) g.V().pageRank().by("rank").values("rank").count().next());
+      Assertions.assertEquals("hub", g.V().hasLabel("Page").pageRank().by("rank").order().by("rank", Order.desc).limit(1).values("name").next());
+
+      // THE DATABASE IS NOT CHANGED
+      Assertions.assertFalse(graph.traversal().V().has("rank").hasNext());
+    } finally {
+      graph.drop();
+    }
+  }
+
+  /**
+   * Creates a star of 10 pages linked to a hub and a separate chain of 3 persons.
+   */
+  private static ArcadeGraph createGraph(final String path) {
+    FileUtils.deleteRecursively(new File(path));
+    final ArcadeGraph graph = ArcadeGraph.open(path);
+    final Vertex hub = graph.addVertex("Page");
+    hub.property("name", "hub");
+    for (int i = 0; i < 10; ++i) {
+      final Vertex leaf = graph.addVertex("Page");
+      leaf.property("name", "leaf" + i);
+      leaf.addEdge("Links", hub);
+    }
+
+    Vertex previous = null;
+    for (int i = 0; i < 3; ++i) {
+      final Vertex person = graph.addVertex("Person");
+      person.property("name", "person" + i);
+      if (previous != null)
+        previous.addEdge("Knows", person);
+      previous = person;
+    }
+    graph.tx().commit();
+    return graph;
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tinkerpop.gremlin.arcadedb;
+
+import com.arcadedb.graph.MutableVertex;
+import com.arcadedb.schema.Schema;
+import com.arcadedb.schema.VertexType;
+import com.arcadedb.utility.FileUtils;
+import org.apache.tinkerpop.gremlin.arcadedb.process.traversal.step.map.ArcadeCountGlobalStep;
+import org.apache.tinkerpop.gremlin.arcadedb.process.traversal.step.sideEffect.ArcadeGraphStep;
+import org.apache.tinkerpop.gremlin.arcadedb.structure.ArcadeGraph;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+public class TraversalStrategiesTest {
+  @Test
+  public void testPushDown() {
+    FileUtils.deleteRecursively(new File("./target/teststrategies"));
+
+    final ArcadeGraph graph = ArcadeGraph.open("./target/teststrategies");
+    try {
+      graph.getDatabase().transaction((tx) -> {
+        final VertexType person = graph.getDatabase().getSchema().createVertexType("Person");
+        person.createProperty("name", String.class);
+        person.createProperty("age", Integer.class);
+        graph.getDatabase().getSchema().createTypeIndex(Schema.INDEX_TYPE.LSM_TREE, true, "Person", "name");
+        graph.getDatabase().getSchema().createTypeIndex(Schema.INDEX_TYPE.LSM_TREE, false, "Person", "age");
+        graph.getDatabase().getSchema().createVertexType("City");
+        graph.getDatabase().getSchema().createEdgeType("Lives");
+      });
+
+      graph.getDatabase().transaction((tx) -> {
+        final MutableVertex[] cities = new MutableVertex[10];
+        for (int i = 0; i < cities.length; i++)
+          cities[i] = graph.getDatabase().newVertex("City").set("name", "c" + i).set("age", i).save();
+
+        for (int i = 0; i < 100; i++)
+          graph.getDatabase().newVertex("Person").set("name", "p" + i).set("age", i).save().newEdge("Lives", cities[i % cities.length], true);
+      });
+
+      final GraphTraversalSource g = graph.traversal();
+
+      // INDEX LOOKUPS AND RANGES
+      Assertions.assertEquals(1, g.V().hasLabel("Person").has("name", "p5").toList().size());
+      Assertions.assertEquals(2, g.V().hasLabel("Person").has("name", P.within("p5", "p7", "unknown")).toList().size());
+      Assertions.assertEquals(10, g.V().hasLabel("Person").has("age", P.between(10, 20)).toList().size());
+      Assertions.assertEquals(9, g.V().hasLabel("Person").has("age", P.gt(90)).toList().size());
+      Assertions.assertEquals(6, g.V().hasLabel("Person").has("age", P.lte(5)).toList().size());
+      Assertions.assertEquals(0, g.V().hasLabel("Person").has("age", P.gt(10)).has("age", P.lt(5)).toList().size());
+
+      // NO LABEL: THE CITIES ARE SCANNED BECAUSE THEY HAVE NO INDEX ON AGE
+      Assertions.assertEquals(6, g.V().has("age", P.lt(3)).toList().size());
+
+      // COUNT
+      Assertions.assertEquals(110L, g.V().count().next());
+      Assertions.assertEquals(10L, g.V().hasLabel("City").count().next());
+      Assertions.assertEquals(110L, g.V().hasLabel("Person", "City").count().next());
+      Assertions.assertEquals(100L, g.E().count().next());
+      Assertions.assertEquals(0L, g.V().hasLabel("Unknown").count().next());
+      Assertions.assertEquals(50L, g.V().hasLabel("Person").has("age", P.gte(50)).count().next());
+
+      // LIMIT AND RANGE
+      Assertions.assertEquals(7, g.V().hasLabel("Person").limit(7).toList().size());
+      Assertions.assertEquals(3, g.V().hasLabel("Person").range(5, 8).toList().size());
+      Assertions.assertEquals(2, g.V().hasLabel("Person").has("age", P.gte(98)).limit(5).toList().size());
+
+      // THE PENDING CHANGES OF THE TRANSACTION ARE VISIBLE
+      graph.addVertex("Person").property("age", 200);
+      Assertions.assertEquals(1, g.V().hasLabel("Person").has("age", P.gt(150)).toList().size());
+      Assertions.assertEquals(101L, g.V().hasLabel("Person").count().next());
+      graph.tx().rollback();
+
+      Assertions.assertEquals(0, g.V().hasLabel("Person").has("age", P.gt(150)).toList().size());
+
+      // THE STEPS ARE REPLACED
+      final Traversal.Admin<Vertex, Vertex> traversal = g.V().hasLabel("Person").has("age", 3).limit(1).asAdmin();
+      traversal.applyStrategies();
+      Assertions.assertTrue(traversal.getStartStep() instanceof ArcadeGraphStep);
+      Assertions.assertEquals(2, ((ArcadeGraphStep<?, ?>) traversal.getStartStep()).getHasContainers().size());
+      Assertions.assertEquals(1, ((ArcadeGraphStep<?, ?>) traversal.getStartStep()).getLimit());
+
+      final Traversal.Admin<Vertex, Long> countTraversal = g.V().hasLabel("City").count().asAdmin();
+      countTraversal.applyStrategies();
+      Assertions.assertTrue(countTraversal.getStartStep() instanceof ArcadeCountGlobalStep);
+
+    } finally {
+      graph.drop();
+    }
+  }
+}
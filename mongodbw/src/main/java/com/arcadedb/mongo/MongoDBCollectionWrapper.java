@@ -22,6 +22,7 @@
 package com.arcadedb.mongo;
 
 import com.arcadedb.database.Database;
+import com.arcadedb.database.DatabaseInternal;
 import com.arcadedb.database.MutableDocument;
 import com.arcadedb.database.RID;
 import de.bwaldvogel.mongo.MongoCollection;
@@ -287,7 +288,8 @@ public class MongoDBCollectionWrapper implements MongoCollection<Long> {
       // EXECUTE A SQL QUERY
       final StringBuilder sql = new StringBuilder("select from " + collectionName + " where ");
 
-      MongoDBToSqlTranslator.buildExpression(sql, query);
+      final List<Object> params = new ArrayList<>();
+      MongoDBToSqlTranslator.buildExpression(sql, query, params);
 
       if (orderBy != null) {
         sql.append(" order by ");
@@ -302,7 +304,7 @@ public class MongoDBCollectionWrapper implements MongoCollection<Long> {
         }
       }
 
-      it = database.query("SQL", sql.toString());
+      it = ((DatabaseInternal) database).getPreparedStatementCache().prepareImplicit("sql", sql.toString()).execute(params.toArray());
     }
 
     MongoDBToSqlTranslator.fillResultSet(numberToSkip, numberToReturn, result, it);
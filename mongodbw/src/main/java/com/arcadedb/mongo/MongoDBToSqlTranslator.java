@@ -33,29 +33,32 @@ import java.util.Map;
 
 public class MongoDBToSqlTranslator {
 
-  protected static void buildExpression(final StringBuilder buffer, final Document query) {
+  /**
+   * Translates the MongoDB query in a SQL condition. The values are collected in <code>params</code> as ordinal parameters.
+   */
+  protected static void buildExpression(final StringBuilder buffer, final Document query, final List<Object> params) {
     for (Map.Entry<String, Object> entry : query.entrySet()) {
       final Object key = entry.getKey();
       final Object value = entry.getValue();
 
       if (key instanceof String && ((String) key).startsWith("$"))
-        buildExpression(buffer, (String) key, value);
+        buildExpression(buffer, (String) key, value, params);
       else if (value instanceof Document) {
-        buildAnd(buffer, key, value);
+        buildAnd(buffer, key, value, params);
       } else if (value instanceof List) {
         if (key.equals("$or")) {
-          buildOr(buffer, (List) value);
+          buildOr(buffer, (List) value, params);
         } else
           throw new IllegalArgumentException("Invalid operator " + key);
       } else {
         buffer.append(entry.getKey());
         buffer.append(" = ");
-        buildValue(buffer, value);
+        buildValue(buffer, value, params);
       }
     }
   }
 
-  protected static void buildAnd(final StringBuilder sql, final Object key, final Object value) {
+  protected static void buildAnd(final StringBuilder sql, final Object key, final Object value, final List<Object> params) {
     int expressionCount = 0;
 
     sql.append("(");
@@ -65,7 +68,7 @@ public class MongoDBToSqlTranslator {
         if (expressionCount++ > 0)
           sql.append(" AND ");
 
-        buildExpression(sql, o);
+        buildExpression(sql, o, params);
       }
     } else if (value instanceof Document) {
       for (Map.Entry<String, Object> subEntry : ((Document) value).entrySet()) {
@@ -78,7 +81,7 @@ public class MongoDBToSqlTranslator {
         if (key != null)
           sql.append(key);
 
-        buildExpression(sql, subKey, subValue);
+        buildExpression(sql, subKey, subValue, params);
 
       }
     }
@@ -86,54 +89,54 @@ public class MongoDBToSqlTranslator {
     sql.append(")");
   }
 
-  protected static void buildExpression(final StringBuilder sql, final String key, final Object value) {
+  protected static void buildExpression(final StringBuilder sql, final String key, final Object value, final List<Object> params) {
     if (key.equals("$in")) {
       if (value instanceof Collection) {
         sql.append(" IN ");
-        buildCollection(sql, (Collection) value);
+        buildCollection(sql, (Collection) value, params);
       } else
         throw new IllegalArgumentException("Operator $in was expecting a collection");
     } else if (key.equals("$nin")) {
       if (value instanceof Collection) {
         sql.append(" NOT IN ");
-        buildCollection(sql, (Collection) value);
+        buildCollection(sql, (Collection) value, params);
       } else
         throw new IllegalArgumentException("Operator $in was expecting a collection");
     } else if (key.equals("$eq")) {
       sql.append(" = ");
-      buildValue(sql, value);
+      buildValue(sql, value, params);
     } else if (key.equals("$ne")) {
       sql.append(" <> ");
-      buildValue(sql, value);
+      buildValue(sql, value, params);
     } else if (key.equals("$lt")) {
       sql.append(" < ");
-      buildValue(sql, value);
+      buildValue(sql, value, params);
     } else if (key.equals("$lte")) {
       sql.append(" <= ");
-      buildValue(sql, value);
+      buildValue(sql, value, params);
     } else if (key.equals("$gt")) {
       sql.append(" > ");
-      buildValue(sql, value);
+      buildValue(sql, value, params);
     } else if (key.equals("$gte")) {
       sql.append(" >= ");
-      buildValue(sql, value);
+      buildValue(sql, value, params);
     } else if (key.equals("$exists")) {
       sql.append(" IS DEFINED ");
     } else if (key.equals("$size")) {
       sql.append(".size() = ");
-      buildValue(sql, value);
+      buildValue(sql, value, params);
     } else if (key.equals("$or")) {
-      buildOr(sql, (List) value);
+      buildOr(sql, (List) value, params);
     } else if (key.equals("$and")) {
-      buildAnd(sql, key, value);
+      buildAnd(sql, key, value, params);
     } else if (key.equals("$not")) {
       sql.append(" NOT ");
-      buildExpression(sql, (Document) value);
+      buildExpression(sql, (Document) value, params);
     } else
       throw new IllegalArgumentException("Unknown operator " + key);
   }
 
-  protected static void buildOr(final StringBuilder buffer, final List list) {
+  protected static void buildOr(final StringBuilder buffer, final List list, final List<Object> params) {
     buffer.append("(");
 
     int i = 0;
@@ -142,32 +145,31 @@ public class MongoDBToSqlTranslator {
         buffer.append(" OR ");
 
       if (o instanceof Document) {
-        buildExpression(buffer, (Document) o);
+        buildExpression(buffer, (Document) o, params);
       }
     }
 
     buffer.append(")");
   }
 
-  protected static void buildCollection(final StringBuilder buffer, final Collection coll) {
+  protected static void buildCollection(final StringBuilder buffer, final Collection coll, final List<Object> params) {
     int i = 0;
     buffer.append('[');
     for (Iterator it = coll.iterator(); it.hasNext(); ) {
       if (i++ > 0)
         buffer.append(',');
 
-      buildValue(buffer, it.next());
+      buildValue(buffer, it.next(), params);
     }
     buffer.append(']');
   }
 
-  protected static void buildValue(final StringBuilder buffer, final Object value) {
-    if (value instanceof String) {
-      buffer.append('\'');
-      buffer.append(value);
-      buffer.append('\'');
-    } else
-      buffer.append(value);
+  /**
+   * Values are passed as parameters, so queries with the same shape share the same prepared statement and execution plan.
+   */
+  protected static void buildValue(final StringBuilder buffer, final Object value, final List<Object> params) {
+    buffer.append('?');
+    params.add(value);
   }
 
   protected static void fillResultSet(final int numberToSkip, final int numberToReturn, final List<Document> result, final Iterator it) {
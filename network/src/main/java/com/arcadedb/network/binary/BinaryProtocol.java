@@ -0,0 +1,222 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.network.binary;
+
+import com.arcadedb.database.Binary;
+import com.arcadedb.database.Database;
+import com.arcadedb.database.Document;
+import com.arcadedb.database.Identifiable;
+import com.arcadedb.database.RID;
+import com.arcadedb.exception.DuplicatedKeyException;
+import com.arcadedb.query.sql.executor.Result;
+import com.arcadedb.query.sql.executor.ResultInternal;
+import com.arcadedb.serializer.BinarySerializer;
+import com.arcadedb.serializer.BinaryTypes;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Binary protocol used by the remote clients. After the handshake (protocol version, user, password and database name), the client sends requests
+ * prefixed by a request id chosen by the client. The server executes the requests of a connection in order and sends back the responses with the
+ * same request id, so the client can send more requests without waiting for the responses (pipelining) and multiple threads can share the same
+ * connection (multiplexing).
+ * <p>
+ * Request: [requestId:int][command:byte][payload]
+ * <p>
+ * Response: [requestId:int]([RESPONSE_RESULT:byte][result:bytes])*(RESPONSE_END:byte|[RESPONSE_ERROR:byte][exception:string][detail:string][exceptionArg:string])
+ * <p>
+ * Results and parameters are serialized with the {@link BinarySerializer}. Records are sent with their properties, RID and type name. Linked records are
+ * sent as RIDs and embedded documents as maps.
+ */
+public class BinaryProtocol {
+  public static final int PROTOCOL_VERSION = 1;
+
+  // REQUESTS
+  public static final byte REQUEST_CLOSE   = 0;
+  public static final byte REQUEST_QUERY   = 1;
+  public static final byte REQUEST_COMMAND = 2;
+  public static final byte REQUEST_LOOKUP  = 3;
+  public static final byte REQUEST_PREPARE = 4;
+  public static final byte REQUEST_EXECUTE = 5;
+
+  // PARAMETERS
+  public static final byte PARAMETERS_NONE    = 0;
+  public static final byte PARAMETERS_ORDINAL = 1;
+  public static final byte PARAMETERS_NAMED   = 2;
+
+  // RESPONSES
+  public static final byte RESPONSE_END    = 0;
+  public static final byte RESPONSE_RESULT = 1;
+  public static final byte RESPONSE_ERROR  = 2;
+
+  // RESULTS
+  public static final byte   RESULT_PROJECTION = 0;
+  public static final byte   RESULT_RECORD     = 1;
+  public static final String PROPERTY_RID      = "@rid";
+  public static final String PROPERTY_TYPE     = "@type";
+
+  private BinaryProtocol() {
+  }
+
+  public static void writeParameters(final ChannelBinary channel, final BinarySerializer serializer, final Object[] args) throws IOException {
+    if (args == null || args.length == 0) {
+      channel.writeByte(PARAMETERS_NONE);
+      return;
+    }
+
+    final Binary buffer = new Binary(256);
+    if (args.length == 1 && args[0] instanceof Map) {
+      channel.writeByte(PARAMETERS_NAMED);
+      serializer.serializeValue(null, buffer, BinaryTypes.TYPE_MAP, toWireValue(args[0]));
+    } else {
+      channel.writeByte(PARAMETERS_ORDINAL);
+      serializer.serializeValue(null, buffer, BinaryTypes.TYPE_LIST, toWireValue(Arrays.asList(args)));
+    }
+    channel.writeVarLengthBytes(buffer.getContent(), buffer.size());
+  }
+
+  /**
+   * Reads the parameters of a request. Returns null if there are no parameters, an Object[] with ordinal parameters or a Map with named parameters.
+   */
+  public static Object readParameters(final ChannelBinary channel, final Database database, final BinarySerializer serializer) throws IOException {
+    final byte kind = channel.readByte();
+    if (kind == PARAMETERS_NONE)
+      return null;
+
+    final Binary buffer = new Binary(channel.readBytes());
+    if (kind == PARAMETERS_ORDINAL)
+      return ((List<Object>) serializer.deserializeValue(database, buffer, BinaryTypes.TYPE_LIST, null)).toArray();
+
+    final Map<String, Object> params = new HashMap<>();
+    for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) serializer.deserializeValue(database, buffer, BinaryTypes.TYPE_MAP, null)).entrySet())
+      params.put(entry.getKey().toString(), entry.getValue());
+    return params;
+  }
+
+  public static void writeResult(final Binary buffer, final BinarySerializer serializer, final Result result) {
+    final Optional<Document> element = result.getElement();
+    if (element.isPresent() && element.get().getIdentity() != null) {
+      final Document document = element.get();
+      buffer.putByte(RESULT_RECORD);
+      buffer.putNumber(document.getIdentity().getBucketId());
+      buffer.putNumber(document.getIdentity().getPosition());
+      buffer.putString(document.getTypeName());
+    } else
+      buffer.putByte(RESULT_PROJECTION);
+
+    final Set<String> propertyNames = result.getPropertyNames();
+    buffer.putUnsignedNumber(propertyNames.size());
+    for (String name : propertyNames) {
+      final Object value = toWireValue(result.getProperty(name));
+      final byte type = BinaryTypes.getTypeFromValue(value);
+      buffer.putString(name);
+      buffer.putByte(type);
+      serializer.serializeValue(null, buffer, type, value);
+    }
+  }
+
+  public static Result readResult(final Binary buffer, final BinarySerializer serializer) {
+    final Map<String, Object> properties = new LinkedHashMap<>();
+    if (buffer.getByte() == RESULT_RECORD) {
+      properties.put(PROPERTY_RID, new RID(null, (int) buffer.getNumber(), buffer.getNumber()));
+      properties.put(PROPERTY_TYPE, buffer.getString());
+    }
+
+    final int count = (int) buffer.getUnsignedNumber();
+    for (int i = 0; i < count; ++i) {
+      final String name = buffer.getString();
+      final byte type = buffer.getByte();
+      properties.put(name, serializer.deserializeValue(null, buffer, type, null));
+    }
+    return new ResultInternal(properties);
+  }
+
+  public static void writeError(final ChannelBinary channel, final Throwable e) throws IOException {
+    channel.writeByte(RESPONSE_ERROR);
+    channel.writeString(e.getClass().getName());
+    channel.writeString(e.toString());
+
+    String exceptionArg = null;
+    if (e instanceof ServerIsNotTheLeaderException)
+      exceptionArg = ((ServerIsNotTheLeaderException) e).getLeaderAddress();
+    else if (e instanceof DuplicatedKeyException) {
+      final DuplicatedKeyException d = (DuplicatedKeyException) e;
+      exceptionArg = d.getIndexName() + "|" + d.getKeys() + "|" + d.getCurrentIndexedRID();
+    }
+    channel.writeString(exceptionArg);
+  }
+
+  /**
+   * Converts the value in a form that can be serialized without a database on the other side: records are sent as RIDs, embedded documents and
+   * projections as maps. Values of unsupported types are sent as strings.
+   */
+  private static Object toWireValue(final Object value) {
+    if (value == null)
+      return null;
+
+    if (value instanceof Result) {
+      final Result result = (Result) value;
+      if (result.isElement())
+        return toWireValue(result.getElement().get());
+      return toWireValue(result.toMap());
+    }
+
+    if (value instanceof Document) {
+      final Document document = (Document) value;
+      if (document.getIdentity() != null)
+        return document.getIdentity();
+      return toWireValue(document.toMap());
+    }
+
+    if (value instanceof Identifiable)
+      return ((Identifiable) value).getIdentity();
+
+    if (value instanceof Map) {
+      final Map<Object, Object> map = new LinkedHashMap<>();
+      for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) value).entrySet())
+        map.put(entry.getKey(), toWireValue(entry.getValue()));
+      return map;
+    }
+
+    if (value instanceof Iterable) {
+      final List<Object> list = new ArrayList<>();
+      for (Object item : (Iterable<?>) value)
+        list.add(toWireValue(item));
+      return list;
+    }
+
+    if (value instanceof Object[]) {
+      final List<Object> list = new ArrayList<>();
+      for (Object item : (Object[]) value)
+        list.add(toWireValue(item));
+      return list;
+    }
+
+    try {
+      BinaryTypes.getTypeFromValue(value);
+      return value;
+    } catch (IllegalArgumentException e) {
+      return value.toString();
+    }
+  }
+}
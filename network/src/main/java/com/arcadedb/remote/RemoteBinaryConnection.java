@@ -0,0 +1,206 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.remote;
+
+import com.arcadedb.ContextConfiguration;
+import com.arcadedb.database.Binary;
+import com.arcadedb.log.LogManager;
+import com.arcadedb.network.binary.BinaryProtocol;
+import com.arcadedb.network.binary.ChannelBinaryClient;
+import com.arcadedb.network.binary.ConnectionException;
+import com.arcadedb.query.sql.executor.Result;
+import com.arcadedb.serializer.BinarySerializer;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Connection of the binary protocol shared by multiple threads. The requests are written with a request id and the responses are dispatched to the
+ * waiting requests by a reader thread, so the callers do not wait for the previous responses before sending the next request (pipelining). The
+ * writes are flushed by the last of the concurrent writers, so a burst of requests is sent with few network packets.
+ */
+public class RemoteBinaryConnection {
+  private final ChannelBinaryClient                           channel;
+  private final BinarySerializer                              serializer     = new BinarySerializer();
+  private final Map<Integer, CompletableFuture<List<Result>>> pending        = new ConcurrentHashMap<>();
+  private final AtomicInteger                                 nextRequestId  = new AtomicInteger();
+  private final AtomicInteger                                 waitingWriters = new AtomicInteger();
+  private final Thread                                        reader;
+  private volatile boolean                                    closed         = false;
+
+  public interface RequestWriter {
+    void write(ChannelBinaryClient channel, BinarySerializer serializer) throws IOException;
+  }
+
+  public RemoteBinaryConnection(final String server, final int port, final String databaseName, final String userName, final String userPassword,
+      final ContextConfiguration configuration) throws IOException {
+    channel = new ChannelBinaryClient(server, port, configuration);
+    try {
+      channel.socket.setTcpNoDelay(true);
+
+      channel.writeInt(BinaryProtocol.PROTOCOL_VERSION);
+      channel.writeString(userName);
+      channel.writeString(userPassword);
+      channel.writeString(databaseName);
+      channel.flush();
+
+      if (channel.readByte() != BinaryProtocol.RESPONSE_END)
+        throw readError("connect");
+
+      // THE TIMEOUT OF THE REQUESTS IS MANAGED BY THE CALLERS: THE READER THREAD WAITS FOR THE RESPONSES WITHOUT TIMEOUT
+      channel.socket.setSoTimeout(0);
+
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+
+    reader = new Thread(this::readResponses, "ArcadeDB binary client " + channel.getURL());
+    reader.setDaemon(true);
+    reader.start();
+  }
+
+  /**
+   * Sends a request and returns the future completed when the response is received. The request is sent right away also if the responses of the
+   * previous requests have not been received yet.
+   */
+  public CompletableFuture<List<Result>> send(final byte command, final RequestWriter requestWriter) {
+    final CompletableFuture<List<Result>> future = new CompletableFuture<>();
+    if (closed) {
+      future.completeExceptionally(new ConnectionException(channel.getURL(), "Connection closed"));
+      return future;
+    }
+
+    final int requestId = nextRequestId.incrementAndGet();
+    pending.put(requestId, future);
+
+    waitingWriters.incrementAndGet();
+    synchronized (channel) {
+      try {
+        channel.writeInt(requestId);
+        channel.writeByte(command);
+        requestWriter.write(channel, serializer);
+      } catch (IOException | RuntimeException e) {
+        waitingWriters.decrementAndGet();
+        pending.remove(requestId);
+        future.completeExceptionally(e instanceof IOException ? new ConnectionException(channel.getURL(), e) : e);
+        if (e instanceof IOException)
+          close(e);
+        return future;
+      }
+
+      // THE LAST WRITER FLUSHES THE REQUESTS OF THE OTHER WRITERS TOO
+      if (waitingWriters.decrementAndGet() == 0)
+        try {
+          channel.flush();
+        } catch (IOException e) {
+          close(e);
+        }
+    }
+    return future;
+  }
+
+  public int getPendingRequests() {
+    return pending.size();
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  public String getURL() {
+    return channel.getURL();
+  }
+
+  public void close() {
+    if (closed)
+      return;
+
+    synchronized (channel) {
+      try {
+        channel.writeInt(0);
+        channel.writeByte(BinaryProtocol.REQUEST_CLOSE);
+        channel.flush();
+      } catch (IOException e) {
+        // IGNORE IT
+      }
+    }
+    close(null);
+  }
+
+  private void close(final Exception cause) {
+    closed = true;
+    channel.close();
+
+    final ConnectionException exception =
+        cause != null ? new ConnectionException(channel.getURL(), cause) : new ConnectionException(channel.getURL(), "Connection closed");
+    for (Iterator<CompletableFuture<List<Result>>> it = pending.values().iterator(); it.hasNext(); ) {
+      it.next().completeExceptionally(exception);
+      it.remove();
+    }
+  }
+
+  private void readResponses() {
+    try {
+      while (!closed) {
+        final int requestId = channel.readInt();
+
+        final List<Result> results = new ArrayList<>();
+        RuntimeException error = null;
+        for (byte response = channel.readByte(); response != BinaryProtocol.RESPONSE_END; response = channel.readByte()) {
+          if (response == BinaryProtocol.RESPONSE_RESULT)
+            results.add(BinaryProtocol.readResult(new Binary(channel.readBytes()), serializer));
+          else if (response == BinaryProtocol.RESPONSE_ERROR) {
+            error = readError("request");
+            break;
+          } else
+            throw new IOException("Invalid response " + response + " from server " + channel.getURL());
+        }
+
+        final CompletableFuture<List<Result>> future = pending.remove(requestId);
+        if (future == null)
+          LogManager.instance().log(this, Level.WARNING, "Received response for unknown request %d from server %s", null, requestId, channel.getURL());
+        else if (error != null)
+          future.completeExceptionally(error);
+        else
+          future.complete(results);
+      }
+    } catch (IOException | RuntimeException e) {
+      // ALSO A RESULT THAT CANNOT BE DESERIALIZED STOPS THE READER: CLOSE THE CONNECTION TO FAIL THE PENDING REQUESTS INSTEAD OF LEAVING THEM HANGING
+      if (!closed) {
+        LogManager.instance().log(this, Level.FINE, "Error on reading from server %s", e, channel.getURL());
+        close(e);
+      }
+    }
+  }
+
+  private RuntimeException readError(final String operation) throws IOException {
+    final String exception = channel.readString();
+    final String detail = channel.readString();
+    final String exceptionArg = channel.readString();
+    return RemoteDatabase.createException(operation, exception, detail, exceptionArg);
+  }
+}
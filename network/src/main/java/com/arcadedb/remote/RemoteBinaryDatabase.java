@@ -0,0 +1,229 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.remote;
+
+import com.arcadedb.ContextConfiguration;
+import com.arcadedb.GlobalConfiguration;
+import com.arcadedb.database.RID;
+import com.arcadedb.network.binary.BinaryProtocol;
+import com.arcadedb.network.binary.ConnectionException;
+import com.arcadedb.query.sql.executor.InternalResultSet;
+import com.arcadedb.query.sql.executor.Result;
+import com.arcadedb.query.sql.executor.ResultSet;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Remote database accessed through the native binary protocol. It is thread safe: the requests of concurrent threads are multiplexed over a pool of
+ * connections and every thread can pipeline more requests by using the asynchronous methods. Every request is executed in its own transaction on the
+ * server. The records are returned as results with the properties "@rid" and "@type".
+ */
+public class RemoteBinaryDatabase {
+  public static final int                                  DEFAULT_PORT = 2490;
+  private final       String                               server;
+  private final       int                                  port;
+  private final       String                               name;
+  private final       String                               userName;
+  private final       String                               userPassword;
+  private final       ContextConfiguration                 configuration;
+  private final       int                                  poolSize;
+  private final       List<RemoteBinaryConnection>         connections  = new CopyOnWriteArrayList<>();
+  private             int                                  timeout;
+  private volatile    boolean                              closed       = false;
+
+  public RemoteBinaryDatabase(final String server, final int port, final String name, final String userName, final String userPassword) {
+    this(server, port, name, userName, userPassword, new ContextConfiguration());
+  }
+
+  public RemoteBinaryDatabase(final String server, final int port, final String name, final String userName, final String userPassword,
+      final ContextConfiguration configuration) {
+    this.server = server;
+    this.port = port;
+    this.name = name;
+    this.userName = userName;
+    this.userPassword = userPassword;
+    this.configuration = configuration;
+    this.poolSize = Math.max(1, configuration.getValueAsInteger(GlobalConfiguration.NETWORK_BINARY_POOL_SIZE));
+    this.timeout = configuration.getValueAsInteger(GlobalConfiguration.NETWORK_SOCKET_TIMEOUT);
+
+    // OPEN THE FIRST CONNECTION TO CHECK THE CREDENTIALS
+    connections.add(connect());
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public ResultSet query(final String language, final String command, final Object... args) {
+    return waitFor(queryAsync(language, command, args));
+  }
+
+  public ResultSet command(final String language, final String command, final Object... args) {
+    return waitFor(commandAsync(language, command, args));
+  }
+
+  /**
+   * Loads a record by its RID. The record is returned as a result with the properties "@rid" and "@type".
+   */
+  public Result lookupByRID(final RID rid) {
+    final ResultSet resultSet = waitFor(lookupByRIDAsync(rid));
+    return resultSet.hasNext() ? resultSet.next() : null;
+  }
+
+  /**
+   * Prepares the statement on the server and returns its id. The same statement prepared by other clients has the same id.
+   */
+  public long prepare(final String language, final String command) {
+    final ResultSet resultSet = waitFor(send(BinaryProtocol.REQUEST_PREPARE, (channel, serializer) -> {
+      channel.writeString(language);
+      channel.writeString(command);
+    }));
+    return ((Number) resultSet.next().getProperty("id")).longValue();
+  }
+
+  /**
+   * Executes a statement prepared with {@link #prepare(String, String)}. Statements that change the database are executed in a transaction.
+   */
+  public ResultSet executePrepared(final long statementId, final Object... args) {
+    return waitFor(executePreparedAsync(statementId, args));
+  }
+
+  public CompletableFuture<ResultSet> executePreparedAsync(final long statementId, final Object... args) {
+    return send(BinaryProtocol.REQUEST_EXECUTE, (channel, serializer) -> {
+      channel.writeLong(statementId);
+      BinaryProtocol.writeParameters(channel, serializer, args);
+    });
+  }
+
+  public CompletableFuture<ResultSet> queryAsync(final String language, final String command, final Object... args) {
+    return send(BinaryProtocol.REQUEST_QUERY, (channel, serializer) -> {
+      channel.writeString(language);
+      channel.writeString(command);
+      BinaryProtocol.writeParameters(channel, serializer, args);
+    });
+  }
+
+  public CompletableFuture<ResultSet> commandAsync(final String language, final String command, final Object... args) {
+    return send(BinaryProtocol.REQUEST_COMMAND, (channel, serializer) -> {
+      channel.writeString(language);
+      channel.writeString(command);
+      BinaryProtocol.writeParameters(channel, serializer, args);
+    });
+  }
+
+  public CompletableFuture<ResultSet> lookupByRIDAsync(final RID rid) {
+    return send(BinaryProtocol.REQUEST_LOOKUP, (channel, serializer) -> channel.writeRID(rid));
+  }
+
+  public void close() {
+    closed = true;
+    for (RemoteBinaryConnection connection : connections)
+      connection.close();
+    connections.clear();
+  }
+
+  public int getConnections() {
+    return connections.size();
+  }
+
+  public int getTimeout() {
+    return timeout;
+  }
+
+  public void setTimeout(final int timeout) {
+    this.timeout = timeout;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+
+  private CompletableFuture<ResultSet> send(final byte command, final RemoteBinaryConnection.RequestWriter writer) {
+    return acquireConnection().send(command, writer).thenApply(results -> {
+      final InternalResultSet resultSet = new InternalResultSet();
+      for (Result result : results)
+        resultSet.add(result);
+      return resultSet;
+    });
+  }
+
+  private ResultSet waitFor(final CompletableFuture<ResultSet> future) {
+    try {
+      return timeout > 0 ? future.get(timeout, TimeUnit.MILLISECONDS) : future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException)
+        throw (RuntimeException) e.getCause();
+      throw new RemoteException("Error on executing remote operation", e.getCause());
+    } catch (TimeoutException e) {
+      future.cancel(false);
+      throw new RemoteException("Timeout on executing remote operation (timeout=" + timeout + "ms)", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RemoteException("Remote operation interrupted", e);
+    }
+  }
+
+  /**
+   * Returns the connection with less pending requests. A new connection is opened only if all the connections are busy and the pool is not full.
+   */
+  private RemoteBinaryConnection acquireConnection() {
+    if (closed)
+      throw new RemoteException("Remote database '" + name + "' is closed");
+
+    RemoteBinaryConnection best = null;
+    for (RemoteBinaryConnection connection : connections) {
+      if (connection.isClosed()) {
+        connections.remove(connection);
+        continue;
+      }
+      if (best == null || connection.getPendingRequests() < best.getPendingRequests())
+        best = connection;
+    }
+
+    if (best != null && (best.getPendingRequests() == 0 || connections.size() >= poolSize))
+      return best;
+
+    synchronized (connections) {
+      if (connections.size() < poolSize) {
+        final RemoteBinaryConnection connection = connect();
+        connections.add(connection);
+        return connection;
+      }
+    }
+    return best != null ? best : connections.get(0);
+  }
+
+  private RemoteBinaryConnection connect() {
+    try {
+      return new RemoteBinaryConnection(server, port, name, userName, userPassword, configuration);
+    } catch (IOException e) {
+      throw new ConnectionException(server + ":" + port, e);
+    }
+  }
+}
@@ -28,6 +28,7 @@ import com.arcadedb.exception.ConcurrentModificationException;
 import com.arcadedb.exception.*;
 import com.arcadedb.log.LogManager;
 import com.arcadedb.network.binary.QuorumNotReachedException;
+import com.arcadedb.network.binary.ReplicationLagException;
 import com.arcadedb.network.binary.ServerIsNotTheLeaderException;
 import com.arcadedb.query.sql.executor.InternalResultSet;
 import com.arcadedb.query.sql.executor.ResultInternal;
@@ -49,6 +50,8 @@ import java.util.logging.Level;
 public class RemoteDatabase extends RWLockContext {
 
   public static final int                         DEFAULT_PORT              = 2480;
+  public static final String                      HEADER_READ_AFTER         = "arcadedb-read-after";
+  public static final String                      HEADER_LAST_MESSAGE       = "arcadedb-replication-message";
   private final       String                      originalServer;
   private final       int                         originalPort;
   private final       ContextConfiguration        configuration;
@@ -64,6 +67,9 @@ public class RemoteDatabase extends RWLockContext {
   private             int                         timeout                   = 5000;
   private             String                      protocol                  = "http";
   private             String                      charset                   = "UTF-8";
+  private             int                         queryPageSize;
+  private volatile    long                        readAfterWriteToken       = -1;
+  private             long                        maxReplicationLag         = 0;
 
   public RemoteDatabase(final String server, final int port, final String name, final String userName, final String userPassword) {
     this(server, port, name, userName, userPassword, new ContextConfiguration());
@@ -83,6 +89,7 @@ public class RemoteDatabase extends RWLockContext {
 
     this.configuration = configuration;
     this.timeout = this.configuration.getValueAsInteger(GlobalConfiguration.NETWORK_SOCKET_TIMEOUT);
+    this.queryPageSize = this.configuration.getValueAsInteger(GlobalConfiguration.NETWORK_QUERY_PAGE_SIZE);
 
     requestClusterConfiguration();
   }
@@ -146,6 +153,11 @@ public class RemoteDatabase extends RWLockContext {
   public ResultSet query(final String language, final String command, final Object... args) {
     Map<String, Object> params = mapArgs(args);
 
+    if (queryPageSize > 0)
+      // THE RESULTS ARE FETCHED IN PAGES WHILE BROWSING THE RESULT SET
+      return (ResultSet) httpCommand(name, "query", language, command, params, queryPageSize, false, true,
+          (connection, response) -> new RemoteResultSet(this, connection.getURL().getHost(), connection.getURL().getPort(), response));
+
     return (ResultSet) databaseCommand("query", language, command, params, false, new Callback() {
       @Override
       public Object call(final HttpURLConnection connection, final JSONObject response) {
@@ -182,6 +194,42 @@ public class RemoteDatabase extends RWLockContext {
     this.connectionStrategy = connectionStrategy;
   }
 
+  /**
+   * Returns the number of the last replication message seen by this session. It can be passed to another session with
+   * {@link #setReadAfterWriteToken(long)} to read its changes from the replicas.
+   */
+  public long getReadAfterWriteToken() {
+    return readAfterWriteToken;
+  }
+
+  public void setReadAfterWriteToken(final long readAfterWriteToken) {
+    this.readAfterWriteToken = readAfterWriteToken;
+  }
+
+  public long getMaxReplicationLag() {
+    return maxReplicationLag;
+  }
+
+  /**
+   * Sets how many replication messages a replica can be behind the read-after-write token to answer a query. 0 (default) means the session always reads
+   * its own writes, -1 disables the check and the replicas answer with the data they have.
+   */
+  public void setMaxReplicationLag(final long maxReplicationLag) {
+    this.maxReplicationLag = maxReplicationLag;
+  }
+
+  public int getQueryPageSize() {
+    return queryPageSize;
+  }
+
+  /**
+   * Sets the number of results returned in each page by queries. The next pages are fetched from the server while browsing the result set. 0 returns
+   * all the results at once.
+   */
+  public void setQueryPageSize(final int queryPageSize) {
+    this.queryPageSize = queryPageSize;
+  }
+
   public int getTimeout() {
     return timeout;
   }
@@ -197,25 +245,31 @@ public class RemoteDatabase extends RWLockContext {
 
   private Object serverCommand(final String operation, final String language, final String payloadCommand, final Map<String, Object> params,
       final boolean leaderIsPreferable, final boolean autoReconnect, final Callback callback) {
-    return httpCommand(null, operation, language, payloadCommand, params, leaderIsPreferable, autoReconnect, callback);
+    return httpCommand(null, operation, language, payloadCommand, params, 0, leaderIsPreferable, autoReconnect, callback);
   }
 
   private Object databaseCommand(final String operation, final String language, final String payloadCommand, final Map<String, Object> params,
       final boolean requiresLeader, final Callback callback) {
-    return httpCommand(name, operation, language, payloadCommand, params, requiresLeader, true, callback);
+    return httpCommand(name, operation, language, payloadCommand, params, 0, requiresLeader, true, callback);
   }
 
   private Object httpCommand(final String extendedURL, final String operation, final String language, final String payloadCommand,
-      final Map<String, Object> params, final boolean leaderIsPreferable, final boolean autoReconnect, final Callback callback) {
+      final Map<String, Object> params, final int pageSize, final boolean leaderIsPreferable, final boolean autoReconnect, final Callback callback) {
 
     Exception lastException = null;
 
     final int maxRetry = leaderIsPreferable ? 3 : replicaServerList.size() + 1;
 
-    Pair<String, Integer> connectToServer = leaderIsPreferable ? leaderServer : new Pair<>(currentServer, currentPort);
+    Pair<String, Integer> connectToServer;
+    if (leaderIsPreferable)
+      connectToServer = leaderServer;
+    else if (connectionStrategy == CONNECTION_STRATEGY.LOAD_BALANCE_READS && "query".equals(operation))
+      connectToServer = getNextReplicaAddress();
+    else
+      connectToServer = new Pair<>(currentServer, currentPort);
 
     for (int retry = 0; retry < maxRetry && connectToServer != null; ++retry) {
-      String url = protocol + "://" + connectToServer.getFirst() + ":" + connectToServer.getSecond() + "/" + operation;
+      String url = getURL(connectToServer.getFirst(), connectToServer.getSecond(), operation);
 
       if (extendedURL != null)
         url += "/" + extendedURL;
@@ -224,6 +278,10 @@ public class RemoteDatabase extends RWLockContext {
         final HttpURLConnection connection = connect(url);
         try {
 
+          final long readAfter = readAfterWriteToken > -1 && maxReplicationLag > -1 ? readAfterWriteToken - maxReplicationLag : -1;
+          if (readAfter > -1)
+            connection.setRequestProperty(HEADER_READ_AFTER, Long.toString(readAfter));
+
           if (payloadCommand != null) {
             final JSONObject jsonRequest = new JSONObject();
             jsonRequest.put("language", language);
@@ -234,6 +292,9 @@ public class RemoteDatabase extends RWLockContext {
               jsonRequest.put("params", jsonParams);
             }
 
+            if (pageSize > 0)
+              jsonRequest.put("pageSize", pageSize);
+
             final byte[] postData = jsonRequest.toString().getBytes(StandardCharsets.UTF_8);
             connection.setRequestProperty("Content-Length", Integer.toString(postData.length));
             try (DataOutputStream wr = new DataOutputStream(connection.getOutputStream())) {
@@ -245,6 +306,8 @@ public class RemoteDatabase extends RWLockContext {
           connection.setReadTimeout(timeout);
           connection.connect();
 
+          updateReadAfterWriteToken(connection);
+
           if (connection.getResponseCode() != 200) {
             String detail;
             String reason;
@@ -271,25 +334,16 @@ public class RemoteDatabase extends RWLockContext {
               cmd = "-";
 
             if (exception != null) {
-              if (exception.equals(ServerIsNotTheLeaderException.class.getName())) {
-                throw new ServerIsNotTheLeaderException(detail.substring(0, detail.lastIndexOf('.')), exceptionArg);
-              } else if (exception.equals(QuorumNotReachedException.class.getName())) {
+              if (exception.equals(QuorumNotReachedException.class.getName())) {
                 lastException = new QuorumNotReachedException(detail);
                 continue;
-              } else if (exception.equals(DuplicatedKeyException.class.getName())) {
-                final String[] exceptionArgs = exceptionArg.split("\\|");
-                throw new DuplicatedKeyException(exceptionArgs[0], exceptionArgs[1], new RID(null, exceptionArgs[2]));
-              } else if (exception.equals(ConcurrentModificationException.class.getName())) {
-                throw new ConcurrentModificationException(detail);
-              } else if (exception.equals(TransactionException.class.getName())) {
-                throw new TransactionException(detail);
-              } else if (exception.equals(TimeoutException.class.getName())) {
-                throw new TimeoutException(detail);
-              } else if (exception.equals(SchemaException.class.getName())) {
-                throw new SchemaException(detail);
-              } else
-                // ELSE
-                throw new RemoteException("Error on executing remote operation " + operation + " (cause:" + exception + ")");
+              } else if (exception.equals(ReplicationLagException.class.getName()) && leaderServer != null) {
+                // THE REPLICA IS TOO BEHIND, READ FROM THE LEADER
+                lastException = new ReplicationLagException(detail);
+                connectToServer = leaderServer;
+                continue;
+              }
+              throw createException(operation, exception, detail, exceptionArg);
             }
 
             final String httpErrorDescription = connection.getResponseMessage();
@@ -308,6 +362,11 @@ public class RemoteDatabase extends RWLockContext {
 
           final JSONObject response = new JSONObject(FileUtils.readStreamAsString(connection.getInputStream(), charset));
 
+          if (response.has("error") && response.has("exception"))
+            // ERROR HAPPENED AFTER THE SERVER STARTED STREAMING THE RESPONSE
+            throw createException(operation, response.getString("exception"), response.has("detail") ? response.getString("detail") : null,
+                response.has("exceptionArg") ? response.getString("exceptionArg") : null);
+
           if (callback == null)
             return null;
 
@@ -353,6 +412,77 @@ public class RemoteDatabase extends RWLockContext {
     throw new RemoteException("Error on executing remote operation " + operation, lastException);
   }
 
+  /**
+   * Fetches the next page of a cursor from the server that opened it.
+   */
+  JSONObject fetchCursorPage(final String server, final int port, final String cursorId) {
+    return cursorCommand(server, port, cursorId, "POST");
+  }
+
+  void closeCursor(final String server, final int port, final String cursorId) {
+    cursorCommand(server, port, cursorId, "DELETE");
+  }
+
+  private JSONObject cursorCommand(final String server, final int port, final String cursorId, final String method) {
+    try {
+      final HttpURLConnection connection = connect(getURL(server, port, "cursor") + "/" + name + "/" + cursorId);
+      try {
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(timeout);
+        connection.setReadTimeout(timeout);
+        connection.connect();
+
+        if (connection.getResponseCode() != 200) {
+          final String responsePayload = FileUtils.readStreamAsString(connection.getErrorStream(), charset);
+          throw new RemoteException(
+              "Error on executing remote operation on cursor '" + cursorId + "' (httpErrorCode=" + connection.getResponseCode() + " response=" + responsePayload
+                  + ")");
+        }
+
+        final JSONObject response = new JSONObject(FileUtils.readStreamAsString(connection.getInputStream(), charset));
+        if (response.has("error") && response.has("exception"))
+          throw createException("cursor", response.getString("exception"), response.has("detail") ? response.getString("detail") : null,
+              response.has("exceptionArg") ? response.getString("exceptionArg") : null);
+
+        return response;
+
+      } finally {
+        connection.disconnect();
+      }
+    } catch (IOException e) {
+      throw new RemoteException("Error on executing remote operation on cursor '" + cursorId + "'", e);
+    }
+  }
+
+  private String getURL(final String server, final int port, final String operation) {
+    return protocol + "://" + server + ":" + port + "/api/v1/" + operation;
+  }
+
+  static RuntimeException createException(final String operation, final String exception, final String detail, final String exceptionArg) {
+    if (exception.equals(ServerIsNotTheLeaderException.class.getName())) {
+      return new ServerIsNotTheLeaderException(detail.substring(0, detail.lastIndexOf('.')), exceptionArg);
+    } else if (exception.equals(QuorumNotReachedException.class.getName())) {
+      return new QuorumNotReachedException(detail);
+    } else if (exception.equals(ReplicationLagException.class.getName())) {
+      return new ReplicationLagException(detail);
+    } else if (exception.equals(DuplicatedKeyException.class.getName())) {
+      final String[] exceptionArgs = exceptionArg.split("\\|");
+      return new DuplicatedKeyException(exceptionArgs[0], exceptionArgs[1], new RID(null, exceptionArgs[2]));
+    } else if (exception.equals(ConcurrentModificationException.class.getName())) {
+      return new ConcurrentModificationException(detail);
+    } else if (exception.equals(TransactionException.class.getName())) {
+      return new TransactionException(detail);
+    } else if (exception.equals(TimeoutException.class.getName())) {
+      return new TimeoutException(detail);
+    } else if (exception.equals(SchemaException.class.getName())) {
+      return new SchemaException(detail);
+    } else if (exception.equals(RecordNotFoundException.class.getName())) {
+      return new RecordNotFoundException(detail, null);
+    } else
+      // ELSE
+      return new RemoteException("Error on executing remote operation " + operation + " (cause:" + exception + ")");
+  }
+
   protected HttpURLConnection connect(final String url) throws IOException {
     final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
     connection.setRequestProperty("charset", "utf-8");
@@ -407,6 +537,18 @@ public class RemoteDatabase extends RWLockContext {
     });
   }
 
+  /**
+   * Keeps the highest replication message number returned by the servers, so the following reads on the replicas see the changes of this session.
+   */
+  private void updateReadAfterWriteToken(final HttpURLConnection connection) {
+    final String messageNumber = connection.getHeaderField(HEADER_LAST_MESSAGE);
+    if (messageNumber != null) {
+      final long value = Long.parseLong(messageNumber);
+      if (value > readAfterWriteToken)
+        readAfterWriteToken = value;
+    }
+  }
+
   private Pair<String, Integer> getNextReplicaAddress() {
     if (replicaServerList.isEmpty())
       return leaderServer;
@@ -452,8 +594,12 @@ public class RemoteDatabase extends RWLockContext {
     return leaderServer != null;
   }
 
+  /**
+   * With LOAD_BALANCE_READS the queries are distributed round-robin across the replicas, while the commands are sent to the leader. The replicas wait to
+   * be aligned with the read-after-write token of the session before answering, see {@link #setMaxReplicationLag(long)}.
+   */
   public enum CONNECTION_STRATEGY {
-    STICKY, ROUND_ROBIN
+    STICKY, ROUND_ROBIN, LOAD_BALANCE_READS
   }
 
   public interface Callback {
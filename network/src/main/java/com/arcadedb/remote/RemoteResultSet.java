@@ -0,0 +1,104 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.remote;
+
+import com.arcadedb.query.sql.executor.ExecutionPlan;
+import com.arcadedb.query.sql.executor.Result;
+import com.arcadedb.query.sql.executor.ResultInternal;
+import com.arcadedb.query.sql.executor.ResultSet;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.*;
+
+/**
+ * Result set of a remote query fetched in pages. Only the current page is kept in memory: when it is consumed, the next page is fetched from the
+ * server-side cursor. Closing the result set before the end closes the cursor on the server.
+ */
+public class RemoteResultSet implements ResultSet {
+  private final RemoteDatabase database;
+  private final String         server;
+  private final int            port;
+  private       String         cursorId;
+  private       List<Result>   page;
+  private       int            pageIndex = 0;
+
+  public RemoteResultSet(final RemoteDatabase database, final String server, final int port, final JSONObject firstPage) {
+    this.database = database;
+    this.server = server;
+    this.port = port;
+    parsePage(firstPage);
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (pageIndex >= page.size()) {
+      if (cursorId == null)
+        return false;
+
+      parsePage(database.fetchCursorPage(server, port, cursorId));
+    }
+    return true;
+  }
+
+  @Override
+  public Result next() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+    return page.get(pageIndex++);
+  }
+
+  @Override
+  public void close() {
+    if (cursorId != null) {
+      final String id = cursorId;
+      cursorId = null;
+      database.closeCursor(server, port, id);
+    }
+    page = Collections.emptyList();
+    pageIndex = 0;
+  }
+
+  public String getCursorId() {
+    return cursorId;
+  }
+
+  @Override
+  public Optional<ExecutionPlan> getExecutionPlan() {
+    return Optional.empty();
+  }
+
+  @Override
+  public Map<String, Long> getQueryStats() {
+    return new HashMap<>();
+  }
+
+  private void parsePage(final JSONObject response) {
+    final JSONArray resultArray = response.getJSONArray("result");
+    page = new ArrayList<>(resultArray.length());
+    for (int i = 0; i < resultArray.length(); ++i)
+      page.add(new ResultInternal(resultArray.getJSONObject(i).toMap()));
+    pageIndex = 0;
+
+    cursorId = response.has("cursor") ? response.getString("cursor") : null;
+  }
+}
@@ -31,9 +31,9 @@ import com.arcadedb.network.binary.ChannelBinaryServer;
 import com.arcadedb.query.sql.executor.Result;
 import com.arcadedb.query.sql.executor.ResultInternal;
 import com.arcadedb.query.sql.executor.ResultSet;
-import com.arcadedb.query.sql.executor.SQLEngine;
 import com.arcadedb.schema.DocumentType;
 import com.arcadedb.server.ArcadeDBServer;
+import com.arcadedb.server.ServerMetrics;
 import com.arcadedb.server.security.ServerSecurityException;
 import com.arcadedb.utility.FileUtils;
 import com.arcadedb.utility.Pair;
@@ -52,6 +52,7 @@ public class PostgresNetworkExecutor extends Thread {
 
   public static        String                                         PG_SERVER_VERSION          = "10.5";
   private static final int                                            BUFFER_LENGTH              = 32 * 1024;
+  private static final int                                            COLUMNS_SAMPLE_SIZE        = 1000;
   private final        ArcadeDBServer                                 server;
   private              Database                                       database;
   private              ChannelBinaryServer                            channel;
@@ -67,6 +68,7 @@ public class PostgresNetworkExecutor extends Thread {
   private              int                                            consecutiveErrors          = 0;
   private              long                                           processIdSequence          = 0;
   private static       Map<Long, Pair<Long, PostgresNetworkExecutor>> ACTIVE_SESSIONS            = new ConcurrentHashMap<>();
+  private              Map<String, PostgresPortal>                    statements                 = new HashMap<>();
   private              Map<String, PostgresPortal>                    portals                    = new HashMap<>();
   private              boolean                                        DEBUG                      = false;
   private              Map<String, Object>                            connectionProperties       = new HashMap<>();
@@ -140,42 +142,47 @@ public class PostgresNetworkExecutor extends Thread {
             readMessage("any", (type, length) -> {
               consecutiveErrors = 0;
 
-              switch (type) {
-              case 'P':
-                parseCommand();
-                break;
-
-              case 'B':
-                bindCommand();
-                break;
-
-              case 'E':
-                executeCommand();
-                break;
-
-              case 'Q':
-                queryCommand();
-                break;
-
-              case 'S':
-                syncCommand();
-                break;
-
-              case 'D':
-                describeCommand();
-                break;
-
-              case 'C':
-                closeCommand();
-                break;
-
-              case 'X':
-                // TERMINATE
-                shutdown = true;
-                return;
-
-              default:
-                throw new PostgresProtocolException("Message '" + type + "' not managed");
+              final ServerMetrics.MetricTimer timer = server.getServerMetrics().timer("postgres." + getMessageName(type));
+              try {
+                switch (type) {
+                case 'P':
+                  parseCommand();
+                  break;
+
+                case 'B':
+                  bindCommand(length);
+                  break;
+
+                case 'E':
+                  executeCommand();
+                  break;
+
+                case 'Q':
+                  queryCommand();
+                  break;
+
+                case 'S':
+                  syncCommand();
+                  break;
+
+                case 'D':
+                  describeCommand();
+                  break;
+
+                case 'C':
+                  closeCommand();
+                  break;
+
+                case 'X':
+                  // TERMINATE
+                  shutdown = true;
+                  return;
+
+                default:
+                  throw new PostgresProtocolException("Message '" + type + "' not managed");
+                }
+              } finally {
+                timer.stop();
               }
 
             }, 'D', 'P', 'B', 'E', 'Q', 'S', 'C', 'X');
@@ -211,10 +218,15 @@ public class PostgresNetworkExecutor extends Thread {
       LogManager.instance().log(this, Level.INFO, "PSQL: sync");
 
     if (!explicitTransactionStarted) {
-      if (errorInTransaction)
-        database.rollback();
-      else
-        database.commit();
+      // THE PORTALS ARE CLOSED AT THE END OF THE TRANSACTION
+      closePortals();
+
+      if (database.isTransactionActive()) {
+        if (errorInTransaction)
+          database.rollback();
+        else
+          database.commit();
+      }
       errorInTransaction = false;
       explicitTransactionStarted = false;
     }
@@ -226,7 +238,13 @@ public class PostgresNetworkExecutor extends Thread {
     final byte closeType = channel.readByte();
     final String prepStatementOrPortal = readString();
 
-    getPortal(prepStatementOrPortal, true);
+    if (closeType == 'S')
+      statements.remove(prepStatementOrPortal);
+    else {
+      final PostgresPortal portal = getPortal(prepStatementOrPortal, true);
+      if (portal != null)
+        portal.close();
+    }
 
     if (DEBUG)
       LogManager.instance().log(this, Level.INFO, "PSQL: close '%s' type=%s", null, prepStatementOrPortal, (char) closeType);
@@ -241,7 +259,7 @@ public class PostgresNetworkExecutor extends Thread {
     if (DEBUG)
       LogManager.instance().log(this, Level.INFO, "PSQL: describe '%s' type=%s", null, portalName, (char) type);
 
-    final PostgresPortal portal = getPortal(portalName, false);
+    final PostgresPortal portal = type == 'S' ? statements.get(portalName) : getPortal(portalName, false);
     if (portal == null) {
       writeNoData();
       return;
@@ -249,18 +267,14 @@ public class PostgresNetworkExecutor extends Thread {
 
     if (type == 'P') {
       if (portal.statement != null) {
-        final Object[] parameters = portal.parameterValues != null ? portal.parameterValues.toArray() : new Object[0];
-        final ResultSet resultSet = portal.statement.execute(database, parameters);
-        portal.executed = true;
-        if (portal.isExpectingResult) {
-          portal.cachedResultset = browseAndCacheResultset(resultSet);
-          portal.columns = getColumns(portal.cachedResultset);
-          writeRowDescription(portal.columns);
-        } else
+        executePortal(portal);
+        if (portal.isExpectingResult)
+          writeRowDescription(portal.columns, portal.resultFormats);
+        else
           writeNoData();
       } else {
         if (portal.columns != null)
-          writeRowDescription(portal.columns);
+          writeRowDescription(portal.columns, portal.resultFormats);
 
         writeNoData();
       }
@@ -270,42 +284,43 @@ public class PostgresNetworkExecutor extends Thread {
       throw new PostgresProtocolException("Unexpected describe type '" + type + "'");
   }
 
+  /**
+   * Executes the portal returning at most <code>limit</code> rows (0 = all the rows). If there are more rows, the result set is kept open in the portal
+   * and the portal is suspended: the next execute message resumes it from the next row.
+   */
   private void executeCommand() {
     try {
       final String portalName = readString();
       final int limit = (int) channel.readUnsignedInt();
 
-      final PostgresPortal portal = getPortal(portalName, true);
+      final PostgresPortal portal = getPortal(portalName, false);
       if (portal == null) {
-        writeNoData();
-        writeCommandComplete(portal.query, portal.cachedResultset == null ? 0 : portal.cachedResultset.size());
+        writeError(ERROR_SEVERITY.ERROR, "Portal '" + portalName + "' not found", "34000");
         return;
       }
 
       if (DEBUG)
         LogManager.instance().log(this, Level.INFO, "PSQL: execute (portal=%s) (limit=%d)-> %s", null, portalName, limit, portal);
 
-      if (portal.ignoreExecution)
+      if (portal.ignoreExecution) {
+        getPortal(portalName, true);
         writeMessage("empty query response", null, 'I', 4);
-      else {
-        if (!portal.executed) {
-          final Object[] parameters = portal.parameterValues != null ? portal.parameterValues.toArray() : new Object[0];
-          final ResultSet resultSet = portal.statement.execute(database, parameters);
-          portal.executed = true;
-          if (portal.isExpectingResult) {
-            portal.cachedResultset = browseAndCacheResultset(resultSet);
-            portal.columns = getColumns(portal.cachedResultset);
-            writeRowDescription(portal.columns);
-          }
-        }
+        return;
+      }
 
-        if (portal.isExpectingResult)
-          writeDataRows(portal.cachedResultset, portal.columns);
-        else
-          writeNoData();
+      // ROW DESCRIPTION AND NO DATA ARE SENT ONLY AS RESPONSE TO DESCRIBE
+      if (!portal.executed)
+        executePortal(portal);
 
-        writeCommandComplete(portal.query, portal.cachedResultset == null ? 0 : portal.cachedResultset.size());
+      if (portal.isExpectingResult && writeDataRows(portal, limit)) {
+        writeMessage("portal suspended", null, 's', 4);
+        return;
       }
+
+      getPortal(portalName, true);
+      portal.close();
+      writeCommandComplete(portal.query, portal.returnedRows);
+
     } catch (QueryParsingException | CommandSQLParsingException e) {
       if (database.isTransactionActive())
         errorInTransaction = true;
@@ -316,11 +331,24 @@ public class PostgresNetworkExecutor extends Thread {
         errorInTransaction = true;
 
       writeError(ERROR_SEVERITY.ERROR, "Error on executing query: " + e.getMessage(), "XX000");
-    } finally {
-      writeReadyForQueryMessage();
     }
   }
 
+  /**
+   * Executes the statement of the portal keeping the result set open. Only the first rows are fetched to find the columns of the result.
+   */
+  private void executePortal(final PostgresPortal portal) {
+    final Object[] parameters = portal.parameterValues != null ? portal.parameterValues.toArray() : new Object[0];
+    final ResultSet resultSet = portal.statement.execute(parameters);
+    portal.executed = true;
+    if (portal.isExpectingResult) {
+      portal.resultSet = resultSet;
+      portal.cachedResultset = browseAndCacheResultset(resultSet, COLUMNS_SAMPLE_SIZE);
+      portal.columns = getColumns(portal.cachedResultset);
+    } else
+      resultSet.close();
+  }
+
   private void queryCommand() {
     try {
       String queryText = readString().trim();
@@ -330,8 +358,14 @@ public class PostgresNetworkExecutor extends Thread {
       if (DEBUG)
         LogManager.instance().log(this, Level.INFO, "PSQL: query -> %s", null, queryText);
 
-      if (queryText.isEmpty()) {
+      final String upperCaseText = queryText.toUpperCase();
+      if (queryText.isEmpty() || upperCaseText.startsWith("SHOW ")) {
+
+        writeMessage("empty query response", null, 'I', 4);
+
+      } else if (upperCaseText.startsWith("SET ")) {
 
+        setConnectionProperty(queryText);
         writeMessage("empty query response", null, 'I', 4);
 
       } else {
@@ -346,17 +380,22 @@ public class PostgresNetworkExecutor extends Thread {
           language = "mongo";
           queryText = queryText.substring("{mongo}".length());
         }
-        final ResultSet resultSet = database.command(language, queryText);
-
-        final List<Result> cachedResultset = browseAndCacheResultset(resultSet);
-
-        if (cachedResultset.isEmpty())
-          writeMessage("empty query response", null, 'I', 4);
-        else {
-          final Map<String, PostgresType> columns = getColumns(cachedResultset);
-          writeRowDescription(columns);
-          writeDataRows(cachedResultset, columns);
-          writeCommandComplete(queryText, cachedResultset.size());
+        // THE SIMPLE QUERY PROTOCOL RETURNS ALL THE ROWS IN TEXT FORMAT
+        final PostgresPortal portal = new PostgresPortal(queryText);
+        portal.resultSet = database.command(language, queryText);
+        try {
+          portal.cachedResultset = browseAndCacheResultset(portal.resultSet, COLUMNS_SAMPLE_SIZE);
+
+          if (portal.cachedResultset.isEmpty())
+            writeMessage("empty query response", null, 'I', 4);
+          else {
+            portal.columns = getColumns(portal.cachedResultset);
+            writeRowDescription(portal.columns, null);
+            writeDataRows(portal, 0);
+            writeCommandComplete(queryText, portal.returnedRows);
+          }
+        } finally {
+          portal.close();
         }
       }
     } catch (QueryParsingException | CommandSQLParsingException e) {
@@ -386,9 +425,9 @@ public class PostgresNetworkExecutor extends Thread {
     }, 'Z', 5);
   }
 
-  private List<Result> browseAndCacheResultset(ResultSet resultSet) {
+  private List<Result> browseAndCacheResultset(final ResultSet resultSet, final int limit) {
     final List<Result> cachedResultset = new ArrayList<>();
-    while (resultSet.hasNext()) {
+    while (cachedResultset.size() < limit && resultSet.hasNext()) {
       final Result row = resultSet.next();
       if (row == null)
         continue;
@@ -431,12 +470,13 @@ public class PostgresNetworkExecutor extends Thread {
     return columns;
   }
 
-  private void writeRowDescription(final Map<String, PostgresType> columns) {
+  private void writeRowDescription(final Map<String, PostgresType> columns, final List<Integer> resultFormats) {
     if (columns == null)
       return;
 
     final ByteBuffer bufferDescription = ByteBuffer.allocate(64 * 1024);
 
+    int i = 0;
     for (Map.Entry<String, PostgresType> col : columns.entrySet()) {
       final String columnName = col.getKey();
       final PostgresType columnType = col.getValue();
@@ -450,8 +490,8 @@ public class PostgresNetworkExecutor extends Thread {
       bufferDescription.putInt(columnType.code);// The object ID of the field's data type.
       bufferDescription.putShort((short) columnType.size);// The data type size (see pg_type.typlen). Note that negative values denote variable-width types.
       bufferDescription.putInt(columnType.modifier);// The type modifier (see pg_attribute.atttypmod). The meaning of the modifier is type-specific.
-      bufferDescription.putShort(
-          (short) 1); // The format code being used for the field. Currently will be zero (text) or one (binary). In a RowDescription returned from the statement variant of Describe, the format code is not yet known and will always be zero.
+      bufferDescription.putShort((short) getColumnFormat(resultFormats, i++,
+          columnType)); // The format code being used for the field. Currently will be zero (text) or one (binary). In a RowDescription returned from the statement variant of Describe, the format code is not yet known and will always be zero.
     }
 
     bufferDescription.flip();
@@ -461,47 +501,83 @@ public class PostgresNetworkExecutor extends Thread {
     }, 'T', 4 + 2 + bufferDescription.limit());
   }
 
-  private void writeDataRows(final List<Result> resultSet, final Map<String, PostgresType> columns) throws IOException {
-    final ByteBuffer bufferData = ByteBuffer.allocate(64 * 1024);
+  /**
+   * Writes at most <code>limit</code> rows (0 = all the rows) of the portal. Returns true if there are more rows to write.
+   */
+  private boolean writeDataRows(final PostgresPortal portal, final int limit) throws IOException {
+    final Map<String, PostgresType> columns = portal.columns;
+    final int[] formats = new int[columns.size()];
+    int i = 0;
+    for (PostgresType type : columns.values()) {
+      formats[i] = getColumnFormat(portal.resultFormats, i, type);
+      ++i;
+    }
+
     final ByteBuffer bufferValues = ByteBuffer.allocate(64 * 1024);
 
-    for (Result row : resultSet) {
+    int written = 0;
+    while ((limit <= 0 || written < limit) && portal.hasNextRow()) {
+      final Result row = portal.nextRow();
+      if (row == null)
+        continue;
+
       bufferValues.clear();
       bufferValues.putShort((short) columns.size()); // Int16 The number of column values that follow (possibly zero).
 
+      i = 0;
       for (Map.Entry<String, PostgresType> entry : columns.entrySet()) {
         final String propertyName = entry.getKey();
         final Object value = row.getProperty(propertyName);
 
-        entry.getValue().serialize(bufferValues, value);
+        entry.getValue().serialize(bufferValues, formats[i++], value);
       }
 
       bufferValues.flip();
-      bufferData.put((byte) 'D');
-      bufferData.putInt(4 + bufferValues.limit());
-      bufferData.put(bufferValues);
+      channel.writeByte((byte) 'D');
+      channel.writeUnsignedInt(4 + bufferValues.limit());
+      channel.writeBuffer(bufferValues);
+      ++written;
     }
 
-    bufferData.flip();
-    channel.writeBuffer(bufferData);
     channel.flush();
 
     if (DEBUG)
-      LogManager.instance().log(this, Level.INFO, "PSQL:-> %d row data (%s)", null, resultSet.size(), FileUtils.getSizeAsString(bufferData.limit()));
+      LogManager.instance().log(this, Level.INFO, "PSQL:-> %d row data", null, written);
+
+    return portal.hasNextRow();
   }
 
-  private void bindCommand() {
+  /**
+   * Returns the format of the column requested by the client with the bind message. With no formats the columns are in text format, with one format
+   * it is applied to all the columns. The binary format is used only for the types that support it.
+   */
+  private static int getColumnFormat(final List<Integer> resultFormats, final int columnIndex, final PostgresType type) {
+    int format = PostgresType.FORMAT_TEXT;
+    if (resultFormats != null && !resultFormats.isEmpty())
+      format = resultFormats.size() == 1 ? resultFormats.get(0) : columnIndex < resultFormats.size() ? resultFormats.get(columnIndex) : PostgresType.FORMAT_TEXT;
+
+    return format == PostgresType.FORMAT_BINARY && type.isBinaryFormatSupported() ? PostgresType.FORMAT_BINARY : PostgresType.FORMAT_TEXT;
+  }
+
+  private void bindCommand(final long length) {
     try {
       // BIND
       final String portalName = readString();
       final String sourcePreparedStatement = readString();
 
-      final PostgresPortal portal = getPortal(portalName, false);
-      if (portal == null) {
-        writeMessage("bind complete", null, '2', 4);
+      final PostgresPortal preparedStatement = statements.get(sourcePreparedStatement);
+      if (preparedStatement == null) {
+        // SKIP THE REST OF THE MESSAGE
+        readBytes((int) (length - portalName.getBytes(StandardCharsets.UTF_8).length - sourcePreparedStatement.getBytes(StandardCharsets.UTF_8).length - 2));
+        writeError(ERROR_SEVERITY.ERROR, "Prepared statement '" + sourcePreparedStatement + "' not found", "26000");
         return;
       }
 
+      final PostgresPortal portal = preparedStatement.bind();
+      final PostgresPortal previous = portals.put(portalName, portal);
+      if (previous != null)
+        previous.close();
+
       if (DEBUG)
         LogManager.instance().log(this, Level.INFO, "PSQL: bind (portal=%s) -> %s", null, portalName, sourcePreparedStatement);
 
@@ -567,18 +643,7 @@ public class PostgresNetworkExecutor extends Thread {
 
       final String upperCaseText = portal.query.toUpperCase();
       if (upperCaseText.startsWith("SET ")) {
-
-        final String q = portal.query.substring("SET ".length());
-        final String[] parts = q.split("=");
-
-        parts[0] = parts[0].trim();
-        parts[1] = parts[1].trim();
-
-        if (parts[1].startsWith("'") || parts[1].startsWith("\""))
-          parts[1] = parts[1].substring(1, parts[1].length() - 1);
-
-        connectionProperties.put(parts[0], parts[1]);
-
+        setConnectionProperty(portal.query);
         portal.ignoreExecution = true;
       } else if (upperCaseText.startsWith("SHOW ")) {
         portal.ignoreExecution = true;
@@ -636,14 +701,15 @@ public class PostgresNetworkExecutor extends Thread {
           }
         }
       } else
-        portal.statement = SQLEngine.parse(portal.query, (DatabaseInternal) database);
+        // THE STATEMENT IS SHARED WITH THE OTHER CONNECTIONS AND PROTOCOLS PREPARING THE SAME QUERY
+        portal.statement = ((DatabaseInternal) database).getPreparedStatementCache().prepareImplicit("sql", portal.query);
 
       if (portal.query.equalsIgnoreCase("BEGIN")) {
         explicitTransactionStarted = true;
         portal.isExpectingResult = false;
       }
 
-      portals.put(portalName, portal);
+      statements.put(portalName, portal);
 
       // ParseComplete
       writeMessage("parse complete", null, '1', 4);
@@ -817,6 +883,29 @@ public class PostgresNetworkExecutor extends Thread {
     }
   }
 
+  private static String getMessageName(final char type) {
+    switch (type) {
+    case 'P':
+      return "parse";
+    case 'B':
+      return "bind";
+    case 'E':
+      return "execute";
+    case 'Q':
+      return "query";
+    case 'S':
+      return "sync";
+    case 'D':
+      return "describe";
+    case 'C':
+      return "close";
+    case 'X':
+      return "terminate";
+    default:
+      return "unknown";
+    }
+  }
+
   private void readMessage(final String messageName, final ReadMessageCallback callback, final char... expectedMessageCodes) {
     try {
       final char type = (char) readNextByte();
@@ -840,8 +929,8 @@ public class PostgresNetworkExecutor extends Thread {
         }
       }
 
-      if (length > 4)
-        callback.read(type, length - 4);
+      // MESSAGES WITHOUT PAYLOAD (SYNC, TERMINATE) ARE DISPATCHED TOO
+      callback.read(type, length - 4);
 
     } catch (EOFException e) {
       // CLIENT CLOSES THE CONNECTION
@@ -933,10 +1022,28 @@ public class PostgresNetworkExecutor extends Thread {
     }, 'C', 4 + tag.length() + 1);
   }
 
+  private void setConnectionProperty(final String query) {
+    final String[] parts = query.substring("SET ".length()).split("=");
+
+    parts[0] = parts[0].trim();
+    parts[1] = parts[1].trim();
+
+    if (parts[1].startsWith("'") || parts[1].startsWith("\""))
+      parts[1] = parts[1].substring(1, parts[1].length() - 1);
+
+    connectionProperties.put(parts[0], parts[1]);
+  }
+
   private void writeNoData() {
     writeMessage("no data", null, 'n', 4);
   }
 
+  private void closePortals() {
+    for (PostgresPortal portal : portals.values())
+      portal.close();
+    portals.clear();
+  }
+
   private PostgresPortal getPortal(final String name, final boolean remove) {
     if (remove)
       return portals.remove(name);
@@ -20,8 +20,9 @@
  */
 package com.arcadedb.postgres;
 
+import com.arcadedb.query.PreparedStatement;
 import com.arcadedb.query.sql.executor.Result;
-import com.arcadedb.query.sql.parser.Statement;
+import com.arcadedb.query.sql.executor.ResultSet;
 
 import java.util.List;
 import java.util.Map;
@@ -32,9 +33,11 @@ public class PostgresPortal {
   public List<Integer>             parameterFormats;
   public List<Object>              parameterValues;
   public List<Integer>             resultFormats;
-  public Statement                 statement;
+  public PreparedStatement         statement;
   public boolean                   ignoreExecution   = false;
   public List<Result>              cachedResultset;
+  public ResultSet                 resultSet;
+  public int                       returnedRows      = 0;
   public Map<String, PostgresType> columns;
   public boolean                   isExpectingResult = true;
   public boolean                   executed          = false;
@@ -45,6 +48,41 @@ public class PostgresPortal {
     this.isExpectingResult = true;//queryUpperCase.startsWith("SELECT") || queryUpperCase.startsWith("MATCH");
   }
 
+  /**
+   * Creates the portal to execute from this prepared statement. The parameters are set by the bind message.
+   */
+  public PostgresPortal bind() {
+    final PostgresPortal portal = new PostgresPortal(query);
+    portal.parameterTypes = parameterTypes;
+    portal.statement = statement;
+    portal.ignoreExecution = ignoreExecution;
+    portal.cachedResultset = cachedResultset;
+    portal.columns = columns;
+    portal.isExpectingResult = isExpectingResult;
+    portal.executed = executed;
+    return portal;
+  }
+
+  /**
+   * Returns true if there are more rows to return. The rows are returned from the cached result set first and then from the open result set.
+   */
+  public boolean hasNextRow() {
+    return (cachedResultset != null && returnedRows < cachedResultset.size()) || (resultSet != null && resultSet.hasNext());
+  }
+
+  public Result nextRow() {
+    final Result row = cachedResultset != null && returnedRows < cachedResultset.size() ? cachedResultset.get(returnedRows) : resultSet.next();
+    ++returnedRows;
+    return row;
+  }
+
+  public void close() {
+    if (resultSet != null) {
+      resultSet.close();
+      resultSet = null;
+    }
+  }
+
   @Override
   public String toString() {
     return query;
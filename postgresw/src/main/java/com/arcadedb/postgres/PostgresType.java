@@ -24,6 +24,8 @@ package com.arcadedb.postgres;
 import com.arcadedb.database.Binary;
 
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
 import java.util.Date;
 
 public enum PostgresType {
@@ -51,6 +53,60 @@ public enum PostgresType {
     this.modifier = modifier;
   }
 
+  public static final int FORMAT_TEXT   = 0;
+  public static final int FORMAT_BINARY = 1;
+
+  /**
+   * Returns true if the values of this type can be sent in binary format. The other types are always sent as text.
+   */
+  public boolean isBinaryFormatSupported() {
+    switch (this) {
+    case SMALLINT:
+    case INTEGER:
+    case LONG:
+    case REAL:
+    case DOUBLE:
+    case CHAR:
+    case BOOLEAN:
+    case VARCHAR:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  public void serialize(final ByteBuffer typeBuffer, final int format, final Object value) {
+    if (format == FORMAT_BINARY)
+      serialize(typeBuffer, value);
+    else
+      serializeAsText(typeBuffer, value);
+  }
+
+  public void serializeAsText(final ByteBuffer typeBuffer, final Object value) {
+    if (value == null) {
+      typeBuffer.putInt(-1);
+      return;
+    }
+
+    final String text;
+    switch (this) {
+    case BOOLEAN:
+      text = ((Boolean) value) ? "t" : "f";
+      break;
+
+    case DATE:
+      text = new SimpleDateFormat("yyyy-MM-dd").format((Date) value);
+      break;
+
+    default:
+      text = value.toString();
+    }
+
+    final byte[] str = text.getBytes(StandardCharsets.UTF_8);
+    typeBuffer.putInt(str.length);
+    typeBuffer.put(str);
+  }
+
   public void serialize(final ByteBuffer typeBuffer, final Object value) {
     if (value == null) {
       typeBuffer.putInt(-1);
@@ -59,7 +115,7 @@ public enum PostgresType {
 
     switch (this) {
     case VARCHAR:
-      final byte[] str = value.toString().getBytes();
+      final byte[] str = value.toString().getBytes(StandardCharsets.UTF_8);
       typeBuffer.putInt(str.length);
       typeBuffer.put(str);
       break;
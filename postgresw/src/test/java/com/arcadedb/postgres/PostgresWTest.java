@@ -96,6 +96,55 @@ public class PostgresWTest extends BaseGraphServerTest {
     }
   }
 
+  @Test
+  public void queryWithFetchSize() throws Exception {
+    try (final Connection conn = getConnection()) {
+      try (Statement st = conn.createStatement()) {
+        st.execute("create vertex type V");
+        for (int i = 0; i < 100; i++)
+          st.execute("create vertex V set id = " + i + ", name = 'v" + i + "'");
+      }
+
+      // THE DRIVER FETCHES THE ROWS IN BATCHES ONLY OUTSIDE AUTO-COMMIT: EVERY BATCH RESUMES THE SUSPENDED PORTAL
+      conn.setAutoCommit(false);
+      try (Statement st = conn.createStatement()) {
+        st.setFetchSize(10);
+        try (ResultSet rs = st.executeQuery("SELECT id, name FROM V")) {
+          int total = 0;
+          long sum = 0;
+          while (rs.next()) {
+            Assertions.assertEquals("v" + rs.getInt(1), rs.getString(2));
+            sum += rs.getLong(1);
+            ++total;
+          }
+          Assertions.assertEquals(100, total);
+          Assertions.assertEquals(99 * 100 / 2, sum);
+        }
+      }
+      conn.commit();
+    }
+  }
+
+  @Test
+  public void querySimpleProtocol() throws Exception {
+    final Properties props = new Properties();
+    props.setProperty("preferQueryMode", "simple");
+    try (final Connection conn = getConnection(props)) {
+      try (Statement st = conn.createStatement()) {
+        st.execute("create vertex type V");
+        st.execute("create vertex V set id = 3, price = 1.5, name = 'Jay'");
+
+        try (ResultSet rs = st.executeQuery("SELECT id, price, name FROM V")) {
+          Assertions.assertTrue(rs.next());
+          Assertions.assertEquals(3, rs.getInt(1));
+          Assertions.assertEquals(1.5, rs.getDouble(2));
+          Assertions.assertEquals("Jay", rs.getString(3));
+          Assertions.assertFalse(rs.next());
+        }
+      }
+    }
+  }
+
   //@Test
   public void queryTransaction() throws Exception {
     try (final Connection conn = getConnection()) {
@@ -142,10 +191,13 @@ public class PostgresWTest extends BaseGraphServerTest {
   }
 
   private Connection getConnection() throws ClassNotFoundException, SQLException {
+    return getConnection(new Properties());
+  }
+
+  private Connection getConnection(final Properties props) throws ClassNotFoundException, SQLException {
     Class.forName("org.postgresql.Driver");
 
     String url = "jdbc:postgresql://localhost/" + getDatabaseName();
-    Properties props = new Properties();
     props.setProperty("user", "root");
     props.setProperty("password", DEFAULT_PASSWORD_FOR_TESTS);
     props.setProperty("ssl", "false");
@@ -21,107 +21,253 @@
 package com.arcadedb.redis;
 
 import com.arcadedb.Constants;
-import com.arcadedb.database.Database;
+import com.arcadedb.GlobalConfiguration;
 import com.arcadedb.network.binary.ChannelBinaryServer;
 import com.arcadedb.server.ArcadeDBServer;
+import com.arcadedb.server.ServerMetrics;
 
 import java.io.EOFException;
 import java.io.IOException;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 
+/**
+ * Executes the commands of a Redis client. The commands already received in the same network read (pipelining) are executed in one transaction and their
+ * responses are sent back with one write.
+ */
 public class RedisNetworkExecutor extends Thread {
-  private static final byte[]              LF       = new byte[] { '\r', '\n' };
-  private final        ArcadeDBServer      server;
-  private final        Database            database;
-  private              ChannelBinaryServer channel;
-  private volatile     boolean             shutdown = false;
+  private final    ArcadeDBServer      server;
+  private final    RedisStore          store;
+  private final    int                 retries;
+  private          ChannelBinaryServer channel;
+  private volatile boolean             shutdown = false;
 
   private       int           posInBuffer = 0;
   private final StringBuilder value       = new StringBuilder();
+  private final StringBuilder response    = new StringBuilder();
+  private final List<Object>  commands    = new ArrayList<>();
   private final byte[]        buffer      = new byte[32 * 1024];
   private       int           bytesRead   = 0;
 
-  public RedisNetworkExecutor(final ArcadeDBServer server, final Socket socket, final Database database) throws IOException {
+  public RedisNetworkExecutor(final ArcadeDBServer server, final Socket socket, final RedisStore store) throws IOException {
     setName(Constants.PRODUCT + "-redis/" + socket.getInetAddress());
     this.server = server;
     this.channel = new ChannelBinaryServer(socket, server.getConfiguration());
-    this.database = database;
+    this.store = store;
+    this.retries = server.getConfiguration().getValueAsInteger(GlobalConfiguration.TX_RETRIES);
   }
 
   @Override
   public void run() {
     while (!shutdown) {
       try {
-        executeCommand(parseNext());
+        commands.clear();
+        do {
+          commands.add(parseNext());
+        } while (posInBuffer < bytesRead);
+
+        executeCommands();
 
-        replyToClient(value);
+        replyToClient(response);
 
       } catch (EOFException | SocketException e) {
-        server.log(this, Level.FINE, "Redis wrapper: Error on reading request", e);
+        server.log(this, Level.FINE, "Redis wrapper: Error on reading request: %s", e);
         close();
       } catch (SocketTimeoutException e) {
         // IGNORE IT
       } catch (IOException e) {
-        server.log(this, Level.SEVERE, "Redis wrapper: Error on reading request", e);
+        server.log(this, Level.SEVERE, "Redis wrapper: Error on reading request: %s", e);
       }
     }
   }
 
-  private void executeCommand(final Object command) {
-    value.setLength(0);
+  private void executeCommands() {
+    // THE PIPELINED COMMANDS ARE EXECUTED IN THE SAME TRANSACTION, SO THE LATENCY IS MEASURED ON THE WHOLE BATCH
+    final ServerMetrics.MetricTimer timer = server.getServerMetrics().timer("redis.batch");
+    try {
+      store.getDatabase().transaction((db) -> {
+        // IN CASE OF RETRY THE RESPONSES ARE REBUILT FROM SCRATCH
+        response.setLength(0);
+        for (Object command : commands)
+          executeCommand(command);
+      }, false, retries);
+
+    } catch (Exception e) {
+      server.log(this, Level.SEVERE, "Redis wrapper: Error on executing %d commands: %s", commands.size(), e);
+
+      // THE WHOLE BATCH HAS BEEN ROLLED BACK: EVERY COMMAND GETS THE ERROR
+      response.setLength(0);
+      final String error = "-ERR " + String.valueOf(e.getMessage()).replace('\r', ' ').replace('\n', ' ') + "\r\n";
+      for (int i = 0; i < commands.size(); ++i)
+        response.append(error);
+    } finally {
+      timer.stop();
+    }
+  }
 
-    if (command instanceof List) {
-      final List<Object> list = (List<Object>) command;
-      if (list.isEmpty())
-        return;
+  private void executeCommand(final Object command) {
+    if (!(command instanceof List) || ((List<Object>) command).isEmpty()) {
+      server.log(this, Level.SEVERE, "Redis wrapper: Invalid command %s", command);
+      response.append("-ERR invalid command\r\n");
+      return;
+    }
 
-      final Object cmd = list.get(0);
-      if (!(cmd instanceof String))
-        server.log(this, Level.SEVERE, "Redis wrapper: Invalid command[0] %s (type=%s)", command, cmd.getClass());
+    final List<Object> list = (List<Object>) command;
+    final String cmdString = String.valueOf(list.get(0)).toUpperCase();
 
-      final String cmdString = (String) cmd;
+    try {
+      switch (cmdString) {
+      case "PING":
+        if (list.size() > 1)
+          appendBulkString(getArgument(list, 1));
+        else
+          response.append("+PONG\r\n");
+        break;
+
+      case "ECHO":
+        checkArguments(list, 2);
+        appendBulkString(getArgument(list, 1));
+        break;
+
+      case "GET":
+        checkArguments(list, 2);
+        appendBulkString(store.get(getArgument(list, 1)));
+        break;
+
+      case "SET":
+        checkArguments(list, 3);
+        store.set(getArgument(list, 1), getArgument(list, 2));
+        response.append("+OK\r\n");
+        break;
+
+      case "MGET": {
+        if (list.size() < 2)
+          throw wrongArguments(list);
+        response.append('*').append(list.size() - 1).append("\r\n");
+        for (int i = 1; i < list.size(); ++i) {
+          String v;
+          try {
+            v = store.get(getArgument(list, i));
+          } catch (RedisException e) {
+            // MGET RETURNS NULL FOR THE KEYS THAT ARE NOT STRINGS
+            v = null;
+          }
+          appendBulkString(v);
+        }
+        break;
+      }
 
-      if (cmdString.equals("GET")) {
-        value.append("+bar\r\n");
-      } else if (cmdString.equals("SET")) {
-        final String k = (String) list.get(1);
-        final String v = (String) list.get(2);
+      case "MSET":
+        if (list.size() < 3 || list.size() % 2 == 0)
+          throw wrongArguments(list);
+        for (int i = 1; i < list.size(); i += 2)
+          store.set(getArgument(list, i), getArgument(list, i + 1));
+        response.append("+OK\r\n");
+        break;
+
+      case "DEL": {
+        if (list.size() < 2)
+          throw wrongArguments(list);
+        int deleted = 0;
+        for (int i = 1; i < list.size(); ++i)
+          if (store.delete(getArgument(list, i)))
+            ++deleted;
+        appendInteger(deleted);
+        break;
+      }
 
-        insert("_default", k, v);
+      case "EXISTS": {
+        if (list.size() < 2)
+          throw wrongArguments(list);
+        int found = 0;
+        for (int i = 1; i < list.size(); ++i)
+          if (store.exists(getArgument(list, i)))
+            ++found;
+        appendInteger(found);
+        break;
+      }
 
-        value.append("+OK\r\n");
-      } else if (cmdString.equals("HGET")) {
-        final String bucket = (String) list.get(1);
-        final String k = (String) list.get(2);
+      case "INCR":
+        checkArguments(list, 2);
+        appendInteger(store.incrementBy(getArgument(list, 1), 1));
+        break;
+
+      case "INCRBY":
+        checkArguments(list, 3);
+        appendInteger(store.incrementBy(getArgument(list, 1), parseLong(getArgument(list, 2))));
+        break;
+
+      case "DECR":
+        checkArguments(list, 2);
+        appendInteger(store.incrementBy(getArgument(list, 1), -1));
+        break;
+
+      case "DECRBY":
+        checkArguments(list, 3);
+        appendInteger(store.incrementBy(getArgument(list, 1), -parseLong(getArgument(list, 2))));
+        break;
+
+      case "HGET":
+        checkArguments(list, 3);
+        appendBulkString(store.hashGet(getArgument(list, 1), getArgument(list, 2)));
+        break;
+
+      case "HSET": {
+        if (list.size() < 4 || list.size() % 2 != 0)
+          throw wrongArguments(list);
+        final Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 2; i < list.size(); i += 2)
+          fields.put(getArgument(list, i), getArgument(list, i + 1));
+        appendInteger(store.hashSet(getArgument(list, 1), fields));
+        break;
+      }
 
-        final String v = read(bucket, k);
+      default:
+        response.append("-ERR unknown command '").append(list.get(0)).append("'\r\n");
+      }
 
-        value.append("+" + v + "\r\n");
-      } else if (cmdString.equals("HSET")) {
-        final String bucket = (String) list.get(1);
-        final String k = (String) list.get(2);
-        final String v = (String) list.get(3);
+    } catch (RedisException e) {
+      response.append('-').append(e.getMessage()).append("\r\n");
+    }
+  }
 
-        insert(bucket, k, v);
+  private void appendBulkString(final String v) {
+    if (v == null)
+      response.append("$-1\r\n");
+    else
+      response.append('$').append(v.getBytes(StandardCharsets.UTF_8).length).append("\r\n").append(v).append("\r\n");
+  }
 
-        value.append("+1\r\n");
-      }
+  private void appendInteger(final long v) {
+    response.append(':').append(v).append("\r\n");
+  }
 
-    } else
-      server.log(this, Level.SEVERE, "Redis wrapper: Invalid command %s", command);
+  private static String getArgument(final List<Object> list, final int index) {
+    return String.valueOf(list.get(index));
   }
 
-  private String read(final String bucketName, final String key) {
-    return "";
+  private static void checkArguments(final List<Object> list, final int expected) {
+    if (list.size() != expected)
+      throw wrongArguments(list);
   }
 
-  private void insert(final String bucketName, final String key, final String value) {
+  private static RedisException wrongArguments(final List<Object> list) {
+    return new RedisException("ERR wrong number of arguments for '" + String.valueOf(list.get(0)).toLowerCase() + "' command");
+  }
 
+  private static long parseLong(final String v) {
+    try {
+      return Long.parseLong(v);
+    } catch (NumberFormatException e) {
+      throw new RedisException("ERR value is not an integer or out of range");
+    }
   }
 
   private Object parseNext() throws IOException {
@@ -134,8 +280,11 @@ public class RedisNetworkExecutor extends Thread {
       // INTEGER
       return Integer.parseInt(parseValueUntilLF());
     else if (b == '$') {
-      // BATCH STRING
-      final String value = parseChars(Integer.parseInt(parseValueUntilLF()));
+      // BULK STRING
+      final int size = Integer.parseInt(parseValueUntilLF());
+      if (size < 0)
+        return null;
+      final String value = parseChars(size);
       skipLF();
       return value;
     } else if (b == '*') {
@@ -187,14 +336,12 @@ public class RedisNetworkExecutor extends Thread {
   }
 
   private String parseChars(final int size) throws IOException {
-    value.setLength(0);
+    // BULK STRINGS ARE BINARY SAFE: THEIR SIZE IS IN BYTES
+    final byte[] bytes = new byte[size];
+    for (int i = 0; i < size && !shutdown; ++i)
+      bytes[i] = readNext();
 
-    for (int i = 0; i < size && !shutdown; ++i) {
-      final byte b = readNext();
-      value.append((char) b);
-    }
-
-    return value.toString();
+    return new String(bytes, StandardCharsets.UTF_8);
   }
 
   private byte readNext() throws IOException {
@@ -223,7 +370,7 @@ public class RedisNetworkExecutor extends Thread {
   public void replyToClient(final StringBuilder response) throws IOException {
     server.log(this, Level.FINE, "Redis wrapper: Sending response back to the client '%s'...", response);
 
-    final byte[] buffer = response.toString().getBytes();
+    final byte[] buffer = response.toString().getBytes(StandardCharsets.UTF_8);
 
     channel.outStream.write(buffer);
     channel.flush();
@@ -44,13 +44,15 @@ public class RedisNetworkListener extends Thread {
   private final    String              hostName;
   private          int                 port;
   private          ClientConnected     callback;
+  private final    RedisStore          store;
 
   public RedisNetworkListener(final ArcadeDBServer server, final ServerSocketFactory iSocketFactory, final String iHostName,
-      final String iHostPortRange) {
+      final String iHostPortRange, final RedisStore store) {
     super(server.getServerName() + " RedisW listening at " + iHostName + ":" + iHostPortRange);
 
     this.server = server;
     this.hostName = iHostName;
+    this.store = store;
     this.socketFactory = iSocketFactory == null ? ServerSocketFactory.getDefault() : iSocketFactory;
 
     listen(iHostName, iHostPortRange);
@@ -71,8 +73,7 @@ public class RedisNetworkListener extends Thread {
             socket.setReceiveBufferSize(socketBufferSize);
           }
           // CREATE A NEW PROTOCOL INSTANCE
-          // TODO: OPEN A DATABASE
-          final RedisNetworkExecutor connection = new RedisNetworkExecutor(server, socket, null);
+          final RedisNetworkExecutor connection = new RedisNetworkExecutor(server, socket, store);
           connection.start();
 
           if (callback != null)
@@ -135,7 +136,7 @@ public class RedisNetworkListener extends Thread {
 
         if (serverSocket.isBound()) {
           server.log(this, Level.INFO,
-              "Listening for replication connections on $ANSI{green " + inboundAddr.getAddress().getHostAddress() + ":" + inboundAddr
+              "Listening for Redis connections on $ANSI{green " + inboundAddr.getAddress().getHostAddress() + ":" + inboundAddr
                   .getPort() + "} (protocol v." + protocolVersion + ")");
 
           port = tryPort;
@@ -22,6 +22,7 @@
 package com.arcadedb.redis;
 
 import com.arcadedb.ContextConfiguration;
+import com.arcadedb.GlobalConfiguration;
 import com.arcadedb.server.ArcadeDBServer;
 import com.arcadedb.server.ServerPlugin;
 import com.arcadedb.server.ha.network.DefaultServerSocketFactory;
@@ -42,7 +43,8 @@ public class RedisProtocolPlugin implements ServerPlugin {
 
   @Override
   public void startService() {
-    listener = new RedisNetworkListener(server, new DefaultServerSocketFactory(), "localhost", "" + DEF_PORT);
+    final RedisStore store = new RedisStore(server.getOrCreateDatabase(configuration.getValueAsString(GlobalConfiguration.SERVER_REDIS_DATABASE)));
+    listener = new RedisNetworkListener(server, new DefaultServerSocketFactory(), "localhost", "" + DEF_PORT, store);
   }
 
   @Override
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.redis;
+
+import com.arcadedb.database.Database;
+import com.arcadedb.database.Document;
+import com.arcadedb.database.MutableDocument;
+import com.arcadedb.index.IndexCursor;
+import com.arcadedb.schema.DocumentType;
+import com.arcadedb.schema.EmbeddedSchema;
+import com.arcadedb.schema.Schema;
+import com.arcadedb.schema.Type;
+
+import java.util.*;
+
+/**
+ * Stores the Redis keys as documents of the type {@link #TYPE_NAME}, indexed by key with a unique LSM tree index. Strings are stored as string values, hashes
+ * as embedded maps. All the methods must be called inside a transaction.
+ */
+public class RedisStore {
+  public static final String TYPE_NAME      = "RedisKey";
+  public static final String PROPERTY_KEY   = "key";
+  public static final String PROPERTY_VALUE = "value";
+
+  private static final String WRONG_TYPE  = "WRONGTYPE Operation against a key holding the wrong kind of value";
+  private static final String NOT_INTEGER = "ERR value is not an integer or out of range";
+
+  private final Database database;
+
+  public RedisStore(final Database database) {
+    this.database = database;
+
+    database.transaction((db) -> {
+      final Schema schema = db.getSchema();
+      final DocumentType type = schema.getOrCreateDocumentType(TYPE_NAME);
+      type.getOrCreateProperty(PROPERTY_KEY, Type.STRING);
+      schema.getOrCreateTypeIndex(EmbeddedSchema.INDEX_TYPE.LSM_TREE, true, TYPE_NAME, PROPERTY_KEY);
+    });
+  }
+
+  public Database getDatabase() {
+    return database;
+  }
+
+  public String get(final String key) {
+    final Document record = lookup(key);
+    if (record == null)
+      return null;
+
+    final Object value = record.get(PROPERTY_VALUE);
+    if (value instanceof Map)
+      throw new RedisException(WRONG_TYPE);
+    return (String) value;
+  }
+
+  public void set(final String key, final String value) {
+    final Document record = lookup(key);
+    final MutableDocument document = record != null ? record.modify() : database.newDocument(TYPE_NAME).set(PROPERTY_KEY, key);
+    document.set(PROPERTY_VALUE, value);
+    document.save();
+  }
+
+  public long incrementBy(final String key, final long delta) {
+    final Document record = lookup(key);
+
+    long current = 0;
+    if (record != null) {
+      final Object value = record.get(PROPERTY_VALUE);
+      if (value instanceof Map)
+        throw new RedisException(WRONG_TYPE);
+      try {
+        current = Long.parseLong((String) value);
+      } catch (NumberFormatException e) {
+        throw new RedisException(NOT_INTEGER);
+      }
+    }
+
+    final long result;
+    try {
+      result = Math.addExact(current, delta);
+    } catch (ArithmeticException e) {
+      throw new RedisException("ERR increment or decrement would overflow");
+    }
+
+    final MutableDocument document = record != null ? record.modify() : database.newDocument(TYPE_NAME).set(PROPERTY_KEY, key);
+    document.set(PROPERTY_VALUE, String.valueOf(result));
+    document.save();
+    return result;
+  }
+
+  public String hashGet(final String key, final String field) {
+    final Document record = lookup(key);
+    if (record == null)
+      return null;
+
+    final Object value = record.get(PROPERTY_VALUE);
+    if (!(value instanceof Map))
+      throw new RedisException(WRONG_TYPE);
+
+    final Object fieldValue = ((Map<String, Object>) value).get(field);
+    return fieldValue != null ? fieldValue.toString() : null;
+  }
+
+  /**
+   * Sets the fields of a hash, creating it if it does not exist. Returns the number of fields added.
+   */
+  public int hashSet(final String key, final Map<String, String> fields) {
+    final Document record = lookup(key);
+
+    final Map<String, Object> hash = new HashMap<>();
+    if (record != null) {
+      final Object value = record.get(PROPERTY_VALUE);
+      if (!(value instanceof Map))
+        throw new RedisException(WRONG_TYPE);
+      hash.putAll((Map<String, Object>) value);
+    }
+
+    int added = 0;
+    for (Map.Entry<String, String> entry : fields.entrySet())
+      if (hash.put(entry.getKey(), entry.getValue()) == null)
+        ++added;
+
+    final MutableDocument document = record != null ? record.modify() : database.newDocument(TYPE_NAME).set(PROPERTY_KEY, key);
+    document.set(PROPERTY_VALUE, hash);
+    document.save();
+    return added;
+  }
+
+  public boolean exists(final String key) {
+    return lookup(key) != null;
+  }
+
+  public boolean delete(final String key) {
+    final Document record = lookup(key);
+    if (record == null)
+      return false;
+
+    record.delete();
+    return true;
+  }
+
+  private Document lookup(final String key) {
+    final IndexCursor cursor = database.lookupByKey(TYPE_NAME, PROPERTY_KEY, key);
+    return cursor.hasNext() ? cursor.next().asDocument() : null;
+  }
+}
@@ -23,8 +23,14 @@ package com.arcadedb.redis;
 
 import com.arcadedb.GlobalConfiguration;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.*;
 
 public class RedisWTest extends BaseGraphServerTest {
 
@@ -35,12 +41,14 @@ public class RedisWTest extends BaseGraphServerTest {
   public void setTestConfiguration() {
     super.setTestConfiguration();
     GlobalConfiguration.SERVER_PLUGINS.setValue("Redis Protocol:com.arcadedb.redis.RedisProtocolPlugin");
+    GlobalConfiguration.SERVER_REDIS_DATABASE.setValue(getDatabaseName());
   }
 
   @AfterEach
   @Override
   public void endTest() {
     GlobalConfiguration.SERVER_PLUGINS.setValue("");
+    GlobalConfiguration.SERVER_REDIS_DATABASE.setValue(GlobalConfiguration.SERVER_REDIS_DATABASE.getDefValue());
     super.endTest();
   }
 
@@ -48,23 +56,63 @@ public class RedisWTest extends BaseGraphServerTest {
   public void testSet() {
     Jedis jedis = new Jedis("localhost", DEF_PORT);
 
-    long beginTime = System.currentTimeMillis();
-
     for (int i = 0; i < TOTAL; ++i) {
       jedis.set("foo" + i, String.valueOf(i));
     }
 
-    System.out.println("Inserted  " + TOTAL + " items. Elapsed" + (System.currentTimeMillis() - beginTime) + "ms");
-
-    beginTime = System.currentTimeMillis();
-
     for (int i = 0; i < TOTAL; ++i) {
-      jedis.get("foo" + i);
-      //Assertions.assertEquals(String.valueOf(i), jedis.get("foo" + i));
+      Assertions.assertEquals(String.valueOf(i), jedis.get("foo" + i));
     }
 
-    System.out.println("Retrieved  " + TOTAL + " items. Elapsed" + (System.currentTimeMillis() - beginTime) + "ms");
+    Assertions.assertNull(jedis.get("notFound"));
+    Assertions.assertTrue(jedis.exists("foo0"));
+    Assertions.assertEquals(2, jedis.del("foo0", "foo1", "notFound"));
+    Assertions.assertFalse(jedis.exists("foo0"));
+  }
+
+  @Test
+  public void testPipeline() {
+    Jedis jedis = new Jedis("localhost", DEF_PORT);
+
+    final Pipeline pipeline = jedis.pipelined();
+    for (int i = 0; i < TOTAL; ++i)
+      pipeline.set("foo" + i, String.valueOf(i));
+    pipeline.sync();
+
+    final List<Response<String>> responses = new ArrayList<>();
+    for (int i = 0; i < TOTAL; ++i)
+      responses.add(pipeline.get("foo" + i));
+    pipeline.sync();
+
+    for (int i = 0; i < TOTAL; ++i)
+      Assertions.assertEquals(String.valueOf(i), responses.get(i).get());
+  }
+
+  @Test
+  public void testCommands() {
+    Jedis jedis = new Jedis("localhost", DEF_PORT);
+
+    Assertions.assertEquals("PONG", jedis.ping());
+
+    Assertions.assertEquals(1, jedis.incr("counter"));
+    Assertions.assertEquals(11, jedis.incrBy("counter", 10));
+    Assertions.assertEquals(10, jedis.decr("counter"));
+
+    Assertions.assertEquals("OK", jedis.mset("a", "1", "b", "2"));
+    Assertions.assertEquals(Arrays.asList("1", null, "2"), jedis.mget("a", "notFound", "b"));
+
+    Assertions.assertEquals(1, jedis.hset("user", "name", "Jay"));
+    Assertions.assertEquals(0, jedis.hset("user", "name", "Jay Miner"));
+    Assertions.assertEquals("Jay Miner", jedis.hget("user", "name"));
+    Assertions.assertNull(jedis.hget("user", "surname"));
+
+    Assertions.assertThrows(JedisDataException.class, () -> jedis.get("user"));
+    Assertions.assertThrows(JedisDataException.class, () -> jedis.incr("user"));
+    Assertions.assertThrows(JedisDataException.class, () -> jedis.hget("a", "name"));
 
+    // THE DATA IS PERSISTENT AND VISIBLE FROM A NEW CONNECTION
+    Jedis jedis2 = new Jedis("localhost", DEF_PORT);
+    Assertions.assertEquals("10", jedis2.get("counter"));
   }
 
 }
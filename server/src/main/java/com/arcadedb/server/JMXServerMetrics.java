@@ -22,14 +22,29 @@
 package com.arcadedb.server;
 
 import com.arcadedb.Constants;
+import com.arcadedb.utility.LatencyHistogram;
+import com.codahale.metrics.LockFreeExponentiallyDecayingReservoir;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.codahale.metrics.jmx.JmxReporter;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics published on JMX. Timers also record their latencies in lock-free histograms, published by the HTTP server in Prometheus format. The JMX
+ * timers use a lock-free reservoir: the default one takes a lock on every update, so concurrent requests would contend on it.
+ */
 public class JMXServerMetrics implements ServerMetrics {
-  private MetricRegistry metricsRegistry;
-  private JmxReporter    jmxReporter;
+  private static final MetricRegistry.MetricSupplier<Timer>          TIMER_SUPPLIER = () -> new Timer(
+      LockFreeExponentiallyDecayingReservoir.builder().build());
+  private              MetricRegistry                              metricsRegistry;
+  private              JmxReporter                                 jmxReporter;
+  private final        ConcurrentHashMap<String, LatencyHistogram> histograms     = new ConcurrentHashMap<>();
 
   public JMXServerMetrics() {
     metricsRegistry = new MetricRegistry();
@@ -45,11 +60,15 @@ public class JMXServerMetrics implements ServerMetrics {
 
   @Override
   public MetricTimer timer(final String name) {
-    final Timer.Context t = metricsRegistry.timer(name).time();
+    final Timer timer = metricsRegistry.timer(name, TIMER_SUPPLIER);
+    final LatencyHistogram histogram = histogram(name);
+    final long beginTime = System.nanoTime();
     return new MetricTimer() {
       @Override
       public void stop() {
-        t.stop();
+        final long elapsed = System.nanoTime() - beginTime;
+        timer.update(elapsed, TimeUnit.NANOSECONDS);
+        histogram.recordNanos(elapsed);
       }
     };
   }
@@ -64,4 +83,18 @@ public class JMXServerMetrics implements ServerMetrics {
       }
     };
   }
+
+  @Override
+  public LatencyHistogram histogram(final String name) {
+    // GET FIRST TO AVOID LOCKING THE BIN ON THE HOT PATH
+    final LatencyHistogram histogram = histograms.get(name);
+    if (histogram != null)
+      return histogram;
+    return histograms.computeIfAbsent(name, k -> new LatencyHistogram());
+  }
+
+  @Override
+  public Map<String, LatencyHistogram> getHistograms() {
+    return Collections.unmodifiableMap(new TreeMap<>(histograms));
+  }
 }
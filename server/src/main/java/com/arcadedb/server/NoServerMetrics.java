@@ -21,10 +21,18 @@
 
 package com.arcadedb.server;
 
+import com.arcadedb.utility.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Mock implementation of server metrics.
  */
 public class NoServerMetrics implements ServerMetrics {
+  // THE VALUES RECORDED WITH METRICS DISABLED ARE NEVER PUBLISHED
+  private static final LatencyHistogram DISCARDED = new LatencyHistogram();
+
   public NoServerMetrics() {
   }
 
@@ -49,4 +57,14 @@ public class NoServerMetrics implements ServerMetrics {
       }
     };
   }
+
+  @Override
+  public LatencyHistogram histogram(final String name) {
+    return DISCARDED;
+  }
+
+  @Override
+  public Map<String, LatencyHistogram> getHistograms() {
+    return Collections.emptyMap();
+  }
 }
@@ -21,6 +21,10 @@
 
 package com.arcadedb.server;
 
+import com.arcadedb.utility.LatencyHistogram;
+
+import java.util.Map;
+
 public interface ServerMetrics {
   interface MetricMeter {
     void mark();
@@ -35,4 +39,12 @@ public interface ServerMetrics {
   MetricTimer timer(String name);
 
   MetricMeter meter(String name);
+
+  /**
+   * Returns the latency histogram with the given name, creating it the first time. The timers record their elapsed time also in the histogram with the
+   * same name.
+   */
+  LatencyHistogram histogram(String name);
+
+  Map<String, LatencyHistogram> getHistograms();
 }
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.server.binary;
+
+import com.arcadedb.Constants;
+import com.arcadedb.database.Binary;
+import com.arcadedb.database.Database;
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.database.Document;
+import com.arcadedb.database.RID;
+import com.arcadedb.exception.CommandExecutionException;
+import com.arcadedb.log.LogManager;
+import com.arcadedb.network.binary.BinaryProtocol;
+import com.arcadedb.network.binary.ChannelBinaryServer;
+import com.arcadedb.network.binary.NetworkProtocolException;
+import com.arcadedb.query.PreparedStatement;
+import com.arcadedb.query.sql.executor.Result;
+import com.arcadedb.query.sql.executor.ResultInternal;
+import com.arcadedb.query.sql.executor.ResultSet;
+import com.arcadedb.serializer.BinarySerializer;
+import com.arcadedb.server.ArcadeDBServer;
+import com.arcadedb.server.ServerMetrics;
+import com.arcadedb.server.security.ServerSecurity;
+import com.arcadedb.server.security.ServerSecurityException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Serves the requests of one binary protocol connection. The requests are executed in the same order they are received and the responses are flushed
+ * only when there are no more pipelined requests to read, so a batch of pipelined requests is answered with few network packets.
+ */
+public class BinaryNetworkExecutor extends Thread {
+  private final    ArcadeDBServer        server;
+  private final    BinaryNetworkListener listener;
+  private final    ChannelBinaryServer   channel;
+  private final    Binary                buffer   = new Binary(8192);
+  private          Database              database;
+  private          BinarySerializer      serializer;
+  private volatile boolean               shutdown = false;
+
+  public BinaryNetworkExecutor(final ArcadeDBServer server, final Socket socket, final BinaryNetworkListener listener) throws IOException {
+    setName(Constants.PRODUCT + "-binary/" + socket.getInetAddress());
+    setDaemon(true);
+    this.server = server;
+    this.listener = listener;
+    this.channel = new ChannelBinaryServer(socket, server.getConfiguration());
+  }
+
+  @Override
+  public void run() {
+    try {
+      if (!handshake())
+        return;
+
+      while (!shutdown) {
+        final int requestId = channel.readInt();
+        final byte command = channel.readByte();
+        if (command == BinaryProtocol.REQUEST_CLOSE)
+          break;
+
+        execute(requestId, command);
+
+        // FLUSH ONLY WHEN THERE ARE NO MORE PIPELINED REQUESTS TO EXECUTE
+        if (!channel.inputHasData())
+          channel.flush();
+      }
+
+    } catch (EOFException | SocketException e) {
+      LogManager.instance().log(this, Level.FINE, "Binary protocol: connection closed by the client", e);
+    } catch (IOException e) {
+      if (!shutdown)
+        LogManager.instance().log(this, Level.WARNING, "Binary protocol: error on reading request", e);
+    } finally {
+      close();
+    }
+  }
+
+  public void close() {
+    shutdown = true;
+    if (database != null)
+      try {
+        database.rollbackAllNested();
+      } catch (Exception e) {
+        // IGNORE IT
+      }
+    channel.close();
+    listener.removeConnection(this);
+  }
+
+  private boolean handshake() throws IOException {
+    final int protocolVersion = channel.readInt();
+    final String userName = channel.readString();
+    final String userPassword = channel.readString();
+    final String databaseName = channel.readString();
+
+    try {
+      if (protocolVersion != BinaryProtocol.PROTOCOL_VERSION)
+        throw new NetworkProtocolException(
+            "Binary protocol version " + protocolVersion + " is not supported. Supported version is " + BinaryProtocol.PROTOCOL_VERSION);
+
+      final ServerSecurity.ServerUser user = server.getSecurity().authenticate(userName, userPassword);
+
+      database = server.getDatabase(databaseName);
+      if (!server.getSecurity().userDatabases(user).contains(databaseName)) {
+        database = null;
+        throw new ServerSecurityException("User '" + userName + "' cannot access database '" + databaseName + "'");
+      }
+
+      serializer = ((DatabaseInternal) database).getSerializer();
+
+      channel.writeByte(BinaryProtocol.RESPONSE_END);
+      channel.flush();
+      return true;
+
+    } catch (Exception e) {
+      LogManager.instance().log(this, Level.FINE, "Binary protocol: error on handshake", e);
+      BinaryProtocol.writeError(channel, e);
+      channel.flush();
+      return false;
+    }
+  }
+
+  private void execute(final int requestId, final byte command) throws IOException {
+    // READ THE WHOLE REQUEST BEFORE EXECUTING IT TO KEEP THE PROTOCOL IN SYNC IN CASE OF ERRORS
+    String language = null;
+    String text = null;
+    Object params = null;
+    RID rid = null;
+    long statementId = -1;
+
+    switch (command) {
+    case BinaryProtocol.REQUEST_QUERY:
+    case BinaryProtocol.REQUEST_COMMAND:
+      language = channel.readString();
+      text = channel.readString();
+      params = BinaryProtocol.readParameters(channel, database, serializer);
+      break;
+    case BinaryProtocol.REQUEST_LOOKUP:
+      rid = channel.readRID(database);
+      break;
+    case BinaryProtocol.REQUEST_PREPARE:
+      language = channel.readString();
+      text = channel.readString();
+      break;
+    case BinaryProtocol.REQUEST_EXECUTE:
+      statementId = channel.readLong();
+      params = BinaryProtocol.readParameters(channel, database, serializer);
+      break;
+    default:
+      throw new NetworkProtocolException("Binary protocol: invalid request " + command);
+    }
+
+    channel.writeInt(requestId);
+
+    final ServerMetrics.MetricTimer timer = server.getServerMetrics().timer("binary." + getRequestName(command));
+    try {
+      database.rollbackAllNested();
+
+      switch (command) {
+      case BinaryProtocol.REQUEST_QUERY:
+        try (ResultSet resultSet = params instanceof Object[] ?
+            database.query(language, text, (Object[]) params) :
+            params instanceof Map ? database.query(language, text, (Map<String, Object>) params) : database.query(language, text)) {
+          sendResults(resultSet);
+        }
+        break;
+
+      case BinaryProtocol.REQUEST_COMMAND:
+        database.begin();
+        try (ResultSet resultSet = params instanceof Object[] ?
+            database.command(language, text, (Object[]) params) :
+            params instanceof Map ? database.command(language, text, (Map<String, Object>) params) : database.command(language, text)) {
+          sendResults(resultSet);
+        }
+        if (database.isTransactionActive())
+          database.commit();
+        break;
+
+      case BinaryProtocol.REQUEST_LOOKUP:
+        sendResult(new ResultInternal((Document) database.lookupByRID(rid, true)));
+        break;
+
+      case BinaryProtocol.REQUEST_PREPARE:
+        sendResult(new ResultInternal(((DatabaseInternal) database).getPreparedStatementCache().prepare(language, text).getStats()));
+        break;
+
+      case BinaryProtocol.REQUEST_EXECUTE:
+        final PreparedStatement statement = ((DatabaseInternal) database).getPreparedStatementCache().get(statementId);
+        if (statement == null)
+          throw new CommandExecutionException("Prepared statement " + statementId + " not found, prepare it again");
+
+        if (!statement.isIdempotent())
+          database.begin();
+        try (ResultSet resultSet = params instanceof Object[] ?
+            statement.execute((Object[]) params) :
+            params instanceof Map ? statement.execute((Map<String, Object>) params) : statement.execute()) {
+          sendResults(resultSet);
+        }
+        if (database.isTransactionActive())
+          database.commit();
+        break;
+      }
+
+      channel.writeByte(BinaryProtocol.RESPONSE_END);
+
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) {
+      LogManager.instance().log(this, Level.FINE, "Binary protocol: error on executing request %d", e, requestId);
+      database.rollbackAllNested();
+      BinaryProtocol.writeError(channel, e);
+    } finally {
+      timer.stop();
+    }
+  }
+
+  private void sendResults(final ResultSet resultSet) throws IOException {
+    while (resultSet.hasNext())
+      sendResult(resultSet.next());
+  }
+
+  private void sendResult(final Result result) throws IOException {
+    buffer.clear();
+    BinaryProtocol.writeResult(buffer, serializer, result);
+    channel.writeByte(BinaryProtocol.RESPONSE_RESULT);
+    channel.writeVarLengthBytes(buffer.getContent(), buffer.size());
+  }
+
+  private static String getRequestName(final byte command) {
+    switch (command) {
+    case BinaryProtocol.REQUEST_QUERY:
+      return "query";
+    case BinaryProtocol.REQUEST_COMMAND:
+      return "command";
+    case BinaryProtocol.REQUEST_PREPARE:
+      return "prepare";
+    case BinaryProtocol.REQUEST_EXECUTE:
+      return "execute";
+    default:
+      return "lookup";
+    }
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.server.binary;
+
+import com.arcadedb.log.LogManager;
+import com.arcadedb.network.binary.BinaryProtocol;
+import com.arcadedb.server.ArcadeDBServer;
+import com.arcadedb.server.ServerException;
+import com.arcadedb.server.ha.network.ServerSocketFactory;
+
+import java.io.IOException;
+import java.net.*;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Accepts the connections of the binary protocol clients. Every connection is served by its own {@link BinaryNetworkExecutor} thread.
+ */
+public class BinaryNetworkListener extends Thread {
+  private final    ArcadeDBServer             server;
+  private final    ServerSocketFactory        socketFactory;
+  private          ServerSocket               serverSocket;
+  private volatile boolean                    active      = true;
+  private final    String                     hostName;
+  private          int                        port;
+  private final    Set<BinaryNetworkExecutor> connections = ConcurrentHashMap.newKeySet();
+
+  public BinaryNetworkListener(final ArcadeDBServer server, final ServerSocketFactory iSocketFactory, final String iHostName, final String iHostPortRange) {
+    super(server.getServerName() + " binary protocol listening at " + iHostName + ":" + iHostPortRange);
+
+    this.server = server;
+    this.hostName = iHostName;
+    this.socketFactory = iSocketFactory == null ? ServerSocketFactory.getDefault() : iSocketFactory;
+
+    listen(iHostName, iHostPortRange);
+
+    setDaemon(true);
+    start();
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (active) {
+        try {
+          final Socket socket = serverSocket.accept();
+          socket.setPerformancePreferences(0, 2, 1);
+          // SMALL REQUESTS AND RESPONSES: THE FLUSH IS ALREADY BATCHED BY THE PROTOCOL
+          socket.setTcpNoDelay(true);
+
+          final BinaryNetworkExecutor connection = new BinaryNetworkExecutor(server, socket, this);
+          connections.add(connection);
+          connection.start();
+
+        } catch (Exception e) {
+          if (active)
+            LogManager.instance().log(this, Level.WARNING, "Error on binary protocol client connection", e);
+        }
+      }
+    } finally {
+      try {
+        if (serverSocket != null && !serverSocket.isClosed())
+          serverSocket.close();
+      } catch (IOException ioe) {
+        // IGNORE IT
+      }
+    }
+  }
+
+  public String getHost() {
+    return hostName;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  public int getConnections() {
+    return connections.size();
+  }
+
+  public void close() {
+    this.active = false;
+
+    if (serverSocket != null)
+      try {
+        serverSocket.close();
+      } catch (IOException e) {
+        // IGNORE IT
+      }
+
+    for (BinaryNetworkExecutor connection : connections)
+      connection.close();
+    connections.clear();
+  }
+
+  protected void removeConnection(final BinaryNetworkExecutor connection) {
+    connections.remove(connection);
+  }
+
+  @Override
+  public String toString() {
+    return serverSocket.getLocalSocketAddress().toString();
+  }
+
+  private void listen(final String hostName, final String hostPortRange) {
+    for (int tryPort : getPorts(hostPortRange)) {
+      final InetSocketAddress inboundAddr = new InetSocketAddress(hostName, tryPort);
+      try {
+        serverSocket = socketFactory.createServerSocket(tryPort, 0, InetAddress.getByName(hostName));
+
+        if (serverSocket.isBound()) {
+          server.log(this, Level.INFO,
+              "Listening for binary protocol connections on $ANSI{green " + inboundAddr.getAddress().getHostAddress() + ":" + inboundAddr.getPort()
+                  + "} (protocol v." + BinaryProtocol.PROTOCOL_VERSION + ")");
+
+          port = tryPort;
+          return;
+        }
+      } catch (BindException be) {
+        server.log(this, Level.WARNING, "Port %s:%d busy, trying the next available...", hostName, tryPort);
+      } catch (SocketException se) {
+        LogManager.instance().log(this, Level.SEVERE, "Unable to create socket", se);
+        throw new ServerException("Unable to create socket", se);
+      } catch (IOException ioe) {
+        LogManager.instance().log(this, Level.SEVERE, "Unable to read data from an open socket", ioe);
+        throw new ServerException("Unable to read data from an open socket", ioe);
+      }
+    }
+
+    server.log(this, Level.SEVERE, "Unable to listen for connections using the configured ports '%s' on host '%s'", hostPortRange, hostName);
+
+    throw new ServerException("Unable to listen for connections using the configured ports '" + hostPortRange + "' on host '" + hostName + "'");
+  }
+
+  private static int[] getPorts(final String iHostPortRange) {
+    int[] ports;
+
+    if (iHostPortRange.contains(",")) {
+      // MULTIPLE ENUMERATED PORTS
+      String[] portValues = iHostPortRange.split(",");
+      ports = new int[portValues.length];
+      for (int i = 0; i < portValues.length; ++i)
+        ports[i] = Integer.parseInt(portValues[i]);
+
+    } else if (iHostPortRange.contains("-")) {
+      // MULTIPLE RANGE PORTS
+      String[] limits = iHostPortRange.split("-");
+      int lowerLimit = Integer.parseInt(limits[0]);
+      int upperLimit = Integer.parseInt(limits[1]);
+      ports = new int[upperLimit - lowerLimit + 1];
+      for (int i = 0; i < upperLimit - lowerLimit + 1; ++i)
+        ports[i] = lowerLimit + i;
+
+    } else
+      // SINGLE PORT SPECIFIED
+      ports = new int[] { Integer.parseInt(iHostPortRange) };
+
+    return ports;
+  }
+}
@@ -476,6 +476,14 @@ public class HAServer implements ServerPlugin {
       c.updateStats(msg.sentOn, receivedOn);
   }
 
+  /**
+   * Acknowledges all the messages from <code>fromMessageNumber</code> to <code>toMessageNumber</code> (inclusive) received by a replica in one batch.
+   */
+  public void receivedResponses(final String remoteServerName, final long fromMessageNumber, final long toMessageNumber) {
+    for (long messageNumber = fromMessageNumber; messageNumber <= toMessageNumber; ++messageNumber)
+      receivedResponse(remoteServerName, messageNumber);
+  }
+
   public void receivedResponseFromForward(final long messageNumber, final Object result, final ErrorResponse error) {
     final ForwardedMessage msg = forwardMessagesWaitingForResponse.get(messageNumber);
     if (msg == null)
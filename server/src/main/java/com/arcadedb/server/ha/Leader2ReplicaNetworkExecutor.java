@@ -29,6 +29,7 @@ import com.arcadedb.network.binary.ChannelBinaryServer;
 import com.arcadedb.network.binary.ConnectionException;
 import com.arcadedb.server.ha.message.HACommand;
 import com.arcadedb.server.ha.message.ReplicaConnectHotResyncResponse;
+import com.arcadedb.server.ha.message.ReplicationBatchRequest;
 import com.arcadedb.server.ha.message.TxForwardRequest;
 import com.arcadedb.utility.Callable;
 import com.arcadedb.utility.FileUtils;
@@ -36,6 +37,8 @@ import com.arcadedb.utility.Pair;
 import com.conversantmedia.util.concurrent.PushPullBlockingQueue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -56,6 +59,7 @@ public class Leader2ReplicaNetworkExecutor extends Thread {
   private final    String                                             remoteServerAddress;
   private final    String                                             remoteServerHTTPAddress;
   private final    BlockingQueue<Binary>                              senderQueue;
+  private final    int                                                batchSize;
   private          Thread                                             senderThread;
   private final    BlockingQueue<Pair<ReplicationMessage, HACommand>> forwarderQueue;
   private          Thread                                             forwarderThread;
@@ -85,6 +89,7 @@ public class Leader2ReplicaNetworkExecutor extends Thread {
 
     final ContextConfiguration cfg = ha.getServer().getConfiguration();
     final int queueSize = cfg.getValueAsInteger(GlobalConfiguration.HA_REPLICATION_QUEUE_SIZE);
+    this.batchSize = Math.max(1, cfg.getValueAsInteger(GlobalConfiguration.HA_REPLICATION_BATCH_SIZE));
 
     final String cfgQueueImpl = cfg.getValueAsString(GlobalConfiguration.ASYNC_OPERATIONS_QUEUE_IMPL);
     if ("fast".equalsIgnoreCase(cfgQueueImpl)) {
@@ -154,6 +159,8 @@ public class Leader2ReplicaNetworkExecutor extends Thread {
       public void run() {
         LogManager.instance().setContext(server.getServerName());
         Binary lastMessage = null;
+        final List<Binary> batch = new ArrayList<>(batchSize);
+        final Binary batchBuffer = new Binary(8192);
         while (!shutdownCommunication || !senderQueue.isEmpty()) {
           try {
             if (lastMessage == null)
@@ -169,7 +176,18 @@ public class Leader2ReplicaNetworkExecutor extends Thread {
             case ONLINE:
               server.getServer().log(this, Level.FINE, "Sending message to replica '%s' (buffered=%d)...", remoteServerName, senderQueue.size());
 
-              sendMessage(lastMessage);
+              if (batchSize > 1 && !senderQueue.isEmpty()) {
+                // SEND ALL THE QUEUED MESSAGES IN ONE COMPRESSED FRAME
+                batch.clear();
+                batch.add(lastMessage);
+                senderQueue.drainTo(batch, batchSize - 1);
+
+                server.getMessageFactory().serializeCommand(new ReplicationBatchRequest(batch), batchBuffer, -1);
+                sendMessage(batchBuffer);
+                batch.clear();
+              } else
+                sendMessage(lastMessage);
+
               lastMessage = null;
               break;
 
@@ -25,7 +25,9 @@ import com.arcadedb.GlobalConfiguration;
 import com.arcadedb.database.Binary;
 import com.arcadedb.database.DatabaseContext;
 import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.engine.BasePage;
 import com.arcadedb.engine.MutablePage;
+import com.arcadedb.engine.PageCorruptedException;
 import com.arcadedb.engine.PageId;
 import com.arcadedb.engine.PageManager;
 import com.arcadedb.engine.PaginatedFile;
@@ -44,8 +46,12 @@ import com.arcadedb.utility.Pair;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
@@ -76,9 +82,12 @@ public class Replica2LeaderNetworkExecutor extends Thread {
   public void run() {
     LogManager.instance().setContext(server.getServer().getServerName());
 
-    // REUSE THE SAME BUFFER TO AVOID MALLOC
+    // REUSE THE SAME BUFFERS TO AVOID MALLOC
     final Binary buffer = new Binary(8192);
     buffer.setAllocationChunkSize(1024);
+    final Binary batchBuffer = new Binary(8192);
+    batchBuffer.setAllocationChunkSize(1024);
+    final List<Pair<Long, HACommand>> responses = new ArrayList<>();
 
     while (!shutdown) {
       long reqId = -1;
@@ -96,51 +105,34 @@ public class Replica2LeaderNetworkExecutor extends Thread {
           continue;
         }
 
-        final ReplicationMessage message = request.getFirst();
+        responses.clear();
 
-        reqId = message.messageNumber;
+        if (request.getSecond() instanceof ReplicationBatchRequest) {
+          // EXECUTE THE MESSAGES OF THE BATCH IN ORDER AS IF THEY WERE RECEIVED ONE BY ONE
+          final List<byte[]> messages = ((ReplicationBatchRequest) request.getSecond()).getMessages();
 
-        if (reqId > -1)
-          server.getServer().log(this, Level.FINE, "Received request %d from the Leader (threadId=%d)", reqId, Thread.currentThread().getId());
-        else
-          server.getServer().log(this, Level.FINE, "Received response %d from the Leader (threadId=%d)", reqId, Thread.currentThread().getId());
+          server.getServer()
+              .log(this, Level.FINE, "Received batch of %d messages from the Leader (threadId=%d)", messages.size(), Thread.currentThread().getId());
 
-        // NUMBERS <0 ARE FORWARD FROM REPLICA TO LEADER WITHOUT A VALID SEQUENCE
-        if (reqId > -1) {
-          final long lastMessage = server.getReplicationLogFile().getLastMessageNumber();
-
-          if (reqId <= lastMessage) {
-            //TODO: CHECK IF THE MESSAGE IS IDENTICAL?
-            server.getServer().log(this, Level.FINE, "Message %d already applied on local server (last=%d). Skip this", reqId, lastMessage);
-            continue;
-          }
-
-          if (!server.getReplicationLogFile().checkMessageOrder(message)) {
-            // SKIP
-            channel.close();
-            connect();
-            continue;
-          }
-        }
-
-        // TODO: LOG THE TX BEFORE EXECUTING TO RECOVER THE DB IN CASE OF CRASH
-
-        final HACommand response = request.getSecond().execute(server, leaderServerName, reqId);
+          for (byte[] messageBytes : messages) {
+            final Pair<ReplicationMessage, HACommand> message = server.getMessageFactory().deserializeCommand(batchBuffer, messageBytes);
+            if (message == null) {
+              server.getServer()
+                  .log(this, Level.SEVERE, "Error on receiving message NULL in batch, reconnecting (threadId=%d)", Thread.currentThread().getId());
+              reconnect(null);
+              break;
+            }
 
-        if (reqId > -1) {
-          if (!server.getReplicationLogFile().appendMessage(message)) {
-            // ERROR IN THE SEQUENCE, FORCE A RECONNECTION
-            channel.close();
-            connect();
-            continue;
+            reqId = message.getFirst().messageNumber;
+            if (!executeMessage(message, responses))
+              break;
           }
+        } else {
+          reqId = request.getFirst().messageNumber;
+          executeMessage(request, responses);
         }
 
-        if (testOn)
-          server.getServer().lifecycleEvent(TestCallback.TYPE.REPLICA_MSG_RECEIVED, request);
-
-        if (response != null)
-          sendCommandToLeader(buffer, response, reqId);
+        sendResponsesToLeader(buffer, responses);
         reqId = -1;
 
       } catch (SocketTimeoutException e) {
@@ -156,6 +148,91 @@ public class Replica2LeaderNetworkExecutor extends Thread {
         .log(this, Level.INFO, "Replica message thread closed (shutdown=%s name=%s threadId=%d)", shutdown, getName(), Thread.currentThread().getId());
   }
 
+  /**
+   * Executes a message received from the Leader and collects its response, if any. Returns false if the connection has been reset because the message is out
+   * of sequence: in this case the following messages must be discarded.
+   */
+  private boolean executeMessage(final Pair<ReplicationMessage, HACommand> request, final List<Pair<Long, HACommand>> responses) throws Exception {
+    final ReplicationMessage message = request.getFirst();
+
+    final long reqId = message.messageNumber;
+
+    if (reqId > -1)
+      server.getServer().log(this, Level.FINE, "Received request %d from the Leader (threadId=%d)", reqId, Thread.currentThread().getId());
+    else
+      server.getServer().log(this, Level.FINE, "Received response %d from the Leader (threadId=%d)", reqId, Thread.currentThread().getId());
+
+    // NUMBERS <0 ARE FORWARD FROM REPLICA TO LEADER WITHOUT A VALID SEQUENCE
+    if (reqId > -1) {
+      final long lastMessage = server.getReplicationLogFile().getLastMessageNumber();
+
+      if (reqId <= lastMessage) {
+        //TODO: CHECK IF THE MESSAGE IS IDENTICAL?
+        server.getServer().log(this, Level.FINE, "Message %d already applied on local server (last=%d). Skip this", reqId, lastMessage);
+        return true;
+      }
+
+      if (!server.getReplicationLogFile().checkMessageOrder(message)) {
+        // SKIP
+        channel.close();
+        connect();
+        return false;
+      }
+    }
+
+    // TODO: LOG THE TX BEFORE EXECUTING TO RECOVER THE DB IN CASE OF CRASH
+
+    final HACommand response = request.getSecond().execute(server, leaderServerName, reqId);
+
+    if (reqId > -1) {
+      if (!server.getReplicationLogFile().appendMessage(message)) {
+        // ERROR IN THE SEQUENCE, FORCE A RECONNECTION
+        channel.close();
+        connect();
+        return false;
+      }
+    }
+
+    if (testOn)
+      server.getServer().lifecycleEvent(TestCallback.TYPE.REPLICA_MSG_RECEIVED, request);
+
+    if (response != null)
+      responses.add(new Pair<>(reqId, response));
+
+    return true;
+  }
+
+  /**
+   * Sends the responses back to the Leader with one flush. Acknowledges of consecutive transactions are sent as one response covering the whole range.
+   */
+  private void sendResponsesToLeader(final Binary buffer, final List<Pair<Long, HACommand>> responses) throws IOException {
+    if (responses.isEmpty())
+      return;
+
+    synchronized (channelOutputLock) {
+      for (int i = 0; i < responses.size(); ) {
+        final long firstMessageNumber = responses.get(i).getFirst();
+        HACommand response = responses.get(i).getSecond();
+
+        int last = i;
+        if (response instanceof TxResponse)
+          while (last + 1 < responses.size() && responses.get(last + 1).getSecond() instanceof TxResponse
+              && responses.get(last + 1).getFirst() == responses.get(last).getFirst() + 1)
+            ++last;
+
+        if (last > i)
+          response = new TxBatchResponse(firstMessageNumber);
+
+        writeCommandToLeader(buffer, response, responses.get(last).getFirst());
+        i = last + 1;
+      }
+
+      final ChannelBinaryClient c = channel;
+      if (c != null)
+        c.flush();
+    }
+  }
+
   public String getRemoteServerName() {
     return leaderServerName;
   }
@@ -233,18 +310,25 @@ public class Replica2LeaderNetworkExecutor extends Thread {
     else
       server.getServer().log(this, Level.FINE, "Sending message (request %d) to the Leader '%s'...", messageNumber, response);
 
-    server.getMessageFactory().serializeCommand(response, buffer, messageNumber);
-
     synchronized (channelOutputLock) {
-      final ChannelBinaryClient c = channel;
-      if (c == null)
-        throw new ReplicationException("Error on sending command back to the leader server '" + leaderServerName + "' (cause=socket closed)");
+      writeCommandToLeader(buffer, response, messageNumber);
 
-      c.writeVarLengthBytes(buffer.getContent(), buffer.size());
-      c.flush();
+      final ChannelBinaryClient c = channel;
+      if (c != null)
+        c.flush();
     }
   }
 
+  private void writeCommandToLeader(final Binary buffer, final HACommand response, final long messageNumber) throws IOException {
+    server.getMessageFactory().serializeCommand(response, buffer, messageNumber);
+
+    final ChannelBinaryClient c = channel;
+    if (c == null)
+      throw new ReplicationException("Error on sending command back to the leader server '" + leaderServerName + "' (cause=socket closed)");
+
+    c.writeVarLengthBytes(buffer.getContent(), buffer.size());
+  }
+
   public void close() {
     shutdown();
     closeChannel();
@@ -428,9 +512,7 @@ public class Replica2LeaderNetworkExecutor extends Thread {
     }
 
     // WRITE ALL THE FILES
-    for (Map.Entry<Integer, String> f : dbStructure.getFileNames().entrySet()) {
-      installFile(buffer, db, database, f.getKey(), f.getValue());
-    }
+    installFiles(buffer, db, database, dbStructure.getFileNames());
 
     // RELOAD THE SCHEMA
     database.getSchema().getEmbedded().close();
@@ -438,50 +520,131 @@ public class Replica2LeaderNetworkExecutor extends Thread {
     database.getSchema().getEmbedded().load(PaginatedFile.MODE.READ_ONLY);
   }
 
-  private void installFile(final Binary buffer, final String db, final DatabaseInternal database, final int fileId, final String fileName) throws IOException {
-    final PageManager pageManager = database.getPageManager();
+  private static class FileToInstall {
+    private final PaginatedFile file;
+    private final int           localPages;
+    private       int           totalPages = -1;
+    private       int           nextFrom   = 0;
+    private       int           installedPages;
 
-    final PaginatedFile file = database.getFileManager().getOrCreateFile(fileId, database.getDatabasePath() + "/" + fileName);
+    private FileToInstall(final PaginatedFile file, final int localPages) {
+      this.file = file;
+      this.localPages = localPages;
+    }
+  }
 
-    final int pageSize = file.getPageSize();
+  /**
+   * Installs the files of the database by downloading from the leader only the pages that differ from the local ones. The requests for the different
+   * files are pipelined on the channel (the leader answers in order), so multiple files are transferred at the same time. The size of a file on the
+   * leader is known with the first response, then more requests for the same file can be in flight.
+   */
+  private void installFiles(final Binary buffer, final String db, final DatabaseInternal database, final Map<Integer, String> fileNames)
+      throws IOException {
+    final PageManager pageManager = database.getPageManager();
+    final int parallelRequests = Math.max(1, server.getServer().getConfiguration().getValueAsInteger(GlobalConfiguration.HA_RESYNC_PARALLEL_REQUESTS));
+    final long bandwidth = server.getServer().getConfiguration().getValueAsLong(GlobalConfiguration.HA_RESYNC_BANDWIDTH);
 
-    int from = 0;
+    final Deque<FileToInstall> toRequest = new ArrayDeque<>();
+    for (Map.Entry<Integer, String> f : fileNames.entrySet()) {
+      final PaginatedFile file = database.getFileManager().getOrCreateFile(f.getKey(), database.getDatabasePath() + "/" + f.getValue());
+      toRequest.add(new FileToInstall(file, (int) (file.getSize() / file.getPageSize())));
+    }
 
-    server.getServer().log(this, Level.FINE, "Installing file '%s'...", fileName);
+    final Deque<Pair<FileToInstall, Integer>> inFlight = new ArrayDeque<>();
+    final long beginTime = System.currentTimeMillis();
+    long receivedBytes = 0;
+    long skippedPages = 0;
+
+    while (!toRequest.isEmpty() || !inFlight.isEmpty()) {
+      while (inFlight.size() < parallelRequests && !toRequest.isEmpty()) {
+        final FileToInstall f = toRequest.poll();
+        final int from = f.nextFrom;
+        f.nextFrom += FileDiffRequest.PAGES_PER_REQUEST;
+
+        if (bandwidth > 0) {
+          // SLOW DOWN THE REQUESTS TO STAY UNDER THE BANDWIDTH CAP
+          final long wait = receivedBytes * 1000 / bandwidth - (System.currentTimeMillis() - beginTime);
+          if (wait > 0)
+            try {
+              Thread.sleep(wait);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              throw new ReplicationException("Resync of database '" + db + "' interrupted");
+            }
+        }
 
-    int pages = 0;
-    long fileSize = 0;
+        sendCommandToLeader(buffer, createFileDiffRequest(db, pageManager, f, from), -1);
+        inFlight.add(new Pair<>(f, from));
 
-    while (true) {
-      sendCommandToLeader(buffer, new FileContentRequest(db, fileId, from), -1);
-      final FileContentResponse fileChunk = (FileContentResponse) receiveCommandFromLeaderDuringJoining(buffer);
+        if (f.totalPages > -1 && f.nextFrom < f.totalPages)
+          // ROUND-ROBIN BETWEEN THE FILES
+          toRequest.add(f);
+      }
 
-      if (fileChunk.getPages() == 0)
-        break;
+      final Pair<FileToInstall, Integer> request = inFlight.poll();
+      final FileToInstall f = request.getFirst();
+      final FileDiffResponse diff = (FileDiffResponse) receiveCommandFromLeaderDuringJoining(buffer);
 
-      if (fileChunk.getPagesContent().size() != fileChunk.getPages() * pageSize) {
-        server.getServer().log(this, Level.SEVERE, "Error on received chunk for file '%s': size=%s, expected=%s (pages=%d)", fileName,
-            FileUtils.getSizeAsString(fileChunk.getPagesContent().size()), FileUtils.getSizeAsString(fileChunk.getPages() * pageSize), pages);
+      final int pageSize = f.file.getPageSize();
+      if (diff.getPagesContent().size() != diff.getPages() * pageSize) {
+        server.getServer().log(this, Level.SEVERE, "Error on received chunk for file '%s': size=%s, expected=%s (pages=%d)", f.file.getFileName(),
+            FileUtils.getSizeAsString(diff.getPagesContent().size()), FileUtils.getSizeAsString(diff.getPages() * pageSize), diff.getPages());
         throw new ReplicationException("Invalid file chunk");
       }
 
-      for (int i = 0; i < fileChunk.getPages(); ++i) {
-        final MutablePage page = new MutablePage(pageManager, new PageId(file.getFileId(), from + i), pageSize);
-        System.arraycopy(fileChunk.getPagesContent().getContent(), i * pageSize, page.getTrackable().getContent(), 0, pageSize);
+      for (int i = 0; i < diff.getPages(); ++i) {
+        final MutablePage page = new MutablePage(pageManager, new PageId(f.file.getFileId(), diff.getPageIndex(i)), pageSize);
+        System.arraycopy(diff.getPagesContent().getContent(), i * pageSize, page.getTrackable().getContent(), 0, pageSize);
         page.loadMetadata();
         pageManager.overridePage(page);
+      }
 
-        ++pages;
-        fileSize += pageSize;
+      receivedBytes += diff.getPagesContent().size();
+      f.installedPages += diff.getPages();
+      skippedPages += Math.min(FileDiffRequest.PAGES_PER_REQUEST, Math.max(0, diff.getTotalPages() - request.getSecond())) - diff.getPages();
+
+      final boolean firstResponse = f.totalPages == -1;
+      f.totalPages = diff.getTotalPages();
+      if (firstResponse && f.nextFrom < f.totalPages)
+        toRequest.add(f);
+
+      if (f.nextFrom >= f.totalPages && !inFlight.stream().anyMatch(r -> r.getFirst() == f)) {
+        if (f.localPages > f.totalPages) {
+          // THE LOCAL FILE IS LONGER THAN THE LEADER'S ONE: REMOVE THE STALE PAGES PAST ITS END
+          for (int pageNumber = f.totalPages; pageNumber < f.localPages; ++pageNumber)
+            pageManager.removePageFromCache(new PageId(f.file.getFileId(), pageNumber));
+          f.file.truncate(f.totalPages);
+        }
+
+        server.getServer()
+            .log(this, Level.FINE, "File '%s' installed (pages=%d/%d)", f.file.getFileName(), f.installedPages, f.totalPages);
       }
+    }
+
+    server.getServer()
+        .log(this, Level.INFO, "Database '%s' installed (received=%s unchanged pages=%d elapsed=%dms)", db, FileUtils.getSizeAsString(receivedBytes),
+            skippedPages, System.currentTimeMillis() - beginTime);
+  }
 
-      if (fileChunk.isLast())
-        break;
+  private FileDiffRequest createFileDiffRequest(final String db, final PageManager pageManager, final FileToInstall f, final int from)
+      throws IOException {
+    final int pageSize = f.file.getPageSize();
+    final int count = Math.max(0, Math.min(FileDiffRequest.PAGES_PER_REQUEST, f.localPages - from));
 
-      from += fileChunk.getPages();
+    final long[] versions = new long[count];
+    final long[] checksums = new long[count];
+    for (int i = 0; i < count; ++i) {
+      try {
+        final BasePage page = pageManager.getPage(new PageId(f.file.getFileId(), from + i), pageSize, false, false);
+        versions[i] = page.getVersion();
+        checksums[i] = FileDiffRequest.checksum(page);
+      } catch (PageCorruptedException e) {
+        // THE LOCAL PAGE IS CORRUPTED: AN INVALID VERSION FORCES THE LEADER TO SEND IT
+        versions[i] = -1;
+      }
     }
 
-    server.getServer().log(this, Level.FINE, "File '%s' installed (pages=%d size=%s)", fileName, pages, FileUtils.getSizeAsString(fileSize));
+    return new FileDiffRequest(db, f.file.getFileId(), from, versions, checksums);
   }
 
   private HACommand receiveCommandFromLeaderDuringJoining(final Binary buffer) throws IOException {
@@ -37,6 +37,7 @@ import com.arcadedb.graph.GraphEngine;
 import com.arcadedb.graph.MutableVertex;
 import com.arcadedb.graph.Vertex;
 import com.arcadedb.index.IndexCursor;
+import com.arcadedb.query.PreparedStatementCache;
 import com.arcadedb.query.sql.executor.ResultSet;
 import com.arcadedb.query.sql.parser.ExecutionPlanCache;
 import com.arcadedb.query.sql.parser.StatementCache;
@@ -47,6 +48,7 @@ import com.arcadedb.server.ha.message.CommandForwardRequest;
 import com.arcadedb.server.ha.message.DatabaseChangeStructureRequest;
 import com.arcadedb.server.ha.message.TxForwardRequest;
 import com.arcadedb.server.ha.message.TxRequest;
+import com.arcadedb.utility.LatencyHistogram;
 import com.arcadedb.utility.Pair;
 
 import java.io.IOException;
@@ -180,6 +182,11 @@ public class ReplicatedDatabase implements DatabaseInternal {
     return proxied.getStats();
   }
 
+  @Override
+  public Map<String, LatencyHistogram> getLatencyHistograms() {
+    return proxied.getLatencyHistograms();
+  }
+
   @Override
   public EmbeddedDatabase getEmbedded() {
     return proxied;
@@ -275,6 +282,11 @@ public class ReplicatedDatabase implements DatabaseInternal {
     return proxied.getExecutionPlanCache();
   }
 
+  @Override
+  public PreparedStatementCache getPreparedStatementCache() {
+    return proxied.getPreparedStatementCache();
+  }
+
   @Override
   public int getEdgeListSize(int previousSize) {
     return proxied.getEdgeListSize(previousSize);
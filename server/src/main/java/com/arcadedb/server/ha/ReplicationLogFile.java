@@ -60,7 +60,8 @@ public class ReplicationLogFile extends LockContext {
   private static final int                           BUFFER_FOOTER_SIZE   = Binary.INT_SERIALIZED_SIZE + Binary.LONG_SERIALIZED_SIZE;
   private final        ByteBuffer                    bufferFooter         = ByteBuffer.allocate(BUFFER_FOOTER_SIZE);
   private static final long                          MAGIC_NUMBER         = 93719829258702l;
-  private              long                          lastMessageNumber    = -1;
+  private volatile     long                          lastMessageNumber    = -1;
+  private final        Object                        lastMessageMonitor   = new Object();
   private final        long                          CHUNK_SIZE           = 64 * 1024 * 1024;
   private              long                          chunkNumber          = 0L;
   private              WALFile.FLUSH_TYPE            flushPolicy          = WALFile.FLUSH_TYPE.NO;
@@ -132,6 +133,25 @@ public class ReplicationLogFile extends LockContext {
     return lastMessageNumber;
   }
 
+  /**
+   * Waits until the message with the requested number has been appended to the log. Returns false if the timeout (in ms) expires first.
+   */
+  public boolean waitForMessage(final long messageNumber, final long timeout) throws InterruptedException {
+    if (lastMessageNumber >= messageNumber)
+      return true;
+
+    final long deadline = System.currentTimeMillis() + timeout;
+    synchronized (lastMessageMonitor) {
+      while (lastMessageNumber < messageNumber) {
+        final long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0)
+          return false;
+        lastMessageMonitor.wait(remaining);
+      }
+    }
+    return true;
+  }
+
   public boolean appendMessage(final ReplicationMessage message) {
     return (boolean) executeInLock(new Callable<Object>() {
       @Override
@@ -183,6 +203,11 @@ public class ReplicationLogFile extends LockContext {
             break;
           }
 
+          // WAKE UP THE READERS WAITING FOR THIS MESSAGE
+          synchronized (lastMessageMonitor) {
+            lastMessageMonitor.notifyAll();
+          }
+
           return true;
 
         } catch (Exception e) {
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.arcadedb.server.ha.message;
+
+import com.arcadedb.database.Binary;
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.engine.BasePage;
+import com.arcadedb.engine.PageId;
+import com.arcadedb.engine.PaginatedFile;
+import com.arcadedb.network.binary.NetworkProtocolException;
+import com.arcadedb.server.ArcadeDBServer;
+import com.arcadedb.server.ha.HAServer;
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+/**
+ * Asks the leader the pages of a file, starting from <code>from</code>, that differ from the replica. The replica sends the version and the checksum
+ * of its pages in the range, so the leader sends back only the pages that are different or missing on the replica.
+ */
+public class FileDiffRequest extends HAAbstractCommand {
+  public static final int    PAGES_PER_REQUEST = 32;
+  private             String databaseName;
+  private             int    fileId;
+  private             int    from;
+  private             long[] versions;
+  private             long[] checksums;
+
+  public FileDiffRequest() {
+  }
+
+  public FileDiffRequest(final String dbName, final int fileId, final int from, final long[] versions, final long[] checksums) {
+    this.databaseName = dbName;
+    this.fileId = fileId;
+    this.from = from;
+    this.versions = versions;
+    this.checksums = checksums;
+  }
+
+  @Override
+  public HACommand execute(final HAServer server, final String remoteServerName, final long messageNumber) {
+    final DatabaseInternal db = (DatabaseInternal) server.getServer().getDatabase(databaseName);
+    final PaginatedFile file = db.getFileManager().getFile(fileId);
+    final int pageSize = file.getPageSize();
+
+    try {
+      // PAGES ARE READ WITHOUT LOCKING THE DATABASE: THE TRANSACTIONS COMMITTED IN THE MEANTIME ARE QUEUED AND SENT TO THE REPLICA ONCE ONLINE
+      final int totalPages = (int) (file.getSize() / pageSize);
+      final int to = Math.min(from + PAGES_PER_REQUEST, totalPages);
+
+      final Binary pagesContent = new Binary();
+      final int[] pageIndexes = new int[Math.max(0, to - from)];
+      int pages = 0;
+
+      for (int i = from; i < to; ++i) {
+        final BasePage page = db.getPageManager().getPage(new PageId(fileId, i), pageSize, false, false);
+
+        final int summary = i - from;
+        if (summary < versions.length && versions[summary] == page.getVersion() && checksums[summary] == checksum(page))
+          // SAME PAGE ON THE REPLICA
+          continue;
+
+        pagesContent.putByteArray(page.getContent().array(), pageSize);
+        pageIndexes[pages++] = i;
+      }
+
+      pagesContent.flip();
+
+      return new FileDiffResponse(totalPages, pageIndexes, pages, pagesContent);
+
+    } catch (IOException e) {
+      throw new NetworkProtocolException("Cannot load pages", e);
+    }
+  }
+
+  public static long checksum(final BasePage page) {
+    final CRC32 crc = new CRC32();
+    crc.update(page.getContent().array(), 0, page.getPhysicalSize());
+    return crc.getValue();
+  }
+
+  @Override
+  public void toStream(final Binary stream) {
+    stream.putString(databaseName);
+    stream.putInt(fileId);
+    stream.putInt(from);
+    stream.putUnsignedNumber(versions.length);
+    for (int i = 0; i < versions.length; ++i) {
+      stream.putUnsignedNumber(versions[i]);
+      stream.putLong(checksums[i]);
+    }
+  }
+
+  @Override
+  public void fromStream(ArcadeDBServer server, final Binary stream) {
+    databaseName = stream.getString();
+    fileId = stream.getInt();
+    from = stream.getInt();
+    final int count = (int) stream.getUnsignedNumber();
+    versions = new long[count];
+    checksums = new long[count];
+    for (int i = 0; i < count; ++i) {
+      versions[i] = stream.getUnsignedNumber();
+      checksums[i] = stream.getLong();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "fileDiff(" + databaseName + "," + fileId + "," + from + "," + versions.length + ")";
+  }
+}
@@ -24,30 +24,39 @@ import com.arcadedb.database.Binary;
 import com.arcadedb.server.ArcadeDBServer;
 import com.arcadedb.server.ha.HAServer;
 
-public class FileContentResponse extends HAAbstractCommand {
-  private Binary  pagesContent;
-  private int     pages;
-  private boolean last;
+public class FileDiffResponse extends HAAbstractCommand {
+  private int    totalPages;
+  private int[]  pageIndexes;
+  private int    pages;
+  private Binary pagesContent;
 
-  public FileContentResponse() {
+  public FileDiffResponse() {
   }
 
-  public FileContentResponse(final Binary pagesContent, final int pages, final boolean last) {
-    this.pagesContent = pagesContent;
+  public FileDiffResponse(final int totalPages, final int[] pageIndexes, final int pages, final Binary pagesContent) {
+    this.totalPages = totalPages;
+    this.pageIndexes = pageIndexes;
     this.pages = pages;
-    this.last = last;
+    this.pagesContent = pagesContent;
   }
 
-  public Binary getPagesContent() {
-    return pagesContent;
+  /**
+   * Returns the number of pages of the file on the leader.
+   */
+  public int getTotalPages() {
+    return totalPages;
   }
 
   public int getPages() {
     return pages;
   }
 
-  public boolean isLast() {
-    return last;
+  public int getPageIndex(final int i) {
+    return pageIndexes[i];
+  }
+
+  public Binary getPagesContent() {
+    return pagesContent;
   }
 
   @Override
@@ -57,20 +66,25 @@ public class FileContentResponse extends HAAbstractCommand {
 
   @Override
   public void toStream(final Binary stream) {
+    stream.putUnsignedNumber(totalPages);
     stream.putUnsignedNumber(pages);
+    for (int i = 0; i < pages; ++i)
+      stream.putUnsignedNumber(pageIndexes[i]);
     stream.putBytes(pagesContent.getContent(), pagesContent.size());
-    stream.putByte((byte) (last ? 1 : 0));
   }
 
   @Override
   public void fromStream(ArcadeDBServer server, final Binary stream) {
+    totalPages = (int) stream.getUnsignedNumber();
     pages = (int) stream.getUnsignedNumber();
+    pageIndexes = new int[pages];
+    for (int i = 0; i < pages; ++i)
+      pageIndexes[i] = (int) stream.getUnsignedNumber();
     pagesContent = new Binary(stream.getBytes());
-    last = stream.getByte() == 1;
   }
 
   @Override
   public String toString() {
-    return "file=" + pages + " pages (" + pagesContent.size() + " bytes)";
+    return "fileDiff=" + pages + "/" + totalPages + " pages (" + pagesContent.size() + " bytes)";
   }
 }
@@ -48,8 +48,8 @@ public class HAMessageFactory {
     registerCommand(DatabaseStructureResponse.class);
     registerCommand(DatabaseChangeStructureRequest.class);
     registerCommand(DatabaseChangeStructureResponse.class);
-    registerCommand(FileContentRequest.class);
-    registerCommand(FileContentResponse.class);
+    registerCommand(FileDiffRequest.class);
+    registerCommand(FileDiffResponse.class);
     registerCommand(TxRequest.class);
     registerCommand(TxResponse.class);
     registerCommand(TxForwardRequest.class);
@@ -59,6 +59,8 @@ public class HAMessageFactory {
     registerCommand(ReplicaReadyRequest.class);
     registerCommand(UpdateClusterConfiguration.class);
     registerCommand(ErrorResponse.class);
+    registerCommand(ReplicationBatchRequest.class);
+    registerCommand(TxBatchResponse.class);
   }
 
   public void serializeCommand(final HACommand command, final Binary buffer, final long messageNumber) {
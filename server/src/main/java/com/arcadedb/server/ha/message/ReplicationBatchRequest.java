@@ -0,0 +1,87 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.server.ha.message;
+
+import com.arcadedb.compression.CompressionFactory;
+import com.arcadedb.database.Binary;
+import com.arcadedb.server.ArcadeDBServer;
+import com.arcadedb.server.ha.HAServer;
+import com.arcadedb.server.ha.ReplicationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sequence of replication messages sent by the Leader to a replica in one frame, compressed with LZ4. The replica unpacks the messages and executes them in
+ * order as if they were received one by one, then acknowledges the transactions of the batch with a {@link TxBatchResponse}.
+ */
+public class ReplicationBatchRequest extends HAAbstractCommand {
+  private List<byte[]> messages;
+
+  public ReplicationBatchRequest() {
+  }
+
+  public ReplicationBatchRequest(final List<Binary> messages) {
+    this.messages = new ArrayList<>(messages.size());
+    for (Binary message : messages)
+      this.messages.add(message.toByteArray());
+  }
+
+  public List<byte[]> getMessages() {
+    return messages;
+  }
+
+  @Override
+  public HACommand execute(final HAServer server, final String remoteServerName, final long messageNumber) {
+    // THE MESSAGES ARE UNPACKED AND EXECUTED BY THE REPLICA CONNECTION
+    throw new ReplicationException("Batch of replication messages cannot be executed directly");
+  }
+
+  @Override
+  public void toStream(final Binary stream) {
+    final Binary content = new Binary();
+    content.putUnsignedNumber(messages.size());
+    for (byte[] message : messages)
+      content.putBytes(message);
+    content.rewind();
+
+    final Binary compressed = CompressionFactory.getDefault().compress(content);
+    stream.putInt(content.size());
+    stream.putBytes(compressed.getContent(), compressed.size());
+  }
+
+  @Override
+  public void fromStream(final ArcadeDBServer server, final Binary stream) {
+    final int uncompressedLength = stream.getInt();
+    final Binary content = CompressionFactory.getDefault().decompress(new Binary(stream.getBytes()), uncompressedLength);
+
+    final int count = (int) content.getUnsignedNumber();
+    messages = new ArrayList<>(count);
+    for (int i = 0; i < count; ++i)
+      messages.add(content.getBytes());
+  }
+
+  @Override
+  public String toString() {
+    return "batch(" + messages.size() + ")";
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.server.ha.message;
+
+import com.arcadedb.database.Binary;
+import com.arcadedb.server.ArcadeDBServer;
+import com.arcadedb.server.ha.HAServer;
+
+/**
+ * Response for a range of consecutive transactions, from the first message number to the message number of the response. This is needed to check the quorum
+ * by the leader.
+ */
+public class TxBatchResponse extends HAAbstractCommand {
+  private long firstMessageNumber;
+
+  public TxBatchResponse() {
+  }
+
+  public TxBatchResponse(final long firstMessageNumber) {
+    this.firstMessageNumber = firstMessageNumber;
+  }
+
+  @Override
+  public HACommand execute(final HAServer server, final String remoteServerName, final long messageNumber) {
+    server.receivedResponses(remoteServerName, firstMessageNumber, messageNumber);
+    return null;
+  }
+
+  @Override
+  public void toStream(final Binary stream) {
+    stream.putLong(firstMessageNumber);
+  }
+
+  @Override
+  public void fromStream(final ArcadeDBServer server, final Binary stream) {
+    firstMessageNumber = stream.getLong();
+  }
+
+  @Override
+  public String toString() {
+    return "tx-batch-response(from=" + firstMessageNumber + ")";
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.server.http;
+
+import com.arcadedb.log.LogManager;
+import com.arcadedb.query.sql.executor.ResultSet;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Server-side cursors opened by HTTP clients to browse large result sets in pages. A cursor is closed when the client closes it, when the result set is
+ * exhausted or after it has been idle for more than the configured timeout. A cursor is bound to the user that opened it: the handlers reject the
+ * requests of the other users.
+ */
+public class HttpCursors {
+  private final Map<String, Cursor> cursors = new ConcurrentHashMap<>();
+  private final long                timeout;
+  private final Timer               timer;
+
+  public static class Cursor {
+    public final     String    id;
+    public final     String    databaseName;
+    public final     String    userName;
+    public final     ResultSet resultSet;
+    public final     int       pageSize;
+    private volatile long      lastAccess;
+
+    private Cursor(final String id, final String databaseName, final String userName, final ResultSet resultSet, final int pageSize) {
+      this.id = id;
+      this.databaseName = databaseName;
+      this.userName = userName;
+      this.resultSet = resultSet;
+      this.pageSize = pageSize;
+      this.lastAccess = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns true if the cursor has been opened by the user, null if the cursor has been opened without authentication.
+     */
+    public boolean isOwnedBy(final String userName) {
+      return Objects.equals(this.userName, userName);
+    }
+  }
+
+  public HttpCursors(final long timeout) {
+    this.timeout = timeout;
+    this.timer = new Timer("ArcadeDB HTTP Cursors", true);
+
+    if (timeout > 0) {
+      final long checkEvery = Math.max(1000, timeout / 2);
+      timer.schedule(new TimerTask() {
+        @Override
+        public void run() {
+          closeExpired();
+        }
+      }, checkEvery, checkEvery);
+    }
+  }
+
+  public Cursor open(final String databaseName, final String userName, final ResultSet resultSet, final int pageSize) {
+    final Cursor cursor = new Cursor(UUID.randomUUID().toString(), databaseName, userName, resultSet, pageSize);
+    cursors.put(cursor.id, cursor);
+    return cursor;
+  }
+
+  /**
+   * Returns the cursor and updates its last access time, or null if it does not exist or it has expired.
+   */
+  public Cursor get(final String id) {
+    final Cursor cursor = cursors.get(id);
+    if (cursor != null)
+      cursor.lastAccess = System.currentTimeMillis();
+    return cursor;
+  }
+
+  public boolean close(final String id) {
+    final Cursor cursor = cursors.remove(id);
+    if (cursor == null)
+      return false;
+
+    close(cursor);
+    return true;
+  }
+
+  public int size() {
+    return cursors.size();
+  }
+
+  public void closeAll() {
+    timer.cancel();
+    for (String id : cursors.keySet())
+      close(id);
+  }
+
+  private void closeExpired() {
+    final long now = System.currentTimeMillis();
+    for (Cursor cursor : cursors.values())
+      if (now - cursor.lastAccess > timeout && cursors.remove(cursor.id, cursor)) {
+        LogManager.instance().log(this, Level.FINE, "Closing expired cursor %s on database '%s'", null, cursor.id, cursor.databaseName);
+        close(cursor);
+      }
+  }
+
+  private void close(final Cursor cursor) {
+    synchronized (cursor) {
+      try {
+        cursor.resultSet.close();
+      } catch (Exception e) {
+        LogManager.instance().log(this, Level.WARNING, "Error on closing cursor %s on database '%s'", e, cursor.id, cursor.databaseName);
+      }
+    }
+  }
+}
@@ -43,6 +43,7 @@ public class HttpServer implements ServerPlugin {
   private       JsonSerializer jsonSerializer = new JsonSerializer();
   private final ArcadeDBServer server;
   private       String         listeningAddress;
+  private       HttpCursors    cursors;
 
   public HttpServer(final ArcadeDBServer server) {
     this.server = server;
@@ -56,6 +57,11 @@ public class HttpServer implements ServerPlugin {
       } catch (Exception e) {
         // IGNORE IT
       }
+
+    if (cursors != null) {
+      cursors.closeAll();
+      cursors = null;
+    }
   }
 
   @Override
@@ -73,18 +79,27 @@ public class HttpServer implements ServerPlugin {
 
     server.log(this, Level.INFO, "- Starting HTTP Server (host=%s port=%d)...", host, port);
 
+    cursors = new HttpCursors(configuration.getValueAsLong(GlobalConfiguration.SERVER_HTTP_CURSOR_TIMEOUT));
+
     final PathHandler routes = new PathHandler();
 
     final RoutingHandler basicRoutes = Handlers.routing();
     routes.addPrefixPath("/api/v1",//
         basicRoutes//
             .post("/command/{database}", new CommandHandler(this))//
+            .post("/cursor/{database}/{cursor}", new CursorHandler(this))//
+            .delete("/cursor/{database}/{cursor}", new CursorHandler(this))//
             .post("/create/{database}", new CreateDatabaseHandler(this))//
             .get("/databases", new GetDatabasesHandler(this))//
             .get("/document/{database}/{rid}", new GetDocumentHandler(this))//
             .post("/document/{database}", new CreateDocumentHandler(this))//
             .post("/drop/{database}", new DropDatabaseHandler(this))//
             .post("/exists/{database}", new ExistsDatabaseHandler(this))//
+            .get("/metrics", new GetMetricsHandler(this))//
+            .get("/prepared/{database}", new PreparedStatementHandler(this))//
+            .post("/prepared/{database}", new PreparedStatementHandler(this))//
+            .post("/prepared/{database}/{statement}", new PreparedStatementHandler(this))//
+            .delete("/prepared/{database}/{statement}", new PreparedStatementHandler(this))//
             .get("/query/{database}/{language}/{command}", new GetQueryHandler(this))//
             .post("/query/{database}", new PostQueryHandler(this))//
             .post("/server", new ServersHandler(this))//
@@ -130,6 +145,10 @@ public class HttpServer implements ServerPlugin {
     return jsonSerializer;
   }
 
+  public HttpCursors getCursors() {
+    return cursors;
+  }
+
   public String getListeningAddress() {
     return listeningAddress;
   }
@@ -33,6 +33,7 @@ import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.util.HeaderValues;
 import io.undertow.util.Headers;
+import io.undertow.util.PathTemplateMatch;
 
 import java.io.IOException;
 import java.util.Base64;
@@ -69,6 +70,18 @@ public abstract class AbstractHandler implements HttpHandler {
 
   @Override
   public void handleRequest(HttpServerExchange exchange) {
+    if (isStreaming()) {
+      if (exchange.isInIoThread()) {
+        // THE RESPONSE IS WRITTEN WITH BLOCKING I/O, SO IT CANNOT RUN IN THE I/O THREAD
+        exchange.dispatch(this);
+        return;
+      }
+      exchange.startBlocking();
+    } else if (mayBlock(exchange) && exchange.isInIoThread()) {
+      exchange.dispatch(this);
+      return;
+    }
+
     LogManager.instance().setContext(httpServer.getServer().getServerName());
 
     try {
@@ -105,7 +118,7 @@ public abstract class AbstractHandler implements HttpHandler {
         user = authenticate(authPair[0], authPair[1]);
       }
 
-      final ServerMetrics.MetricTimer timer = httpServer.getServer().getServerMetrics().timer("http.request");
+      final ServerMetrics.MetricTimer timer = httpServer.getServer().getServerMetrics().timer(getMetricName(exchange));
       try {
         execute(exchange, user);
 
@@ -145,6 +158,31 @@ public abstract class AbstractHandler implements HttpHandler {
     }
   }
 
+  /**
+   * Returns the name of the latency metric of the request: the HTTP method and the matched route template, so the requests of the same endpoint share
+   * the same histogram whatever their parameters are.
+   */
+  protected String getMetricName(final HttpServerExchange exchange) {
+    final PathTemplateMatch match = exchange.getAttachment(PathTemplateMatch.ATTACHMENT_KEY);
+    if (match == null)
+      return "http.request";
+    return "http." + exchange.getRequestMethod() + " " + match.getMatchedTemplate();
+  }
+
+  /**
+   * Returns true if the handler streams the response. Streaming handlers are executed in a worker thread with blocking I/O.
+   */
+  protected boolean isStreaming() {
+    return false;
+  }
+
+  /**
+   * Returns true if the execution of the request can wait for other events, so it must be executed in a worker thread.
+   */
+  protected boolean mayBlock(final HttpServerExchange exchange) {
+    return false;
+  }
+
   public boolean isRequireAuthentication() {
     return requireAuthentication;
   }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.server.http.handler;
+
+import com.arcadedb.database.Database;
+import com.arcadedb.server.http.HttpCursors;
+import com.arcadedb.server.http.HttpServer;
+import com.arcadedb.server.security.ServerSecurity;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Methods;
+
+import java.util.Deque;
+
+/**
+ * Fetches the next page of a cursor opened by a paged query (POST) or closes it (DELETE). Only the user that opened the cursor can use it.
+ */
+public class CursorHandler extends DatabaseAbstractHandler {
+  public CursorHandler(final HttpServer httpServer) {
+    super(httpServer);
+  }
+
+  @Override
+  public void execute(final HttpServerExchange exchange, final ServerSecurity.ServerUser user, final Database database) {
+    final Deque<String> cursorId = exchange.getQueryParameters().get("cursor");
+    if (cursorId == null || cursorId.isEmpty()) {
+      exchange.setStatusCode(400);
+      exchange.getResponseSender().send("{ \"error\" : \"Cursor id is null\"}");
+      return;
+    }
+
+    final HttpCursors cursors = httpServer.getCursors();
+
+    final HttpCursors.Cursor cursor = cursors.get(cursorId.getFirst());
+    if (cursor == null || !cursor.databaseName.equals(database.getName())) {
+      exchange.setStatusCode(404);
+      exchange.getResponseSender().send("{ \"error\" : \"Cursor not found\", \"detail\" : \"Cursor '" + cursorId.getFirst() + "' not found or expired\"}");
+      return;
+    }
+
+    if (!cursor.isOwnedBy(user != null ? user.name : null)) {
+      exchange.setStatusCode(403);
+      exchange.getResponseSender().send("{ \"error\" : \"Security error\", \"detail\" : \"Cursor '" + cursorId.getFirst() + "' is owned by another user\"}");
+      return;
+    }
+
+    if (Methods.DELETE.equals(exchange.getRequestMethod())) {
+      cursors.close(cursor.id);
+      exchange.setStatusCode(200);
+      exchange.getResponseSender().send("{ \"result\" : true }");
+      return;
+    }
+
+    // A CURSOR CAN BE BROWSED BY ONE REQUEST AT A TIME
+    synchronized (cursor) {
+      database.begin();
+      try {
+        sendResultPage(exchange, user, cursor.databaseName, cursor.resultSet, cursor.pageSize, cursor);
+      } finally {
+        database.rollbackAllNested();
+      }
+    }
+  }
+}
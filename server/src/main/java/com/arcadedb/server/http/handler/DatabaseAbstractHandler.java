@@ -21,19 +21,43 @@
 
 package com.arcadedb.server.http.handler;
 
+import com.arcadedb.GlobalConfiguration;
 import com.arcadedb.database.Database;
+import com.arcadedb.exception.DuplicatedKeyException;
+import com.arcadedb.log.LogManager;
+import com.arcadedb.network.binary.ReplicationLagException;
+import com.arcadedb.query.sql.executor.ResultSet;
+import com.arcadedb.remote.RemoteDatabase;
+import com.arcadedb.serializer.JsonSerializer;
+import com.arcadedb.server.ha.HAServer;
+import com.arcadedb.server.http.HttpCursors;
 import com.arcadedb.server.http.HttpServer;
 import com.arcadedb.server.security.ServerSecurity;
 import io.undertow.server.HttpServerExchange;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import io.undertow.util.HttpString;
+import org.json.JSONObject;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
 
 public abstract class DatabaseAbstractHandler extends AbstractHandler {
+  public static final String CONTENT_TYPE_NDJSON = "application/x-ndjson";
+
   public DatabaseAbstractHandler(final HttpServer httpServer) {
     super(httpServer);
   }
 
-  protected abstract void execute(HttpServerExchange exchange, Database database) throws Exception;
+  protected abstract void execute(HttpServerExchange exchange, ServerSecurity.ServerUser user, Database database) throws Exception;
 
   @Override
   public void execute(final HttpServerExchange exchange, ServerSecurity.ServerUser user) throws Exception {
@@ -51,9 +75,18 @@ public abstract class DatabaseAbstractHandler extends AbstractHandler {
     } else
       db = null;
 
+    final HAServer ha = httpServer.getServer().getHA();
+    if (ha != null) {
+      waitForReplication(exchange, ha);
+
+      // THE CLIENT KEEPS THE LAST MESSAGE NUMBER AS READ-AFTER-WRITE TOKEN FOR THE NEXT READS ON THE REPLICAS
+      exchange.addResponseCommitListener(
+          e -> e.getResponseHeaders().put(new HttpString(RemoteDatabase.HEADER_LAST_MESSAGE), ha.getReplicationLogFile().getLastMessageNumber()));
+    }
+
     try {
 
-      execute(exchange, db);
+      execute(exchange, user, db);
 
     } finally {
       if (db != null)
@@ -64,4 +97,207 @@ public abstract class DatabaseAbstractHandler extends AbstractHandler {
   protected boolean openDatabase() {
     return true;
   }
+
+  /**
+   * Returns the parameters as an array if they are ordinal (keys "0", "1", ...), otherwise as a map.
+   */
+  protected Object mapParams(final Map<String, Object> paramMap) {
+    if (paramMap != null) {
+      if (!paramMap.isEmpty() && paramMap.containsKey("0")) {
+        // ORDINAL
+        final Object[] array = new Object[paramMap.size()];
+        for (int i = 0; i < array.length; ++i) {
+          array[i] = paramMap.get("" + i);
+        }
+        return array;
+      }
+    }
+    return Optional.ofNullable(paramMap).orElse(Collections.emptyMap());
+  }
+
+  @Override
+  protected boolean mayBlock(final HttpServerExchange exchange) {
+    return exchange.getRequestHeaders().contains(RemoteDatabase.HEADER_READ_AFTER);
+  }
+
+  /**
+   * Waits until this replica has received the replication message requested by the client with the read-after-write token, so the client reads its own
+   * writes. The leader has all the messages, so it never waits.
+   */
+  private void waitForReplication(final HttpServerExchange exchange, final HAServer ha) throws InterruptedException {
+    final String readAfter = exchange.getRequestHeaders().getFirst(RemoteDatabase.HEADER_READ_AFTER);
+    if (readAfter == null || ha.isLeader())
+      return;
+
+    final long messageNumber = Long.parseLong(readAfter);
+    final long timeout = httpServer.getServer().getConfiguration().getValueAsLong(GlobalConfiguration.HA_READ_CONSISTENCY_TIMEOUT);
+
+    if (!ha.getReplicationLogFile().waitForMessage(messageNumber, timeout))
+      throw new ReplicationLagException(
+          "Server '" + ha.getServerName() + "' did not receive the replication message " + messageNumber + " in " + timeout + "ms (last=" + ha
+              .getReplicationLogFile().getLastMessageNumber() + ")");
+  }
+
+  /**
+   * Returns true if the client asked for newline delimited JSON with the Accept header or with the "format" field of the request.
+   */
+  protected boolean isNDJSON(final HttpServerExchange exchange, final String format) {
+    if (format != null)
+      return "ndjson".equalsIgnoreCase(format);
+
+    final HeaderValues accept = exchange.getRequestHeaders().get(Headers.ACCEPT);
+    if (accept != null)
+      for (String value : accept)
+        if (value.contains(CONTENT_TYPE_NDJSON))
+          return true;
+    return false;
+  }
+
+  /**
+   * Streams the result set of a read-only query to the client with chunked transfer encoding, by committing the transaction at the end. The results
+   * are serialized one by one and written with blocking I/O, so a slow client slows down the browsing of the result set and the heap used is
+   * constant. The first result is fetched before sending the response, so the errors on executing the query are still returned with the HTTP status
+   * code. Errors after the response has been started are appended at the end of the response as "error", "detail" and "exception" fields (or as the
+   * last line with NDJSON). Statements that can modify the database must use {@link #sendCommandResult(HttpServerExchange, Database, ResultSet, boolean)}.
+   */
+  protected void streamResultSet(final HttpServerExchange exchange, final Database database, final ResultSet resultSet, final boolean ndjson)
+      throws IOException {
+    final JsonSerializer serializer = httpServer.getJsonSerializer();
+
+    if (!resultSet.hasNext()) {
+      if (database.isTransactionActive())
+        database.commit();
+
+      exchange.setStatusCode(200);
+      if (ndjson) {
+        exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, CONTENT_TYPE_NDJSON);
+        exchange.getResponseSender().send("");
+      } else
+        exchange.getResponseSender().send("{ \"result\" : [] }");
+      return;
+    }
+
+    exchange.setStatusCode(200);
+    if (ndjson)
+      exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, CONTENT_TYPE_NDJSON);
+
+    final Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getOutputStream(), StandardCharsets.UTF_8), 8192);
+    try {
+      if (!ndjson)
+        writer.write("{ \"result\" : [");
+
+      boolean first = true;
+      Exception error = null;
+      try {
+        while (resultSet.hasNext()) {
+          if (ndjson) {
+            writer.write(serializer.serializeResult(resultSet.next()).toString());
+            writer.write('\n');
+          } else {
+            if (!first)
+              writer.write(',');
+            writer.write(serializer.serializeResult(resultSet.next()).toString());
+          }
+          first = false;
+        }
+
+        if (database.isTransactionActive())
+          database.commit();
+
+      } catch (IOException e) {
+        // CLIENT DISCONNECTED
+        throw e;
+      } catch (Exception e) {
+        LogManager.instance().log(this, Level.SEVERE, "Error on streaming the result of the command (%s)", e, getClass().getSimpleName());
+        error = e;
+      }
+
+      if (ndjson) {
+        if (error != null) {
+          writer.write(getErrorObject(error).toString());
+          writer.write('\n');
+        }
+      } else {
+        writer.write("]");
+        if (error != null) {
+          final JSONObject errorObject = getErrorObject(error);
+          for (String key : errorObject.keySet())
+            writer.write(", " + JSONObject.quote(key) + " : " + JSONObject.quote(errorObject.getString(key)));
+        }
+        writer.write(" }");
+      }
+    } finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * Sends the result set of a statement that can modify the database. The result set is entirely browsed and the transaction is committed before
+   * starting the response, so an error on commit (concurrent modification, duplicated key, quorum not reached, etc.) is returned with the HTTP status
+   * code like any other error.
+   */
+  protected void sendCommandResult(final HttpServerExchange exchange, final Database database, final ResultSet resultSet, final boolean ndjson) {
+    final JsonSerializer serializer = httpServer.getJsonSerializer();
+
+    final StringBuilder result = new StringBuilder();
+    while (resultSet.hasNext()) {
+      if (ndjson) {
+        result.append(serializer.serializeResult(resultSet.next()).toString());
+        result.append('\n');
+      } else {
+        if (result.length() > 0)
+          result.append(',');
+        result.append(serializer.serializeResult(resultSet.next()).toString());
+      }
+    }
+
+    if (database.isTransactionActive())
+      database.commit();
+
+    exchange.setStatusCode(200);
+    if (ndjson) {
+      exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, CONTENT_TYPE_NDJSON);
+      exchange.getResponseSender().send(result.toString());
+    } else
+      exchange.getResponseSender().send("{ \"result\" : [" + result + "] }");
+  }
+
+  /**
+   * Sends the next page of results. If there are more results, the result set is kept open in a server-side cursor and its id is returned in the
+   * "cursor" field, so the client can fetch the next page with the cursor API. The cursor is owned by the user, so no other user can fetch or close it.
+   */
+  protected void sendResultPage(final HttpServerExchange exchange, final ServerSecurity.ServerUser user, final String databaseName,
+      final ResultSet resultSet, final int pageSize, final HttpCursors.Cursor cursor) {
+    final JsonSerializer serializer = httpServer.getJsonSerializer();
+
+    final StringBuilder result = new StringBuilder();
+    for (int i = 0; i < pageSize && resultSet.hasNext(); ++i) {
+      if (i > 0)
+        result.append(',');
+      result.append(serializer.serializeResult(resultSet.next()).toString());
+    }
+
+    String cursorId = null;
+    if (resultSet.hasNext())
+      cursorId = cursor != null ? cursor.id : httpServer.getCursors().open(databaseName, user != null ? user.name : null, resultSet, pageSize).id;
+    else if (cursor != null)
+      httpServer.getCursors().close(cursor.id);
+    else
+      resultSet.close();
+
+    exchange.setStatusCode(200);
+    exchange.getResponseSender().send("{ \"result\" : [" + result + "]" + (cursorId != null ? ", \"cursor\" : \"" + cursorId + "\"" : "") + " }");
+  }
+
+  private JSONObject getErrorObject(final Exception e) {
+    final JSONObject error = new JSONObject();
+    error.put("error", "Cannot execute command");
+    error.put("detail", e.toString());
+    error.put("exception", e.getClass().getName());
+    if (e instanceof DuplicatedKeyException) {
+      final DuplicatedKeyException d = (DuplicatedKeyException) e;
+      error.put("exceptionArg", d.getIndexName() + "|" + d.getKeys() + "|" + d.getCurrentIndexedRID());
+    }
+    return error;
+  }
 }
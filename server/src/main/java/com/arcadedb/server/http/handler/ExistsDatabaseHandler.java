@@ -24,6 +24,7 @@ package com.arcadedb.server.http.handler;
 import com.arcadedb.database.Database;
 import com.arcadedb.server.ArcadeDBServer;
 import com.arcadedb.server.http.HttpServer;
+import com.arcadedb.server.security.ServerSecurity;
 import io.undertow.server.HttpServerExchange;
 
 import java.util.Deque;
@@ -39,7 +40,7 @@ public class ExistsDatabaseHandler extends DatabaseAbstractHandler {
     }
 
     @Override
-    public void execute(final HttpServerExchange exchange, final Database database) {
+    public void execute(final HttpServerExchange exchange, final ServerSecurity.ServerUser user, final Database database) {
         final Deque<String> databaseName = exchange.getQueryParameters().get("database");
         if (databaseName.isEmpty()) {
             exchange.setStatusCode(400);
@@ -25,6 +25,7 @@ import com.arcadedb.database.Database;
 import com.arcadedb.database.Document;
 import com.arcadedb.database.RID;
 import com.arcadedb.server.http.HttpServer;
+import com.arcadedb.server.security.ServerSecurity;
 import io.undertow.server.HttpServerExchange;
 
 import java.util.Deque;
@@ -35,7 +36,7 @@ public class GetDocumentHandler extends DatabaseAbstractHandler {
   }
 
   @Override
-  public void execute(final HttpServerExchange exchange, final Database database) {
+  public void execute(final HttpServerExchange exchange, final ServerSecurity.ServerUser user, final Database database) {
     final Deque<String> rid = exchange.getQueryParameters().get("rid");
     if (rid == null || rid.isEmpty()) {
       exchange.setStatusCode(400);
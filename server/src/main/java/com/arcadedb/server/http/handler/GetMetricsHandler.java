@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.server.http.handler;
+
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.server.http.HttpServer;
+import com.arcadedb.server.security.ServerSecurity;
+import com.arcadedb.utility.LatencyHistogram;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Headers;
+
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Publishes the metrics of the server in the Prometheus text format. The latencies of the HTTP endpoints, of the wire protocols and of the databases
+ * (commit phases, WAL writes and page flushes) are exported as summaries with the most common quantiles. The counters of the databases are exported as
+ * gauges.
+ */
+public class GetMetricsHandler extends AbstractHandler {
+  private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+  public GetMetricsHandler(final HttpServer httpServer) {
+    super(httpServer);
+  }
+
+  @Override
+  protected void execute(final HttpServerExchange exchange, final ServerSecurity.ServerUser user) {
+    final StringBuilder buffer = new StringBuilder(4096);
+
+    final Map<String, LatencyHistogram> serverHistograms = httpServer.getServer().getServerMetrics().getHistograms();
+    if (!serverHistograms.isEmpty()) {
+      writeHeader(buffer, "arcadedb_latency_seconds", "summary", "Latency of the server operations");
+      for (Map.Entry<String, LatencyHistogram> entry : serverHistograms.entrySet())
+        writeSummary(buffer, "arcadedb_latency_seconds", "name=\"" + escape(entry.getKey()) + "\"", entry.getValue());
+    }
+
+    final TreeSet<String> databaseNames = new TreeSet<>(httpServer.getServer().getSecurity().userDatabases(user));
+
+    writeHeader(buffer, "arcadedb_database_latency_seconds", "summary", "Latency of the database operations");
+    for (String databaseName : databaseNames) {
+      final DatabaseInternal database = (DatabaseInternal) httpServer.getServer().getDatabase(databaseName);
+      for (Map.Entry<String, LatencyHistogram> entry : database.getLatencyHistograms().entrySet())
+        writeSummary(buffer, "arcadedb_database_latency_seconds", "database=\"" + escape(databaseName) + "\",name=\"" + entry.getKey() + "\"",
+            entry.getValue());
+    }
+
+    writeHeader(buffer, "arcadedb_database_stats", "gauge", "Counters of the database");
+    for (String databaseName : databaseNames) {
+      final DatabaseInternal database = (DatabaseInternal) httpServer.getServer().getDatabase(databaseName);
+      for (Map.Entry<String, Object> entry : database.getStats().entrySet())
+        if (entry.getValue() instanceof Number)
+          buffer.append("arcadedb_database_stats{database=\"").append(escape(databaseName)).append("\",name=\"").append(entry.getKey()).append("\"} ")
+              .append(entry.getValue()).append('\n');
+    }
+
+    exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "text/plain; version=0.0.4; charset=utf-8");
+    exchange.setStatusCode(200);
+    exchange.getResponseSender().send(buffer.toString());
+  }
+
+  private static void writeHeader(final StringBuilder buffer, final String metric, final String type, final String help) {
+    buffer.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+    buffer.append("# TYPE ").append(metric).append(' ').append(type).append('\n');
+  }
+
+  private static void writeSummary(final StringBuilder buffer, final String metric, final String labels, final LatencyHistogram histogram) {
+    for (double quantile : QUANTILES)
+      buffer.append(metric).append('{').append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+          .append(toSeconds(histogram.getPercentile(quantile * 100))).append('\n');
+
+    buffer.append(metric).append("_sum{").append(labels).append("} ").append(toSeconds(histogram.getTotal())).append('\n');
+    buffer.append(metric).append("_count{").append(labels).append("} ").append(histogram.getCount()).append('\n');
+  }
+
+  private static String toSeconds(final long micros) {
+    return Double.toString(micros / 1_000_000D);
+  }
+
+  private static String escape(final String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
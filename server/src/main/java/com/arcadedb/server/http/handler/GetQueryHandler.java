@@ -25,9 +25,10 @@ import com.arcadedb.database.Database;
 import com.arcadedb.server.ServerMetrics;
 import com.arcadedb.server.http.HttpServer;
 import com.arcadedb.query.sql.executor.ResultSet;
+import com.arcadedb.server.security.ServerSecurity;
 import io.undertow.server.HttpServerExchange;
 
-import java.io.UnsupportedEncodingException;
+import java.io.IOException;
 import java.net.URLDecoder;
 import java.util.Deque;
 
@@ -37,7 +38,7 @@ public class GetQueryHandler extends DatabaseAbstractHandler {
   }
 
   @Override
-  public void execute(final HttpServerExchange exchange, final Database database) throws UnsupportedEncodingException {
+  public void execute(final HttpServerExchange exchange, final ServerSecurity.ServerUser user, final Database database) throws IOException {
     final Deque<String> text = exchange.getQueryParameters().get("command");
     if (text == null || text.isEmpty()) {
       exchange.setStatusCode(400);
@@ -52,8 +53,6 @@ public class GetQueryHandler extends DatabaseAbstractHandler {
       return;
     }
 
-    final StringBuilder result = new StringBuilder();
-
     final ServerMetrics.MetricTimer timer = httpServer.getServer().getServerMetrics().timer("http.query");
 
     database.begin();
@@ -61,18 +60,17 @@ public class GetQueryHandler extends DatabaseAbstractHandler {
 
       final String command = URLDecoder.decode(text.getFirst(), exchange.getRequestCharset());
       final ResultSet qResult = database.query(language.getFirst(), command);
-      while (qResult.hasNext()) {
-        if (result.length() > 0)
-          result.append(",");
-        result.append(httpServer.getJsonSerializer().serializeResult(qResult.next()).toString());
-      }
+
+      streamResultSet(exchange, database, qResult, isNDJSON(exchange, null));
 
     } finally {
       database.rollbackAllNested();
       timer.stop();
     }
+  }
 
-    exchange.setStatusCode(200);
-    exchange.getResponseSender().send("{ \"result\" : [" + result.toString() + "] }");
+  @Override
+  protected boolean isStreaming() {
+    return true;
   }
 }
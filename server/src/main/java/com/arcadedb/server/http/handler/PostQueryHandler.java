@@ -22,18 +22,15 @@
 package com.arcadedb.server.http.handler;
 
 import com.arcadedb.database.Database;
-import com.arcadedb.serializer.JsonSerializer;
 import com.arcadedb.server.ServerMetrics;
 import com.arcadedb.server.http.HttpServer;
 import com.arcadedb.query.sql.executor.ResultSet;
+import com.arcadedb.server.security.ServerSecurity;
 import io.undertow.server.HttpServerExchange;
 import org.json.JSONObject;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 public class PostQueryHandler extends DatabaseAbstractHandler {
   public PostQueryHandler(final HttpServer httpServer) {
@@ -41,7 +38,7 @@ public class PostQueryHandler extends DatabaseAbstractHandler {
   }
 
   @Override
-  public void execute(final HttpServerExchange exchange, final Database database) throws IOException {
+  public void execute(final HttpServerExchange exchange, final ServerSecurity.ServerUser user, final Database database) throws IOException {
 
     final String payload = parseRequestPayload(exchange);
     if (payload == null || payload.isEmpty()) {
@@ -73,15 +70,14 @@ public class PostQueryHandler extends DatabaseAbstractHandler {
 
       final ResultSet qResult = command(database, language, command, paramMap);
 
-      final JsonSerializer serializer = httpServer.getJsonSerializer();
-
-      final String result = qResult.stream().map(r -> serializer.serializeResult(r).toString()).collect(Collectors.joining());
-
-      if (database.isTransactionActive())
-        database.commit();
+      final Object pageSize = requestMap.get("pageSize");
+      if (pageSize instanceof Number && ((Number) pageSize).intValue() > 0) {
+        // PAGED: THE RESULT SET IS KEPT OPEN IN A CURSOR IF THERE ARE MORE RESULTS
+        sendResultPage(exchange, user, exchange.getQueryParameters().get("database").getFirst(), qResult, ((Number) pageSize).intValue(), null);
+        return;
+      }
 
-      exchange.setStatusCode(200);
-      exchange.getResponseSender().send("{ \"result\" : [" + result + "] }");
+      streamResultSet(exchange, database, qResult, isNDJSON(exchange, (String) requestMap.get("format")));
 
     } finally {
       timer.stop();
@@ -90,6 +86,11 @@ public class PostQueryHandler extends DatabaseAbstractHandler {
 
   }
 
+  @Override
+  protected boolean isStreaming() {
+    return true;
+  }
+
   private ResultSet command(Database database, String language, String command, Map<String, Object> paramMap) {
     Object params = mapParams(paramMap);
 
@@ -98,18 +99,4 @@ public class PostQueryHandler extends DatabaseAbstractHandler {
 
     return database.query(language, command, (Map<String, Object>) params);
   }
-
-  private Object mapParams(Map<String, Object> paramMap) {
-    if (paramMap != null) {
-      if (!paramMap.isEmpty() && paramMap.containsKey("0")) {
-        // ORDINAL
-        final Object[] array = new Object[paramMap.size()];
-        for (int i = 0; i < array.length; ++i) {
-          array[i] = paramMap.get("" + i);
-        }
-        return array;
-      }
-    }
-    return Optional.ofNullable(paramMap).orElse(Collections.emptyMap());
-  }
 }
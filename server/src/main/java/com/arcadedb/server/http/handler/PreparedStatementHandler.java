@@ -0,0 +1,141 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.server.http.handler;
+
+import com.arcadedb.database.Database;
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.query.PreparedStatement;
+import com.arcadedb.query.PreparedStatementCache;
+import com.arcadedb.query.sql.executor.ResultSet;
+import com.arcadedb.server.ServerMetrics;
+import com.arcadedb.server.http.HttpServer;
+import com.arcadedb.server.security.ServerSecurity;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Methods;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.Map;
+
+/**
+ * Manages the prepared statements of a database. Without a statement id, POST prepares a statement and returns its id, GET returns the statistics of
+ * all the prepared statements. With a statement id, POST executes the statement with the parameters in the payload and DELETE removes it.
+ */
+public class PreparedStatementHandler extends DatabaseAbstractHandler {
+  public PreparedStatementHandler(final HttpServer httpServer) {
+    super(httpServer);
+  }
+
+  @Override
+  public void execute(final HttpServerExchange exchange, final ServerSecurity.ServerUser user, final Database database) throws IOException {
+    final PreparedStatementCache statements = ((DatabaseInternal) database).getPreparedStatementCache();
+
+    final Deque<String> statementId = exchange.getQueryParameters().get("statement");
+    if (statementId == null || statementId.isEmpty()) {
+      if (Methods.GET.equals(exchange.getRequestMethod())) {
+        final JSONArray result = new JSONArray();
+        for (PreparedStatement statement : statements.getStatements())
+          result.put(new JSONObject(statement.getStats()));
+
+        exchange.setStatusCode(200);
+        exchange.getResponseSender().send(new JSONObject().put("result", result).toString());
+      } else
+        prepare(exchange, statements);
+      return;
+    }
+
+    final PreparedStatement statement;
+    try {
+      statement = statements.get(Long.parseLong(statementId.getFirst()));
+    } catch (NumberFormatException e) {
+      exchange.setStatusCode(400);
+      exchange.getResponseSender().send("{ \"error\" : \"Invalid statement id\"}");
+      return;
+    }
+
+    if (statement == null) {
+      exchange.setStatusCode(404);
+      exchange.getResponseSender()
+          .send("{ \"error\" : \"Statement not found\", \"detail\" : \"Statement '" + statementId.getFirst() + "' not found, prepare it again\"}");
+      return;
+    }
+
+    if (Methods.DELETE.equals(exchange.getRequestMethod())) {
+      statements.remove(statement.getId());
+      exchange.setStatusCode(200);
+      exchange.getResponseSender().send("{ \"result\" : true }");
+      return;
+    }
+
+    final String payload = parseRequestPayload(exchange);
+    final Map<String, Object> requestMap = payload == null || payload.isEmpty() ? null : new JSONObject(payload).toMap();
+    final Object params = mapParams(requestMap != null ? (Map<String, Object>) requestMap.get("params") : null);
+
+    final ServerMetrics.MetricTimer timer = httpServer.getServer().getServerMetrics().timer("http.prepared");
+
+    database.begin();
+    try {
+      final ResultSet resultSet = params instanceof Object[] ? statement.execute((Object[]) params) : statement.execute((Map<String, Object>) params);
+
+      final boolean ndjson = isNDJSON(exchange, requestMap != null ? (String) requestMap.get("format") : null);
+      if (statement.isIdempotent())
+        streamResultSet(exchange, database, resultSet, ndjson);
+      else
+        sendCommandResult(exchange, database, resultSet, ndjson);
+
+    } finally {
+      database.rollbackAllNested();
+      timer.stop();
+    }
+  }
+
+  @Override
+  protected boolean isStreaming() {
+    return true;
+  }
+
+  private void prepare(final HttpServerExchange exchange, final PreparedStatementCache statements) throws IOException {
+    final String payload = parseRequestPayload(exchange);
+    if (payload == null || payload.isEmpty()) {
+      exchange.setStatusCode(400);
+      exchange.getResponseSender().send("{ \"error\" : \"Command text is null\"}");
+      return;
+    }
+
+    final JSONObject json = new JSONObject(payload);
+    final String language = json.has("language") ? json.getString("language") : "sql";
+    final String command = json.has("command") ? json.getString("command") : null;
+
+    if (command == null || command.isEmpty()) {
+      exchange.setStatusCode(400);
+      exchange.getResponseSender().send("{ \"error\" : \"Command text is null\"}");
+      return;
+    }
+
+    final PreparedStatement statement = statements.prepare(language, command);
+
+    exchange.setStatusCode(200);
+    exchange.getResponseSender().send(new JSONObject().put("result", new JSONObject(statement.getStats())).toString());
+  }
+}
@@ -22,6 +22,8 @@
 package com.arcadedb.server;
 
 import com.arcadedb.log.LogManager;
+import com.arcadedb.utility.FileUtils;
+import org.json.JSONObject;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -32,6 +34,7 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Level;
 
 public class HTTPGraphIT extends BaseGraphServerTest {
@@ -138,6 +141,76 @@ public class HTTPGraphIT extends BaseGraphServerTest {
     });
   }
 
+  @Test
+  public void checkQueryStreaming() throws Exception {
+    testEachServer((serverIndex) -> {
+      // JSON
+      HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:248" + serverIndex + "/api/v1/query/graph").openConnection();
+
+      connection.setRequestMethod("POST");
+      connection.setRequestProperty("Authorization",
+          "Basic " + Base64.getEncoder().encodeToString(("root:" + BaseGraphServerTest.DEFAULT_PASSWORD_FOR_TESTS).getBytes()));
+      formatPost(connection, "sql", "select from V2", new HashMap<>());
+      connection.connect();
+
+      final int results;
+      try {
+        final String response = readResponse(connection);
+
+        Assertions.assertEquals(200, connection.getResponseCode());
+
+        results = new JSONObject(response).getJSONArray("result").length();
+        Assertions.assertTrue(results > 1);
+
+      } finally {
+        connection.disconnect();
+      }
+
+      // NDJSON
+      connection = (HttpURLConnection) new URL("http://127.0.0.1:248" + serverIndex + "/api/v1/query/graph").openConnection();
+
+      connection.setRequestMethod("POST");
+      connection.setRequestProperty("Authorization",
+          "Basic " + Base64.getEncoder().encodeToString(("root:" + BaseGraphServerTest.DEFAULT_PASSWORD_FOR_TESTS).getBytes()));
+      connection.setRequestProperty("Accept", "application/x-ndjson");
+      formatPost(connection, "sql", "select from V2", new HashMap<>());
+      connection.connect();
+
+      try {
+        final String response = FileUtils.readStreamAsString(connection.getInputStream(), "UTF-8");
+
+        Assertions.assertEquals(200, connection.getResponseCode());
+        Assertions.assertEquals("application/x-ndjson", connection.getContentType());
+
+        final String[] lines = response.trim().split("\n");
+        Assertions.assertEquals(results, lines.length);
+        for (String line : lines)
+          Assertions.assertTrue(new JSONObject(line).has("name"));
+
+      } finally {
+        connection.disconnect();
+      }
+    });
+  }
+
+  @Test
+  public void checkCommandErrorOnCommit() throws Exception {
+    final HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:2480/api/v1/command/graph").openConnection();
+
+    connection.setRequestMethod("POST");
+    connection.setRequestProperty("Authorization",
+        "Basic " + Base64.getEncoder().encodeToString(("root:" + BaseGraphServerTest.DEFAULT_PASSWORD_FOR_TESTS).getBytes()));
+    // THE UNIQUE KEY IS ALREADY USED: THE RESPONSE IS SENT AFTER THE COMMIT, SO THE ERROR IS RETURNED WITH THE HTTP STATUS
+    formatPost(connection, "sql", "insert into V1 set id = 0", new HashMap<>());
+    connection.connect();
+
+    try {
+      Assertions.assertEquals(503, connection.getResponseCode());
+    } finally {
+      connection.disconnect();
+    }
+  }
+
   @Test
   public void checkCommand() throws Exception {
     testEachServer((serverIndex) -> {
@@ -166,6 +239,87 @@ public class HTTPGraphIT extends BaseGraphServerTest {
     });
   }
 
+  @Test
+  public void checkMetrics() throws Exception {
+    testEachServer((serverIndex) -> {
+      HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:248" + serverIndex + "/api/v1/query/graph").openConnection();
+
+      connection.setRequestMethod("POST");
+      connection.setRequestProperty("Authorization",
+          "Basic " + Base64.getEncoder().encodeToString(("root:" + BaseGraphServerTest.DEFAULT_PASSWORD_FOR_TESTS).getBytes()));
+      formatPost(connection, "sql", "select from V1 limit 1", new HashMap<>());
+      connection.connect();
+
+      try {
+        readResponse(connection);
+        Assertions.assertEquals(200, connection.getResponseCode());
+      } finally {
+        connection.disconnect();
+      }
+
+      connection = (HttpURLConnection) new URL("http://127.0.0.1:248" + serverIndex + "/api/v1/metrics").openConnection();
+
+      connection.setRequestMethod("GET");
+      connection.setRequestProperty("Authorization",
+          "Basic " + Base64.getEncoder().encodeToString(("root:" + BaseGraphServerTest.DEFAULT_PASSWORD_FOR_TESTS).getBytes()));
+      connection.connect();
+
+      try {
+        final String response = readResponse(connection);
+
+        LogManager.instance().log(this, Level.INFO, "Response: ", null, response);
+
+        Assertions.assertEquals(200, connection.getResponseCode());
+        Assertions.assertTrue(connection.getContentType().startsWith("text/plain"));
+        Assertions.assertTrue(response.contains("arcadedb_latency_seconds_count{name=\"http.POST/query/{database}\"}"));
+        Assertions.assertTrue(response.contains("arcadedb_database_latency_seconds_count{database=\"graph\",name=\"txCommit\"}"));
+      } finally {
+        connection.disconnect();
+      }
+    });
+  }
+
+  @Test
+  public void checkPreparedStatement() throws Exception {
+    testEachServer((serverIndex) -> {
+      HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:248" + serverIndex + "/api/v1/prepared/graph").openConnection();
+
+      connection.setRequestMethod("POST");
+      connection.setRequestProperty("Authorization",
+          "Basic " + Base64.getEncoder().encodeToString(("root:" + BaseGraphServerTest.DEFAULT_PASSWORD_FOR_TESTS).getBytes()));
+      formatPost(connection, "sql", "select from V1 where id = :id", null);
+      connection.connect();
+
+      final long statementId;
+      try {
+        final String response = readResponse(connection);
+        Assertions.assertEquals(200, connection.getResponseCode());
+        statementId = new JSONObject(response).getJSONObject("result").getLong("id");
+      } finally {
+        connection.disconnect();
+      }
+
+      connection = (HttpURLConnection) new URL("http://127.0.0.1:248" + serverIndex + "/api/v1/prepared/graph/" + statementId).openConnection();
+
+      connection.setRequestMethod("POST");
+      connection.setRequestProperty("Authorization",
+          "Basic " + Base64.getEncoder().encodeToString(("root:" + BaseGraphServerTest.DEFAULT_PASSWORD_FOR_TESTS).getBytes()));
+      formatPost(connection, null, "", Map.of("id", 0));
+      connection.connect();
+
+      try {
+        final String response = readResponse(connection);
+
+        LogManager.instance().log(this, Level.INFO, "Response: ", null, response);
+
+        Assertions.assertEquals(200, connection.getResponseCode());
+        Assertions.assertTrue(response.contains("V1"));
+      } finally {
+        connection.disconnect();
+      }
+    });
+  }
+
   @Test
   public void checkRecordLoading() throws Exception {
     testEachServer((serverIndex) -> {
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.server;
+
+import com.arcadedb.GlobalConfiguration;
+import com.arcadedb.database.Database;
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.database.RID;
+import com.arcadedb.exception.DuplicatedKeyException;
+import com.arcadedb.exception.RecordNotFoundException;
+import com.arcadedb.exception.SchemaException;
+import com.arcadedb.query.PreparedStatement;
+import com.arcadedb.query.sql.executor.Result;
+import com.arcadedb.query.sql.executor.ResultSet;
+import com.arcadedb.remote.RemoteBinaryDatabase;
+import com.arcadedb.remote.RemoteException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class RemoteBinaryDatabaseIT extends BaseGraphServerTest {
+  private static final int TOTAL = 1000;
+
+  @Override
+  public void setTestConfiguration() {
+    super.setTestConfiguration();
+    GlobalConfiguration.SERVER_PLUGINS.setValue("Binary Protocol:com.arcadedb.server.binary.BinaryProtocolPlugin");
+  }
+
+  @AfterEach
+  @Override
+  public void endTest() {
+    GlobalConfiguration.SERVER_PLUGINS.setValue("");
+    super.endTest();
+  }
+
+  @Test
+  public void queryAndCommand() {
+    final RemoteBinaryDatabase remote = connect();
+    try {
+      final ResultSet inserted = remote.command("sql", "insert into Person set id = ?, name = ?, tags = ?, address = ?", 1, "Jay", Arrays.asList("a", "b"),
+          Map.of("city", "Rome"));
+      final Result record = inserted.next();
+      Assertions.assertFalse(inserted.hasNext());
+      Assertions.assertEquals("Person", record.getProperty("@type"));
+      Assertions.assertTrue(record.getProperty("@rid") instanceof RID);
+
+      final ResultSet resultSet = remote.query("sql", "select from Person where id = :id", Map.of("id", 1));
+      final Result loaded = resultSet.next();
+      Assertions.assertEquals("Jay", loaded.getProperty("name"));
+      Assertions.assertEquals(Arrays.asList("a", "b"), loaded.getProperty("tags"));
+      Assertions.assertEquals("Rome", ((Map<?, ?>) loaded.getProperty("address")).get("city"));
+      Assertions.assertEquals(record.<RID>getProperty("@rid"), loaded.getProperty("@rid"));
+
+      // PROJECTION
+      final Result projection = remote.query("sql", "select count(*) as total from Person").next();
+      Assertions.assertNull(projection.getProperty("@rid"));
+      Assertions.assertEquals(1L, ((Number) projection.getProperty("total")).longValue());
+
+      // LOOKUP BY RID
+      final Result lookup = remote.lookupByRID(record.getProperty("@rid"));
+      Assertions.assertEquals("Jay", lookup.getProperty("name"));
+
+      // EDGES ARE RETURNED AS RIDS
+      final Result vertex = remote.query("sql", "select out() as out from V1").next();
+      Assertions.assertTrue(((List<?>) vertex.getProperty("out")).get(0) instanceof RID);
+
+    } finally {
+      remote.close();
+    }
+  }
+
+  @Test
+  public void errors() {
+    final RemoteBinaryDatabase remote = connect();
+    try {
+      remote.command("sql", "create document type Customer");
+      remote.command("sql", "create property Customer.id integer");
+      remote.command("sql", "create index Customer.id on Customer (id) unique");
+
+      final RID rid = remote.command("sql", "insert into Customer set id = 1").next().getProperty("@rid");
+      Assertions.assertThrows(DuplicatedKeyException.class, () -> remote.command("sql", "insert into Customer set id = 1"));
+      Assertions.assertThrows(RecordNotFoundException.class, () -> remote.lookupByRID(new RID(null, rid.getBucketId(), 1000)));
+      Assertions.assertThrows(SchemaException.class, () -> remote.query("sql", "select from NotExistent"));
+      Assertions.assertThrows(RemoteException.class, () -> remote.query("sql", "selectt from Customer"));
+
+      // THE CONNECTION IS STILL USABLE AFTER THE ERRORS
+      Assertions.assertEquals(1, remote.query("sql", "select from Customer").stream().count());
+    } finally {
+      remote.close();
+    }
+
+    Assertions.assertThrows(RemoteException.class,
+        () -> new RemoteBinaryDatabase("127.0.0.1", RemoteBinaryDatabase.DEFAULT_PORT, getDatabaseName(), "root", "wrongPassword"));
+  }
+
+  @Test
+  public void preparedStatements() {
+    final RemoteBinaryDatabase remote = connect();
+    try {
+      final long insert = remote.prepare("sql", "insert into Person set id = ?, name = ?");
+      final long select = remote.prepare("sql", "select from Person where id = :id");
+
+      // THE SAME TEXT RETURNS THE SAME STATEMENT
+      Assertions.assertEquals(select, remote.prepare("sql", "select from Person where id = :id"));
+
+      for (int i = 0; i < 10; i++)
+        remote.executePrepared(insert, i, "Jay" + i);
+
+      for (int i = 0; i < 10; i++)
+        Assertions.assertEquals("Jay" + i, remote.executePrepared(select, Map.of("id", i)).next().getProperty("name"));
+
+      final PreparedStatement statement = ((DatabaseInternal) getServer(0).getDatabase(getDatabaseName())).getPreparedStatementCache().get(select);
+      Assertions.assertEquals(10, statement.getExecutions());
+
+      Assertions.assertThrows(RemoteException.class, () -> remote.executePrepared(-1));
+    } finally {
+      remote.close();
+    }
+  }
+
+  @Test
+  public void pipelining() throws Exception {
+    final Database database = getServer(0).getDatabase(getDatabaseName());
+    final List<RID> rids = new ArrayList<>();
+    database.transaction((db) -> {
+      for (int i = 0; i < TOTAL; i++)
+        rids.add(db.newDocument("Person").set("id", i).save().getIdentity());
+    });
+
+    final RemoteBinaryDatabase remote = connect();
+    try {
+      // SEND ALL THE REQUESTS BEFORE WAITING FOR THE RESPONSES
+      final List<CompletableFuture<ResultSet>> futures = new ArrayList<>();
+      for (RID rid : rids)
+        futures.add(remote.lookupByRIDAsync(rid));
+
+      for (int i = 0; i < TOTAL; i++)
+        Assertions.assertEquals(i, (int) futures.get(i).get().next().getProperty("id"));
+
+      // CONCURRENT THREADS MULTIPLEXED ON THE POOLED CONNECTIONS
+      final ExecutorService executor = Executors.newFixedThreadPool(8);
+      try {
+        final List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+          final int thread = t;
+          results.add(executor.submit(() -> {
+            int found = 0;
+            for (int i = thread; i < TOTAL; i += 8)
+              if ((int) remote.query("sql", "select from Person where id = ?", i).next().getProperty("id") == i)
+                ++found;
+            return found;
+          }));
+        }
+
+        int total = 0;
+        for (Future<Integer> f : results)
+          total += f.get();
+        Assertions.assertEquals(TOTAL, total);
+      } finally {
+        executor.shutdown();
+      }
+
+      Assertions.assertTrue(remote.getConnections() <= GlobalConfiguration.NETWORK_BINARY_POOL_SIZE.getValueAsInteger());
+    } finally {
+      remote.close();
+    }
+  }
+
+  private RemoteBinaryDatabase connect() {
+    return new RemoteBinaryDatabase("127.0.0.1", RemoteBinaryDatabase.DEFAULT_PORT, getDatabaseName(), "root", BaseGraphServerTest.DEFAULT_PASSWORD_FOR_TESTS);
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.server;
+
+import com.arcadedb.database.Database;
+import com.arcadedb.query.sql.executor.ResultSet;
+import com.arcadedb.remote.RemoteDatabase;
+import com.arcadedb.remote.RemoteResultSet;
+import com.arcadedb.server.http.HttpCursors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+
+public class RemoteDatabaseQueryIT extends BaseGraphServerTest {
+  private static final int TOTAL = 1000;
+
+  @Test
+  public void queryWithCursor() {
+    final Database database = getServer(0).getDatabase(getDatabaseName());
+    database.transaction((db) -> {
+      for (int i = 0; i < TOTAL; i++)
+        db.newDocument("Person").set("id", i).save();
+    });
+
+    final HttpCursors cursors = getServer(0).getHttpServer().getCursors();
+
+    final RemoteDatabase remote = new RemoteDatabase("127.0.0.1", 2480, getDatabaseName(), "root", BaseGraphServerTest.DEFAULT_PASSWORD_FOR_TESTS);
+    remote.setQueryPageSize(100);
+
+    // BROWSE ALL THE PAGES
+    ResultSet resultSet = remote.query("sql", "select from Person");
+    Assertions.assertTrue(resultSet instanceof RemoteResultSet);
+    Assertions.assertNotNull(((RemoteResultSet) resultSet).getCursorId());
+    Assertions.assertEquals(1, cursors.size());
+
+    final Set<Integer> ids = new HashSet<>();
+    while (resultSet.hasNext())
+      Assertions.assertTrue(ids.add(resultSet.next().getProperty("id")));
+    Assertions.assertEquals(TOTAL, ids.size());
+    Assertions.assertEquals(0, cursors.size());
+
+    // CLOSE BEFORE THE END
+    resultSet = remote.query("sql", "select from Person");
+    for (int i = 0; i < 10; i++)
+      resultSet.next();
+    Assertions.assertEquals(1, cursors.size());
+    resultSet.close();
+    Assertions.assertEquals(0, cursors.size());
+    Assertions.assertFalse(resultSet.hasNext());
+
+    // SMALL RESULT SET: NO CURSOR
+    resultSet = remote.query("sql", "select from Person limit 10");
+    Assertions.assertNull(((RemoteResultSet) resultSet).getCursorId());
+    Assertions.assertEquals(10, resultSet.stream().count());
+    Assertions.assertEquals(0, cursors.size());
+
+    // NO PAGING
+    remote.setQueryPageSize(0);
+    Assertions.assertEquals(TOTAL, remote.query("sql", "select from Person").stream().count());
+  }
+
+  @Test
+  public void cursorOwnedByUser() throws Exception {
+    final Database database = getServer(0).getDatabase(getDatabaseName());
+    database.transaction((db) -> {
+      for (int i = 0; i < TOTAL; i++)
+        db.newDocument("Person").set("id", i).save();
+    });
+
+    if (!getServer(0).getSecurity().existsUser("elon"))
+      getServer(0).getSecurity().createUser("elon", "musk", true, null);
+
+    final RemoteDatabase remote = new RemoteDatabase("127.0.0.1", 2480, getDatabaseName(), "root", BaseGraphServerTest.DEFAULT_PASSWORD_FOR_TESTS);
+    remote.setQueryPageSize(100);
+
+    final ResultSet resultSet = remote.query("sql", "select from Person");
+    final String cursorId = ((RemoteResultSet) resultSet).getCursorId();
+    Assertions.assertNotNull(cursorId);
+
+    // ANOTHER USER CANNOT FETCH NOR CLOSE THE CURSOR
+    for (String method : new String[] { "POST", "DELETE" }) {
+      final HttpURLConnection connection = (HttpURLConnection) new URL(
+          "http://127.0.0.1:2480/api/v1/cursor/" + getDatabaseName() + "/" + cursorId).openConnection();
+      connection.setRequestMethod(method);
+      connection.setRequestProperty("Authorization", "Basic " + Base64.getEncoder().encodeToString("elon:musk".getBytes()));
+      try {
+        Assertions.assertEquals(403, connection.getResponseCode());
+      } finally {
+        connection.disconnect();
+      }
+    }
+
+    Assertions.assertEquals(1, getServer(0).getHttpServer().getCursors().size());
+    Assertions.assertEquals(TOTAL, resultSet.stream().count());
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.server.ha;
+
+import com.arcadedb.ContextConfiguration;
+import com.arcadedb.GlobalConfiguration;
+import com.arcadedb.remote.RemoteDatabase;
+import com.arcadedb.server.BaseGraphServerTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ReplicationServerReadScalingIT extends BaseGraphServerTest {
+  private static final int TOTAL = 50;
+
+  @Override
+  protected int getServerCount() {
+    return 3;
+  }
+
+  @Override
+  protected void onServerConfiguration(final ContextConfiguration config) {
+    config.setValue(GlobalConfiguration.HA_READ_CONSISTENCY_TIMEOUT, 1000);
+  }
+
+  @Test
+  public void readYourWritesFromReplicas() {
+    final RemoteDatabase database = new RemoteDatabase("127.0.0.1", 2480, getDatabaseName(), "root", BaseGraphServerTest.DEFAULT_PASSWORD_FOR_TESTS);
+    database.setConnectionStrategy(RemoteDatabase.CONNECTION_STRATEGY.LOAD_BALANCE_READS);
+
+    long lastToken = database.getReadAfterWriteToken();
+    for (int i = 0; i < TOTAL; i++) {
+      database.command("SQL", "insert into Person set id = ?", i);
+
+      Assertions.assertTrue(database.getReadAfterWriteToken() > lastToken);
+      lastToken = database.getReadAfterWriteToken();
+
+      // THE QUERY IS EXECUTED BY A REPLICA THAT WAITS FOR THE LAST WRITE
+      Assertions.assertEquals(i + 1L, countPersons(database));
+    }
+
+    // A TOKEN THE REPLICAS CANNOT REACH MAKES THE QUERY FALL BACK TO THE LEADER
+    database.setReadAfterWriteToken(lastToken + 1000);
+    Assertions.assertEquals(TOTAL, countPersons(database));
+
+    // WITHOUT THE CHECK THE REPLICAS ANSWER IMMEDIATELY
+    database.setMaxReplicationLag(-1);
+    Assertions.assertTrue(countPersons(database) <= TOTAL);
+  }
+
+  private long countPersons(final RemoteDatabase database) {
+    return ((Number) database.query("SQL", "select count(*) as total from Person").next().getProperty("total")).longValue();
+  }
+}
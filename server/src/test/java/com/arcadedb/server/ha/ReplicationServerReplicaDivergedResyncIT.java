@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 Arcade Data Ltd
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.arcadedb.server.ha;
+
+import com.arcadedb.GlobalConfiguration;
+import com.arcadedb.database.Database;
+import com.arcadedb.database.DatabaseFactory;
+import com.arcadedb.database.DatabaseInternal;
+import com.arcadedb.engine.Bucket;
+import com.arcadedb.log.LogManager;
+import com.arcadedb.server.ArcadeDBServer;
+import com.arcadedb.server.BaseGraphServerTest;
+import com.arcadedb.server.TestCallback;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.logging.Level;
+
+/**
+ * Restarts a replica whose database has diverged from the leader's one and has longer files, so the full resync reuses the local files and must
+ * remove the pages past the end of the leader's files.
+ */
+public class ReplicationServerReplicaDivergedResyncIT extends BaseGraphServerTest {
+  private static final int     DIVERGED_VERTICES = 10_000;
+  private volatile     boolean fullResync        = false;
+
+  @Override
+  protected int getServerCount() {
+    return 2;
+  }
+
+  @Override
+  public void setTestConfiguration() {
+    super.setTestConfiguration();
+    GlobalConfiguration.HA_REPLICATION_INCOMING_PORTS.setValue("2424-2500");
+  }
+
+  @Override
+  protected void onBeforeStarting(final ArcadeDBServer server) {
+    if (server.getServerName().equals("ArcadeDB_1"))
+      server.registerTestEventListener(new TestCallback() {
+        @Override
+        public void onEvent(final TYPE type, final Object object, final ArcadeDBServer server) {
+          if (type == TYPE.REPLICA_FULL_RESYNC) {
+            LogManager.instance().log(this, Level.INFO, "TEST: Received full resync request");
+            fullResync = true;
+          }
+        }
+      });
+  }
+
+  @Test
+  public void divergedReplicaIsRealigned() throws Exception {
+    getServer(1).stop();
+
+    // DIVERGE THE REPLICA BY WRITING ON ITS LOCAL DATABASE ONLY: ITS BUCKET FILES BECOME LONGER THAN THE LEADER'S ONES
+    try (Database database = new DatabaseFactory(getDatabasePath(1)).open()) {
+      database.transaction((db) -> {
+        for (int i = 0; i < DIVERGED_VERTICES; ++i)
+          db.newVertex(VERTEX2_TYPE_NAME).set("name", "diverged" + i).save();
+      });
+    }
+
+    // FORCE THE FULL RESYNC BY DELETING THE REPLICATION LOG OF THE REPLICA
+    final File replicationLog = new File("./target/replication/replication_ArcadeDB_1.rlog.0");
+    if (replicationLog.exists())
+      Assertions.assertTrue(replicationLog.delete());
+
+    getServer(1).start();
+
+    for (int retry = 0; retry < 60 && getServer(0).getHA().getOnlineReplicas() < 1; ++retry)
+      Thread.sleep(500);
+
+    Assertions.assertEquals(1, getServer(0).getHA().getOnlineReplicas());
+    Assertions.assertTrue(fullResync);
+
+    final DatabaseInternal leaderDb = (DatabaseInternal) getServerDatabase(0, getDatabaseName());
+    final DatabaseInternal replicaDb = (DatabaseInternal) getServerDatabase(1, getDatabaseName());
+    Assertions.assertEquals(leaderDb.countType(VERTEX2_TYPE_NAME, true), replicaDb.countType(VERTEX2_TYPE_NAME, true));
+
+    // THE STALE PAGES PAST THE END OF THE LEADER'S FILES HAVE BEEN REMOVED
+    for (Bucket bucket : leaderDb.getSchema().getType(VERTEX2_TYPE_NAME).getBuckets(false))
+      Assertions.assertEquals(leaderDb.getFileManager().getFile(bucket.getId()).getSize(),
+          replicaDb.getFileManager().getFile(bucket.getId()).getSize(), "Size of bucket '" + bucket.getName() + "'");
+  }
+}